@@ -16,15 +16,22 @@ import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.Exchange;
 import org.springframework.amqp.core.ExchangeBuilder;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.amqp.support.postprocessor.DelegatingDecompressingPostProcessor;
+import org.springframework.amqp.support.postprocessor.GZipPostProcessor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import org.autocs.core.serializer.Jackson2SmileMessageConverter;
+
 /**
  * RabbitMQ configuration class.
  *
@@ -44,6 +51,12 @@ public class RabbitMQConfig {
     @Value("${spring.rabbitmq.results_routingkey}")
     private String routingKey;
 
+    @Value("${spring.rabbitmq.progress_queue}")
+    private String progressQueue;
+
+    @Value("${spring.rabbitmq.progress_routingkey}")
+    private String progressRoutingKey;
+
     @Value("${spring.rabbitmq.host}")
     String host;
 
@@ -53,6 +66,12 @@ public class RabbitMQConfig {
     @Value("${spring.rabbitmq.password}")
     String password;
 
+    @Value("${spring.rabbitmq.message_format:json}")
+    private String messageFormat;
+
+    @Value("${spring.rabbitmq.compress_messages:false}")
+    private boolean compressMessages;
+
     @Bean
     Queue queue() {
         return new Queue(queue, true);
@@ -72,6 +91,24 @@ public class RabbitMQConfig {
                 .noargs();
     }
 
+    /**
+     * Progress messages are only useful while the scenario is running, so
+     * they are not kept when the broker restarts.
+     */
+    @Bean
+    Queue progressQueue() {
+        return new Queue(progressQueue, false);
+    }
+
+    @Bean
+    Binding progressBinding() {
+        return BindingBuilder
+                .bind(progressQueue())
+                .to(EngineExchange())
+                .with(progressRoutingKey)
+                .noargs();
+    }
+
     @Bean
     CachingConnectionFactory connectionFactory() {
         CachingConnectionFactory cachingConnectionFactory = new CachingConnectionFactory(host);
@@ -80,16 +117,49 @@ public class RabbitMQConfig {
         return cachingConnectionFactory;
     }
 
-    @Bean
-    public MessageConverter jsonMessageConverter() {
+    private MessageConverter jsonMessageConverter() {
         ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
         return new Jackson2JsonMessageConverter(mapper);
     }
 
+    /**
+     * Converter of the received messages, it reads them according to their
+     * content type so both JSON and Smile messages are accepted.
+     */
+    @Bean
+    public MessageConverter messageConverter() {
+        final ContentTypeDelegatingMessageConverter converter = new ContentTypeDelegatingMessageConverter(
+                jsonMessageConverter());
+        converter.addDelegate(Jackson2SmileMessageConverter.CONTENT_TYPE_SMILE, new Jackson2SmileMessageConverter());
+        return converter;
+    }
+
+    /**
+     * Sends the messages in the configured format. The JSON format is the
+     * default, so the consumers which do not support Smile or compressed
+     * messages keep working; Smile and compression must only be enabled once
+     * every consumer decodes them. Compressed messages are marked with a
+     * content encoding header.
+     */
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         final RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
-        rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        rabbitTemplate.setMessageConverter("smile".equalsIgnoreCase(messageFormat)
+                ? new Jackson2SmileMessageConverter()
+                : jsonMessageConverter());
+        if (compressMessages) {
+            rabbitTemplate.setBeforePublishPostProcessors(new GZipPostProcessor());
+        }
         return rabbitTemplate;
     }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        final SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setMessageConverter(messageConverter());
+        factory.setAfterReceivePostProcessors(new DelegatingDecompressingPostProcessor());
+        return factory;
+    }
 }
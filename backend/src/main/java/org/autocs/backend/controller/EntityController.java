@@ -10,15 +10,18 @@
 package org.autocs.backend.controller;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -39,8 +42,9 @@ public class EntityController {
     private EntityService<Entity> entityService;
 
     @GetMapping("/entities/{type}")
-    public List<Entity> list(@PathVariable String type) throws Exception {
-        return entityService.list(type);
+    public ResponseEntity<List<?>> list(@PathVariable String type, @RequestParam Map<String, String> parameters)
+            throws Exception {
+        return EntityPageResponse.of(entityService, type, parameters);
     }
 
     @GetMapping("/entities/{type}/{id}")
@@ -0,0 +1,65 @@
+/*
+ * Title:        Backend Server
+ * Description:  Backend server of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.backend.controller;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import org.autocs.core.model.Entity;
+import org.autocs.core.model.EntityPage;
+import org.autocs.core.model.EntityQuery;
+import org.autocs.core.service.EntityService;
+
+/**
+ * Builds the responses of the entities list endpoints, which return a page
+ * of the entities and the number of entities matching the query in the
+ * {@value #TOTAL_COUNT_HEADER} header
+ *
+ * @author Ibrahem Mouhamad
+ * @since Backend Server 1.0.0
+ */
+
+final class EntityPageResponse {
+
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    private EntityPageResponse() {
+    }
+
+    /**
+     * Lists the entities of a type matching the request parameters.
+     *
+     * @param service    the service of the entities
+     * @param type       the entities type
+     * @param parameters the request parameters
+     * @return the response
+     * @see EntityQuery#fromParameters(Map)
+     */
+    static ResponseEntity<List<?>> of(EntityService<?> service, String type, Map<String, String> parameters)
+            throws IOException {
+        final EntityQuery query;
+        try {
+            query = EntityQuery.fromParameters(parameters);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        final EntityPage<?> page = query.getView() == EntityQuery.View.SUMMARY
+                ? service.listSummaries(type, query)
+                : service.list(type, query);
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(page.total()))
+                .body(page.items());
+    }
+}
@@ -10,20 +10,31 @@
 package org.autocs.backend.controller;
 
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import org.cloudbus.cloudsim.datacenters.DatacenterStateHistoryEntry;
+
+import org.autocs.core.history.HistoryPolicy;
 import org.autocs.core.model.ScenarioRun;
 import org.autocs.core.service.ScenarioRunService;
 import org.autocs.backend.service.MessageService;
+import org.autocs.backend.service.ProgressService;
 
 /**
  * Experiment run endpoint
@@ -41,9 +52,12 @@ public class ScenarioRunController {
     @Autowired
     MessageService messageService;
 
+    @Autowired
+    ProgressService progressService;
+
     @GetMapping("/runs")
-    public List<ScenarioRun> list() throws Exception {
-        return scenarioRunService.list("runs");
+    public ResponseEntity<List<?>> list(@RequestParam Map<String, String> parameters) throws Exception {
+        return EntityPageResponse.of(scenarioRunService, "runs", parameters);
     }
 
     @GetMapping("/runs/{id}")
@@ -51,6 +65,46 @@ public class ScenarioRunController {
         return scenarioRunService.getById("runs", id);
     }
 
+    /*
+     * Gets the state history of a datacenter over a time range, with at most
+     * the given number of points selected by a history policy
+     */
+    @GetMapping("/runs/{id}/metrics/{datacenter}")
+    public List<DatacenterStateHistoryEntry> history(@PathVariable String id, @PathVariable String datacenter,
+            @RequestParam(defaultValue = "0") double from,
+            @RequestParam(defaultValue = "Infinity") double to,
+            @RequestParam(defaultValue = "0") int points,
+            @RequestParam(defaultValue = "LTTB") String policy) throws Exception {
+        try {
+            return scenarioRunService.getHistory(id, datacenter, from, to, points, HistoryPolicy.fromName(policy));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (NoSuchElementException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+    }
+
+    /*
+     * Streams the progress of a running scenario, the stream is closed when
+     * the scenario run finishes
+     */
+    @GetMapping(path = "/runs/{id}/progress", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter progress(@PathVariable String id) throws Exception {
+        // subscribes before checking the run state, so a run finishing in between completes the stream
+        final SseEmitter emitter = progressService.subscribe(id);
+        final ScenarioRun scenarioRun;
+        try {
+            scenarioRun = scenarioRunService.getById("runs", id);
+        } catch (Exception e) {
+            progressService.complete(id);
+            throw e;
+        }
+        if (!Boolean.TRUE.equals(scenarioRun.getIsRunning())) {
+            progressService.complete(id);
+        }
+        return emitter;
+    }
+
     @PostMapping("/runs")
     @ResponseStatus(HttpStatus.CREATED)
     public ScenarioRun create(@RequestBody ScenarioRun newExperimentRun) throws Exception {
@@ -12,6 +12,7 @@ package org.autocs.backend.service;
 import java.io.IOException;
 
 import org.autocs.core.model.ScenarioRun;
+import org.autocs.core.model.ScenarioRunProgress;
 import org.autocs.core.service.ScenarioRunService;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -35,6 +36,9 @@ public class MessageService {
     @Autowired
     private ScenarioRunService scenarioRunService;
 
+    @Autowired
+    private ProgressService progressService;
+
     @Value("${spring.rabbitmq.runs_exchange}")
     private String exchange;
 
@@ -52,5 +56,11 @@ public class MessageService {
         } catch (IOException e) {
             e.printStackTrace();
         }
+        progressService.complete(scenarioRun.getId());
+    }
+
+    @RabbitListener(queues = "${spring.rabbitmq.progress_queue}")
+    public void receiveProgress(ScenarioRunProgress progress) {
+        progressService.publish(progress);
     }
 }
@@ -0,0 +1,121 @@
+/*
+ * Title:        Backend Server
+ * Description:  Backend server of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.backend.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import org.autocs.core.model.ScenarioRunProgress;
+
+/**
+ * Streams the progress of running scenarios to the subscribed clients as
+ * server-sent events
+ *
+ * @author Ibrahem Mouhamad
+ * @since Backend Server 1.0.0
+ */
+
+@Service
+public class ProgressService {
+
+    /**
+     * The subscribed clients, indexed by the scenario run id.
+     */
+    private final Map<String, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    /**
+     * The time (in milliseconds) after which a stream is closed if the
+     * scenario run has not finished, so the streams of the runs which never
+     * finish are not kept forever.
+     */
+    @Value("${progress.timeout:1800000}")
+    private long timeout;
+
+    /**
+     * Subscribes a client to the progress of a scenario run. The caller must
+     * check the run is still running after subscribing, and
+     * {@link #complete(String) complete} it otherwise, as the run may finish
+     * in between.
+     *
+     * @param runId the id of the scenario run
+     * @return the stream of the client
+     */
+    public SseEmitter subscribe(String runId) {
+        // the stream is kept open until the scenario run finishes or the timeout
+        final SseEmitter emitter = new SseEmitter(timeout);
+        // the emitter is added atomically with respect to complete(), which removes the list
+        emitters.compute(runId, (id, runEmitters) -> {
+            final List<SseEmitter> list = runEmitters != null ? runEmitters : new CopyOnWriteArrayList<>();
+            list.add(emitter);
+            return list;
+        });
+        emitter.onCompletion(() -> unsubscribe(runId, emitter));
+        emitter.onTimeout(() -> {
+            unsubscribe(runId, emitter);
+            emitter.complete();
+        });
+        emitter.onError(error -> unsubscribe(runId, emitter));
+        return emitter;
+    }
+
+    /**
+     * Removes the stream of a client, and the list of streams of the scenario
+     * run once it is empty.
+     */
+    private void unsubscribe(String runId, SseEmitter emitter) {
+        emitters.computeIfPresent(runId, (id, runEmitters) -> {
+            runEmitters.remove(emitter);
+            return runEmitters.isEmpty() ? null : runEmitters;
+        });
+    }
+
+    public void publish(ScenarioRunProgress progress) {
+        final List<SseEmitter> runEmitters = emitters.get(progress.getRunId());
+        if (runEmitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : runEmitters) {
+            try {
+                emitter.send(SseEmitter.event().name("progress").data(progress));
+            } catch (IOException e) {
+                unsubscribe(progress.getRunId(), emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    /**
+     * Notifies the subscribed clients that the scenario run has finished and
+     * closes their streams.
+     *
+     * @param runId the id of the finished scenario run
+     */
+    public void complete(String runId) {
+        final List<SseEmitter> runEmitters = emitters.remove(runId);
+        if (runEmitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : runEmitters) {
+            try {
+                emitter.send(SseEmitter.event().name("finished").data(runId));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -18,6 +18,8 @@ import org.springframework.stereotype.Component;
 @ConfigurationProperties(prefix = "storage")
 public class StorageProperties {
 
+    public static final String RUNS_COLLECTION = "runs";
+
     private String basePath;
     private String dataDirectory;
     private String configurationDirectory;
@@ -26,6 +28,22 @@ public class StorageProperties {
     private String scenarioDirectory;
     private String runDirectory;
 
+    /**
+     * The storage backend of the entities, either file or log.
+     */
+    private String backend = "file";
+
+    /**
+     * The log file of the log storage backend.
+     */
+    private String logFile;
+
+    /**
+     * The maximum size (in bytes) of the entity files cached for each entity
+     * type.
+     */
+    private long cacheSize = 64L * 1024 * 1024;
+
     public String getBasePath() {
         return basePath;
     }
@@ -60,6 +78,35 @@ public class StorageProperties {
         return this.runDirectory;
     }
 
+    public String getBackend() {
+        return backend;
+    }
+
+    public String getLogFile() {
+        return logFile;
+    }
+
+    /**
+     * Gets the directory of the entities of a collection, where the runs are
+     * stored in the runs directory and the other entities in the entities
+     * directory.
+     *
+     * @param collection the entities collection
+     * @return the path of the directory
+     */
+    public String getCollectionDirectory(String collection) {
+        if (RUNS_COLLECTION.equals(collection)) {
+            return this.getRunDirectory();
+        }
+        final String directory = this.getEntityDirectory() + File.separator + collection;
+        this.createFolder(directory);
+        return directory;
+    }
+
+    public long getCacheSize() {
+        return cacheSize;
+    }
+
     public void setBasePath(String basePath) {
         this.basePath = basePath;
     }
@@ -88,10 +135,22 @@ public class StorageProperties {
         this.runDirectory = runDirectory;
     }
 
+    public void setBackend(String backend) {
+        this.backend = backend;
+    }
+
+    public void setLogFile(String logFile) {
+        this.logFile = logFile;
+    }
+
+    public void setCacheSize(long cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
     public void createFolder(String path) {
         File directory = new File(path);
         if (!directory.exists()) {
-            directory.mkdir();
+            directory.mkdirs();
         }
     }
 
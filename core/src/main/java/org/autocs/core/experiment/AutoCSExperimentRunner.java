@@ -9,32 +9,181 @@
 
 package org.autocs.core.experiment;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 import org.cloudsimplus.testbeds.ExperimentRunner;
+import org.cloudbus.cloudsim.datacenters.Datacenter;
 import org.cloudbus.cloudsim.datacenters.DatacenterSimple;
+import org.cloudbus.cloudsim.datacenters.DatacenterStateHistoryEntry;
 import org.autocs.core.metrics.Metrics;
+import org.autocs.core.metrics.MetricsAggregator;
 import org.autocs.core.model.ScenarioRun;
+import org.autocs.core.model.ScenarioRunProgress;
 
 public class AutoCSExperimentRunner extends ExperimentRunner<AutoCSExperiment> {
 
     private final ScenarioRun scenarioRun;
 
+    /**
+     * The number of experiments that may run at the same time.
+     */
+    private final int parallelism;
+
+    /**
+     * Metrics of finished experiments waiting for the experiments with a lower
+     * index to finish, so they are merged in run-index order. Only the last
+     * experiment keeps its datacenters history here, since the aggregate keeps
+     * the history of the last merged experiment.
+     */
+    private final Map<Integer, Metrics> pendingMetrics = new HashMap<>();
+
+    /**
+     * The index of the next experiment whose metrics should be merged.
+     */
+    private int nextMetricsIndex;
+
+    /**
+     * Aggregates the metrics of all finished experiments.
+     */
+    private final MetricsAggregator metricsAggregator = new MetricsAggregator();
+
+    /**
+     * Receives the progress of the running experiments, or null when the
+     * progress is not reported.
+     */
+    private Consumer<ScenarioRunProgress> progressListener;
+
+    /**
+     * The minimum wall-clock time (in nanoseconds) between two progress
+     * messages of running experiments.
+     */
+    private long progressInterval;
+
+    /**
+     * The wall-clock time of the last progress message.
+     */
+    private volatile long lastProgressTime;
+
+    /**
+     * The number of processed events when the last progress message was sent.
+     */
+    private long lastProcessedEvents;
+
+    private final LongAdder processedEvents = new LongAdder();
+
+    private final AtomicInteger finishedExperiments = new AtomicInteger();
+
+    /**
+     * The time of the last history entry of each datacenter already reported
+     * by every running experiment, indexed by the experiment index. The time
+     * is kept instead of the number of entries since the history may be
+     * downsampled.
+     */
+    private final Map<Integer, Map<String, Double>> reportedHistoryTimes = new HashMap<>();
+
     public AutoCSExperimentRunner(final long baseSeed, final ScenarioRun scenarioRun) {
-        super(baseSeed, (int) scenarioRun.getProperties().get("numberOfRuns"));
+        this(baseSeed, scenarioRun, 1);
+    }
+
+    /**
+     * Creates a runner that executes the experiments on a bounded worker pool.
+     *
+     * @param baseSeed          the seed of the first experiment
+     * @param scenarioRun       the scenario run to execute
+     * @param maxParallelism    the maximum number of experiments the engine
+     *                          allows to run at the same time, where values
+     *                          lower than 1 mean the number of available
+     *                          processors
+     */
+    public AutoCSExperimentRunner(final long baseSeed, final ScenarioRun scenarioRun, final int maxParallelism) {
+        // experiments are always created from the worker threads, so the seeds list
+        // has to be synchronized
+        super(baseSeed, (int) scenarioRun.getProperties().get("numberOfRuns"), false, true);
         this.scenarioRun = scenarioRun;
+        this.parallelism = resolveParallelism(maxParallelism);
+    }
+
+    /**
+     * Gets the number of workers used to run the experiments, which is the
+     * parallelism requested by the scenario run (if any) bounded by the engine
+     * limit and by the number of runs.
+     */
+    private int resolveParallelism(final int maxParallelism) {
+        final int engineParallelism = maxParallelism > 0 ? maxParallelism : Runtime.getRuntime().availableProcessors();
+        final Object runParallelism = this.scenarioRun.getProperties().get("parallelism");
+        int requested = engineParallelism;
+        if (runParallelism instanceof Number number && number.intValue() > 0) {
+            requested = Math.min(number.intValue(), engineParallelism);
+        }
+        return Math.max(1, Math.min(requested, getSimulationRuns()));
     }
 
     @Override
     protected AutoCSExperiment createExperimentInternal(int index) {
         AutoCSExperiment exp = new AutoCSExperiment(index, this, scenarioRun.getScenario());
         exp.setAfterExperimentFinish(this::afterExperimentFinish);
+        if (this.progressListener != null) {
+            // both listeners are called from the thread running the experiment
+            exp.getSimulation().addOnEventProcessingListener(event -> this.processedEvents.increment());
+            exp.getSimulation().addOnClockTickListener(info -> publishProgress(exp, false));
+        }
         return exp;
     }
 
+    /**
+     * Sets a listener to be notified about the progress of the running
+     * experiments. The listener is notified when an experiment finishes and,
+     * at most once per interval, when the clock of a running experiment
+     * advances.
+     *
+     * @param progressListener the listener to notify
+     * @param intervalMillis   the minimum time (in milliseconds) between two
+     *                         progress messages of running experiments
+     * @return this runner
+     */
+    public AutoCSExperimentRunner setProgressListener(final Consumer<ScenarioRunProgress> progressListener,
+            final long intervalMillis) {
+        this.progressListener = progressListener;
+        this.progressInterval = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        return this;
+    }
+
+    /**
+     * Runs every experiment on a worker pool of {@link #getParallelism()}
+     * threads. Each experiment is created by the worker that runs it, so only
+     * the running experiments are kept in memory.
+     */
     @Override
     public void run() {
-        super.run();
+        printSimulationParameters();
+        this.lastProgressTime = System.nanoTime();
+        final ExecutorService executor = Executors.newFixedThreadPool(this.parallelism);
+        try {
+            final List<Future<?>> futures = IntStream.range(0, getSimulationRuns())
+                    .<Future<?>>mapToObj(index -> executor.submit(() -> createExperimentInternal(index).run()))
+                    .toList();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Experiments execution was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("An experiment failed to run", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
         this.scenarioRun.setIsRunning(false);
     }
 
@@ -47,11 +196,92 @@ public class AutoCSExperimentRunner extends ExperimentRunner<AutoCSExperiment> {
      */
     @SuppressWarnings("unchecked")
     protected void afterExperimentFinish(AutoCSExperiment exp) {
-        this.scenarioRun.setMetrics(new Metrics((List<DatacenterSimple>) (List<?>) exp.getDatacenterList()));
+        this.finishedExperiments.incrementAndGet();
+        if (this.progressListener != null) {
+            publishProgress(exp, true);
+        }
+        final Metrics metrics = new Metrics((List<DatacenterSimple>) (List<?>) exp.getDatacenterList());
+        synchronized (this.pendingMetrics) {
+            if (exp.getIndex() != this.nextMetricsIndex && exp.getIndex() != getSimulationRuns() - 1) {
+                metrics.getDatacentersMetrics().forEach(datacenterMetrics -> datacenterMetrics.setHistory(null));
+            }
+            this.pendingMetrics.put(exp.getIndex(), metrics);
+            while (this.pendingMetrics.containsKey(this.nextMetricsIndex)) {
+                mergeMetrics(this.pendingMetrics.remove(this.nextMetricsIndex++));
+            }
+        }
+    }
+
+    /**
+     * Merges the metrics of a finished experiment into the scenario run
+     * aggregated metrics. Experiments metrics are always merged in run-index
+     * order, whatever the order they finish in, so the aggregate is
+     * reproducible.
+     *
+     * @param metrics the metrics of the next finished experiment
+     */
+    protected void mergeMetrics(Metrics metrics) {
+        this.scenarioRun.setMetrics(this.metricsAggregator.add(metrics));
+    }
+
+    /**
+     * Notifies the progress listener about the progress of an experiment. It
+     * must be called from the thread running the experiment, since the
+     * datacenters history is not thread-safe.
+     *
+     * @param exp      the experiment that made progress
+     * @param finished whether the experiment has finished, so its progress is
+     *                 always reported
+     */
+    private void publishProgress(final AutoCSExperiment exp, final boolean finished) {
+        if (!finished && System.nanoTime() - this.lastProgressTime < this.progressInterval) {
+            return;
+        }
+        final ScenarioRunProgress progress;
+        synchronized (this.reportedHistoryTimes) {
+            final long now = System.nanoTime();
+            if (!finished && now - this.lastProgressTime < this.progressInterval) {
+                return;
+            }
+            final long events = this.processedEvents.sum();
+            final double elapsedSeconds = (now - this.lastProgressTime) / 1e9;
+            progress = new ScenarioRunProgress();
+            progress.setRunId(this.scenarioRun.getId());
+            progress.setRunsNumber(getSimulationRuns());
+            progress.setFinishedRuns(this.finishedExperiments.get());
+            progress.setExperimentIndex(exp.getIndex());
+            progress.setClock(exp.getSimulation().clock());
+            progress.setEventsPerSecond(elapsedSeconds > 0 ? (events - this.lastProcessedEvents) / elapsedSeconds : 0);
+            final Map<String, Double> reportedTimes = finished
+                    ? this.reportedHistoryTimes.remove(exp.getIndex())
+                    : this.reportedHistoryTimes.computeIfAbsent(exp.getIndex(), index -> new HashMap<>());
+            for (Datacenter datacenter : exp.getDatacenterList()) {
+                final List<DatacenterStateHistoryEntry> history = datacenter.getStateHistory();
+                // the last reported entry is sent again since it is replaced
+                // when a new state is recorded at the same time
+                final Double reportedTime = reportedTimes == null ? null : reportedTimes.get(datacenter.getName());
+                int from = history.size();
+                while (from > 0 && (reportedTime == null || history.get(from - 1).time() >= reportedTime)) {
+                    from--;
+                }
+                progress.getDatacentersHistory().put(datacenter.getName(), List.copyOf(history.subList(from, history.size())));
+                if (!finished && !history.isEmpty()) {
+                    reportedTimes.put(datacenter.getName(), history.get(history.size() - 1).time());
+                }
+            }
+            this.lastProgressTime = now;
+            this.lastProcessedEvents = events;
+        }
+        this.progressListener.accept(progress);
+    }
+
+    public int getParallelism() {
+        return parallelism;
     }
 
     @Override
     protected void printSimulationParameters() {
-        System.out.printf("Executing %d experiments. Please wait ... It may take a while.%n", getSimulationRuns());
+        System.out.printf("Executing %d experiments using %d workers. Please wait ... It may take a while.%n",
+                getSimulationRuns(), this.parallelism);
     }
 }
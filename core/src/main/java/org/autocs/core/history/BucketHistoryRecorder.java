@@ -0,0 +1,135 @@
+/*
+ * Title:        Core Package
+ * Description:  Core package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.history;
+
+import java.util.Arrays;
+
+/**
+ * Splits the simulation time into fixed buckets and keeps one entry per
+ * bucket, related to the bucket start time. Gauges are averaged over the time
+ * each state lasted in the bucket, while counters are summed.
+ *
+ * <p>
+ * A bucket without any recorded state is only added once after a kept
+ * bucket, holding the last state, so long idle periods do not fill the
+ * history with identical entries.
+ * </p>
+ *
+ * @author Ibrahem Mouhamad
+ * @since Core Package 1.0.0
+ */
+
+public class BucketHistoryRecorder extends HistoryRecorder {
+
+    private final double width;
+
+    private double bucketStart;
+
+    /**
+     * The last recorded state, which lasts until the next one.
+     */
+    private double[] last;
+    private double lastTime;
+
+    /**
+     * The sum of every gauge weighted by the time its states lasted in the
+     * bucket, and that time.
+     */
+    private final double[] weightedSums;
+    private double coveredTime;
+
+    private final double[] counters;
+
+    public BucketHistoryRecorder(final HistorySink sink, final Aggregation[] aggregations, final double width) {
+        super(sink, aggregations);
+        if (width <= 0) {
+            throw new IllegalArgumentException("The history bucket width must be greater than 0");
+        }
+        this.width = width;
+        this.weightedSums = new double[aggregations.length];
+        this.counters = new double[aggregations.length];
+    }
+
+    @Override
+    public void record(final double time, final double[] values) {
+        if (last == null) {
+            bucketStart = bucketStartOf(time);
+            lastTime = time;
+        } else if (time >= bucketStart + width) {
+            closeBucket(bucketStart + width);
+            if (time >= bucketStart + width) {
+                // skipped buckets keep the last state
+                emit(bucketStart, withCounters(last, counters));
+                bucketStart = bucketStartOf(time);
+                lastTime = bucketStart;
+            }
+            accumulate(time);
+        } else {
+            accumulate(time);
+        }
+        last = Arrays.copyOf(values, values.length);
+        addCounters(counters, values);
+    }
+
+    @Override
+    public void flush() {
+        if (last == null) {
+            return;
+        }
+        emit(bucketStart, bucketValues());
+        resetBucket();
+        last = null;
+    }
+
+    private void closeBucket(final double bucketEnd) {
+        accumulate(bucketEnd);
+        emit(bucketStart, bucketValues());
+        resetBucket();
+        bucketStart = bucketEnd;
+    }
+
+    /**
+     * Adds the time the last state lasted until a given time.
+     */
+    private void accumulate(final double time) {
+        final double duration = time - lastTime;
+        if (duration > 0) {
+            for (int i = 0; i < last.length; i++) {
+                if (!isCounter(i)) {
+                    weightedSums[i] += last[i] * duration;
+                }
+            }
+            coveredTime += duration;
+        }
+        lastTime = time;
+    }
+
+    private double[] bucketValues() {
+        final double[] values = withCounters(last, counters);
+        if (coveredTime > 0) {
+            for (int i = 0; i < values.length; i++) {
+                if (!isCounter(i)) {
+                    values[i] = weightedSums[i] / coveredTime;
+                }
+            }
+        }
+        return values;
+    }
+
+    private void resetBucket() {
+        Arrays.fill(weightedSums, 0);
+        Arrays.fill(counters, 0);
+        coveredTime = 0;
+    }
+
+    private double bucketStartOf(final double time) {
+        return Math.floor(time / width) * width;
+    }
+}
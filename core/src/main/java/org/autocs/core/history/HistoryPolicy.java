@@ -0,0 +1,89 @@
+/*
+ * Title:        Core Package
+ * Description:  Core package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.history;
+
+import org.autocs.core.history.HistoryRecorder.Aggregation;
+
+/**
+ * The policies to record the state history of simulation entities, as named
+ * in the scenario properties
+ *
+ * @author Ibrahem Mouhamad
+ * @since Core Package 1.0.0
+ */
+
+public enum HistoryPolicy {
+    /**
+     * Keeps the states recorded at least the interval after the previous kept
+     * state.
+     */
+    INTERVAL("Interval"),
+    /**
+     * Keeps the average state of every interval long bucket.
+     */
+    BUCKETS("Buckets"),
+    /**
+     * Keeps the most significant state of every interval long bucket.
+     */
+    LTTB("LTTB"),
+    /**
+     * Keeps the minimum and the maximum states of every interval long bucket.
+     */
+    MIN_MAX("MinMax");
+
+    private final String name;
+
+    HistoryPolicy(final String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets a policy by its name.
+     *
+     * @param name the policy name, where null means the {@link #INTERVAL}
+     *             policy
+     * @return the policy
+     */
+    public static HistoryPolicy fromName(final String name) {
+        if (name == null) {
+            return INTERVAL;
+        }
+        for (HistoryPolicy policy : values()) {
+            if (policy.name.equalsIgnoreCase(name)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown history policy: " + name);
+    }
+
+    /**
+     * Creates a recorder following this policy.
+     *
+     * @param sink         the history to add the kept states to
+     * @param aggregations how the values of every state field are aggregated
+     * @param interval     the interval (or the bucket width) in seconds
+     * @param primaryField the index of the field used to select the states to
+     *                     keep, by the policies that select states
+     * @return the new recorder
+     */
+    public HistoryRecorder newRecorder(final HistorySink sink, final Aggregation[] aggregations,
+            final double interval, final int primaryField) {
+        return switch (this) {
+            case INTERVAL -> new IntervalHistoryRecorder(sink, aggregations, interval);
+            case BUCKETS -> new BucketHistoryRecorder(sink, aggregations, interval);
+            case LTTB -> new LttbHistoryRecorder(sink, aggregations, interval, primaryField);
+            case MIN_MAX -> new MinMaxHistoryRecorder(sink, aggregations, interval, primaryField);
+        };
+    }
+}
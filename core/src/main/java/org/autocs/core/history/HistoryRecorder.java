@@ -0,0 +1,115 @@
+/*
+ * Title:        Core Package
+ * Description:  Core package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.history;
+
+import java.util.Arrays;
+
+/**
+ * Decides which states of a simulation entity are kept in its state history.
+ * The entity records its state every time it changes and the recorder adds
+ * the entries to keep to a {@link HistorySink}, so the history size depends
+ * on the recording policy instead of the number of events.
+ *
+ * <p>
+ * Every field is either a gauge, a value measured at the state time, or a
+ * counter, an amount accumulated since the previous state. Counters of the
+ * dropped states are added to the next kept entry, so their totals are never
+ * lost.
+ * </p>
+ *
+ * @author Ibrahem Mouhamad
+ * @since Core Package 1.0.0
+ */
+
+public abstract class HistoryRecorder {
+
+    /**
+     * How the values of a field are aggregated.
+     */
+    public enum Aggregation {
+        GAUGE,
+        COUNTER
+    }
+
+    private final HistorySink sink;
+
+    private final Aggregation[] aggregations;
+
+    protected HistoryRecorder(final HistorySink sink, final Aggregation[] aggregations) {
+        this.sink = sink;
+        this.aggregations = aggregations.clone();
+    }
+
+    /**
+     * Records the state of the entity. States must be recorded in time order.
+     *
+     * @param time   the time of the state
+     * @param values the values of the state fields
+     */
+    public abstract void record(double time, double[] values);
+
+    /**
+     * Adds the states still pending to the history. It is called when the
+     * simulation ends.
+     */
+    public abstract void flush();
+
+    protected void emit(final double time, final double[] values) {
+        sink.add(time, values);
+    }
+
+    protected boolean isCounter(final int field) {
+        return aggregations[field] == Aggregation.COUNTER;
+    }
+
+    protected int fieldsNumber() {
+        return aggregations.length;
+    }
+
+    /**
+     * Adds the counters of some values to the counters of other values.
+     *
+     * @param target the values to add the counters to
+     * @param source the values to add
+     */
+    protected void addCounters(final double[] target, final double[] source) {
+        for (int i = 0; i < aggregations.length; i++) {
+            if (isCounter(i)) {
+                target[i] += source[i];
+            }
+        }
+    }
+
+    /**
+     * Gets a copy of some values with their counters replaced.
+     *
+     * @param values   the values to copy
+     * @param counters the counters to use
+     * @return the new values
+     */
+    protected double[] withCounters(final double[] values, final double[] counters) {
+        final double[] copy = Arrays.copyOf(values, values.length);
+        for (int i = 0; i < aggregations.length; i++) {
+            if (isCounter(i)) {
+                copy[i] = counters[i];
+            }
+        }
+        return copy;
+    }
+
+    protected static boolean hasAny(final double[] counters) {
+        for (double counter : counters) {
+            if (counter != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Title:        Core Package
+ * Description:  Core package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.history;
+
+/**
+ * Receives the state history entries kept by a {@link HistoryRecorder}
+ *
+ * @author Ibrahem Mouhamad
+ * @since Core Package 1.0.0
+ */
+
+@FunctionalInterface
+public interface HistorySink {
+
+    /**
+     * Adds a state history entry.
+     *
+     * @param time   the time the entry is related to
+     * @param values the values of the entry fields
+     */
+    void add(double time, double[] values);
+}
@@ -0,0 +1,88 @@
+/*
+ * Title:        Core Package
+ * Description:  Core package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.history;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the states recorded at least a minimum interval after the previous
+ * kept state. When several states are recorded at the same time, only the
+ * last one is kept.
+ *
+ * @author Ibrahem Mouhamad
+ * @since Core Package 1.0.0
+ */
+
+public class IntervalHistoryRecorder extends HistoryRecorder {
+
+    private final double interval;
+
+    /**
+     * The state waiting for the states recorded at the same time.
+     */
+    private double[] pending;
+    private double pendingTime;
+
+    private double lastKeptTime = Double.NaN;
+
+    /**
+     * The last dropped state and the counters of the dropped states since the
+     * last kept one.
+     */
+    private double[] dropped;
+    private double droppedTime;
+    private final double[] droppedCounters;
+
+    public IntervalHistoryRecorder(final HistorySink sink, final Aggregation[] aggregations, final double interval) {
+        super(sink, aggregations);
+        this.interval = interval;
+        this.droppedCounters = new double[aggregations.length];
+    }
+
+    @Override
+    public void record(final double time, final double[] values) {
+        if (pending != null && time == pendingTime) {
+            for (int i = 0; i < values.length; i++) {
+                pending[i] = isCounter(i) ? pending[i] + values[i] : values[i];
+            }
+            return;
+        }
+        if (pending != null) {
+            emit(pendingTime, pending);
+            lastKeptTime = pendingTime;
+            pending = null;
+        }
+        if (!Double.isNaN(lastKeptTime) && time - lastKeptTime < interval) {
+            addCounters(droppedCounters, values);
+            dropped = values;
+            droppedTime = time;
+            return;
+        }
+        pending = Arrays.copyOf(values, values.length);
+        pendingTime = time;
+        addCounters(pending, droppedCounters);
+        Arrays.fill(droppedCounters, 0);
+        dropped = null;
+    }
+
+    @Override
+    public void flush() {
+        if (pending != null) {
+            emit(pendingTime, pending);
+            lastKeptTime = pendingTime;
+            pending = null;
+        } else if (dropped != null && hasAny(droppedCounters)) {
+            emit(droppedTime, withCounters(dropped, droppedCounters));
+            lastKeptTime = droppedTime;
+        }
+        Arrays.fill(droppedCounters, 0);
+        dropped = null;
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Title:        Core Package
+ * Description:  Core package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.history;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps one recorded state per time bucket using the Largest-Triangle-Three-
+ * Buckets algorithm on a primary field, which preserves the visual shape of
+ * the history. The first and the last recorded states are always kept.
+ *
+ * <p>
+ * The state kept from a bucket is the one forming the largest triangle with
+ * the state kept from the previous bucket and the average state of the next
+ * bucket, so a bucket is only decided when the next one is complete. The
+ * triangle area is a linear function of the state time and primary value, so
+ * the largest triangle is formed by a state on the convex hull of the bucket
+ * states. Only these states are held in memory, with the running sums giving
+ * the average state and the counters of every bucket.
+ * </p>
+ *
+ * @author Ibrahem Mouhamad
+ * @since Core Package 1.0.0
+ */
+
+public class LttbHistoryRecorder extends HistoryRecorder {
+
+    private final double width;
+
+    private final int primaryField;
+
+    /**
+     * The last kept state.
+     */
+    private double[] kept;
+    private double keptTime;
+
+    /**
+     * The bucket to decide, or null if there is none, and the bucket being
+     * recorded.
+     */
+    private Bucket previousBucket;
+    private Bucket currentBucket = new Bucket();
+    private double currentBucketIndex;
+
+    /**
+     * The counters of the dropped states since the last kept one.
+     */
+    private final double[] counters;
+
+    public LttbHistoryRecorder(final HistorySink sink, final Aggregation[] aggregations, final double width,
+            final int primaryField) {
+        super(sink, aggregations);
+        if (width <= 0) {
+            throw new IllegalArgumentException("The history bucket width must be greater than 0");
+        }
+        this.width = width;
+        this.primaryField = primaryField;
+        this.counters = new double[aggregations.length];
+    }
+
+    @Override
+    public void record(final double time, final double[] values) {
+        if (kept == null) {
+            keep(time, Arrays.copyOf(values, values.length));
+            return;
+        }
+        final double bucketIndex = Math.floor(time / width);
+        if (currentBucket.size > 0 && bucketIndex != currentBucketIndex) {
+            if (previousBucket != null) {
+                keepLargestTriangle(previousBucket, currentBucket.averageTime(), currentBucket.averagePrimary());
+            }
+            previousBucket = currentBucket;
+            currentBucket = new Bucket();
+        }
+        currentBucketIndex = bucketIndex;
+        currentBucket.add(time, values);
+    }
+
+    @Override
+    public void flush() {
+        Bucket remaining = currentBucket;
+        if (previousBucket != null) {
+            if (currentBucket.size == 0) {
+                remaining = previousBucket;
+            } else {
+                keepLargestTriangle(previousBucket, currentBucket.averageTime(), currentBucket.averagePrimary());
+            }
+        }
+        if (remaining.size > 0) {
+            addCounters(counters, remaining.counters);
+            emit(remaining.last.time, withCounters(remaining.last.values, counters));
+            Arrays.fill(counters, 0);
+        }
+        previousBucket = null;
+        currentBucket = new Bucket();
+        kept = null;
+    }
+
+    /**
+     * Keeps the state of a bucket forming the largest triangle with the last
+     * kept state and a point of the next bucket, the first one in time order
+     * when several states form triangles of the same area.
+     */
+    private void keepLargestTriangle(final Bucket bucket, final double nextTime, final double nextValue) {
+        State selected = null;
+        double largestArea = -1;
+        int upper = 0;
+        int lower = 0;
+        // both hulls are in time order, and share their first and last states
+        while (upper < bucket.upperHull.size() || lower < bucket.lowerHull.size()) {
+            final State state;
+            if (lower == bucket.lowerHull.size() || upper < bucket.upperHull.size()
+                    && bucket.upperHull.get(upper).index <= bucket.lowerHull.get(lower).index) {
+                state = bucket.upperHull.get(upper++);
+            } else {
+                state = bucket.lowerHull.get(lower++);
+            }
+            final double area = Math.abs((keptTime - nextTime) * (state.values[primaryField] - kept[primaryField])
+                    - (keptTime - state.time) * (nextValue - kept[primaryField]));
+            if (area > largestArea) {
+                largestArea = area;
+                selected = state;
+            }
+        }
+        addCounters(counters, selected.counters);
+        keep(selected.time, withCounters(selected.values, counters));
+        // counters of the states after the kept one go to the next kept state
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = isCounter(i) ? bucket.counters[i] - selected.counters[i] : 0;
+        }
+    }
+
+    private void keep(final double time, final double[] values) {
+        emit(time, values);
+        kept = values;
+        keptTime = time;
+    }
+
+    /**
+     * The states of a bucket which may form the largest triangle, and the
+     * running sums of all its states.
+     */
+    private final class Bucket {
+
+        private int size;
+
+        private double timeSum;
+
+        private double primarySum;
+
+        /**
+         * The sum of the counters of the bucket states.
+         */
+        private final double[] counters = new double[fieldsNumber()];
+
+        private State last;
+
+        /**
+         * The states on the upper and on the lower convex hulls of the bucket
+         * states, in time order.
+         */
+        private final List<State> upperHull = new ArrayList<>();
+        private final List<State> lowerHull = new ArrayList<>();
+
+        void add(final double time, final double[] values) {
+            addCounters(counters, values);
+            last = new State(size++, time, Arrays.copyOf(values, values.length), counters.clone());
+            timeSum += time;
+            primarySum += values[primaryField];
+            addToHull(upperHull, last, 1);
+            addToHull(lowerHull, last, -1);
+        }
+
+        /**
+         * Adds a state to a hull, removing the states of the hull which are
+         * not above the segment from the previous state to the new one. When
+         * states have the same position, the first one is kept.
+         *
+         * @param hull  the hull
+         * @param state the new state
+         * @param sign  1 for the upper hull, -1 for the lower hull
+         */
+        private void addToHull(final List<State> hull, final State state, final int sign) {
+            final double value = sign * state.values[primaryField];
+            if (!hull.isEmpty() && hull.get(hull.size() - 1).time == state.time) {
+                if (value <= sign * hull.get(hull.size() - 1).values[primaryField]) {
+                    return;
+                }
+                hull.remove(hull.size() - 1);
+            }
+            while (hull.size() >= 2) {
+                final State first = hull.get(hull.size() - 2);
+                final State middle = hull.get(hull.size() - 1);
+                final double firstValue = sign * first.values[primaryField];
+                final double cross = (middle.time - first.time) * (value - firstValue)
+                        - (sign * middle.values[primaryField] - firstValue) * (state.time - first.time);
+                if (cross < 0) {
+                    break;
+                }
+                hull.remove(hull.size() - 1);
+            }
+            hull.add(state);
+        }
+
+        double averageTime() {
+            return timeSum / size;
+        }
+
+        double averagePrimary() {
+            return primarySum / size;
+        }
+    }
+
+    /**
+     * A recorded state.
+     *
+     * @param index    the index of the state in its bucket
+     * @param time     the time of the state
+     * @param values   the values of the state fields
+     * @param counters the sum of the counters of the bucket states until this
+     *                 one, included
+     */
+    private record State(int index, double time, double[] values, double[] counters) {
+    }
+}
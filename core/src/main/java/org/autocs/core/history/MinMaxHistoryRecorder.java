@@ -0,0 +1,107 @@
+/*
+ * Title:        Core Package
+ * Description:  Core package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.history;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the states with the minimum and the maximum values of a primary field
+ * in every time bucket, in time order, so the envelope of the history is
+ * preserved with at most two entries per bucket.
+ *
+ * @author Ibrahem Mouhamad
+ * @since Core Package 1.0.0
+ */
+
+public class MinMaxHistoryRecorder extends HistoryRecorder {
+
+    private final double width;
+
+    private final int primaryField;
+
+    private double bucketIndex;
+
+    private double[] min;
+    private double minTime;
+    private double[] minCounters;
+
+    private double[] max;
+    private double maxTime;
+    private double[] maxCounters;
+
+    /**
+     * The counters of the bucket states recorded so far.
+     */
+    private final double[] counters;
+
+    public MinMaxHistoryRecorder(final HistorySink sink, final Aggregation[] aggregations, final double width,
+            final int primaryField) {
+        super(sink, aggregations);
+        if (width <= 0) {
+            throw new IllegalArgumentException("The history bucket width must be greater than 0");
+        }
+        this.width = width;
+        this.primaryField = primaryField;
+        this.counters = new double[aggregations.length];
+    }
+
+    @Override
+    public void record(final double time, final double[] values) {
+        final double index = Math.floor(time / width);
+        if (min != null && index != bucketIndex) {
+            flush();
+        }
+        bucketIndex = index;
+        addCounters(counters, values);
+        // the same copy is shared when a state is both the minimum and the maximum
+        final double[] state = Arrays.copyOf(values, values.length);
+        if (min == null || values[primaryField] < min[primaryField]) {
+            min = state;
+            minTime = time;
+            minCounters = counters.clone();
+        }
+        if (max == null || values[primaryField] > max[primaryField]) {
+            max = state;
+            maxTime = time;
+            maxCounters = counters.clone();
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (min == null) {
+            return;
+        }
+        if (min == max) {
+            emit(minTime, withCounters(min, counters));
+        } else if (minTime <= maxTime) {
+            emitPair(min, minTime, minCounters, max, maxTime);
+        } else {
+            emitPair(max, maxTime, maxCounters, min, minTime);
+        }
+        min = null;
+        max = null;
+        Arrays.fill(counters, 0);
+    }
+
+    /**
+     * Emits the two states of a bucket, where the second one holds the
+     * counters of every bucket state recorded after the first one.
+     */
+    private void emitPair(final double[] first, final double firstTime, final double[] firstCounters,
+            final double[] second, final double secondTime) {
+        emit(firstTime, withCounters(first, firstCounters));
+        final double[] secondCounters = counters.clone();
+        for (int i = 0; i < secondCounters.length; i++) {
+            secondCounters[i] -= firstCounters[i];
+        }
+        emit(secondTime, withCounters(second, secondCounters));
+    }
+}
@@ -11,8 +11,8 @@ package org.autocs.core.loader;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -42,8 +42,9 @@ public class PolicyLoader {
      * it isn't used reflection anymore when a class with the same
      * name is requested again.
      * Each key is a full class name and each value is the class itself.
+     * Experiments may be created concurrently, so the map is thread-safe.
      */
-    private static final Map<String, Class> map = new HashMap<>();
+    private static final Map<String, Class> map = new ConcurrentHashMap<>();
 
     /**
      * The base CloudSim package name.
@@ -12,6 +12,7 @@ package org.autocs.core.metrics;
 import java.util.List;
 
 import org.cloudbus.cloudsim.datacenters.Datacenter;
+import org.cloudbus.cloudsim.datacenters.DatacenterStateHistory;
 import org.cloudbus.cloudsim.datacenters.DatacenterStateHistoryEntry;
 
 /**
@@ -24,6 +25,7 @@ import org.cloudbus.cloudsim.datacenters.DatacenterStateHistoryEntry;
 public class DatacenterMetrics {
     private String name;
     private double cpuUtilizationAverage;
+    private MetricStatistics cpuUtilizationStatistics;
     private List<DatacenterStateHistoryEntry> history;
 
     public DatacenterMetrics() {
@@ -32,7 +34,7 @@ public class DatacenterMetrics {
     public DatacenterMetrics(Datacenter datacenter) {
         this.name = datacenter.getName();
         this.setCpuUtilizationAverage(datacenter);
-        this.history = datacenter.getStateHistory();
+        this.history = DatacenterStateHistory.copyOf(datacenter.getStateHistory());
     }
 
     /*
@@ -74,6 +76,14 @@ public class DatacenterMetrics {
         this.cpuUtilizationAverage = cpuUtilizationAverage;
     }
 
+    public MetricStatistics getCpuUtilizationStatistics() {
+        return cpuUtilizationStatistics;
+    }
+
+    public void setCpuUtilizationStatistics(MetricStatistics cpuUtilizationStatistics) {
+        this.cpuUtilizationStatistics = cpuUtilizationStatistics;
+    }
+
     public String getName() {
         return name;
     }
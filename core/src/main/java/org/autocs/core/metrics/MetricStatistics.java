@@ -0,0 +1,120 @@
+/*
+ * Title:        Simulator Package
+ * Description:  Simulator package of Auto Cloud Simulator (AutoCS) to extends the functionality of some CloudSim Plus classes
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.metrics;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.apache.commons.math3.distribution.TDistribution;
+
+/**
+ * Running statistics of a metric collected across several simulation runs.
+ * Values are folded one at a time (Welford's algorithm), so no sample is
+ * kept in memory.
+ *
+ * @author Ibrahem Mouhamad
+ * @since Simulator Package 1.0.0
+ */
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class MetricStatistics {
+    /**
+     * The confidence level used to compute the confidence interval.
+     */
+    public static final double CONFIDENCE_LEVEL = 0.95;
+
+    private long count;
+    private double mean;
+    private double variance;
+    private double min;
+    private double max;
+
+    public MetricStatistics() {
+    }
+
+    /**
+     * Adds the value of the metric in a new simulation run.
+     *
+     * @param value the metric value
+     */
+    public void addValue(double value) {
+        // sum of squared differences from the mean, before adding the value
+        final double squaredDifferences = this.count > 1 ? this.variance * (this.count - 1) : 0;
+        this.count++;
+        final double delta = value - this.mean;
+        this.mean += delta / this.count;
+        this.variance = this.count > 1 ? (squaredDifferences + delta * (value - this.mean)) / (this.count - 1) : 0;
+        this.min = this.count == 1 ? value : Math.min(this.min, value);
+        this.max = this.count == 1 ? value : Math.max(this.max, value);
+    }
+
+    /*
+     * Gets the half-width of the confidence interval, using the Student's
+     * t-distribution since the number of runs is usually small
+     */
+    public double getErrorMargin() {
+        if (this.count < 2) {
+            return 0;
+        }
+        final TDistribution distribution = new TDistribution(this.count - 1);
+        final double criticalValue = distribution.inverseCumulativeProbability(1.0 - (1.0 - CONFIDENCE_LEVEL) / 2);
+        return criticalValue * getStandardDeviation() / Math.sqrt(this.count);
+    }
+
+    public double getLowerLimit() {
+        return this.mean - getErrorMargin();
+    }
+
+    public double getUpperLimit() {
+        return this.mean + getErrorMargin();
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(this.variance);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public void setMean(double mean) {
+        this.mean = mean;
+    }
+
+    public double getVariance() {
+        return variance;
+    }
+
+    public void setVariance(double variance) {
+        this.variance = variance;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public void setMin(double min) {
+        this.min = min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public void setMax(double max) {
+        this.max = max;
+    }
+}
@@ -21,7 +21,9 @@ import org.cloudbus.cloudsim.datacenters.DatacenterSimple;
  */
 
 public class Metrics {
+    private int runsNumber = 1;
     private double datacentersCpuUtilizationAverage;
+    private MetricStatistics datacentersCpuUtilizationStatistics;
     private List<DatacenterMetrics> datacentersMetrics;
 
     public Metrics() {
@@ -48,6 +50,26 @@ public class Metrics {
         return datacentersCpuUtilizationAverage;
     }
 
+    public void setDatacentersCpuUtilizationAverage(double datacentersCpuUtilizationAverage) {
+        this.datacentersCpuUtilizationAverage = datacentersCpuUtilizationAverage;
+    }
+
+    public MetricStatistics getDatacentersCpuUtilizationStatistics() {
+        return datacentersCpuUtilizationStatistics;
+    }
+
+    public void setDatacentersCpuUtilizationStatistics(MetricStatistics datacentersCpuUtilizationStatistics) {
+        this.datacentersCpuUtilizationStatistics = datacentersCpuUtilizationStatistics;
+    }
+
+    public int getRunsNumber() {
+        return runsNumber;
+    }
+
+    public void setRunsNumber(int runsNumber) {
+        this.runsNumber = runsNumber;
+    }
+
     /*
      * public Map<String, Double> getMetrics() {
      * Map<String, Double> metrics = new HashMap<>();
@@ -0,0 +1,80 @@
+/*
+ * Title:        Simulator Package
+ * Description:  Simulator package of Auto Cloud Simulator (AutoCS) to extends the functionality of some CloudSim Plus classes
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.cloudbus.cloudsim.datacenters.DatacenterStateHistoryEntry;
+
+/**
+ * Aggregates the {@link Metrics} of several simulation runs of the same
+ * scenario. Each run is folded into running statistics as soon as it is
+ * added, so only the metrics of the last added run are kept in memory. A run
+ * added without a datacenter history keeps the history of the previous run.
+ *
+ * @author Ibrahem Mouhamad
+ * @since Simulator Package 1.0.0
+ */
+
+public class MetricsAggregator {
+    private int runsNumber;
+    private final MetricStatistics datacentersCpuUtilizationStatistics = new MetricStatistics();
+    private final Map<String, MetricStatistics> cpuUtilizationStatisticsByDatacenter = new LinkedHashMap<>();
+    private Metrics metrics;
+
+    /**
+     * Folds the metrics of a finished run into the aggregate.
+     *
+     * @param runMetrics the metrics of the finished run
+     * @return the aggregated metrics, which keep the history of the given run
+     */
+    public Metrics add(Metrics runMetrics) {
+        this.runsNumber++;
+        this.datacentersCpuUtilizationStatistics.addValue(runMetrics.getDatacentersCpuUtilizationAverage());
+        runMetrics.getDatacentersMetrics().forEach(datacenterMetrics -> {
+            final MetricStatistics statistics = this.cpuUtilizationStatisticsByDatacenter
+                    .computeIfAbsent(datacenterMetrics.getName(), name -> new MetricStatistics());
+            if (datacenterMetrics.getHistory() == null) {
+                datacenterMetrics.setHistory(previousHistory(datacenterMetrics.getName()));
+            }
+            statistics.addValue(datacenterMetrics.getCpuUtilizationAverage());
+            // publish the average across runs instead of the value of this run
+            datacenterMetrics.setCpuUtilizationAverage(statistics.getMean());
+            datacenterMetrics.setCpuUtilizationStatistics(statistics);
+        });
+        runMetrics.setRunsNumber(this.runsNumber);
+        runMetrics.setDatacentersCpuUtilizationAverage(this.datacentersCpuUtilizationStatistics.getMean());
+        runMetrics.setDatacentersCpuUtilizationStatistics(this.datacentersCpuUtilizationStatistics);
+        this.metrics = runMetrics;
+        return this.metrics;
+    }
+
+    private List<DatacenterStateHistoryEntry> previousHistory(String datacenterName) {
+        if (this.metrics == null) {
+            return null;
+        }
+        return this.metrics.getDatacentersMetrics().stream()
+                .filter(datacenterMetrics -> Objects.equals(datacenterMetrics.getName(), datacenterName))
+                .map(DatacenterMetrics::getHistory)
+                .findFirst()
+                .orElse(null);
+    }
+
+    public int getRunsNumber() {
+        return runsNumber;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Title:        Core Package
+ * Description:  Core package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.metrics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.datacenters.DatacenterStateHistory;
+import org.cloudbus.cloudsim.datacenters.DatacenterStateHistoryEntry;
+
+/**
+ * Stores the datacenters state history of a run in a binary file, apart from
+ * the run, so a time range of the history of a datacenter is read without
+ * reading the whole run.
+ *
+ * <p>
+ * The file starts with a header holding, for every datacenter, its name, its
+ * number of entries, the position of its entries and a time index with the
+ * time of every {@value #INDEX_STRIDE}th entry. The header is followed by the
+ * entries of every datacenter in time order, each entry being written as the
+ * {@link DatacenterStateHistory.Field fields} values. A range is then found
+ * by searching the time index and read with a single positional read.
+ * </p>
+ *
+ * @author Ibrahem Mouhamad
+ * @since Core Package 1.0.0
+ */
+
+public class MetricsHistoryFile {
+
+    private static final int MAGIC = 0x4143534D;
+
+    private static final int VERSION = 1;
+
+    /**
+     * The number of entries between two entries of the time index.
+     */
+    private static final int INDEX_STRIDE = 64;
+
+    private static final int FIELDS_NUMBER = DatacenterStateHistory.Field.values().length;
+
+    private static final int ENTRY_SIZE = FIELDS_NUMBER * Double.BYTES;
+
+    private final Path path;
+
+    private MetricsHistoryFile(Path path) {
+        this.path = path;
+    }
+
+    public static MetricsHistoryFile of(Path path) {
+        return new MetricsHistoryFile(path);
+    }
+
+    public boolean exists() {
+        return Files.isRegularFile(path);
+    }
+
+    /**
+     * Writes the state history of every datacenter, replacing the file
+     * atomically.
+     *
+     * @param datacentersMetrics the datacenters metrics holding the histories
+     */
+    public void write(List<DatacenterMetrics> datacentersMetrics) throws IOException {
+        final Map<String, DatacenterStateHistory> histories = new LinkedHashMap<>();
+        for (DatacenterMetrics datacenterMetrics : datacentersMetrics) {
+            if (datacenterMetrics.getHistory() != null) {
+                final List<DatacenterStateHistoryEntry> history = datacenterMetrics.getHistory();
+                histories.put(datacenterMetrics.getName(), history instanceof DatacenterStateHistory stateHistory
+                        ? stateHistory
+                        : DatacenterStateHistory.copyOf(history));
+            }
+        }
+        // the header size does not depend on the positions written in it
+        final long headerSize = header(histories, 0).length;
+        final Path tmpPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (OutputStream file = Files.newOutputStream(tmpPath);
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+                out.write(header(histories, headerSize));
+                for (DatacenterStateHistory history : histories.values()) {
+                    final double[][] columns = new double[FIELDS_NUMBER][];
+                    for (DatacenterStateHistory.Field field : DatacenterStateHistory.Field.values()) {
+                        columns[field.ordinal()] = history.getColumn(field);
+                    }
+                    for (int i = 0; i < history.size(); i++) {
+                        for (double[] column : columns) {
+                            out.writeDouble(column[i]);
+                        }
+                    }
+                }
+            }
+            Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmpPath);
+        }
+    }
+
+    private static byte[] header(Map<String, DatacenterStateHistory> histories, long headerSize) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(histories.size());
+        long position = headerSize;
+        for (Map.Entry<String, DatacenterStateHistory> history : histories.entrySet()) {
+            final int size = history.getValue().size();
+            out.writeUTF(history.getKey());
+            out.writeInt(size);
+            out.writeLong(position);
+            out.writeInt((size + INDEX_STRIDE - 1) / INDEX_STRIDE);
+            for (int i = 0; i < size; i += INDEX_STRIDE) {
+                out.writeDouble(history.getValue().getTime(i));
+            }
+            position += (long) size * ENTRY_SIZE;
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the state history of a datacenter over a time range.
+     *
+     * @param datacenter the datacenter name
+     * @param from       the start time of the range, included
+     * @param to         the end time of the range, included
+     * @return the history entries in the range, or null when the datacenter
+     *         has no history
+     */
+    public DatacenterStateHistory read(String datacenter, double from, double to) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Invalid metrics history file " + path);
+            }
+            final int datacenters = in.readInt();
+            for (int d = 0; d < datacenters; d++) {
+                final String name = in.readUTF();
+                final int size = in.readInt();
+                final long position = in.readLong();
+                final double[] index = new double[in.readInt()];
+                for (int i = 0; i < index.length; i++) {
+                    index[i] = in.readDouble();
+                }
+                if (name.equals(datacenter)) {
+                    return read(channel, position, size, index, from, to);
+                }
+            }
+            return null;
+        }
+    }
+
+    private DatacenterStateHistory read(FileChannel channel, long position, int size, double[] index, double from,
+            double to) throws IOException {
+        // only the index blocks which may hold entries in the range are read
+        final int first = Math.max(0, lastIndexed(index, from, false)) * INDEX_STRIDE;
+        final int last = Math.min(size, (lastIndexed(index, to, true) + 1) * INDEX_STRIDE);
+        final DatacenterStateHistory history = new DatacenterStateHistory();
+        if (first >= last) {
+            return history;
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate((last - first) * ENTRY_SIZE);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + (long) first * ENTRY_SIZE + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of the metrics history file " + path);
+            }
+        }
+        buffer.flip();
+        final DoubleBuffer entries = buffer.asDoubleBuffer();
+        final double[] values = new double[DatacenterStateHistory.VALUES_NUMBER];
+        while (entries.hasRemaining()) {
+            final double time = entries.get();
+            entries.get(values);
+            if (time > to) {
+                break;
+            }
+            if (time >= from) {
+                history.add(time, values);
+            }
+        }
+        return history;
+    }
+
+    /**
+     * Gets the last indexed entry before a given time, or -1 when there is
+     * none.
+     *
+     * @param inclusive whether an entry at the given time is before it
+     */
+    private static int lastIndexed(double[] index, double time, boolean inclusive) {
+        int low = 0;
+        int high = index.length - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            if (index[middle] < time || inclusive && index[middle] == time) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high;
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Title:        Core Package
+ * Description:  Core package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.model;
+
+import java.util.List;
+
+/**
+ * A java class to represent a page of the entities matching a query
+ *
+ * @param items the entities in the page
+ * @param total the number of entities matching the query, in all pages
+ *
+ * @author Ibrahem Mouhamad
+ * @since Core Package 1.0.0
+ */
+
+public record EntityPage<E>(List<E> items, int total) {
+}
@@ -0,0 +1,197 @@
+/*
+ * Title:        Core Package
+ * Description:  Core package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A java class to represent a query on the entities of a type: the page to
+ * get, its order, the filters the entities must match and the view of the
+ * returned entities.
+ *
+ * @author Ibrahem Mouhamad
+ * @since Core Package 1.0.0
+ */
+
+public class EntityQuery {
+
+    /**
+     * The views of the listed entities.
+     */
+    public enum View {
+        /**
+         * The entity fields with a single value, plus its properties and
+         * statistics, but without its nested entities and metrics.
+         */
+        SUMMARY,
+        /**
+         * The whole entity.
+         */
+        FULL
+    }
+
+    public static final String PAGE = "page";
+    public static final String PAGE_SIZE = "page_size";
+    public static final String ORDERING = "ordering";
+    public static final String SEARCH = "search";
+    public static final String VIEW = "view";
+
+    /**
+     * The page number, starting from 1.
+     */
+    private int page = 1;
+
+    /**
+     * The number of entities per page, where 0 means all entities.
+     */
+    private int pageSize;
+
+    /**
+     * The field the entities are sorted by, where nested fields are separated
+     * by dots.
+     */
+    private String sortField = "id";
+    private boolean descending;
+
+    /**
+     * A text the name or the description of the entities must contain,
+     * ignoring the case.
+     */
+    private String search;
+
+    /**
+     * The values the entity fields must have, by field.
+     */
+    private Map<String, String> filters = new LinkedHashMap<>();
+    private View view = View.FULL;
+
+    /**
+     * Creates a query from request parameters: {@code page},
+     * {@code page_size}, {@code ordering} (the sort field, prefixed with
+     * {@code -} for a descending order), {@code search} and {@code view}
+     * ({@code summary} or {@code full}). Every other parameter is a filter on
+     * the field with the same name.
+     *
+     * @param parameters the request parameters
+     * @return the query
+     * @throws IllegalArgumentException when a parameter value is invalid
+     */
+    public static EntityQuery fromParameters(Map<String, String> parameters) {
+        final EntityQuery query = new EntityQuery();
+        parameters.forEach((name, value) -> {
+            switch (name) {
+                case PAGE -> query.setPage(parseInt(name, value));
+                case PAGE_SIZE -> query.setPageSize(parseInt(name, value));
+                case ORDERING -> {
+                    if (value != null && !value.isBlank()) {
+                        query.setDescending(value.startsWith("-"));
+                        query.setSortField(value.replaceFirst("^[-+]", ""));
+                    }
+                }
+                case SEARCH -> query.setSearch(value == null || value.isBlank() ? null : value);
+                case VIEW -> query.setView(View.valueOf(value.toUpperCase()));
+                default -> query.getFilters().put(name, value);
+            }
+        });
+        return query;
+    }
+
+    private static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value, e);
+        }
+    }
+
+    /**
+     * Gets the number of entities to skip before the page.
+     */
+    public int getOffset() {
+        return pageSize > 0 ? (int) Math.min((long) (page - 1) * pageSize, Integer.MAX_VALUE) : 0;
+    }
+
+    /**
+     * Gets the maximum number of entities in the page.
+     */
+    public int getLimit() {
+        return pageSize > 0 ? pageSize : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Checks whether all the entities match the query.
+     */
+    public boolean isUnfiltered() {
+        return search == null && filters.isEmpty();
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        if (page < 1) {
+            throw new IllegalArgumentException("The page number must be at least 1");
+        }
+        this.page = page;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        if (pageSize < 0) {
+            throw new IllegalArgumentException("The page size can not be negative");
+        }
+        this.pageSize = pageSize;
+    }
+
+    public String getSortField() {
+        return sortField;
+    }
+
+    public void setSortField(String sortField) {
+        this.sortField = sortField;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public void setDescending(boolean descending) {
+        this.descending = descending;
+    }
+
+    public String getSearch() {
+        return search;
+    }
+
+    public void setSearch(String search) {
+        this.search = search;
+    }
+
+    public Map<String, String> getFilters() {
+        return filters;
+    }
+
+    public void setFilters(Map<String, String> filters) {
+        this.filters = filters;
+    }
+
+    public View getView() {
+        return view;
+    }
+
+    public void setView(View view) {
+        this.view = view;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Title:        Core Package
+ * Description:  Core package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.model;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import org.cloudbus.cloudsim.datacenters.DatacenterStateHistoryEntry;
+
+/**
+ * A java class to represent the progress of a running experiment run. The
+ * datacenters history only holds the entries recorded by the experiment since
+ * its previous progress message, where an entry replaces any previously
+ * received entry of the same experiment and time.
+ *
+ * @author Ibrahem Mouhamad
+ * @since Core Package 1.0.0
+ */
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ScenarioRunProgress {
+
+    private String runId;
+    private int runsNumber;
+    private int finishedRuns;
+    private int experimentIndex;
+    private double clock;
+    private double eventsPerSecond;
+    private Map<String, List<DatacenterStateHistoryEntry>> datacentersHistory = new LinkedHashMap<>();
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(String runId) {
+        this.runId = runId;
+    }
+
+    public int getRunsNumber() {
+        return runsNumber;
+    }
+
+    public void setRunsNumber(int runsNumber) {
+        this.runsNumber = runsNumber;
+    }
+
+    public int getFinishedRuns() {
+        return finishedRuns;
+    }
+
+    public void setFinishedRuns(int finishedRuns) {
+        this.finishedRuns = finishedRuns;
+    }
+
+    public int getExperimentIndex() {
+        return experimentIndex;
+    }
+
+    public void setExperimentIndex(int experimentIndex) {
+        this.experimentIndex = experimentIndex;
+    }
+
+    public double getClock() {
+        return clock;
+    }
+
+    public void setClock(double clock) {
+        this.clock = clock;
+    }
+
+    public double getEventsPerSecond() {
+        return eventsPerSecond;
+    }
+
+    public void setEventsPerSecond(double eventsPerSecond) {
+        this.eventsPerSecond = eventsPerSecond;
+    }
+
+    public Map<String, List<DatacenterStateHistoryEntry>> getDatacentersHistory() {
+        return datacentersHistory;
+    }
+
+    public void setDatacentersHistory(Map<String, List<DatacenterStateHistoryEntry>> datacentersHistory) {
+        this.datacentersHistory = datacentersHistory;
+    }
+}
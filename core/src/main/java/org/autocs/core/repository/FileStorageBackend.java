@@ -0,0 +1,426 @@
+/*
+ * Title:        Core Package
+ * Description:  Core package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.repository;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PreDestroy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import org.autocs.core.StorageProperties;
+
+/**
+ * Stores every entity as a JSON file, in one directory per collection. Every
+ * directory is indexed once and kept up to date by a {@link WatchService}, so
+ * listing the entities does not walk the directory. The parsed files are
+ * cached per directory, up to {@link StorageProperties#getCacheSize()} bytes
+ * of files, evicting the least recently used ones.
+ *
+ * <p>
+ * The names of the entities are indexed the first time they are read, so
+ * listing the entities by name only reads the files that were never read.
+ * </p>
+ *
+ * @author Ibrahem Mouhamad
+ * @since Core Package 1.0.0
+ */
+
+@Component
+@ConditionalOnProperty(prefix = "storage", name = "backend", havingValue = "file", matchIfMissing = true)
+public class FileStorageBackend implements StorageBackend {
+
+    public static final String EXT = ".json";
+
+    private static final String TMP_EXT = ".tmp";
+
+    @Autowired
+    private StorageProperties storageProps;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<Path, EntitiesDirectory> directories = new ConcurrentHashMap<>();
+
+    private final Map<WatchKey, EntitiesDirectory> watchedDirectories = new ConcurrentHashMap<>();
+
+    private WatchService watchService;
+
+    @Override
+    public List<String> ids(String collection) {
+        final EntitiesDirectory directory = directory(collection);
+        synchronized (directory) {
+            return new ArrayList<>(directory.index.keySet());
+        }
+    }
+
+    @Override
+    public int count(String collection) {
+        final EntitiesDirectory directory = directory(collection);
+        synchronized (directory) {
+            return directory.index.size();
+        }
+    }
+
+    @Override
+    public StoredEntity get(String collection, String id) throws IOException {
+        final StoredEntity entity = find(collection, id);
+        if (entity == null) {
+            throw new FileNotFoundException(filePath(collection, id).toString());
+        }
+        return entity;
+    }
+
+    @Override
+    public List<StoredEntity> list(String collection, StorageIndex index, boolean descending, int offset, int limit)
+            throws IOException {
+        final EntitiesDirectory directory = directory(collection);
+        if (index == StorageIndex.NAME) {
+            // the names that are not indexed yet are read from the files
+            final List<StoredEntity> entities = load(collection, ids(collection));
+            final Comparator<StoredEntity> comparator = index.comparator();
+            entities.sort(descending ? comparator.reversed() : comparator);
+            return entities.subList(Math.min(offset, entities.size()),
+                    (int) Math.min((long) offset + limit, entities.size()));
+        }
+        final List<String> ids;
+        synchronized (directory) {
+            final List<Map.Entry<String, Long>> entries = new ArrayList<>(directory.index.entrySet());
+            if (index == StorageIndex.LAST_MODIFIED) {
+                entries.sort(Map.Entry.<String, Long>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+            }
+            if (descending) {
+                Collections.reverse(entries);
+            }
+            ids = entries.stream().skip(offset).limit(limit).map(Map.Entry::getKey).toList();
+        }
+        return load(collection, ids);
+    }
+
+    @Override
+    public List<StoredEntity> findByName(String collection, String name) throws IOException {
+        final EntitiesDirectory directory = directory(collection);
+        final List<String> ids = new ArrayList<>();
+        synchronized (directory) {
+            for (String id : directory.index.keySet()) {
+                // entities whose name is not indexed yet have to be read
+                if (!directory.names.containsKey(id) || Objects.equals(directory.names.get(id), name)) {
+                    ids.add(id);
+                }
+            }
+        }
+        return load(collection, ids).stream().filter(entity -> Objects.equals(entity.name(), name)).toList();
+    }
+
+    /**
+     * Gets some entities, skipping the ones deleted since their ids were read.
+     */
+    private List<StoredEntity> load(String collection, List<String> ids) throws IOException {
+        final List<StoredEntity> entities = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            final StoredEntity entity = find(collection, id);
+            if (entity != null) {
+                entities.add(entity);
+            }
+        }
+        return entities;
+    }
+
+    private StoredEntity find(String collection, String id) throws IOException {
+        final EntitiesDirectory directory = directory(collection);
+        final long version;
+        synchronized (directory) {
+            final StoredEntity cached = directory.cache.get(id);
+            if (cached != null) {
+                return cached;
+            }
+            version = directory.version;
+        }
+        final File file = filePath(collection, id).toFile();
+        if (!file.isFile()) {
+            return null;
+        }
+        final StoredEntity entity = new StoredEntity(id, file.lastModified(), file.length(),
+                objectMapper.readTree(file));
+        // the file is read outside the lock, so it may be deleted or written again meanwhile
+        directory.putIfUnchanged(entity, version);
+        return entity;
+    }
+
+    /**
+     * Writes the entity file atomically, by writing a temporary file first and
+     * then moving it over the previous file.
+     */
+    @Override
+    public StoredEntity save(String collection, String id, JsonNode tree) throws IOException {
+        final Path path = filePath(collection, id);
+        final Path tmpPath = path.resolveSibling(path.getFileName() + TMP_EXT);
+        try {
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(tmpPath.toFile(), tree);
+            Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmpPath);
+        }
+        final File file = path.toFile();
+        final StoredEntity entity = new StoredEntity(id, file.lastModified(), file.length(), tree);
+        final EntitiesDirectory directory = directory(collection);
+        synchronized (directory) {
+            // a concurrent delete removes the file before removing it from the index
+            if (file.isFile()) {
+                directory.put(entity);
+            }
+        }
+        return entity;
+    }
+
+    @Override
+    public void delete(String collection, String id) throws IOException {
+        Files.deleteIfExists(filePath(collection, id));
+        directory(collection).remove(id);
+    }
+
+    private Path filePath(String collection, String id) {
+        return Paths.get(storageProps.getCollectionDirectory(collection), id + EXT);
+    }
+
+    /**
+     * Gets the index of a collection directory, indexing and watching it on
+     * first use.
+     */
+    private EntitiesDirectory directory(String collection) {
+        final Path path = Paths.get(storageProps.getCollectionDirectory(collection)).toAbsolutePath().normalize();
+        final EntitiesDirectory directory = directories.get(path);
+        if (directory != null && directory.valid) {
+            return directory;
+        }
+        synchronized (directories) {
+            final EntitiesDirectory current = directories.get(path);
+            if (current != null && current.valid) {
+                return current;
+            }
+            final EntitiesDirectory newDirectory = new EntitiesDirectory(path, storageProps.getCacheSize());
+            storageProps.createFolder(path.toString());
+            watch(newDirectory);
+            newDirectory.scan();
+            directories.put(path, newDirectory);
+            return newDirectory;
+        }
+    }
+
+    private void watch(EntitiesDirectory directory) {
+        try {
+            if (watchService == null) {
+                watchService = FileSystems.getDefault().newWatchService();
+                final Thread watcher = new Thread(this::processEvents, "file-storage-watcher");
+                watcher.setDaemon(true);
+                watcher.start();
+            }
+            final WatchKey key = directory.path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            watchedDirectories.put(key, directory);
+        } catch (IOException e) {
+            // without a watcher, the directory is indexed again on next use
+            directory.valid = false;
+        }
+    }
+
+    private void processEvents() {
+        try {
+            while (true) {
+                final WatchKey key = watchService.take();
+                final EntitiesDirectory directory = watchedDirectories.get(key);
+                if (directory != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        directory.update(event);
+                    }
+                }
+                if (!key.reset()) {
+                    watchedDirectories.remove(key);
+                    if (directory != null) {
+                        directory.valid = false;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // the backend is closed
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    /**
+     * The index and the cache of a collection directory.
+     */
+    private static class EntitiesDirectory {
+
+        private final Path path;
+
+        private final long cacheSize;
+
+        /**
+         * The last modification time of every entity file, by entity id.
+         */
+        private final NavigableMap<String, Long> index = new TreeMap<>();
+
+        /**
+         * The names of the entities already read, by entity id.
+         */
+        private final Map<String, String> names = new HashMap<>();
+
+        /**
+         * The cached entities, in least recently used order.
+         */
+        private final LinkedHashMap<String, StoredEntity> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+        private long cachedSize;
+
+        private volatile boolean valid = true;
+
+        /**
+         * The number of changes of the index, which tells if the directory
+         * changed while a file was read.
+         */
+        private long version;
+
+        EntitiesDirectory(Path path, long cacheSize) {
+            this.path = path;
+            this.cacheSize = cacheSize;
+        }
+
+        synchronized void scan() {
+            version++;
+            index.clear();
+            final File[] files = path.toFile().listFiles(file -> file.isFile() && file.getName().endsWith(EXT));
+            if (files != null) {
+                for (File file : files) {
+                    index.put(idOf(file.getName()), file.lastModified());
+                }
+            }
+            // drop the entities changed on disk
+            final Iterator<StoredEntity> entities = cache.values().iterator();
+            while (entities.hasNext()) {
+                final StoredEntity entity = entities.next();
+                if (!Long.valueOf(entity.lastModified()).equals(index.get(entity.id()))) {
+                    entities.remove();
+                }
+            }
+            cachedSize = cache.values().stream().mapToLong(StoredEntity::size).sum();
+            names.keySet().retainAll(cache.keySet());
+        }
+
+        synchronized void update(WatchEvent<?> event) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                scan();
+                return;
+            }
+            final String fileName = event.context().toString();
+            if (!fileName.endsWith(EXT)) {
+                return;
+            }
+            final String id = idOf(fileName);
+            final File file = path.resolve(fileName).toFile();
+            version++;
+            if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE || !file.isFile()) {
+                remove(id);
+                return;
+            }
+            final long lastModified = file.lastModified();
+            final Long indexed = index.put(id, lastModified);
+            // the files written by this backend are already indexed
+            if (indexed == null || indexed != lastModified) {
+                evict(id);
+                names.remove(id);
+            }
+        }
+
+        synchronized void put(StoredEntity entity) {
+            version++;
+            index.put(entity.id(), entity.lastModified());
+            names.put(entity.id(), entity.name());
+            evict(entity.id());
+            if (entity.size() > cacheSize) {
+                return;
+            }
+            cache.put(entity.id(), entity);
+            cachedSize += entity.size();
+            final Iterator<StoredEntity> eldest = cache.values().iterator();
+            while (cachedSize > cacheSize && eldest.hasNext()) {
+                cachedSize -= eldest.next().size();
+                eldest.remove();
+            }
+        }
+
+        /**
+         * Adds an entity read from its file, unless the directory changed
+         * since the read started.
+         *
+         * @param entity      the entity read
+         * @param readVersion the version of the directory when the read started
+         */
+        synchronized void putIfUnchanged(StoredEntity entity, long readVersion) {
+            if (version == readVersion) {
+                put(entity);
+            }
+        }
+
+        synchronized void remove(String id) {
+            version++;
+            index.remove(id);
+            names.remove(id);
+            evict(id);
+        }
+
+        private void evict(String id) {
+            final StoredEntity removed = cache.remove(id);
+            if (removed != null) {
+                cachedSize -= removed.size();
+            }
+        }
+
+        private static String idOf(String fileName) {
+            return fileName.substring(0, fileName.length() - EXT.length());
+        }
+    }
+}
@@ -0,0 +1,565 @@
+/*
+ * Title:        Core Package
+ * Description:  Core package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.repository;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+import javax.annotation.PreDestroy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import org.autocs.core.StorageProperties;
+
+/**
+ * Stores all entities in a single append-only log file. Every write appends
+ * a checksummed record and forces it to the disk, so a write is either fully
+ * stored or, after a crash, dropped when the log is opened again.
+ *
+ * <p>
+ * The log is read once when it is opened, building in memory the location
+ * of the last version of every entity and the indexes of every collection
+ * by id, name and last modification time. Reading an entity is then a single
+ * positional read. The log is compacted when most of it holds overwritten or
+ * deleted entities.
+ * </p>
+ *
+ * <p>
+ * The log file is locked while it is open, so it can not be used by two
+ * processes at the same time.
+ * </p>
+ *
+ * @author Ibrahem Mouhamad
+ * @since Core Package 1.0.0
+ */
+
+@Component
+@ConditionalOnProperty(prefix = "storage", name = "backend", havingValue = "log")
+public class LogStorageBackend implements StorageBackend {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogStorageBackend.class.getSimpleName());
+
+    private static final byte PUT = 1;
+
+    private static final byte DELETE = 2;
+
+    /**
+     * The size of the record header: the record length, the record type and
+     * the last modification time.
+     */
+    private static final int HEADER_SIZE = Integer.BYTES + Byte.BYTES + Long.BYTES;
+
+    /**
+     * The minimum size (in bytes) of the stale records before the log is
+     * compacted.
+     */
+    private static final long MIN_COMPACTION_SIZE = 1024 * 1024;
+
+    private static final String COMPACT_EXT = ".compact";
+
+    private static final LogCollection EMPTY_COLLECTION = new LogCollection();
+
+    @Autowired
+    private StorageProperties storageProps;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, LogCollection> collections = new HashMap<>();
+
+    private Path path;
+
+    private volatile FileChannel channel;
+
+    private FileLock fileLock;
+
+    /**
+     * The size of the log.
+     */
+    private long size;
+
+    /**
+     * The size of the records holding the last version of the entities.
+     */
+    private long liveSize;
+
+    @Override
+    public List<String> ids(String collection) throws IOException {
+        return read(collection, entries -> new ArrayList<>(entries.byId.keySet()));
+    }
+
+    @Override
+    public int count(String collection) throws IOException {
+        return read(collection, entries -> entries.byId.size());
+    }
+
+    @Override
+    public StoredEntity get(String collection, String id) throws IOException {
+        open();
+        lock.readLock().lock();
+        try {
+            final LogCollection entries = collections.get(collection);
+            final Entry entry = entries == null ? null : entries.byId.get(id);
+            if (entry == null) {
+                throw new FileNotFoundException(collection + "/" + id);
+            }
+            return load(entry);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<StoredEntity> list(String collection, StorageIndex index, boolean descending, int offset, int limit)
+            throws IOException {
+        open();
+        lock.readLock().lock();
+        try {
+            final LogCollection entries = collections.get(collection);
+            if (entries == null) {
+                return new ArrayList<>();
+            }
+            final Collection<Entry> ordered = switch (index) {
+                case ID -> descending ? entries.byId.descendingMap().values() : entries.byId.values();
+                case NAME -> descending ? entries.byName.descendingSet() : entries.byName;
+                case LAST_MODIFIED -> descending ? entries.byLastModified.descendingSet() : entries.byLastModified;
+            };
+            final List<StoredEntity> page = new ArrayList<>();
+            for (Entry entry : ordered.stream().skip(offset).limit(limit).toList()) {
+                page.add(load(entry));
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<StoredEntity> findByName(String collection, String name) throws IOException {
+        open();
+        lock.readLock().lock();
+        try {
+            final LogCollection entries = collections.get(collection);
+            if (entries == null) {
+                return new ArrayList<>();
+            }
+            // the entries with the name are contiguous in the name index
+            final Entry from = new Entry(null, name, 0, 0, 0, 0);
+            final List<StoredEntity> entities = new ArrayList<>();
+            for (Entry entry : entries.byName.tailSet(from, true)) {
+                if (!Objects.equals(entry.name, name)) {
+                    break;
+                }
+                entities.add(load(entry));
+            }
+            return entities;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public StoredEntity save(String collection, String id, JsonNode tree) throws IOException {
+        final byte[] data = objectMapper.writeValueAsBytes(tree);
+        final long lastModified = System.currentTimeMillis();
+        final String name = StoredEntity.nameOf(tree);
+        open();
+        lock.writeLock().lock();
+        try {
+            final ByteBuffer record = encode(PUT, lastModified, collection, id, name, data);
+            final long position = append(record);
+            final Entry entry = new Entry(id, name, lastModified, position, record.limit(),
+                    position + record.limit() - Long.BYTES - data.length);
+            index(collection, entry);
+            compactIfNeeded();
+            return new StoredEntity(id, lastModified, data.length, tree);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(String collection, String id) throws IOException {
+        open();
+        lock.writeLock().lock();
+        try {
+            final LogCollection entries = collections.get(collection);
+            if (entries == null || !entries.byId.containsKey(id)) {
+                return;
+            }
+            append(encode(DELETE, System.currentTimeMillis(), collection, id, null, new byte[0]));
+            liveSize -= entries.remove(id).recordSize;
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <R> R read(String collection, Function<LogCollection, R> reader) throws IOException {
+        open();
+        lock.readLock().lock();
+        try {
+            return reader.apply(collections.getOrDefault(collection, EMPTY_COLLECTION));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private StoredEntity load(Entry entry) throws IOException {
+        if (channel == null) {
+            throw new IOException("The storage log " + path + " is closed");
+        }
+        final ByteBuffer data = ByteBuffer.allocate(entry.dataSize());
+        while (data.hasRemaining()) {
+            if (channel.read(data, entry.dataPosition + data.position()) < 0) {
+                throw new IOException("Unexpected end of the storage log " + path);
+            }
+        }
+        return new StoredEntity(entry.id, entry.lastModified, data.capacity(), objectMapper.readTree(data.array()));
+    }
+
+    /**
+     * Opens the log on first use. The log is opened lazily, so applications
+     * that never access the entities do not lock it.
+     */
+    private void open() throws IOException {
+        if (channel != null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (channel == null) {
+                openLog();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void openLog() throws IOException {
+        path = Paths.get(storageProps.getLogFile()).toAbsolutePath();
+        storageProps.createFolder(path.getParent().toString());
+        Files.deleteIfExists(path.resolveSibling(path.getFileName() + COMPACT_EXT));
+        final FileChannel logChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        FileLock logLock;
+        try {
+            logLock = logChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            logLock = null;
+        }
+        if (logLock == null) {
+            logChannel.close();
+            throw new IOException("The storage log " + path + " is used by another process");
+        }
+        channel = logChannel;
+        fileLock = logLock;
+        replay();
+    }
+
+    /**
+     * Reads every record of the log to rebuild the indexes, dropping the
+     * records left incomplete by a failed write.
+     */
+    private void replay() throws IOException {
+        collections.clear();
+        liveSize = 0;
+        long position = 0;
+        final long length = channel.size();
+        final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        while (position + Integer.BYTES <= length) {
+            header.clear();
+            readFully(header, position);
+            final int recordSize = header.getInt(0);
+            if (recordSize < HEADER_SIZE + Integer.BYTES || position + recordSize > length) {
+                break;
+            }
+            final ByteBuffer record = ByteBuffer.allocate(recordSize);
+            readFully(record, position);
+            if (!decode(record, position)) {
+                break;
+            }
+            position += recordSize;
+        }
+        if (position < length) {
+            channel.truncate(position);
+            channel.force(true);
+        }
+        size = position;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of the storage log " + path);
+            }
+        }
+    }
+
+    /**
+     * Encodes a record as: the record size, the record type, the last
+     * modification time, the collection, the id, the name (-1 for no name),
+     * the data size, the data and the checksum of everything after the
+     * record size.
+     */
+    private ByteBuffer encode(byte type, long lastModified, String collection, String id, String name, byte[] data) {
+        final byte[] collectionBytes = collection.getBytes(StandardCharsets.UTF_8);
+        final byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        final byte[] nameBytes = name == null ? null : name.getBytes(StandardCharsets.UTF_8);
+        final int size = HEADER_SIZE
+                + Integer.BYTES + collectionBytes.length
+                + Integer.BYTES + idBytes.length
+                + Integer.BYTES + (nameBytes == null ? 0 : nameBytes.length)
+                + Integer.BYTES + data.length
+                + Long.BYTES;
+        final ByteBuffer record = ByteBuffer.allocate(size);
+        record.putInt(size).put(type).putLong(lastModified);
+        record.putInt(collectionBytes.length).put(collectionBytes);
+        record.putInt(idBytes.length).put(idBytes);
+        if (nameBytes == null) {
+            record.putInt(-1);
+        } else {
+            record.putInt(nameBytes.length).put(nameBytes);
+        }
+        record.putInt(data.length).put(data);
+        final CRC32 crc = new CRC32();
+        crc.update(record.array(), Integer.BYTES, size - Integer.BYTES - Long.BYTES);
+        record.putLong(crc.getValue());
+        record.flip();
+        return record;
+    }
+
+    /**
+     * Decodes a record and applies it to the indexes.
+     *
+     * @return false when the record is corrupted
+     */
+    private boolean decode(ByteBuffer record, long position) {
+        final int recordSize = record.capacity();
+        final CRC32 crc = new CRC32();
+        crc.update(record.array(), Integer.BYTES, recordSize - Integer.BYTES - Long.BYTES);
+        if (crc.getValue() != record.getLong(recordSize - Long.BYTES)) {
+            return false;
+        }
+        record.position(Integer.BYTES);
+        final byte type = record.get();
+        final long lastModified = record.getLong();
+        final String collection = readString(record);
+        final String id = readString(record);
+        final String name = readString(record);
+        final int dataSize = record.getInt();
+        final long dataPosition = position + record.position();
+        if (dataSize != recordSize - record.position() - Long.BYTES) {
+            return false;
+        }
+        if (type == PUT) {
+            index(collection, new Entry(id, name, lastModified, position, recordSize, dataPosition));
+        } else if (type == DELETE) {
+            final LogCollection entries = collections.get(collection);
+            final Entry removed = entries == null ? null : entries.remove(id);
+            if (removed != null) {
+                liveSize -= removed.recordSize;
+            }
+        }
+        return true;
+    }
+
+    private static String readString(ByteBuffer record) {
+        final int length = record.getInt();
+        if (length < 0) {
+            return null;
+        }
+        final String value = new String(record.array(), record.position(), length, StandardCharsets.UTF_8);
+        record.position(record.position() + length);
+        return value;
+    }
+
+    private void index(String collection, Entry entry) {
+        final Entry previous = collections.computeIfAbsent(collection, name -> new LogCollection()).put(entry);
+        liveSize += entry.recordSize - (previous == null ? 0 : previous.recordSize);
+    }
+
+    private long append(ByteBuffer record) throws IOException {
+        final long position = size;
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record, position + record.position());
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            // drop the incomplete record
+            channel.truncate(position);
+            throw e;
+        }
+        size += record.limit();
+        return position;
+    }
+
+    /**
+     * Compacts the log when most of it is stale. It is called after a record
+     * was written, so a failed compaction is only logged: the write itself
+     * succeeded, and the log is compacted again after the next one.
+     */
+    private void compactIfNeeded() {
+        final long staleSize = size - liveSize;
+        if (staleSize > MIN_COMPACTION_SIZE && staleSize > liveSize) {
+            try {
+                compact();
+            } catch (IOException e) {
+                LOGGER.error("Could not compact the storage log {}", path, e);
+            }
+        }
+    }
+
+    /**
+     * Rewrites the log with the last version of every entity only. The new
+     * log is written aside, checked and then moved over the current one. The
+     * current log is opened again when the new one can not replace it.
+     */
+    private void compact() throws IOException {
+        final Path compactPath = path.resolveSibling(path.getFileName() + COMPACT_EXT);
+        final long compactedSize;
+        try (FileChannel compacted = FileChannel.open(compactPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (LogCollection entries : collections.values()) {
+                for (Entry entry : entries.byId.values()) {
+                    transferRecord(entry, compacted);
+                }
+            }
+            compacted.force(true);
+            compactedSize = compacted.size();
+        } catch (IOException e) {
+            Files.deleteIfExists(compactPath);
+            throw e;
+        }
+        if (compactedSize != liveSize) {
+            Files.deleteIfExists(compactPath);
+            throw new IOException("The compacted storage log " + compactPath + " has " + compactedSize
+                    + " bytes instead of " + liveSize);
+        }
+        fileLock.release();
+        channel.close();
+        channel = null;
+        try {
+            Files.move(compactPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            // opens the compacted log, or the current one if it was not replaced
+            openLog();
+        }
+    }
+
+    /**
+     * Copies a record to the end of another log, a single transfer may copy
+     * only a part of it.
+     */
+    private void transferRecord(Entry entry, FileChannel target) throws IOException {
+        long copied = 0;
+        while (copied < entry.recordSize) {
+            final long transferred = channel.transferTo(entry.recordPosition + copied, entry.recordSize - copied,
+                    target);
+            if (transferred <= 0) {
+                throw new IOException("Unexpected end of the storage log " + path);
+            }
+            copied += transferred;
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (channel != null) {
+                fileLock.release();
+                channel.close();
+                channel = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The location of the last version of an entity in the log.
+     */
+    private record Entry(String id, String name, long lastModified, long recordPosition, int recordSize,
+            long dataPosition) {
+
+        int dataSize() {
+            return (int) (recordPosition + recordSize - Long.BYTES - dataPosition);
+        }
+    }
+
+    /**
+     * The indexes of the entities of a collection.
+     */
+    private static class LogCollection {
+
+        private static final Comparator<Entry> BY_ID = Comparator.comparing(Entry::id,
+                Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        private final NavigableMap<String, Entry> byId = new TreeMap<>();
+
+        private final NavigableSet<Entry> byName = new TreeSet<>(
+                Comparator.comparing(Entry::name, Comparator.nullsFirst(Comparator.naturalOrder())).thenComparing(BY_ID));
+
+        private final NavigableSet<Entry> byLastModified = new TreeSet<>(
+                Comparator.comparingLong(Entry::lastModified).thenComparing(BY_ID));
+
+        Entry put(Entry entry) {
+            final Entry previous = remove(entry.id);
+            byId.put(entry.id, entry);
+            byName.add(entry);
+            byLastModified.add(entry);
+            return previous;
+        }
+
+        Entry remove(String id) {
+            final Entry removed = byId.remove(id);
+            if (removed != null) {
+                byName.remove(removed);
+                byLastModified.remove(removed);
+            }
+            return removed;
+        }
+    }
+}
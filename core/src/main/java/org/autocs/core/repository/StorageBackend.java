@@ -0,0 +1,110 @@
+/*
+ * Title:        Core Package
+ * Description:  Core package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.repository;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Stores the entities, grouped in collections by their type. The backend is
+ * selected by the {@code storage.backend} property: {@code file} (the default)
+ * stores every entity as a JSON file and {@code log} stores all entities in
+ * a single append-only log.
+ *
+ * <p>
+ * Every write is atomic: a failed write leaves the previous version of the
+ * entity unchanged.
+ * </p>
+ *
+ * @author Ibrahem Mouhamad
+ * @since Core Package 1.0.0
+ */
+
+public interface StorageBackend {
+
+    /**
+     * Gets the ids of the entities of a collection, sorted by id.
+     *
+     * @param collection the collection
+     * @return the entities ids
+     */
+    List<String> ids(String collection) throws IOException;
+
+    /**
+     * Gets the number of entities of a collection.
+     *
+     * @param collection the collection
+     * @return the number of entities
+     */
+    int count(String collection) throws IOException;
+
+    /**
+     * Gets an entity.
+     *
+     * @param collection the entity collection
+     * @param id         the entity id
+     * @return the entity
+     * @throws FileNotFoundException when the entity does not exist
+     */
+    StoredEntity get(String collection, String id) throws IOException;
+
+    /**
+     * Gets every entity of a collection, sorted by id.
+     *
+     * @param collection the collection
+     * @return the entities
+     */
+    default List<StoredEntity> list(String collection) throws IOException {
+        return list(collection, StorageIndex.ID, false, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets a page of the entities of a collection.
+     *
+     * @param collection the collection
+     * @param index      the order of the entities
+     * @param descending whether the entities are listed in descending order
+     * @param offset     the number of entities to skip
+     * @param limit      the maximum number of entities to get
+     * @return the entities
+     */
+    List<StoredEntity> list(String collection, StorageIndex index, boolean descending, int offset, int limit)
+            throws IOException;
+
+    /**
+     * Gets the entities of a collection with a given name, sorted by id.
+     *
+     * @param collection the collection
+     * @param name       the entities name
+     * @return the entities
+     */
+    List<StoredEntity> findByName(String collection, String name) throws IOException;
+
+    /**
+     * Writes an entity, replacing any previous version.
+     *
+     * @param collection the entity collection
+     * @param id         the entity id
+     * @param tree       the entity content
+     * @return the stored entity
+     */
+    StoredEntity save(String collection, String id, JsonNode tree) throws IOException;
+
+    /**
+     * Deletes an entity, if it exists.
+     *
+     * @param collection the entity collection
+     * @param id         the entity id
+     */
+    void delete(String collection, String id) throws IOException;
+}
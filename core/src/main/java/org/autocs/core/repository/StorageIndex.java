@@ -0,0 +1,68 @@
+/*
+ * Title:        Core Package
+ * Description:  Core package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.repository;
+
+import java.util.Comparator;
+
+/**
+ * The orders a {@link StorageBackend} can list the entities of a collection
+ * in. Entities with the same key are always ordered by id.
+ *
+ * @author Ibrahem Mouhamad
+ * @since Core Package 1.0.0
+ */
+
+public enum StorageIndex {
+    ID("id"),
+    NAME("name"),
+    LAST_MODIFIED("lastModified");
+
+    private final String name;
+
+    StorageIndex(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the name of the entity field the index is built on.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the index built on an entity field.
+     *
+     * @param name the name of the field
+     * @return the index, or null when no index is built on the field
+     */
+    public static StorageIndex fromName(String name) {
+        for (StorageIndex index : values()) {
+            if (index.name.equals(name)) {
+                return index;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compares the keys of two entities, where entities with no name are
+     * ordered first.
+     */
+    Comparator<StoredEntity> comparator() {
+        final Comparator<StoredEntity> byId = Comparator.comparing(StoredEntity::id);
+        return switch (this) {
+            case ID -> byId;
+            case NAME -> Comparator.comparing(StoredEntity::name, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(byId);
+            case LAST_MODIFIED -> Comparator.comparingLong(StoredEntity::lastModified).thenComparing(byId);
+        };
+    }
+}
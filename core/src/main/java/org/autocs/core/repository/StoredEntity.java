@@ -0,0 +1,39 @@
+/*
+ * Title:        Core Package
+ * Description:  Core package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * An entity as stored by a {@link StorageBackend}.
+ *
+ * @param id           the entity id
+ * @param lastModified the time the entity was last written
+ * @param size         the size (in bytes) of the stored entity
+ * @param tree         the entity content
+ *
+ * @author Ibrahem Mouhamad
+ * @since Core Package 1.0.0
+ */
+
+public record StoredEntity(String id, long lastModified, long size, JsonNode tree) {
+
+    /**
+     * Gets the name of the entity, or null when it has no name.
+     */
+    public String name() {
+        return nameOf(tree);
+    }
+
+    static String nameOf(JsonNode tree) {
+        final JsonNode name = tree.get("name");
+        return name == null || name.isNull() ? null : name.asText();
+    }
+}
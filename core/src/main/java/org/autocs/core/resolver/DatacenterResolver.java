@@ -17,6 +17,7 @@ import org.cloudbus.cloudsim.hosts.Host;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.autocs.core.history.HistoryPolicy;
 import org.autocs.core.loader.PolicyLoader;
 
 /**
@@ -59,7 +60,25 @@ public class DatacenterResolver {
                 .setSchedulingInterval((int) datacenterEntity.getProperties().get("schedulingInterval"));
         // enable state history
         datacenter.enableStateHistory();
+        final HistoryPolicy historyPolicy = HistoryPolicy
+                .fromName((String) datacenterEntity.getProperties().get("historyPolicy"));
+        datacenter.setStateHistoryPolicy(historyPolicy,
+                historyInterval(historyPolicy, datacenterEntity.getProperties().get("historyInterval")));
         datacenter.setName(datacenterEntity.getName());
         return datacenter;
     }
+
+    /**
+     * Gets the history interval of a datacenter, or the default one when it is
+     * missing or invalid for the policy: the interval policy keeps every state
+     * with an interval of 0, but the bucketed policies need buckets wider than
+     * 0.
+     */
+    private static double historyInterval(final HistoryPolicy historyPolicy, final Object historyInterval) {
+        if (historyInterval instanceof Number interval && (interval.doubleValue() > 0
+                || interval.doubleValue() == 0 && historyPolicy == HistoryPolicy.INTERVAL)) {
+            return interval.doubleValue();
+        }
+        return DatacenterSimple.DEF_STATE_HISTORY_INTERVAL;
+    }
 }
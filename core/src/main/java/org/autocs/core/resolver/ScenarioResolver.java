@@ -62,8 +62,9 @@ public class ScenarioResolver {
                 .forEach(datacenterEntity -> {
                     final String name = datacenterEntity.getName();
                     for (int i = 0; i < datacenterEntity.getAmount(); i++) {
-                        datacenterEntity.setName(name + "_" + i);
+                        // the scenario entity is shared between experiments, so it is not renamed
                         Datacenter datacenter = this.datacenterResolver.resolve(datacenterEntity);
+                        datacenter.setName(name + "_" + i);
                         datacenters.add(datacenter);
                     }
                 });
@@ -77,8 +78,8 @@ public class ScenarioResolver {
                 .forEach(brokerEntity -> {
                     final String name = brokerEntity.getName();
                     for (int i = 0; i < brokerEntity.getAmount(); i++) {
-                        brokerEntity.setName(name + "_" + i);
                         DatacenterBroker broker = this.datacenterBrokerResolver.resolve(brokerEntity);
+                        broker.setName(name + "_" + i);
                         brokers.add(broker);
                         // get vms
                         vmsToBrokerMap.put(broker,
@@ -0,0 +1,44 @@
+/*
+ * Title:        Core Package
+ * Description:  Core package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.serializer;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import org.cloudbus.cloudsim.datacenters.DatacenterStateHistoryEntry;
+import org.autocs.core.metrics.DatacenterMetrics;
+
+/**
+ * Jackson module writing the datacenters state history of the metrics as
+ * columns, which is much more compact for long simulations. It is used for
+ * the messages between the engine and the backend and for the stored runs,
+ * while the REST API keeps returning a list of entries.
+ *
+ * @author Ibrahem Mouhamad
+ * @since Core Package 1.0.0
+ */
+
+public class ColumnarHistoryModule extends SimpleModule {
+
+    public ColumnarHistoryModule() {
+        super("ColumnarHistoryModule");
+        setMixInAnnotation(DatacenterMetrics.class, DatacenterMetricsMixIn.class);
+    }
+
+    abstract static class DatacenterMetricsMixIn {
+
+        @JsonSerialize(using = DatacenterHistorySerializer.class)
+        @JsonDeserialize(using = DatacenterHistoryDeserializer.class)
+        private List<DatacenterStateHistoryEntry> history;
+    }
+}
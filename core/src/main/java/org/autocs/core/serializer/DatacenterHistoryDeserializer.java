@@ -0,0 +1,85 @@
+/*
+ * Title:        Core Package
+ * Description:  Core package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.serializer;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import org.cloudbus.cloudsim.datacenters.DatacenterStateHistory;
+import org.cloudbus.cloudsim.datacenters.DatacenterStateHistory.Field;
+import org.cloudbus.cloudsim.datacenters.DatacenterStateHistoryEntry;
+
+/**
+ * Deserializer for the datacenter state history written by
+ * {@link DatacenterHistorySerializer}. Histories written as a list of entries
+ * are accepted as well.
+ *
+ * @author Ibrahem Mouhamad
+ * @since Core Package 1.0.0
+ */
+
+public class DatacenterHistoryDeserializer extends StdDeserializer<List<DatacenterStateHistoryEntry>> {
+
+    private static final double[] EMPTY_COLUMN = new double[0];
+
+    public DatacenterHistoryDeserializer() {
+        super(List.class);
+    }
+
+    @Override
+    public List<DatacenterStateHistoryEntry> deserialize(JsonParser parser, DeserializationContext context)
+            throws IOException {
+        if (parser.currentToken() == JsonToken.START_ARRAY) {
+            final DatacenterStateHistory history = new DatacenterStateHistory();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                history.add(context.readValue(parser, DatacenterStateHistoryEntry.class));
+            }
+            return history;
+        }
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            context.reportWrongTokenException(this, JsonToken.START_OBJECT, "expected the history columns");
+        }
+        final Map<Field, double[]> columns = new EnumMap<>(Field.class);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            parser.nextToken();
+            final double[] column = context.readValue(parser, double[].class);
+            for (Field field : Field.values()) {
+                if (field.getName().equals(name)) {
+                    columns.put(field, column);
+                }
+            }
+        }
+
+        final double[] time = columns.getOrDefault(Field.TIME, EMPTY_COLUMN);
+        final double[] allocatedMips = columns.getOrDefault(Field.ALLOCATED_MIPS, EMPTY_COLUMN);
+        final double[] requestedMips = columns.getOrDefault(Field.REQUESTED_MIPS, EMPTY_COLUMN);
+        final double[] ramUtilization = columns.getOrDefault(Field.RAM_UTILIZATION, EMPTY_COLUMN);
+        final double[] bwUtilization = columns.getOrDefault(Field.BW_UTILIZATION, EMPTY_COLUMN);
+        final double[] activeHosts = columns.getOrDefault(Field.ACTIVE_HOSTS, EMPTY_COLUMN);
+        final DatacenterStateHistory history = new DatacenterStateHistory(time.length);
+        for (int i = 0; i < time.length; i++) {
+            history.add(new DatacenterStateHistoryEntry(time[i], valueAt(allocatedMips, i), valueAt(requestedMips, i),
+                    valueAt(ramUtilization, i), valueAt(bwUtilization, i), valueAt(activeHosts, i)));
+        }
+        return history;
+    }
+
+    private static double valueAt(double[] column, int index) {
+        return index < column.length ? column[index] : 0;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Title:        Core Package
+ * Description:  Core package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.serializer;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import org.cloudbus.cloudsim.datacenters.DatacenterStateHistory;
+import org.cloudbus.cloudsim.datacenters.DatacenterStateHistoryEntry;
+
+/**
+ * Serializer for the datacenter state history, writing one array per field
+ * instead of one object per entry
+ *
+ * @author Ibrahem Mouhamad
+ * @since Core Package 1.0.0
+ */
+
+public class DatacenterHistorySerializer extends StdSerializer<List<DatacenterStateHistoryEntry>> {
+
+    @SuppressWarnings("unchecked")
+    public DatacenterHistorySerializer() {
+        super((Class<List<DatacenterStateHistoryEntry>>) (Class<?>) List.class);
+    }
+
+    @Override
+    public void serialize(List<DatacenterStateHistoryEntry> history, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        final DatacenterStateHistory columns = history instanceof DatacenterStateHistory stateHistory
+                ? stateHistory
+                : DatacenterStateHistory.copyOf(history);
+        gen.writeStartObject();
+        for (DatacenterStateHistory.Field field : DatacenterStateHistory.Field.values()) {
+            final double[] column = columns.getColumn(field);
+            gen.writeFieldName(field.getName());
+            gen.writeArray(column, 0, column.length);
+        }
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Title:        Core Package
+ * Description:  Core package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.serializer;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractMessageConverter;
+import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
+import org.springframework.amqp.support.converter.Jackson2JavaTypeMapper;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+/**
+ * Message converter writing the messages in the Smile binary format, with
+ * the datacenters state history written as columns. The Java type of the
+ * payload is resolved as the JSON message converter does.
+ *
+ * @author Ibrahem Mouhamad
+ * @since Core Package 1.0.0
+ */
+
+public class Jackson2SmileMessageConverter extends AbstractMessageConverter {
+
+    public static final String CONTENT_TYPE_SMILE = "application/x-jackson-smile";
+
+    private final ObjectMapper objectMapper = new ObjectMapper(new SmileFactory())
+            .findAndRegisterModules()
+            .registerModule(new ColumnarHistoryModule());
+
+    private final Jackson2JavaTypeMapper typeMapper = new DefaultJackson2JavaTypeMapper();
+
+    @Override
+    protected Message createMessage(Object object, MessageProperties messageProperties) {
+        try {
+            final byte[] bytes = objectMapper.writeValueAsBytes(object);
+            messageProperties.setContentType(CONTENT_TYPE_SMILE);
+            messageProperties.setContentLength(bytes.length);
+            typeMapper.fromJavaType(objectMapper.constructType(object.getClass()), messageProperties);
+            return new Message(bytes, messageProperties);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to convert Message content", e);
+        }
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        try {
+            return objectMapper.readValue(message.getBody(), typeMapper.toJavaType(message.getMessageProperties()));
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to convert Message content", e);
+        }
+    }
+}
@@ -10,26 +10,34 @@
 package org.autocs.core.service;
 
 import java.util.List;
-import java.util.stream.Stream;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
-import java.sql.Timestamp;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.fasterxml.jackson.core.exc.StreamReadException;
 import com.fasterxml.jackson.core.exc.StreamWriteException;
+import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import org.autocs.core.StorageProperties;
+import org.autocs.core.repository.StorageBackend;
+import org.autocs.core.repository.StorageIndex;
+import org.autocs.core.repository.StoredEntity;
 import org.autocs.core.model.Entity;
+import org.autocs.core.model.EntityPage;
+import org.autocs.core.model.EntityQuery;
 
 /**
  * Entity service
@@ -43,7 +51,16 @@ public class EntityService<T extends Entity> {
 
     protected final String EXT = ".json";
 
-    protected final Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+    /**
+     * The last generated entity id. Ids are creation timestamps, incremented
+     * when several entities are created in the same millisecond.
+     */
+    private static final AtomicLong lastId = new AtomicLong();
+
+    /**
+     * The object fields kept in the entities summaries.
+     */
+    private static final Set<String> SUMMARY_OBJECT_FIELDS = Set.of("properties", "statistics");
 
     @Autowired
     protected StorageProperties storageProps;
@@ -51,6 +68,9 @@ public class EntityService<T extends Entity> {
     @Autowired
     protected ObjectMapper objectMapper;
 
+    @Autowired
+    protected StorageBackend storageBackend;
+
     private Class<T> type;
 
     @SuppressWarnings("unchecked")
@@ -59,37 +79,131 @@ public class EntityService<T extends Entity> {
     }
 
     public List<T> list(String type) throws IOException, StreamReadException, DatabindException {
-        final String entitiesPath = this.getEntitiesDirectoryPath(type);
         List<T> entities = new ArrayList<T>();
+        for (StoredEntity storedEntity : storageBackend.list(this.getCollection(type))) {
+            entities.add(this.toEntity(storedEntity));
+        }
+        return entities;
+    }
 
-        File directory = new File(entitiesPath);
-        if (!directory.exists()) {
-            directory.mkdir();
-            return entities;
+    /**
+     * Gets the page of the entities of a type matching a query. The entities
+     * are filtered and sorted on their stored form, so the entities out of
+     * the page are never deserialized.
+     *
+     * @param type  the entities type
+     * @param query the query
+     * @return the entities in the page
+     */
+    public EntityPage<T> list(String type, EntityQuery query) throws IOException {
+        final EntityPage<StoredEntity> page = this.query(type, query);
+        List<T> entities = new ArrayList<T>();
+        for (StoredEntity storedEntity : page.items()) {
+            entities.add(this.toEntity(storedEntity));
         }
+        return new EntityPage<>(entities, page.total());
+    }
 
-        try (Stream<Path> paths = Files.walk(Paths.get(entitiesPath))) {
-            paths
-                    .filter(Files::isRegularFile)
-                    .forEach(path -> {
-                        try {
-                            T entity = objectMapper.readValue(path.toFile(), this.type);
-                            entity.setId(path.toFile().getName().replace(EXT, ""));
-                            entity.setLastModified(path.toFile().lastModified());
-                            entities.add(entity);
-                        } catch (IOException e) {
-                            throw new RuntimeException(e);
-                        }
-                    });
+    /**
+     * Gets the summaries of the entities of a type matching a query. The
+     * summaries are read from the stored entities, without deserializing the
+     * entities.
+     *
+     * @param type  the entities type
+     * @param query the query
+     * @return the summaries of the entities in the page
+     * @see EntityQuery.View#SUMMARY
+     */
+    public EntityPage<JsonNode> listSummaries(String type, EntityQuery query) throws IOException {
+        final EntityPage<StoredEntity> page = this.query(type, query);
+        List<JsonNode> summaries = new ArrayList<JsonNode>();
+        for (StoredEntity storedEntity : page.items()) {
+            final ObjectNode summary = objectMapper.createObjectNode();
+            storedEntity.tree().fields().forEachRemaining(field -> {
+                if (field.getValue().isValueNode() || SUMMARY_OBJECT_FIELDS.contains(field.getKey())) {
+                    summary.set(field.getKey(), field.getValue());
+                }
+            });
+            summary.put("id", storedEntity.id());
+            summary.put("lastModified", storedEntity.lastModified());
+            summaries.add(summary);
         }
-        return entities;
+        return new EntityPage<>(summaries, page.total());
+    }
+
+    private EntityPage<StoredEntity> query(String type, EntityQuery query) throws IOException {
+        final String collection = this.getCollection(type);
+        final StorageIndex index = StorageIndex.fromName(query.getSortField());
+        if (query.isUnfiltered() && index != null) {
+            // the page is read directly from the storage index
+            return new EntityPage<>(
+                    storageBackend.list(collection, index, query.isDescending(), query.getOffset(), query.getLimit()),
+                    storageBackend.count(collection));
+        }
+        final String sortField = query.getSortField();
+        Comparator<StoredEntity> comparator = Comparator.comparing(
+                storedEntity -> valueOf(storedEntity, sortField), EntityService::compareValues);
+        comparator = comparator.thenComparing(StoredEntity::id);
+        final List<StoredEntity> entities = storageBackend.list(collection).stream()
+                .filter(storedEntity -> matches(storedEntity, query))
+                .sorted(query.isDescending() ? comparator.reversed() : comparator)
+                .toList();
+        return new EntityPage<>(
+                entities.stream().skip(query.getOffset()).limit(query.getLimit()).toList(),
+                entities.size());
+    }
+
+    private static boolean matches(StoredEntity storedEntity, EntityQuery query) {
+        final JsonNode tree = storedEntity.tree();
+        if (query.getSearch() != null) {
+            final String search = query.getSearch().toLowerCase();
+            if (!tree.path("name").asText().toLowerCase().contains(search)
+                    && !tree.path("description").asText().toLowerCase().contains(search)) {
+                return false;
+            }
+        }
+        for (Map.Entry<String, String> filter : query.getFilters().entrySet()) {
+            final JsonNode value = valueOf(storedEntity, filter.getKey());
+            if (!value.isValueNode() || !value.asText().equals(filter.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares two field values, where numbers are compared by value and
+     * missing values are ordered first.
+     */
+    private static int compareValues(JsonNode value1, JsonNode value2) {
+        final boolean missing1 = value1.isMissingNode() || value1.isNull();
+        final boolean missing2 = value2.isMissingNode() || value2.isNull();
+        if (missing1 || missing2) {
+            return Boolean.compare(!missing1, !missing2);
+        }
+        if (value1.isNumber() && value2.isNumber()) {
+            return Double.compare(value1.asDouble(), value2.asDouble());
+        }
+        return value1.asText().compareTo(value2.asText());
+    }
+
+    /**
+     * Gets the value of a field of a stored entity, where nested fields are
+     * separated by dots.
+     */
+    private static JsonNode valueOf(StoredEntity storedEntity, String field) {
+        return switch (field) {
+            case "id" -> TextNode.valueOf(storedEntity.id());
+            case "lastModified" -> LongNode.valueOf(storedEntity.lastModified());
+            default -> storedEntity.tree().at(
+                    JsonPointer.compile("/" + field.replace("~", "~0").replace("/", "~1").replace('.', '/')));
+        };
     }
 
     public T getById(String type, String id) {
-        final String entityPath = this.getEntityFilePath(type, id);
         try {
-            File entityFile = new File(entityPath);
-            T entity = objectMapper.readValue(entityFile, this.type);
+            StoredEntity storedEntity = storageBackend.get(this.getCollection(type), id);
+            T entity = objectMapper.treeToValue(storedEntity.tree(), this.type);
             return entity;
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -98,37 +212,53 @@ public class EntityService<T extends Entity> {
 
     public T create(String type, T newEntity)
             throws StreamWriteException, DatabindException, IOException {
-        final long id = timestamp.getTime();
-        final String entityPath = this.getEntityFilePath(type, "" + id);
+        final long id = this.newId();
         newEntity.setId("" + id);
         newEntity.setLastModified(id);
 
-        objectMapper.configure(SerializationFeature.INDENT_OUTPUT, true);
-        objectMapper.writeValue(new File(entityPath), newEntity);
+        storageBackend.save(this.getCollection(type), "" + id, objectMapper.valueToTree(newEntity));
 
         return newEntity;
     }
 
     public T update(String type, T entity)
             throws StreamWriteException, DatabindException, IOException {
-        final long currentTimestamp = timestamp.getTime();
-        final String entityPath = this.getEntityFilePath(type, entity.getId());
-        entity.setLastModified(currentTimestamp);
+        entity.setLastModified(System.currentTimeMillis());
         entity.setStatistics(new LinkedHashMap<>());
 
-        objectMapper.configure(SerializationFeature.INDENT_OUTPUT, true);
-        objectMapper.writeValue(new File(entityPath), entity);
+        storageBackend.save(this.getCollection(type), entity.getId(), objectMapper.valueToTree(entity));
 
         return entity;
     }
 
     public void deleteById(String type, String id) throws IOException {
-        final String entityPath = this.getEntityFilePath(type, id);
-        Files.deleteIfExists(Paths.get(entityPath));
+        storageBackend.delete(this.getCollection(type), id);
+    }
+
+    /**
+     * Builds a new entity from a stored one, so the entity can be modified
+     * without changing the stored entity.
+     */
+    protected T toEntity(StoredEntity storedEntity) throws IOException {
+        T entity = objectMapper.treeToValue(storedEntity.tree(), this.type);
+        entity.setId(storedEntity.id());
+        entity.setLastModified(storedEntity.lastModified());
+        return entity;
+    }
+
+    protected long newId() {
+        return lastId.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+    }
+
+    /**
+     * Gets the storage collection of the entities of a type.
+     */
+    protected String getCollection(String type) {
+        return type;
     }
 
     protected String getEntitiesDirectoryPath(String type) {
-        return storageProps.getEntityDirectory() + File.separator + type;
+        return storageProps.getCollectionDirectory(this.getCollection(type));
     }
 
     protected String getEntityFilePath(String type, String id) {
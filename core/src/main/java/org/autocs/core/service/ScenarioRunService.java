@@ -9,20 +9,33 @@
 
 package org.autocs.core.service;
 
-import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.annotation.PostConstruct;
 
 import org.springframework.stereotype.Service;
 
-import com.fasterxml.jackson.core.exc.StreamReadException;
 import com.fasterxml.jackson.core.exc.StreamWriteException;
 import com.fasterxml.jackson.databind.DatabindException;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.cloudbus.cloudsim.datacenters.DatacenterStateHistory;
+import org.cloudbus.cloudsim.datacenters.DatacenterStateHistoryEntry;
 
+import org.autocs.core.StorageProperties;
+import org.autocs.core.history.HistoryPolicy;
+import org.autocs.core.history.HistoryRecorder;
+import org.autocs.core.metrics.Metrics;
+import org.autocs.core.metrics.MetricsHistoryFile;
 import org.autocs.core.model.ScenarioRun;
+import org.autocs.core.repository.StoredEntity;
+import org.autocs.core.serializer.ColumnarHistoryModule;
 
 /**
  * Running Experiment service
@@ -34,47 +47,30 @@ import org.autocs.core.model.ScenarioRun;
 @Service
 public class ScenarioRunService extends EntityService<ScenarioRun> {
 
+    private static final String METRICS_EXT = ".metrics";
+
     public ScenarioRunService() {
         super.setType(ScenarioRun.class);
     }
 
-    @Override
-    public List<ScenarioRun> list(String type) throws IOException, StreamReadException, DatabindException {
-        final String entitiesPath = this.getEntitiesDirectoryPath(type);
-        List<ScenarioRun> entities = new ArrayList<ScenarioRun>();
-
-        File directory = new File(entitiesPath);
-        if (!directory.exists()) {
-            directory.mkdir();
-            return entities;
-        }
-
-        Arrays.asList(new File(entitiesPath).listFiles(File::isFile))
-                .forEach(entityFile -> {
-                    try {
-                        ScenarioRun entity = objectMapper.readValue(entityFile, ScenarioRun.class);
-                        entity.setId(entityFile.getName().replace(EXT, ""));
-                        entity.setLastModified(entityFile.lastModified());
-                        entities.add(entity);
-                    } catch (IOException e) {
-                        throw new RuntimeException(e);
-                    }
-                });
-
-        return entities;
+    /*
+     * Runs are stored with the datacenters state history written as columns,
+     * which keeps the files of long simulations small
+     */
+    @PostConstruct
+    private void registerColumnarHistory() {
+        this.objectMapper = this.objectMapper.copy().registerModule(new ColumnarHistoryModule());
     }
 
     @Override
     public ScenarioRun create(String type, ScenarioRun newEntity)
             throws StreamWriteException, DatabindException, IOException {
-        final long id = timestamp.getTime();
-        final String entityPath = this.getEntityFilePath("runs", "" + id);
+        final long id = this.newId();
         newEntity.setId("" + id);
         newEntity.setLastModified(id);
-        newEntity.setOutputPath(entityPath);
+        newEntity.setOutputPath(this.getEntityFilePath(type, "" + id));
 
-        objectMapper.configure(SerializationFeature.INDENT_OUTPUT, true);
-        objectMapper.writeValue(new File(entityPath), newEntity);
+        storageBackend.save(this.getCollection(type), "" + id, objectMapper.valueToTree(newEntity));
 
         return newEntity;
     }
@@ -82,20 +78,123 @@ public class ScenarioRunService extends EntityService<ScenarioRun> {
     @Override
     public ScenarioRun update(String type, ScenarioRun entity)
             throws StreamWriteException, DatabindException, IOException {
-        final long currentTimestamp = timestamp.getTime();
         entity.setIsRunning(false);
-        entity.setLastModified(currentTimestamp);
-
-        objectMapper.configure(SerializationFeature.INDENT_OUTPUT, true);
-        objectMapper.writeValue(
-                new File(getEntityFilePath("runs", entity.getId())),
-                entity);
+        entity.setLastModified(System.currentTimeMillis());
+
+        final ObjectNode tree = objectMapper.valueToTree(entity);
+        final Metrics metrics = entity.getMetrics();
+        if (metrics != null && metrics.getDatacentersMetrics() != null) {
+            // the history is stored apart, so the run is read without it
+            this.getMetricsHistoryFile(entity.getId()).write(metrics.getDatacentersMetrics());
+            tree.path("metrics").path("datacentersMetrics").forEach(datacenterMetrics -> {
+                if (datacenterMetrics instanceof ObjectNode node) {
+                    node.remove("history");
+                }
+            });
+        }
+        storageBackend.save(this.getCollection(type), entity.getId(), tree);
 
         return entity;
     }
 
     @Override
-    protected String getEntitiesDirectoryPath(String type) {
-        return storageProps.getRunDirectory();
+    public void deleteById(String type, String id) throws IOException {
+        super.deleteById(type, id);
+        Files.deleteIfExists(this.getMetricsHistoryPath(id));
+    }
+
+    /**
+     * Gets the state history of a datacenter of a run over a time range. When
+     * the range holds more entries than requested, the entries are selected
+     * by a history policy, as if they had been recorded by this policy.
+     *
+     * @param id         the run id
+     * @param datacenter the datacenter name
+     * @param from       the start time of the range, included
+     * @param to         the end time of the range, included
+     * @param points     the maximum number of entries, where 0 means all the
+     *                   entries of the range
+     * @param policy     the policy selecting the entries
+     * @return the history entries
+     * @throws NoSuchElementException when the run does not exist or has no
+     *                                history for the datacenter
+     */
+    public List<DatacenterStateHistoryEntry> getHistory(String id, String datacenter, double from, double to,
+            int points, HistoryPolicy policy) throws IOException {
+        final MetricsHistoryFile file = this.getMetricsHistoryFile(id);
+        final DatacenterStateHistory history = file.exists()
+                ? file.read(datacenter, from, to)
+                : this.getStoredHistory(id, datacenter, from, to);
+        if (history == null) {
+            throw new NoSuchElementException("The run " + id + " has no history for the datacenter " + datacenter);
+        }
+        if (points <= 0 || history.size() <= points) {
+            return history;
+        }
+        final double start = history.getTime(0);
+        final double end = history.getTime(history.size() - 1);
+        if (end == start) {
+            // the entries can not be split into buckets of time
+            return history.subList(0, points);
+        }
+        // the buckets are aligned on multiples of their width, so the range may overlap one more bucket, and the
+        // policies may keep the first and the last entries apart, while the min-max policy keeps two entries per bucket
+        final int buckets = policy == HistoryPolicy.MIN_MAX ? Math.max(1, points / 2 - 1) : Math.max(1, points - 2);
+        final DatacenterStateHistory sampled = new DatacenterStateHistory(points);
+        final HistoryRecorder recorder = sampled.newRecorder(policy, (end - start) / buckets);
+        final double[][] columns = new double[DatacenterStateHistory.Field.values().length][];
+        for (DatacenterStateHistory.Field field : DatacenterStateHistory.Field.values()) {
+            columns[field.ordinal()] = history.getColumn(field);
+        }
+        final double[] values = new double[DatacenterStateHistory.VALUES_NUMBER];
+        for (int i = 0; i < history.size(); i++) {
+            for (int field = 0; field < values.length; field++) {
+                values[field] = columns[field + 1][i];
+            }
+            recorder.record(columns[0][i], values);
+        }
+        recorder.flush();
+        // only when too few entries are requested for the buckets the policy needs
+        return sampled.size() > points ? sampled.subList(0, points) : sampled;
+    }
+
+    /**
+     * Gets the history of a run stored before the history was stored apart.
+     *
+     * @throws NoSuchElementException when the run does not exist
+     */
+    private DatacenterStateHistory getStoredHistory(String id, String datacenter, double from, double to)
+            throws IOException {
+        final StoredEntity storedRun;
+        try {
+            storedRun = storageBackend.get(StorageProperties.RUNS_COLLECTION, id);
+        } catch (FileNotFoundException e) {
+            throw new NoSuchElementException("The run " + id + " does not exist");
+        }
+        final Metrics metrics = objectMapper.treeToValue(storedRun.tree(), ScenarioRun.class).getMetrics();
+        if (metrics == null || metrics.getDatacentersMetrics() == null) {
+            return null;
+        }
+        return metrics.getDatacentersMetrics().stream()
+                .filter(datacenterMetrics -> datacenter.equals(datacenterMetrics.getName())
+                        && datacenterMetrics.getHistory() != null)
+                .findFirst()
+                .map(datacenterMetrics -> DatacenterStateHistory.copyOf(datacenterMetrics.getHistory().stream()
+                        .filter(entry -> entry.time() >= from && entry.time() <= to)
+                        .toList()))
+                .orElse(null);
+    }
+
+    private Path getMetricsHistoryPath(String id) {
+        return Paths.get(storageProps.getRunDirectory(), id + METRICS_EXT);
+    }
+
+    private MetricsHistoryFile getMetricsHistoryFile(String id) {
+        return MetricsHistoryFile.of(this.getMetricsHistoryPath(id));
+    }
+
+    @Override
+    protected String getCollection(String type) {
+        return StorageProperties.RUNS_COLLECTION;
     }
 }
@@ -9,18 +9,28 @@
 
 package org.autocs.sdn.control.controllers;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.cloudbus.cloudsim.brokers.DatacenterBroker;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.hosts.network.NetworkHost;
 import org.cloudbus.cloudsim.datacenters.network.NetworkDatacenter;
 import org.cloudbus.cloudsim.network.topologies.NetworkTopology;
+import org.cloudbus.cloudsim.vms.network.NetworkVm;
+import org.cloudsimplus.listeners.DatacenterVmMigrationEventInfo;
 
 import org.autocs.sdn.control.network.virtual.Channel;
 import org.autocs.sdn.control.network.virtual.VirtualLink;
 import org.autocs.sdn.control.network.virtual.VirtualTopology;
+import org.autocs.sdn.control.tables.ForwardingKey;
 import org.autocs.sdn.control.tables.ForwardingTable;
 import org.autocs.sdn.data.networkelement.NetworkElement;
 import org.autocs.sdn.control.network.physical.PhysicalLink;
@@ -31,6 +41,13 @@ import org.slf4j.LoggerFactory;
 /**
  * An abstract class for implementing SDN Controller
  *
+ * <p>
+ * The controller keeps the path of every admitted virtual link, so when a
+ * {@link NetworkVm} migrates or a {@link PhysicalLink} saturates only the
+ * affected virtual links are routed again, updating their forwarding rules
+ * and channels in place.
+ * </p>
+ *
  * @author Ibrahem Mouhamad
  * @since AutoCS SDN Package 1.0.0
  */
@@ -49,11 +66,56 @@ public abstract class AbstractedController<T extends NetworkTopology> implements
      */
     private Map<DatacenterBroker, VirtualTopology> userToVirtualTopologyMap;
 
+    /**
+     * the virtual links rejected because their path has not enough bandwidth
+     * available, in the order they were rejected
+     */
+    private final List<VirtualLink> rejectedVirtualLinks;
+
+    /**
+     * The default load over which a physical link is saturated.
+     *
+     * @see #setLinkSaturationThreshold(double)
+     */
+    public static final double DEF_LINK_SATURATION_THRESHOLD = 1.0;
+
+    /**
+     * the path of every admitted virtual link, identified by its flow id
+     */
+    private final Map<Long, List<ForwardingHop>> deployedPaths;
+
+    /**
+     * the saturated links whose virtual links are to be routed again
+     */
+    private final Set<PhysicalLink> saturatedLinks;
+
+    /**
+     * the listener added to the physical links of the admitted virtual links
+     */
+    private final Consumer<PhysicalLink> linkLoadListener;
+
+    /**
+     * @see #setLinkSaturationThreshold(double)
+     */
+    private double linkSaturationThreshold;
+
+    /**
+     * indicates if the paths of virtual links are being updated, the
+     * saturated links being handled once the update finishes
+     */
+    private boolean updatingPaths;
+
     public AbstractedController(NetworkDatacenter datacenter) {
         this.datacenter = datacenter;
         this.userToVirtualTopologyMap = new HashMap<>();
+        this.rejectedVirtualLinks = new ArrayList<>();
+        this.deployedPaths = new HashMap<>();
+        this.saturatedLinks = new LinkedHashSet<>();
+        this.linkLoadListener = this::onLinkLoadChange;
+        this.linkSaturationThreshold = DEF_LINK_SATURATION_THRESHOLD;
         // We assume that the network topology is already created
         this.buildRoutingTables();
+        datacenter.addOnVmMigrationFinishListener(this::onVmMigrationFinish);
     }
 
     /**
@@ -89,28 +151,46 @@ public abstract class AbstractedController<T extends NetworkTopology> implements
      * @param virtualTopology
      */
     private void deployVirtualTopology(VirtualTopology virtualTopology) {
-        for (VirtualLink link : virtualTopology.getAllLinks()) {
-            deployVirtualLink(link);
-        }
+        updatePaths(() -> {
+            for (VirtualLink link : virtualTopology.getAllLinks()) {
+                deployVirtualLink(link);
+            }
+        });
+    }
+
+    private boolean deployVirtualLink(VirtualLink link) {
+        final List<ForwardingHop> path = findPath(link);
+        return path != null && admitVirtualLink(link, path, getDestinationHost(link));
     }
 
-    private void deployVirtualLink(VirtualLink link) {
+    private NetworkHost getDestinationHost(VirtualLink link) {
+        return link.getVirtualTopology().getNetworkVmById(link.getDstId()).getHost();
+    }
+
+    /**
+     * Finds the path of a virtual link between the current hosts of its vms
+     *
+     * @param link
+     * @return the hops of the path, or null if a vm is not placed in a host
+     */
+    private List<ForwardingHop> findPath(VirtualLink link) {
         NetworkHost srcHost = link.getVirtualTopology().getNetworkVmById(link.getSrcId()).getHost();
-        NetworkHost destHost = link.getVirtualTopology().getNetworkVmById(link.getDstId()).getHost();
+        NetworkHost destHost = getDestinationHost(link);
         if (srcHost == null || destHost == null) {
-            return;
+            return null;
         }
 
+        final List<ForwardingHop> path = new ArrayList<>();
         /**
          * first case: the source and destination vms in the same host -> add loopback
          */
         if (srcHost.equals(destHost)) {
-            addForwardingRule(link, srcHost.getForwardingTable(), srcHost, srcHost, false);
-            return;
+            addForwardingHop(path, link, srcHost, srcHost, false);
+            return path;
         }
 
         // Add rule in the source host to forward to its edge switch
-        addForwardingRule(link, srcHost.getForwardingTable(), srcHost, srcHost.getEdgeSwitch(), true);
+        addForwardingHop(path, link, srcHost, srcHost.getEdgeSwitch(), true);
 
         /**
          * second case: the source and destination vms in different hosts, which they
@@ -118,9 +198,8 @@ public abstract class AbstractedController<T extends NetworkTopology> implements
          */
         if (srcHost.getEdgeSwitch().equals(destHost.getEdgeSwitch())) {
             // Add rule to their edge switch
-            addForwardingRule(link, srcHost.getEdgeSwitch().getForwardingTable(), srcHost.getEdgeSwitch(), destHost,
-                    true);
-            return;
+            addForwardingHop(path, link, srcHost.getEdgeSwitch(), destHost, false);
+            return path;
         }
 
         /**
@@ -131,40 +210,244 @@ public abstract class AbstractedController<T extends NetworkTopology> implements
          * forwarding rule for each node with this path
          */
         deployVirtualLinkBasedOnShortestPath(srcHost.getEdgeSwitch(), destHost.getEdgeSwitch(),
-                link, destHost);
+                link, destHost, path);
+        return path;
+    }
 
+    /**
+     * A hop of the path of a virtual link, from a network element to the next
+     * one through a physical link.
+     *
+     * @param src     the network element forwarding the packets of the link
+     * @param nextHop the network element the packets are forwarded to
+     * @param link    the physical link between them, or null if there is none
+     */
+    protected record ForwardingHop(NetworkElement src, NetworkElement nextHop, PhysicalLink link) {
     }
 
     /**
-     * Tries to adding new forwarding rule
+     * Adds a hop to the path of a virtual link, resolving the physical link
+     * used by the hop. When this link can not carry the virtual link, the
+     * link with the most available bandwidth among the links to the same
+     * destination is used instead. The forwarding rule of the hop is only
+     * added once the whole path is admitted.
      *
+     * @param path            the path of the virtual link
      * @param vLink
-     * @param table
      * @param src
      * @param dest
-     * @return
+     * @param useDefaultRoute
+     * @see #admitVirtualLink(VirtualLink, List, NetworkHost)
      */
-    protected void addForwardingRule(final VirtualLink vLink, final ForwardingTable table, final NetworkElement src,
-            final NetworkElement dest, final boolean useDefaultRoute) {
+    protected void addForwardingHop(final List<ForwardingHop> path, final VirtualLink vLink,
+            final NetworkElement src, final NetworkElement dest, final boolean useDefaultRoute) {
         // get the physical link to the destination
-        PhysicalLink Plink = null;
-        if (!useDefaultRoute) {
-            Plink = src.getRoutingTable().resolve(dest);
-        } else {
-            Plink = src.getRoutingTable().resolve(null);
+        final NetworkElement key = useDefaultRoute ? null : dest;
+        PhysicalLink Plink = src.getRoutingTable().resolve(key, vLink.getId());
+        if (Plink != null && !canCarry(Plink, vLink)) {
+            for (final PhysicalLink link : src.getRoutingTable().getLinks(key)) {
+                if (link.getAvailableBandwidth(vLink.getId()) > Plink.getAvailableBandwidth(vLink.getId())) {
+                    Plink = link;
+                }
+            }
+        }
+        path.add(new ForwardingHop(src, dest, Plink));
+    }
+
+    /**
+     * Checks if a physical link can carry a virtual link without going over
+     * the {@link #getLinkSaturationThreshold() saturation threshold}, the
+     * bandwidth already reserved in the link by the virtual link being
+     * available to it.
+     */
+    private boolean canCarry(final PhysicalLink link, final VirtualLink vLink) {
+        return link != null && link.getAvailableBandwidth(vLink.getId())
+                - (1 - linkSaturationThreshold) * link.getBw().getCapacity() >= vLink.getRequiredBandwidth();
+    }
+
+    /**
+     * Admits a virtual link if all the physical links of its path have its
+     * required bandwidth available. The bandwidth is reserved on every hop by
+     * deploying a channel, and the reservations already made are rolled back
+     * as soon as one hop can not be reserved, so either the whole path is
+     * reserved or nothing is. The forwarding rules of the path are only added
+     * to the forwarding tables when the link is admitted, otherwise the link
+     * is added to the {@link #getRejectedVirtualLinks() rejected links}.
+     * The controller listens to the load of the physical links of the
+     * admitted paths, to route their virtual links again when they saturate.
+     * The flows going to the same host through the same next hop share a
+     * single rule matching the host.
+     *
+     * @param vLink    the virtual link to admit
+     * @param path     the path of the virtual link
+     * @param destHost the host of the destination Vm of the virtual link
+     * @return true if the virtual link was admitted, false otherwise
+     * @see ForwardingTable#addHostRule(long, long, long, long, NetworkElement)
+     */
+    protected boolean admitVirtualLink(final VirtualLink vLink, final List<ForwardingHop> path,
+            final NetworkHost destHost) {
+        for (int i = 0; i < path.size(); i++) {
+            final ForwardingHop hop = path.get(i);
+            if (hop.link() == null) {
+                LOGGER.error(
+                        "No physical link between {} and {} was found when trying to add forwarding rule for flow(Id={}).",
+                        hop.src().getName(), hop.nextHop().getName(), vLink.getId());
+            } else {
+                hop.link().addOnLoadChangeListener(linkLoadListener);
+                if (deployChannelToPhysicalLink(vLink, hop.link())) {
+                    continue;
+                }
+                LOGGER.error("No bandwidth available to deploy flow(Id={}) in the link between {} and {}",
+                        vLink.getId(), hop.src().getName(), hop.nextHop().getName());
+            }
+
+            // roll back the channels deployed in the previous hops
+            for (int j = 0; j < i; j++) {
+                path.get(j).link().removeChannel(vLink.getId());
+            }
+            if (!rejectedVirtualLinks.contains(vLink)) {
+                rejectedVirtualLinks.add(vLink);
+            }
+            return false;
+        }
+
+        for (final ForwardingHop hop : path) {
+            hop.src().getForwardingTable().addHostRule(vLink.getSrcId(), vLink.getDstId(), vLink.getId(),
+                    destHost.getId(), hop.nextHop());
+        }
+        deployedPaths.put(vLink.getId(), path);
+        rejectedVirtualLinks.remove(vLink);
+        return true;
+    }
+
+    /**
+     * Removes an admitted virtual link from its path, releasing the bandwidth
+     * of its channels and removing the forwarding rules matching its flow.
+     * The rules matching the destination host are kept, since they may be
+     * shared with other flows and remain valid.
+     *
+     * @param vLink the virtual link to remove
+     * @return true if the virtual link was admitted, false otherwise
+     */
+    protected boolean undeployVirtualLink(final VirtualLink vLink) {
+        final List<ForwardingHop> path = deployedPaths.remove(vLink.getId());
+        if (path == null) {
+            return false;
         }
 
-        if (Plink == null) {
-            LOGGER.error(
-                    "No physical link between {} and {} was found when trying to add forwarding rule for flow(Id={}).",
-                    src.getName(), dest.getName(), vLink.getId());
-        } else if (deployChannelToPhysicalLink(vLink, Plink)) {
-            table.addRule(vLink.getSrcId(), vLink.getDstId(), vLink.getId(),
-                    dest);
-        } else {
-            LOGGER.error("No bandwidth available to deploy flow(Id={} in the link between {} and {}", vLink.getId(),
-                    src.getName(), dest.getName());
+        final ForwardingKey key = new ForwardingKey(vLink.getSrcId(), vLink.getDstId(), vLink.getId());
+        for (final ForwardingHop hop : path) {
+            hop.link().removeChannel(vLink.getId());
+            hop.src().getForwardingTable().removeRule(key);
         }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * This is called when a vm migration finishes successfully.
+     * </p>
+     */
+    public void rerouteVirtualLinks(final NetworkVm vm) {
+        updatePaths(() -> {
+            for (final VirtualTopology virtualTopology : userToVirtualTopologyMap.values()) {
+                for (final VirtualLink link : virtualTopology.getVirtualLinksByVm(vm)) {
+                    undeployVirtualLink(link);
+                    deployVirtualLink(link);
+                }
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * This is called when the load of a link of an admitted path goes over the
+     * {@link #getLinkSaturationThreshold() saturation threshold}. The virtual
+     * links with the highest required bandwidth are moved first.
+     * </p>
+     */
+    public void rerouteVirtualLinks(final PhysicalLink link) {
+        updatePaths(() -> relieveLink(link));
+    }
+
+    private void onVmMigrationFinish(final DatacenterVmMigrationEventInfo info) {
+        if (info.isMigrationSuccessful() && info.getVm() instanceof NetworkVm vm) {
+            rerouteVirtualLinks(vm);
+        }
+    }
+
+    private void onLinkLoadChange(final PhysicalLink link) {
+        if (link.getLoad() > linkSaturationThreshold) {
+            saturatedLinks.add(link);
+            updatePaths(() -> {
+            });
+        }
+    }
+
+    /**
+     * Runs an update of the paths of virtual links, then routes again the
+     * virtual links of the links saturated during the update. The links
+     * saturated during a nested update are handled by the outer one.
+     */
+    private void updatePaths(final Runnable update) {
+        if (updatingPaths) {
+            update.run();
+            return;
+        }
+
+        updatingPaths = true;
+        try {
+            update.run();
+            while (!saturatedLinks.isEmpty()) {
+                final PhysicalLink link = saturatedLinks.iterator().next();
+                relieveLink(link);
+                // the link is removed after it is relieved, since moving its virtual links notifies its load
+                saturatedLinks.remove(link);
+            }
+        } finally {
+            updatingPaths = false;
+        }
+    }
+
+    /**
+     * Moves the virtual links of a physical link to other paths until its
+     * load is not over the saturation threshold anymore.
+     */
+    private void relieveLink(final PhysicalLink link) {
+        final List<Channel> channels = new ArrayList<>(link.getFlowToChannelsMapping().values());
+        channels.sort(Comparator.comparingDouble(Channel::getBw).reversed());
+        for (final Channel channel : channels) {
+            if (link.getLoad() <= linkSaturationThreshold) {
+                return;
+            }
+            moveVirtualLink(channel.getVirtualLink());
+        }
+    }
+
+    /**
+     * Moves an admitted virtual link to another path if every link of this
+     * path can carry it, otherwise the virtual link is kept in its path.
+     *
+     * @return true if the virtual link was moved, false otherwise
+     */
+    private boolean moveVirtualLink(final VirtualLink vLink) {
+        final List<ForwardingHop> oldPath = deployedPaths.get(vLink.getId());
+        final List<ForwardingHop> path = oldPath == null ? null : findPath(vLink);
+        if (path == null || path.equals(oldPath)) {
+            return false;
+        }
+        for (final ForwardingHop hop : path) {
+            if (!canCarry(hop.link(), vLink)) {
+                return false;
+            }
+        }
+
+        undeployVirtualLink(vLink);
+        return admitVirtualLink(vLink, path, getDestinationHost(vLink));
     }
 
     /**
@@ -180,11 +463,45 @@ public abstract class AbstractedController<T extends NetworkTopology> implements
     }
 
     /**
-     * Gets the shortest path between two nodes and adds forwarding rules in each
-     * node for a specific virtual link
+     * Gets the shortest path between two nodes and adds the hops of a specific
+     * virtual link along this path
+     *
+     * @param path the path of the virtual link to add the hops to
      */
     abstract public void deployVirtualLinkBasedOnShortestPath(SimEntity srcId, SimEntity destId,
-            VirtualLink virtualLink, NetworkHost finalDestination);
+            VirtualLink virtualLink, NetworkHost finalDestination, List<ForwardingHop> path);
+
+    /**
+     * {@inheritDoc}
+     */
+    public List<VirtualLink> getRejectedVirtualLinks() {
+        return Collections.unmodifiableList(rejectedVirtualLinks);
+    }
+
+    /**
+     * Gets the load of a physical link over which it is saturated, and its
+     * virtual links are routed again.
+     *
+     * @see PhysicalLink#getLoad()
+     */
+    public double getLinkSaturationThreshold() {
+        return linkSaturationThreshold;
+    }
+
+    /**
+     * Sets the load of a physical link over which it is saturated. A
+     * threshold lower than 1 keeps a share of the bandwidth of the links free
+     * when routing virtual links again, while the virtual links are still
+     * admitted up to the full bandwidth of the links.
+     *
+     * @param linkSaturationThreshold the threshold, greater than 0
+     */
+    public void setLinkSaturationThreshold(final double linkSaturationThreshold) {
+        if (linkSaturationThreshold <= 0) {
+            throw new IllegalArgumentException("The link saturation threshold must be greater than 0");
+        }
+        this.linkSaturationThreshold = linkSaturationThreshold;
+    }
 
     public Map<DatacenterBroker, VirtualTopology> getUserToVirtualTopologyMap() {
         return userToVirtualTopologyMap;
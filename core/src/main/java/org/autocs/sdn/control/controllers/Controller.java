@@ -8,13 +8,17 @@
  */
 package org.autocs.sdn.control.controllers;
 
+import java.util.List;
 import java.util.Map;
 
+import org.autocs.sdn.control.network.physical.PhysicalLink;
+import org.autocs.sdn.control.network.virtual.VirtualLink;
 import org.autocs.sdn.control.network.virtual.VirtualTopology;
 import org.cloudbus.cloudsim.brokers.DatacenterBroker;
 import org.cloudbus.cloudsim.network.switches.Switch;
 import org.cloudbus.cloudsim.hosts.network.NetworkHost;
 import org.cloudbus.cloudsim.datacenters.network.NetworkDatacenter;
+import org.cloudbus.cloudsim.vms.network.NetworkVm;
 
 /**
  * Represents SDN Controller
@@ -56,4 +60,29 @@ public interface Controller {
      */
     Map<DatacenterBroker, VirtualTopology> getUserToVirtualTopologyMap();
 
+    /**
+     * Gets the virtual links which were rejected because the physical links of
+     * their path had not enough bandwidth available
+     *
+     * @return a read-only list of the rejected virtual links
+     */
+    List<VirtualLink> getRejectedVirtualLinks();
+
+    /**
+     * Routes again the virtual links of a {@link NetworkVm}, after it was
+     * placed in another host
+     *
+     * @param vm the vm whose virtual links are routed again
+     */
+    void rerouteVirtualLinks(NetworkVm vm);
+
+    /**
+     * Routes again some of the virtual links of a saturated
+     * {@link PhysicalLink} through other links, until it is not saturated
+     * anymore
+     *
+     * @param link the saturated link
+     */
+    void rerouteVirtualLinks(PhysicalLink link);
+
 }
@@ -9,13 +9,18 @@
 
 package org.autocs.sdn.control.controllers;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
+import org.autocs.sdn.control.network.physical.PhysicalLink;
+import org.autocs.sdn.control.network.virtual.VirtualLink;
 import org.autocs.sdn.control.network.virtual.VirtualTopology;
 import org.cloudbus.cloudsim.brokers.DatacenterBroker;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEntityNullBase;
 import org.cloudbus.cloudsim.datacenters.network.NetworkDatacenter;
+import org.cloudbus.cloudsim.vms.network.NetworkVm;
 
 /**
  * A class that implements the Null Object Design Pattern for {@link Controller}
@@ -48,4 +53,17 @@ final class ControllerNull implements SimEntityNullBase, Controller {
     public Map<DatacenterBroker, VirtualTopology> getUserToVirtualTopologyMap() {
         return null;
     }
+
+    @Override
+    public List<VirtualLink> getRejectedVirtualLinks() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void rerouteVirtualLinks(NetworkVm vm) {
+    }
+
+    @Override
+    public void rerouteVirtualLinks(PhysicalLink link) {
+    }
 }
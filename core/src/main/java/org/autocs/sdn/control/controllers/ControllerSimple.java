@@ -17,6 +17,7 @@ import org.cloudbus.cloudsim.network.switches.Switch;
 import org.cloudbus.cloudsim.network.topologies.BriteNetworkTopology;
 import org.cloudbus.cloudsim.network.topologies.TopologicalLink;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.autocs.sdn.control.network.physical.PhysicalLink;
@@ -36,6 +37,10 @@ import org.autocs.sdn.data.networkelement.NetworkElement;
 
 public class ControllerSimple extends AbstractedController<BriteNetworkTopology> {
 
+    private static final long FLOW_HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private static final long NODE_HASH_MULTIPLIER = 0xC2B2AE3D27D4EB4FL;
+
     public ControllerSimple(NetworkDatacenter datacenter) {
         super(datacenter);
     }
@@ -173,34 +178,98 @@ public class ControllerSimple extends AbstractedController<BriteNetworkTopology>
      * {@inheritDoc}
      */
     public void deployVirtualLinkBasedOnShortestPath(SimEntity src, SimEntity dest,
-            VirtualLink virtualLink, NetworkHost finalDestination) {
+            VirtualLink virtualLink, NetworkHost finalDestination, List<ForwardingHop> path) {
 
         BriteNetworkTopology topology = (BriteNetworkTopology) this.getDatacenter().getSimulation()
                 .getNetworkTopology();
-        List<Integer> shortestPath = this.getDatacenter().getSimulation().getNetworkTopology()
-                .getShortestPath(topology.getSimEntityBriteId(src), topology.getSimEntityBriteId(dest));
+        List<Integer> shortestPath = selectShortestPath(topology, topology.getSimEntityBriteId(src),
+                topology.getSimEntityBriteId(dest), virtualLink.getId());
 
-        // ToDO: get the bottleneck link bandwidth and check the requirement before
-        // adding the rules
-        for (int nodeId : shortestPath) {
-            SimEntity node = topology.getSimEntityByBriteId(nodeId);
+        // the bandwidth of the hops is checked when the whole path is admitted
+        // the path is walked once, resolving each node once as the next hop of the previous one
+        SimEntity nextHop = shortestPath.isEmpty() ? null : topology.getSimEntityByBriteId(shortestPath.get(0));
+        for (int i = 0; i < shortestPath.size(); i++) {
+            SimEntity node = nextHop;
+            // gets the next node in the path, if there is one
+            nextHop = i + 1 < shortestPath.size() ? topology.getSimEntityByBriteId(shortestPath.get(i + 1)) : null;
             // Here we are dealing with a network element
             if (node instanceof NetworkElement) {
-                // gets the next node index in the path
-                int nextHopIndex = shortestPath.indexOf(nodeId) + 1;
                 // if there is a next node
-                if (shortestPath.size() > nextHopIndex) {
-                    SimEntity nextHop = topology.getSimEntityByBriteId(shortestPath.get(nextHopIndex));
-                    // add rule to the current node
-                    addForwardingRule(virtualLink, ((NetworkElement) node).getForwardingTable(),
-                            ((NetworkElement) node), (NetworkElement) nextHop, false);
+                if (i + 1 < shortestPath.size()) {
+                    // add hop from the current node
+                    addForwardingHop(path, virtualLink, (NetworkElement) node, (NetworkElement) nextHop, false);
                 } else {
                     // we already in the last item in the path
-                    // then we add rule to the final destination
-                    addForwardingRule(virtualLink, ((NetworkElement) node).getForwardingTable(),
-                            ((NetworkElement) node), finalDestination, false);
+                    // then we add hop to the final destination
+                    addForwardingHop(path, virtualLink, (NetworkElement) node, finalDestination, false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Selects the shortest path of a flow among the equal-cost shortest paths
+     * between two nodes. At every node, the flow keeps the next hop where it
+     * already has a channel, otherwise the next hop is selected by hashing
+     * the flow id with the node id, where every next hop gets a share of the
+     * flows proportional to the bandwidth of its link.
+     *
+     * @param topology the network topology
+     * @param src      the id of the source node
+     * @param dest     the id of the destination node
+     * @param flowId   the flow identifier
+     * @return the ids of the nodes of the path
+     */
+    private List<Integer> selectShortestPath(final BriteNetworkTopology topology, final int src, final int dest,
+            final long flowId) {
+        final List<Integer> path = new ArrayList<>();
+        path.add(src);
+        int node = src;
+        while (node != dest) {
+            final List<Integer> nextHops = topology.getShortestPathNextHops(node, dest);
+            if (nextHops.isEmpty()) {
+                // no path made of links with delays, the single shortest path is used
+                return topology.getShortestPath(src, dest);
+            }
+            node = nextHops.size() == 1 ? nextHops.get(0) : selectNextHop(topology, node, nextHops, flowId);
+            path.add(node);
+        }
+        return path;
+    }
+
+    private int selectNextHop(final BriteNetworkTopology topology, final int node, final List<Integer> nextHops,
+            final long flowId) {
+        final SimEntity entity = topology.getSimEntityByBriteId(node);
+        if (entity instanceof NetworkElement element) {
+            for (final int nextHop : nextHops) {
+                if (!(topology.getSimEntityByBriteId(nextHop) instanceof NetworkElement nextElement)) {
+                    continue;
                 }
+                for (final PhysicalLink link : element.getRoutingTable().getLinks(nextElement)) {
+                    if (link.getChannelByFlowId(flowId) != null) {
+                        return nextHop;
+                    }
+                }
+            }
+        }
+
+        // a uniform value in [0, 1) computed from the flow id and the node id
+        final double hash = (((flowId ^ node * NODE_HASH_MULTIPLIER) * FLOW_HASH_MULTIPLIER) >>> 11) * 0x1.0p-53;
+        double totalBw = 0;
+        for (final int nextHop : nextHops) {
+            totalBw += topology.getBw(entity, topology.getSimEntityByBriteId(nextHop));
+        }
+        if (totalBw <= 0) {
+            return nextHops.get((int) (hash * nextHops.size()));
+        }
+
+        double bw = hash * totalBw;
+        for (final int nextHop : nextHops) {
+            bw -= topology.getBw(entity, topology.getSimEntityByBriteId(nextHop));
+            if (bw < 0) {
+                return nextHop;
             }
         }
+        return nextHops.get(nextHops.size() - 1);
     }
 }
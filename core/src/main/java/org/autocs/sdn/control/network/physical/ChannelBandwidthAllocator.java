@@ -0,0 +1,283 @@
+/*
+ * Title:        SDN Package
+ * Description:  SDN package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.sdn.control.network.physical;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.autocs.sdn.control.network.virtual.Channel;
+
+/**
+ * Shares the bandwidth of a {@link PhysicalLink} between the {@link Channel}s
+ * transmitting through it in a max-min fair way, where the demand of every
+ * channel is its required bandwidth.
+ *
+ * <p>
+ * The bandwidth is allocated by progressive filling: the allocation of all
+ * the transmitting channels grows at the same pace, every channel stopping
+ * when it reaches its demand, until the link is full. So a channel gets its
+ * demand when the link is not over subscribed, the channels demanding less
+ * than their fair share leave the surplus to the others, and the total
+ * allocation never exceeds the link capacity. The channels not requiring any
+ * bandwidth are elastic: their demand is the whole link.
+ * </p>
+ *
+ * <p>
+ * The allocation of all the transmitting channels is computed again when a
+ * transmission starts or ends, which updates the bandwidth allocated to the
+ * running transmissions and the time they end, from the data they still have
+ * to transmit. The events of the packets already sent are not delayed again.
+ * </p>
+ *
+ * @author Ibrahem Mouhamad
+ * @since AutoCS SDN Package 1.0.0
+ */
+
+public class ChannelBandwidthAllocator {
+
+    /**
+     * Orders the transmissions by increasing demand, the order of the
+     * progressive filling.
+     */
+    private static final Comparator<Transmission> DEMAND_ORDER = Comparator.comparingDouble(t -> t.demand);
+
+    private final PhysicalLink link;
+
+    /**
+     * The transmission of every transmitting channel, identified by its flow
+     * id.
+     */
+    private final Map<Long, Transmission> transmissions;
+
+    /**
+     * The transmissions by end time, which may contain several entries for the
+     * same transmission, only the entry having its current end time being
+     * valid.
+     */
+    private final PriorityQueue<TransmissionEnd> transmissionEnds;
+
+    /**
+     * Indicates if transmissions started or ended since the bandwidth was
+     * last allocated.
+     */
+    private boolean allocationOutdated;
+
+    public ChannelBandwidthAllocator(final PhysicalLink link) {
+        this.link = link;
+        this.transmissions = new HashMap<>();
+        this.transmissionEnds = new PriorityQueue<>();
+    }
+
+    /**
+     * Starts a transmission of a channel, which shares the link from now on.
+     * The transmissions of all the channels sending data at the same time must
+     * be started before any bandwidth is allocated, so they all get their
+     * share.
+     *
+     * @param flowId  the flow id of the channel
+     * @param channel the channel
+     * @param time    the current simulation time (in seconds)
+     */
+    public void startTransmission(final long flowId, final Channel channel, final double time) {
+        endTransmissions(time);
+        if (!transmissions.containsKey(flowId)) {
+            transmissions.put(flowId, new Transmission(channel, time));
+            allocationOutdated = true;
+        }
+    }
+
+    /**
+     * Allocates the bandwidth of a started transmission of a channel, and
+     * extends the transmission by the time to transmit some data. The
+     * allocation of all the transmissions is computed again first if
+     * transmissions started or ended since the last allocation.
+     *
+     * @param flowId   the flow id of the channel
+     * @param time     the current simulation time (in seconds)
+     * @param megaBits the data to transmit (in Megabits)
+     * @return the allocated bandwidth (in Megabits/s), which is 0 if the link
+     *         has no capacity or the transmission was not started
+     */
+    public double allocate(final long flowId, final double time, final double megaBits) {
+        endTransmissions(time);
+        final Transmission transmission = transmissions.get(flowId);
+        if (transmission == null || link.getBw().getCapacity() <= 0) {
+            return 0;
+        }
+        if (allocationOutdated) {
+            reallocate(time);
+        }
+
+        transmission.transmit(time);
+        transmission.remainingData += megaBits;
+        updateEndTime(flowId, transmission, time);
+        return transmission.channel.getAllocatedBw();
+    }
+
+    /**
+     * Ends the transmission of a channel before its data is transmitted, for
+     * instance when the channel is removed from the link.
+     *
+     * @param flowId the flow id of the channel
+     */
+    public void endTransmission(final long flowId) {
+        if (transmissions.remove(flowId) != null) {
+            allocationOutdated = true;
+            if (transmissions.isEmpty()) {
+                transmissionEnds.clear();
+            }
+        }
+    }
+
+    /**
+     * Notifies the allocator that the capacity of the link changed, so the
+     * bandwidth is allocated again on the next allocation.
+     */
+    public void capacityChanged() {
+        allocationOutdated = true;
+    }
+
+    /**
+     * Ends the transmissions whose data has been transmitted, in end time
+     * order, the bandwidth of every ended transmission being shared between
+     * the others from its end time.
+     *
+     * @param time the current simulation time (in seconds)
+     */
+    private void endTransmissions(final double time) {
+        while (!transmissionEnds.isEmpty() && transmissionEnds.peek().endTime() <= time) {
+            final TransmissionEnd end = transmissionEnds.poll();
+            final Transmission transmission = transmissions.get(end.flowId());
+            if (transmission != null && transmission.endTime == end.endTime()) {
+                endTransmission(end.flowId());
+                if (!transmissions.isEmpty() && link.getBw().getCapacity() > 0) {
+                    reallocate(end.endTime());
+                }
+            }
+        }
+    }
+
+    /**
+     * Allocates the bandwidth of all the transmissions by progressive filling,
+     * and updates the time the running transmissions end.
+     *
+     * @param time the current simulation time (in seconds)
+     */
+    private void reallocate(final double time) {
+        allocationOutdated = false;
+        final double capacity = link.getBw().getCapacity();
+        final List<Transmission> byDemand = new ArrayList<>(transmissions.values());
+        for (final Transmission transmission : byDemand) {
+            // the data transmitted so far at the previous allocation
+            transmission.transmit(time);
+            transmission.demand = transmission.channel.getBw() > 0 ? transmission.channel.getBw() : capacity;
+        }
+        byDemand.sort(DEMAND_ORDER);
+
+        double available = capacity;
+        int unallocated = byDemand.size();
+        for (final Transmission transmission : byDemand) {
+            // the fair share of the channels left, which the channels demanding less leave to the others
+            final double bandwidth = Math.min(transmission.demand, available / unallocated);
+            transmission.channel.setAllocatedBw(bandwidth);
+            available -= bandwidth;
+            unallocated--;
+        }
+
+        for (final var entry : transmissions.entrySet()) {
+            if (entry.getValue().remainingData > 0) {
+                updateEndTime(entry.getKey(), entry.getValue(), time);
+            }
+        }
+    }
+
+    private void updateEndTime(final long flowId, final Transmission transmission, final double time) {
+        transmission.endTime = time + transmission.remainingData / transmission.channel.getAllocatedBw();
+        transmissionEnds.add(new TransmissionEnd(flowId, transmission.endTime));
+    }
+
+    /**
+     * Checks if a channel is transmitting through the link.
+     *
+     * @param flowId the flow id of the channel
+     */
+    public boolean isTransmitting(final long flowId) {
+        return transmissions.containsKey(flowId);
+    }
+
+    /**
+     * Gets the number of channels transmitting through the link, including
+     * the transmissions which ended since the last one started.
+     */
+    public int getTransmittingChannelsNumber() {
+        return transmissions.size();
+    }
+
+    /**
+     * Gets the total bandwidth allocated to the transmitting channels (in
+     * Megabits/s), which never exceeds the link capacity.
+     */
+    public double getAllocatedBandwidth() {
+        double allocated = 0;
+        for (final Transmission transmission : transmissions.values()) {
+            allocated += transmission.channel.getAllocatedBw();
+        }
+        return allocated;
+    }
+
+    private static final class Transmission {
+
+        private final Channel channel;
+
+        /**
+         * the bandwidth the channel demands at the last allocation
+         */
+        private double demand;
+
+        /**
+         * the data left to transmit at the last update (in Megabits)
+         */
+        private double remainingData;
+
+        private double lastUpdateTime;
+
+        private double endTime;
+
+        Transmission(final Channel channel, final double time) {
+            this.channel = channel;
+            this.lastUpdateTime = time;
+            this.endTime = time;
+        }
+
+        /**
+         * Removes the data transmitted since the last update at the allocated
+         * bandwidth.
+         */
+        void transmit(final double time) {
+            if (time > lastUpdateTime) {
+                final double transmitted = (time - lastUpdateTime) * channel.getAllocatedBw();
+                remainingData = Math.max(0, remainingData - transmitted);
+                lastUpdateTime = time;
+            }
+        }
+    }
+
+    private record TransmissionEnd(long flowId, double endTime) implements Comparable<TransmissionEnd> {
+
+        @Override
+        public int compareTo(final TransmissionEnd other) {
+            return Double.compare(endTime, other.endTime);
+        }
+    }
+}
@@ -9,10 +9,14 @@
 
 package org.autocs.sdn.control.network.physical;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.cloudbus.cloudsim.resources.Bandwidth;
+import org.cloudbus.cloudsim.network.HostPacket;
 import org.cloudbus.cloudsim.network.topologies.TopologicalLink;
 import org.cloudbus.cloudsim.hosts.network.NetworkHost;
 import org.cloudbus.cloudsim.network.switches.Switch;
@@ -20,6 +24,8 @@ import org.cloudbus.cloudsim.network.switches.Switch;
 import org.autocs.sdn.data.networkelement.NetworkElement;
 import org.autocs.sdn.control.network.virtual.Channel;
 
+import static org.cloudbus.cloudsim.util.BytesConversion.bytesToMegaBits;
+
 /**
  * Represents a physical link between two {@link NetworkElement}s. It will be
  * used by routing tables in {@link NetworkElement}s to resolve the routing
@@ -60,6 +66,25 @@ public class PhysicalLink {
      */
     private Map<Long, Channel> flowToChannelsMapping;
 
+    /**
+     * the bandwidth reserved by the channels of the link, which is the total
+     * required bandwidth of their virtual links
+     */
+    private double reservedBandwidth;
+
+    /**
+     * the listeners notified when the load of the link changes
+     */
+    private final List<Consumer<PhysicalLink>> onLoadChangeListeners;
+
+    /**
+     * shares the bandwidth of the link between the transmitting channels
+     */
+    private final ChannelBandwidthAllocator bandwidthAllocator;
+
+    /** @see #isFairSharingEnabled() */
+    private boolean fairSharingEnabled;
+
     /**
      * Define new {@link PhysicalLink} using {@link TopologicalLink} information.
      *
@@ -86,6 +111,9 @@ public class PhysicalLink {
         this.dest = dest;
         this.bw = new Bandwidth(bw);
         this.flowToChannelsMapping = new HashMap<>();
+        this.onLoadChangeListeners = new ArrayList<>();
+        this.bandwidthAllocator = new ChannelBandwidthAllocator(this);
+        this.fairSharingEnabled = true;
     }
 
     public NetworkElement getSrc() {
@@ -135,19 +163,216 @@ public class PhysicalLink {
         return flowToChannelsMapping.get(flowId);
     }
 
+    /**
+     * Checks if a flow has a channel in one of some links.
+     *
+     * @param links  the links
+     * @param flowId the flow id
+     */
+    public static boolean hasChannel(final List<PhysicalLink> links, final long flowId) {
+        for (final PhysicalLink link : links) {
+            if (link.getChannelByFlowId(flowId) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Checks if the requested bandwidth is available, then add the new channel
+     * and reserve its bandwidth. The channel replaces the channel of the same
+     * flow if any, releasing its bandwidth.
      *
      * @param channel
      * @param flowId
-     * @return
+     * @return true if the channel was added, false if there is not enough
+     *         bandwidth available in the link
      */
     public boolean addChanel(final Channel channel, final long flowId) {
-        if (bw.isAmountAvailable((double) channel.getVirtualLink().getRequiredBandwidth())) {
-            this.flowToChannelsMapping.put(flowId, channel);
-            return true;
+        if (channel.getBw() > getAvailableBandwidth(flowId)) {
+            return false;
         }
-        return false;
+
+        final Channel replacedChannel = this.flowToChannelsMapping.put(flowId, channel);
+        reservedBandwidth += channel.getBw() - (replacedChannel != null ? replacedChannel.getBw() : 0.0);
+        bandwidthAllocator.endTransmission(flowId);
+        notifyOnLoadChangeListeners();
+        return true;
+    }
+
+    /**
+     * Removes the channel of a flow, releasing its bandwidth.
+     *
+     * @param flowId the flow id
+     * @return the removed channel, or null if the flow has no channel in the
+     *         link
+     */
+    public Channel removeChannel(final long flowId) {
+        final Channel channel = this.flowToChannelsMapping.remove(flowId);
+        if (channel != null) {
+            reservedBandwidth -= channel.getBw();
+            bandwidthAllocator.endTransmission(flowId);
+            notifyOnLoadChangeListeners();
+        }
+        return channel;
+    }
+
+    /**
+     * Gets the bandwidth of the link which is not reserved by its channels,
+     * without going through the channels.
+     *
+     * @return the available bandwidth in Megabits/s.
+     */
+    public double getAvailableBandwidth() {
+        return bw.getCapacity() - reservedBandwidth;
+    }
+
+    /**
+     * Gets the bandwidth of the link available to a flow, which includes the
+     * bandwidth already reserved by the channel of the flow if any.
+     *
+     * @param flowId the flow id
+     * @return the available bandwidth in Megabits/s.
+     */
+    public double getAvailableBandwidth(final long flowId) {
+        final Channel channel = this.flowToChannelsMapping.get(flowId);
+        return getAvailableBandwidth() + (channel != null ? channel.getBw() : 0.0);
+    }
+
+    /**
+     * Starts the transmission of the channel of a flow, which shares the
+     * bandwidth of the link with the other transmitting channels. The
+     * transmissions of all the flows sending packets at the same time must be
+     * started before allocating their bandwidth.
+     *
+     * @param flowId the flow id
+     * @param time   the current simulation time (in seconds)
+     * @see #allocateBandwidth(long, double, List)
+     */
+    public void startTransmission(final long flowId, final double time) {
+        final Channel channel = this.flowToChannelsMapping.get(flowId);
+        if (fairSharingEnabled && channel != null) {
+            bandwidthAllocator.startTransmission(flowId, channel, time);
+        }
+    }
+
+    /**
+     * Allocates the bandwidth to transmit some packets through the channel of
+     * a flow, which is its max-min fair share of the link among the
+     * transmitting channels when the fair sharing is enabled, or the required
+     * bandwidth of the channel otherwise or if the link has no capacity.
+     *
+     * @param flowId  the flow id
+     * @param time    the current simulation time (in seconds)
+     * @param packets the packets to transmit
+     * @return the allocated bandwidth in Megabits/s, or 0 if the flow has no
+     *         channel in the link
+     * @see ChannelBandwidthAllocator
+     */
+    public double allocateBandwidth(final long flowId, final double time, final List<HostPacket> packets) {
+        final Channel channel = this.flowToChannelsMapping.get(flowId);
+        if (channel == null) {
+            return 0;
+        }
+
+        long bytes = 0;
+        for (int i = 0; i < packets.size(); i++) {
+            bytes += packets.get(i).getSize();
+        }
+        final double bandwidth = fairSharingEnabled
+                ? bandwidthAllocator.allocate(flowId, time, bytesToMegaBits(bytes))
+                : 0;
+        if (bandwidth > 0) {
+            return bandwidth;
+        }
+        channel.setAllocatedBw(channel.getBw());
+        return channel.getBw();
+    }
+
+    /**
+     * Checks if the bandwidth of the link is shared between the transmitting
+     * channels in a max-min fair way, otherwise every channel gets its
+     * required bandwidth whatever the capacity of the link and the other
+     * channels.
+     *
+     * @return true if the fair sharing is enabled, false otherwise
+     * @see #allocateBandwidth(long, double, List)
+     */
+    public boolean isFairSharingEnabled() {
+        return fairSharingEnabled;
+    }
+
+    /**
+     * Enables the max-min fair sharing of the bandwidth of the link.
+     *
+     * @see #isFairSharingEnabled()
+     */
+    public void enableFairSharing() {
+        this.fairSharingEnabled = true;
+    }
+
+    /**
+     * Disables the max-min fair sharing of the bandwidth of the link, ending
+     * the current transmissions.
+     *
+     * @see #isFairSharingEnabled()
+     */
+    public void disableFairSharing() {
+        this.fairSharingEnabled = false;
+        for (final Long flowId : flowToChannelsMapping.keySet()) {
+            bandwidthAllocator.endTransmission(flowId);
+        }
+    }
+
+    /**
+     * Sets the bandwidth capacity of the link, for instance when it is
+     * degraded. The channels of the link are kept even if their bandwidth
+     * exceeds the new capacity, the listeners being notified of the new load.
+     *
+     * @param capacity the new capacity in Megabits/s.
+     * @return true if the capacity was set, false if it is invalid
+     */
+    public boolean setBwCapacity(final long capacity) {
+        if (!bw.setCapacity(capacity)) {
+            return false;
+        }
+        bandwidthAllocator.capacityChanged();
+        notifyOnLoadChangeListeners();
+        return true;
+    }
+
+    /**
+     * Adds a listener notified when the load of the link changes, because a
+     * channel was added or removed or the capacity changed. A listener
+     * already added is not added again.
+     *
+     * @param listener the listener to add
+     * @see #getLoad()
+     */
+    public void addOnLoadChangeListener(final Consumer<PhysicalLink> listener) {
+        if (!onLoadChangeListeners.contains(listener)) {
+            onLoadChangeListeners.add(listener);
+        }
+    }
+
+    public boolean removeOnLoadChangeListener(final Consumer<PhysicalLink> listener) {
+        return onLoadChangeListeners.remove(listener);
+    }
+
+    private void notifyOnLoadChangeListeners() {
+        for (int i = 0; i < onLoadChangeListeners.size(); i++) {
+            onLoadChangeListeners.get(i).accept(this);
+        }
+    }
+
+    /**
+     * Gets the load of the link, as the ratio between the bandwidth reserved
+     * by its channels and its bandwidth capacity.
+     *
+     * @return the load of the link
+     */
+    public double getLoad() {
+        return bw.getCapacity() > 0 ? reservedBandwidth / bw.getCapacity() : Double.MAX_VALUE;
     }
 
     public Map<Long, Channel> getFlowToChannelsMapping() {
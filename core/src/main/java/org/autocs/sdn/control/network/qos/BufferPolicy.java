@@ -0,0 +1,30 @@
+/*
+ * Title:        SDN Package
+ * Description:  SDN package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.sdn.control.network.qos;
+
+/**
+ * The policies of a {@link PortBuffer} when it is congested.
+ *
+ * @author Ibrahem Mouhamad
+ * @since AutoCS SDN Package 1.0.0
+ */
+
+public enum BufferPolicy {
+    /**
+     * Drops the packets arriving when the buffer is full.
+     */
+    TAIL_DROP,
+    /**
+     * Marks the packets arriving when the buffer occupancy exceeds the
+     * marking threshold as having experienced congestion, and drops the
+     * packets arriving when it is full.
+     */
+    ECN
+}
@@ -0,0 +1,282 @@
+/*
+ * Title:        SDN Package
+ * Description:  SDN package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.sdn.control.network.qos;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.autocs.sdn.control.network.physical.PhysicalLink;
+import org.cloudbus.cloudsim.network.HostPacket;
+
+import static org.cloudbus.cloudsim.util.BytesConversion.bytesToMegaBits;
+
+/**
+ * Represents the egress queues of a switch port, sending packets through a
+ * {@link PhysicalLink}, with one bounded queue per {@link QosClass} of the
+ * {@link EgressScheduler}.
+ *
+ * <p>
+ * The packets are transmitted one after the other at the link capacity, in
+ * the order decided by the scheduler, after the packets previously
+ * transmitted through the port. A packet occupies its queue until it is
+ * transmitted, so the packets arriving while the port is busy fill the queue
+ * of their class, and the packets arriving when it is full are dropped.
+ * </p>
+ *
+ * @author Ibrahem Mouhamad
+ * @since AutoCS SDN Package 1.0.0
+ */
+
+public class EgressQueue {
+
+    private final EgressScheduler scheduler;
+
+    /**
+     * The packets waiting to be ordered by the scheduler, by class.
+     */
+    private final List<ArrayDeque<HostPacket>> waitingPackets;
+
+    /**
+     * The transmission end times of the packets ordered by the scheduler,
+     * which still occupy their queue until then, by class.
+     */
+    private final List<ArrayDeque<Double>> departureTimes;
+
+    /** @see #getEnqueuedPackets(int) */
+    private final long[] enqueuedPackets;
+
+    /** @see #getDroppedPackets(int) */
+    private final long[] droppedPackets;
+
+    /**
+     * The packets dequeued by the scheduler, in transmission order, and their
+     * classes.
+     */
+    private List<HostPacket> transmissionOrder;
+
+    private int[] transmissionClasses;
+
+    /**
+     * The time the port ends transmitting the packets already dequeued.
+     */
+    private double busyUntil;
+
+    public EgressQueue(final EgressScheduler scheduler) {
+        this.scheduler = scheduler;
+        final int classes = scheduler.getClasses().size();
+        this.waitingPackets = new ArrayList<>(classes);
+        this.departureTimes = new ArrayList<>(classes);
+        for (int i = 0; i < classes; i++) {
+            waitingPackets.add(new ArrayDeque<>());
+            departureTimes.add(new ArrayDeque<>());
+        }
+        this.enqueuedPackets = new long[classes];
+        this.droppedPackets = new long[classes];
+        this.transmissionOrder = new ArrayList<>();
+        this.transmissionClasses = new int[16];
+    }
+
+    public EgressScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public int getClassesNumber() {
+        return waitingPackets.size();
+    }
+
+    /**
+     * Enqueues a packet, unless the queue of its class is full.
+     *
+     * @param packet   the packet
+     * @param qosClass the index of the class of the packet, the classes out of
+     *                 the scheduler classes being mapped to the last class
+     * @param time     the current simulation time (in seconds)
+     * @return true if the packet was enqueued, false if it was dropped
+     */
+    public boolean offer(final HostPacket packet, final int qosClass, final double time) {
+        final int index = Math.max(0, Math.min(qosClass, getClassesNumber() - 1));
+        final ArrayDeque<Double> departures = departureTimes.get(index);
+        while (!departures.isEmpty() && departures.peekFirst() <= time) {
+            departures.pollFirst();
+        }
+
+        final ArrayDeque<HostPacket> waiting = waitingPackets.get(index);
+        if (waiting.size() + departures.size() >= scheduler.getClasses().get(index).getMaxQueueLength()) {
+            droppedPackets[index]++;
+            return false;
+        }
+        waiting.addLast(packet);
+        enqueuedPackets[index]++;
+        return true;
+    }
+
+    /**
+     * Checks if no packet is waiting to be ordered.
+     */
+    public boolean isEmpty() {
+        for (final ArrayDeque<HostPacket> waiting : waitingPackets) {
+            if (!waiting.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if no packet of a class is waiting to be ordered.
+     *
+     * @param qosClass the index of the class
+     */
+    public boolean isEmpty(final int qosClass) {
+        return waitingPackets.get(qosClass).isEmpty();
+    }
+
+    /**
+     * Gets the next packet of a class to be ordered, without dequeuing it.
+     *
+     * @param qosClass the index of the class
+     * @return the packet, or null if the queue of the class is empty
+     */
+    public HostPacket peek(final int qosClass) {
+        return waitingPackets.get(qosClass).peekFirst();
+    }
+
+    /**
+     * Dequeues the next packet of a class, which is transmitted after the
+     * packets already dequeued. It is used by the {@link EgressScheduler}.
+     *
+     * @param qosClass the index of the class
+     * @return the packet
+     */
+    public HostPacket dequeue(final int qosClass) {
+        final HostPacket packet = waitingPackets.get(qosClass).removeFirst();
+        if (transmissionOrder.size() == transmissionClasses.length) {
+            transmissionClasses = Arrays.copyOf(transmissionClasses, transmissionClasses.length * 2);
+        }
+        transmissionClasses[transmissionOrder.size()] = qosClass;
+        transmissionOrder.add(packet);
+        return packet;
+    }
+
+    /**
+     * Transmits the waiting packets in the order decided by the scheduler,
+     * and gives the packets transmitted together to a sender. The packets
+     * given together belong to the same flow and are transmitted during the
+     * same scheduling interval, and they are delayed by the time the last one
+     * is transmitted. When the link has no capacity, the waiting packets are
+     * dropped, as they would never be transmitted.
+     *
+     * @param time               the current simulation time (in seconds)
+     * @param bandwidth          the link capacity (in Megabits/s)
+     * @param schedulingInterval the scheduling interval of the datacenter (in
+     *                           seconds)
+     * @param sender             the sender of the packets
+     * @return the number of packets dropped because the link has no capacity
+     */
+    public int transmit(final double time, final double bandwidth, final double schedulingInterval,
+            final PacketsSender sender) {
+        if (bandwidth <= 0) {
+            return dropWaitingPackets();
+        }
+        scheduler.dequeueAll(this);
+        final List<HostPacket> packets = transmissionOrder;
+        // the sender may keep views of the packets
+        transmissionOrder = new ArrayList<>();
+        if (packets.isEmpty()) {
+            return 0;
+        }
+
+        double transmitted = Math.max(busyUntil, time);
+        int from = 0;
+        long slice = 0;
+        for (int i = 0; i < packets.size(); i++) {
+            final double packetTransmitted = transmitted + bytesToMegaBits(packets.get(i).getSize()) / bandwidth;
+            // the packets transmitted at the end of an interval belong to it
+            final long packetSlice = schedulingInterval > 0
+                    ? (long) Math.ceil((packetTransmitted - time) / schedulingInterval)
+                    : 0;
+            if (i > from && (packetSlice != slice || flowId(packets, i) != flowId(packets, from))) {
+                sender.send(transmitted - time, packets, from, i);
+                from = i;
+            }
+            departureTimes.get(transmissionClasses[i]).addLast(packetTransmitted);
+            slice = packetSlice;
+            transmitted = packetTransmitted;
+        }
+        sender.send(transmitted - time, packets, from, packets.size());
+        busyUntil = transmitted;
+        return 0;
+    }
+
+    private int dropWaitingPackets() {
+        int dropped = 0;
+        for (int i = 0; i < waitingPackets.size(); i++) {
+            final ArrayDeque<HostPacket> waiting = waitingPackets.get(i);
+            droppedPackets[i] += waiting.size();
+            dropped += waiting.size();
+            waiting.clear();
+        }
+        return dropped;
+    }
+
+    private static long flowId(final List<HostPacket> packets, final int index) {
+        return packets.get(index).getVmPacket().getFlowId();
+    }
+
+    /**
+     * Gets the number of packets of a class which were enqueued.
+     *
+     * @param qosClass the index of the class
+     */
+    public long getEnqueuedPackets(final int qosClass) {
+        return enqueuedPackets[qosClass];
+    }
+
+    /**
+     * Gets the number of packets of a class which were dropped because its
+     * queue was full or the link had no capacity.
+     *
+     * @param qosClass the index of the class
+     */
+    public long getDroppedPackets(final int qosClass) {
+        return droppedPackets[qosClass];
+    }
+
+    /**
+     * Gets the number of packets of all the classes which were dropped.
+     */
+    public long getDroppedPackets() {
+        long dropped = 0;
+        for (final long classDropped : droppedPackets) {
+            dropped += classDropped;
+        }
+        return dropped;
+    }
+
+    /**
+     * Sends packets transmitted through the port.
+     */
+    @FunctionalInterface
+    public interface PacketsSender {
+
+        /**
+         * Sends some packets with the same delay.
+         *
+         * @param delay   the delay of the packets (in seconds)
+         * @param packets the packets transmitted together, in transmission
+         *                order
+         * @param from    the index of the first packet to send
+         * @param to      the index after the last packet to send
+         */
+        void send(double delay, List<HostPacket> packets, int from, int to);
+    }
+}
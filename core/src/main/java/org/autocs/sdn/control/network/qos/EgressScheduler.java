@@ -0,0 +1,50 @@
+/*
+ * Title:        SDN Package
+ * Description:  SDN package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.sdn.control.network.qos;
+
+import java.util.List;
+
+import org.cloudbus.cloudsim.network.switches.Switch;
+
+/**
+ * Decides the order in which the packets waiting in the {@link EgressQueue}
+ * of a {@link Switch} port are transmitted, according to their
+ * {@link QosClass}es.
+ *
+ * @author Ibrahem Mouhamad
+ * @since AutoCS SDN Package 1.0.0
+ */
+
+public interface EgressScheduler {
+
+    /**
+     * An attribute that implements the Null Object Design Pattern for
+     * {@link EgressScheduler} objects, used by the switches having no egress
+     * queues.
+     */
+    EgressScheduler NULL = new EgressSchedulerNull();
+
+    /**
+     * Gets the QoS classes of the packets, by decreasing priority for the
+     * schedulers using priorities.
+     *
+     * @return a read-only list of the classes
+     */
+    List<QosClass> getClasses();
+
+    /**
+     * Dequeues all the packets waiting in an egress queue, in the order they
+     * are transmitted.
+     *
+     * @param queue the queue
+     * @see EgressQueue#dequeue(int)
+     */
+    void dequeueAll(EgressQueue queue);
+}
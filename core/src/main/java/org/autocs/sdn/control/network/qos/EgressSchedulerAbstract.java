@@ -0,0 +1,43 @@
+/*
+ * Title:        SDN Package
+ * Description:  SDN package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.sdn.control.network.qos;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An abstract class for implementing {@link EgressScheduler}s.
+ *
+ * @author Ibrahem Mouhamad
+ * @since AutoCS SDN Package 1.0.0
+ */
+
+public abstract class EgressSchedulerAbstract implements EgressScheduler {
+
+    private final List<QosClass> classes;
+
+    /**
+     * Creates a scheduler of some QoS classes.
+     *
+     * @param classes the classes, by decreasing priority for the schedulers
+     *                using priorities
+     */
+    protected EgressSchedulerAbstract(final List<QosClass> classes) {
+        if (classes.isEmpty()) {
+            throw new IllegalArgumentException("An egress scheduler must have at least one QoS class");
+        }
+        this.classes = List.copyOf(classes);
+    }
+
+    @Override
+    public List<QosClass> getClasses() {
+        return Collections.unmodifiableList(classes);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Title:        SDN Package
+ * Description:  SDN package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.sdn.control.network.qos;
+
+import java.util.List;
+
+/**
+ * An {@link EgressScheduler} which visits the classes in turn, adding at every
+ * round a quantum of bytes proportional to its weight to the deficit of a
+ * class, and transmitting its packets as long as they fit in its deficit.
+ * Unlike the {@link EgressSchedulerWeightedRoundRobin weighted round-robin},
+ * the classes share the link in proportion to their weights whatever the size
+ * of their packets.
+ *
+ * @author Ibrahem Mouhamad
+ * @since AutoCS SDN Package 1.0.0
+ */
+
+public class EgressSchedulerDeficitRoundRobin extends EgressSchedulerAbstract {
+
+    /**
+     * The default quantum of a class of weight 1 (in bytes), which is the
+     * usual maximum size of a packet.
+     */
+    public static final long DEF_QUANTUM = 1500;
+
+    /**
+     * the bytes added to the deficit of a class of weight 1 at every round
+     */
+    private final long quantum;
+
+    public EgressSchedulerDeficitRoundRobin(final List<QosClass> classes) {
+        this(classes, DEF_QUANTUM);
+    }
+
+    public EgressSchedulerDeficitRoundRobin(final List<QosClass> classes, final long quantum) {
+        super(classes);
+        if (quantum <= 0) {
+            throw new IllegalArgumentException("The quantum must be greater than 0");
+        }
+        this.quantum = quantum;
+    }
+
+    public long getQuantum() {
+        return quantum;
+    }
+
+    @Override
+    public void dequeueAll(final EgressQueue queue) {
+        final long[] deficits = new long[queue.getClassesNumber()];
+        while (!queue.isEmpty()) {
+            for (int qosClass = 0; qosClass < deficits.length; qosClass++) {
+                if (queue.isEmpty(qosClass)) {
+                    continue;
+                }
+                deficits[qosClass] += quantum * getClasses().get(qosClass).getWeight();
+                while (!queue.isEmpty(qosClass) && queue.peek(qosClass).getSize() <= deficits[qosClass]) {
+                    deficits[qosClass] -= queue.dequeue(qosClass).getSize();
+                }
+                if (queue.isEmpty(qosClass)) {
+                    // an idle class does not keep its deficit
+                    deficits[qosClass] = 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Title:        SDN Package
+ * Description:  SDN package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.sdn.control.network.qos;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A class that implements the Null Object Design Pattern for
+ * {@link EgressScheduler} class.
+ *
+ * @author Ibrahem Mouhamad
+ * @since AutoCS SDN Package 1.0.0
+ */
+
+final class EgressSchedulerNull implements EgressScheduler {
+
+    @Override
+    public List<QosClass> getClasses() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void dequeueAll(EgressQueue queue) {
+    }
+}
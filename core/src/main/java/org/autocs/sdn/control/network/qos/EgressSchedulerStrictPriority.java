@@ -0,0 +1,37 @@
+/*
+ * Title:        SDN Package
+ * Description:  SDN package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.sdn.control.network.qos;
+
+import java.util.List;
+
+/**
+ * An {@link EgressScheduler} which transmits the packets of a class only when
+ * no packet of a class with a higher priority is waiting, the first class
+ * having the highest priority. The weights of the classes are ignored.
+ *
+ * @author Ibrahem Mouhamad
+ * @since AutoCS SDN Package 1.0.0
+ */
+
+public class EgressSchedulerStrictPriority extends EgressSchedulerAbstract {
+
+    public EgressSchedulerStrictPriority(final List<QosClass> classes) {
+        super(classes);
+    }
+
+    @Override
+    public void dequeueAll(final EgressQueue queue) {
+        for (int qosClass = 0; qosClass < queue.getClassesNumber(); qosClass++) {
+            while (!queue.isEmpty(qosClass)) {
+                queue.dequeue(qosClass);
+            }
+        }
+    }
+}
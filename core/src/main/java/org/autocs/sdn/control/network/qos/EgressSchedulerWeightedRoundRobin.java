@@ -0,0 +1,41 @@
+/*
+ * Title:        SDN Package
+ * Description:  SDN package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.sdn.control.network.qos;
+
+import java.util.List;
+
+/**
+ * An {@link EgressScheduler} which visits the classes in turn, transmitting
+ * at every round as many packets of a class as its weight. The classes share
+ * the link in proportion to their weights when their packets have the same
+ * size.
+ *
+ * @author Ibrahem Mouhamad
+ * @since AutoCS SDN Package 1.0.0
+ */
+
+public class EgressSchedulerWeightedRoundRobin extends EgressSchedulerAbstract {
+
+    public EgressSchedulerWeightedRoundRobin(final List<QosClass> classes) {
+        super(classes);
+    }
+
+    @Override
+    public void dequeueAll(final EgressQueue queue) {
+        while (!queue.isEmpty()) {
+            for (int qosClass = 0; qosClass < queue.getClassesNumber(); qosClass++) {
+                final int weight = getClasses().get(qosClass).getWeight();
+                for (int i = 0; i < weight && !queue.isEmpty(qosClass); i++) {
+                    queue.dequeue(qosClass);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Title:        SDN Package
+ * Description:  SDN package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.sdn.control.network.qos;
+
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.cloudbus.cloudsim.network.HostPacket;
+import org.cloudbus.cloudsim.network.VmPacket;
+import org.cloudbus.cloudsim.network.switches.Switch;
+
+/**
+ * Represents the bounded buffer of a {@link Switch} port, holding the packets
+ * received by the switch to be sent through the port. A packet occupies the
+ * buffer from its arrival until it is transmitted, which includes the time it
+ * waits for the switch to forward it and the time it waits for the link.
+ *
+ * <p>
+ * The packets arriving when the buffer is full, in bytes or in packets, are
+ * dropped. With the {@link BufferPolicy#ECN} policy, the packets arriving
+ * when the occupancy of the buffer exceeds the marking threshold are also
+ * {@link VmPacket#markCongestionExperienced() marked}.
+ * </p>
+ *
+ * @author Ibrahem Mouhamad
+ * @since AutoCS SDN Package 1.0.0
+ */
+
+public class PortBuffer {
+
+    /**
+     * The results of offering a packet to a buffer.
+     */
+    public enum Admission {
+        /**
+         * The packet was buffered.
+         */
+        ACCEPTED,
+        /**
+         * The packet was buffered and marked as having experienced congestion.
+         */
+        MARKED,
+        /**
+         * The packet was dropped because the buffer was full.
+         */
+        DROPPED
+    }
+
+    private final PortBufferConfig config;
+
+    /**
+     * The packets buffered and not yet forwarded by the switch, and their
+     * bytes.
+     */
+    private int waitingPackets;
+
+    private long waitingBytes;
+
+    /**
+     * The packets forwarded but not yet transmitted, by transmission end time,
+     * and their number and bytes.
+     */
+    private final PriorityQueue<Departure> departures;
+
+    private int departingPackets;
+
+    private long departingBytes;
+
+    /** @see #getDroppedPackets() */
+    private long droppedPackets;
+
+    /** @see #getMarkedPackets() */
+    private long markedPackets;
+
+    public PortBuffer(final PortBufferConfig config) {
+        this.config = config;
+        this.departures = new PriorityQueue<>();
+    }
+
+    public PortBufferConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Buffers a packet if there is room for it, marking it if the buffer is
+     * congested and uses the {@link BufferPolicy#ECN} policy.
+     *
+     * @param packet the arriving packet
+     * @param time   the current simulation time (in seconds)
+     * @return the admission of the packet
+     */
+    public Admission offer(final HostPacket packet, final double time) {
+        releaseDepartures(time);
+        final long size = packet.getSize();
+        final int packets = getPackets();
+        final long bytes = getBytes();
+        if (packets >= config.maxPackets() || bytes + size > config.maxBytes()) {
+            droppedPackets++;
+            return Admission.DROPPED;
+        }
+
+        waitingPackets++;
+        waitingBytes += size;
+        if (config.policy() == BufferPolicy.ECN
+                && (packets >= config.markingThreshold() * config.maxPackets()
+                        || bytes >= config.markingThreshold() * config.maxBytes())) {
+            packet.getVmPacket().markCongestionExperienced();
+            markedPackets++;
+            return Admission.MARKED;
+        }
+        return Admission.ACCEPTED;
+    }
+
+    /**
+     * Notifies the buffer that the switch forwards all the waiting packets,
+     * which either leave the buffer when they are transmitted or are dropped
+     * by the switch.
+     *
+     * @see #transmit(List, int, int, double)
+     */
+    public void forward() {
+        waitingPackets = 0;
+        waitingBytes = 0;
+    }
+
+    /**
+     * Notifies the buffer that some forwarded packets are transmitted at a
+     * given time, until which they stay in the buffer.
+     *
+     * @param packets the forwarded packets
+     * @param from    the index of the first transmitted packet
+     * @param to      the index after the last transmitted packet
+     * @param time    the time the packets are transmitted (in seconds)
+     */
+    public void transmit(final List<HostPacket> packets, final int from, final int to, final double time) {
+        long bytes = 0;
+        for (int i = from; i < to; i++) {
+            bytes += packets.get(i).getSize();
+        }
+        departures.add(new Departure(time, to - from, bytes));
+        departingPackets += to - from;
+        departingBytes += bytes;
+    }
+
+    private void releaseDepartures(final double time) {
+        while (!departures.isEmpty() && departures.peek().time() <= time) {
+            final Departure departure = departures.poll();
+            departingPackets -= departure.packets();
+            departingBytes -= departure.bytes();
+        }
+    }
+
+    /**
+     * Gets the number of packets in the buffer, as of the last arrival.
+     */
+    public int getPackets() {
+        return waitingPackets + departingPackets;
+    }
+
+    /**
+     * Gets the number of bytes in the buffer, as of the last arrival.
+     */
+    public long getBytes() {
+        return waitingBytes + departingBytes;
+    }
+
+    /**
+     * Gets the number of packets dropped because the buffer was full.
+     */
+    public long getDroppedPackets() {
+        return droppedPackets;
+    }
+
+    /**
+     * Gets the number of packets marked because the buffer was congested.
+     */
+    public long getMarkedPackets() {
+        return markedPackets;
+    }
+
+    private record Departure(double time, int packets, long bytes) implements Comparable<Departure> {
+
+        @Override
+        public int compareTo(final Departure other) {
+            return Double.compare(time, other.time);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Title:        SDN Package
+ * Description:  SDN package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.sdn.control.network.qos;
+
+import java.util.Objects;
+
+/**
+ * The configuration of the {@link PortBuffer}s of the ports of a switch.
+ *
+ * @param maxBytes         the maximum number of bytes in a buffer
+ * @param maxPackets       the maximum number of packets in a buffer
+ * @param policy           the policy of a buffer when it is congested
+ * @param markingThreshold the occupancy of a buffer, as a fraction of its
+ *                         maximum bytes or packets, above which the arriving
+ *                         packets are marked by the {@link BufferPolicy#ECN}
+ *                         policy
+ *
+ * @author Ibrahem Mouhamad
+ * @since AutoCS SDN Package 1.0.0
+ */
+
+public record PortBufferConfig(long maxBytes, int maxPackets, BufferPolicy policy, double markingThreshold) {
+
+    /**
+     * The configuration of the ports without buffer limits, which is the
+     * default one.
+     */
+    public static final PortBufferConfig UNBOUNDED = new PortBufferConfig(Long.MAX_VALUE, Integer.MAX_VALUE,
+            BufferPolicy.TAIL_DROP, 1);
+
+    /**
+     * The default marking threshold of the {@link BufferPolicy#ECN} policy.
+     */
+    public static final double DEF_MARKING_THRESHOLD = 0.5;
+
+    public PortBufferConfig {
+        Objects.requireNonNull(policy);
+        if (maxBytes <= 0 || maxPackets <= 0) {
+            throw new IllegalArgumentException("The size of a port buffer must be greater than 0");
+        }
+        if (markingThreshold <= 0 || markingThreshold > 1) {
+            throw new IllegalArgumentException("The marking threshold must be in the range (0, 1]");
+        }
+    }
+
+    /**
+     * Creates the configuration of buffers dropping the packets arriving when
+     * they are full.
+     *
+     * @param maxBytes   the maximum number of bytes in a buffer
+     * @param maxPackets the maximum number of packets in a buffer
+     */
+    public static PortBufferConfig tailDrop(final long maxBytes, final int maxPackets) {
+        return new PortBufferConfig(maxBytes, maxPackets, BufferPolicy.TAIL_DROP, 1);
+    }
+
+    /**
+     * Creates the configuration of buffers marking the packets arriving when
+     * their occupancy exceeds the {@link #DEF_MARKING_THRESHOLD default
+     * marking threshold}.
+     *
+     * @param maxBytes   the maximum number of bytes in a buffer
+     * @param maxPackets the maximum number of packets in a buffer
+     */
+    public static PortBufferConfig ecn(final long maxBytes, final int maxPackets) {
+        return new PortBufferConfig(maxBytes, maxPackets, BufferPolicy.ECN, DEF_MARKING_THRESHOLD);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Title:        SDN Package
+ * Description:  SDN package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.sdn.control.network.qos;
+
+import org.autocs.sdn.control.network.virtual.VirtualLink;
+
+/**
+ * Represents a quality of service class of the packets sent through the
+ * egress ports of a switch. The packets of a {@link VirtualLink} belong to the
+ * class whose index, in the classes of the {@link EgressScheduler}, is the
+ * {@link VirtualLink#getQosClass() class of the link}.
+ *
+ * @author Ibrahem Mouhamad
+ * @since AutoCS SDN Package 1.0.0
+ */
+
+public class QosClass {
+
+    /**
+     * The default weight of a class.
+     */
+    public static final int DEF_WEIGHT = 1;
+
+    /**
+     * The default maximum number of packets waiting in the queue of a class.
+     */
+    public static final int DEF_MAX_QUEUE_LENGTH = 1000;
+
+    /**
+     * the share of the class in the round-robin schedulers, as a number of
+     * packets or quantums per round
+     */
+    private final int weight;
+
+    /**
+     * the maximum number of packets waiting in the queue of the class, the
+     * packets arriving when the queue is full being dropped
+     */
+    private final int maxQueueLength;
+
+    public QosClass() {
+        this(DEF_WEIGHT, DEF_MAX_QUEUE_LENGTH);
+    }
+
+    public QosClass(final int weight, final int maxQueueLength) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("The weight of a QoS class must be greater than 0");
+        }
+        if (maxQueueLength <= 0) {
+            throw new IllegalArgumentException("The maximum queue length of a QoS class must be greater than 0");
+        }
+        this.weight = weight;
+        this.maxQueueLength = maxQueueLength;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public int getMaxQueueLength() {
+        return maxQueueLength;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Title:        SDN Package
+ * Description:  SDN package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.sdn.control.network.transmission;
+
+import java.util.List;
+
+import org.cloudbus.cloudsim.hosts.network.NetworkHost;
+import org.cloudbus.cloudsim.network.HostPacket;
+import org.cloudbus.cloudsim.network.switches.Switch;
+
+/**
+ * Decides how the packets of a flow are transmitted through a link channel:
+ * how they are split into batches and when every batch is emitted. It is used
+ * by both the {@link NetworkHost}s and the {@link Switch}es, which send every
+ * batch as a single event when the packet aggregation is enabled.
+ *
+ * @author Ibrahem Mouhamad
+ * @since AutoCS SDN Package 1.0.0
+ */
+
+public interface LinkTransmissionScheduler {
+
+    /**
+     * Splits the packets of a flow into batches and gives every batch with its
+     * emission delay to a sender, in emission order.
+     *
+     * @param packets            the packets of the flow, in sending order
+     * @param bandwidth          the bandwidth of the flow channel (in
+     *                           Megabits/s)
+     * @param schedulingInterval the scheduling interval of the datacenter (in
+     *                           seconds)
+     * @param sender             the sender of the batches
+     * @throws IllegalArgumentException when the bandwidth is not greater than
+     *                                  0, as the packets would never be
+     *                                  transmitted
+     */
+    void schedule(List<HostPacket> packets, double bandwidth, double schedulingInterval, BatchSender sender);
+
+    /**
+     * Checks that a channel bandwidth can transmit packets.
+     *
+     * @param bandwidth the bandwidth of the flow channel (in Megabits/s)
+     * @throws IllegalArgumentException when the bandwidth is not greater than 0
+     */
+    static void requirePositive(final double bandwidth) {
+        if (bandwidth <= 0) {
+            throw new IllegalArgumentException("The channel bandwidth must be greater than 0, but is " + bandwidth);
+        }
+    }
+
+    /**
+     * Sends a batch of packets.
+     */
+    @FunctionalInterface
+    interface BatchSender {
+
+        /**
+         * Sends a batch of packets.
+         *
+         * @param delay the delay of the batch (in seconds)
+         * @param from  the index of the first packet of the batch
+         * @param to    the index after the last packet of the batch
+         */
+        void send(double delay, int from, int to);
+    }
+}
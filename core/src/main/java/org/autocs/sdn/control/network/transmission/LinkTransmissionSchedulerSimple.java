@@ -0,0 +1,42 @@
+/*
+ * Title:        SDN Package
+ * Description:  SDN package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.sdn.control.network.transmission;
+
+import java.util.List;
+
+import org.cloudbus.cloudsim.network.HostPacket;
+
+import static org.cloudbus.cloudsim.util.BytesConversion.bytesToMegaBits;
+
+/**
+ * A {@link LinkTransmissionScheduler} which sends all the packets of a flow
+ * in a single batch, delayed by the time needed to transfer all of them
+ * through the channel.
+ *
+ * @author Ibrahem Mouhamad
+ * @since AutoCS SDN Package 1.0.0
+ */
+
+public class LinkTransmissionSchedulerSimple implements LinkTransmissionScheduler {
+
+    @Override
+    public void schedule(final List<HostPacket> packets, final double bandwidth, final double schedulingInterval,
+            final BatchSender sender) {
+        LinkTransmissionScheduler.requirePositive(bandwidth);
+        if (packets.isEmpty()) {
+            return;
+        }
+        double megaBits = 0;
+        for (int i = 0; i < packets.size(); i++) {
+            megaBits += bytesToMegaBits(packets.get(i).getSize());
+        }
+        sender.send(megaBits / bandwidth, 0, packets.size());
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Title:        SDN Package
+ * Description:  SDN package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.sdn.control.network.transmission;
+
+import java.util.List;
+
+import org.cloudbus.cloudsim.network.HostPacket;
+
+import static org.cloudbus.cloudsim.util.BytesConversion.bytesToMegaBits;
+
+/**
+ * A {@link LinkTransmissionScheduler} which transmits the packets of a flow
+ * one after the other at the channel bandwidth, and sends the packets
+ * transmitted during every scheduling interval in a batch. A batch is
+ * delayed by the time its last packet is transmitted, so a flow transmitted
+ * within a single scheduling interval is sent in a single batch.
+ *
+ * <p>
+ * When the datacenter has no scheduling interval, all the packets are sent
+ * in a single batch.
+ * </p>
+ *
+ * @author Ibrahem Mouhamad
+ * @since AutoCS SDN Package 1.0.0
+ */
+
+public class LinkTransmissionSchedulerTimeSliced implements LinkTransmissionScheduler {
+
+    @Override
+    public void schedule(final List<HostPacket> packets, final double bandwidth, final double schedulingInterval,
+            final BatchSender sender) {
+        LinkTransmissionScheduler.requirePositive(bandwidth);
+        int from = 0;
+        long slice = 0;
+        double time = 0;
+        for (int i = 0; i < packets.size(); i++) {
+            final double transmitted = time + bytesToMegaBits(packets.get(i).getSize()) / bandwidth;
+            // the packets transmitted at the end of an interval belong to it
+            final long packetSlice = schedulingInterval > 0 ? (long) Math.ceil(transmitted / schedulingInterval) : 0;
+            if (i > from && packetSlice != slice) {
+                sender.send(time, from, i);
+                from = i;
+            }
+            slice = packetSlice;
+            time = transmitted;
+        }
+        if (from < packets.size()) {
+            sender.send(time, from, packets.size());
+        }
+    }
+}
@@ -40,9 +40,15 @@ public class Channel {
      */
     private double previousTime;
 
+    /**
+     * the bandwidth allocated to this channel by its physical link
+     */
+    private double allocatedBw;
+
     public Channel(final VirtualLink virtualLink) {
         this.virtualLink = virtualLink;
         this.previousTime = -1;
+        this.allocatedBw = getBw();
     }
 
     public VirtualLink getVirtualLink() {
@@ -57,6 +63,20 @@ public class Channel {
         return this.virtualLink != null ? this.virtualLink.getRequiredBandwidth() : 0.0;
     }
 
+    /**
+     * Gets the bandwidth allocated to this channel by its physical link for its
+     * last transmission, which is its required bandwidth until it transmits.
+     *
+     * @see PhysicalLink#allocateBandwidth(long, double, java.util.List)
+     */
+    public double getAllocatedBw() {
+        return allocatedBw;
+    }
+
+    public void setAllocatedBw(final double allocatedBw) {
+        this.allocatedBw = allocatedBw;
+    }
+
     /**
      * Gets the previous time this channel was used
      * 
@@ -68,16 +88,16 @@ public class Channel {
 
     /**
      * Gets the amount of bytes should be passed
-     * through this channel from the last used time
+     * through this channel from the last used time, at its allocated bandwidth
      */
     public long amountToBeProcessed(double currentTime) {
         // first time to use the channel
         if (this.previousTime == -1) {
             this.previousTime = currentTime;
-            return Math.round(((getBw() * 1024 * 1024) / 8));
+            return Math.round(((getAllocatedBw() * 1024 * 1024) / 8));
         } else {
             double timeSpent = currentTime - this.previousTime;
-            return Math.round(timeSpent * ((getBw() * 1024 * 1024) / 8));
+            return Math.round(timeSpent * ((getAllocatedBw() * 1024 * 1024) / 8));
         }
     }
 }
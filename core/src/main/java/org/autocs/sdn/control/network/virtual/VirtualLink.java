@@ -39,6 +39,12 @@ public class VirtualLink implements Identifiable {
 
     private long id;
 
+    /**
+     * the index of the QoS class of the link packets in the egress schedulers
+     * of the switches, 0 being the highest priority
+     */
+    private int qosClass;
+
     /**
      * the virtual topology where this link is located
      */
@@ -75,6 +81,17 @@ public class VirtualLink implements Identifiable {
         this.requiredBandwidth = requiredBandwidth;
     }
 
+    public int getQosClass() {
+        return qosClass;
+    }
+
+    public void setQosClass(int qosClass) {
+        if (qosClass < 0) {
+            throw new IllegalArgumentException("The QoS class of a virtual link cannot be negative");
+        }
+        this.qosClass = qosClass;
+    }
+
     public VirtualTopology getVirtualTopology() {
         return virtualTopology;
     }
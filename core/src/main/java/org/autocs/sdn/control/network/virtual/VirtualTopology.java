@@ -10,11 +10,15 @@
 package org.autocs.sdn.control.network.virtual;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.cloudbus.cloudsim.brokers.DatacenterBroker;
+import org.cloudbus.cloudsim.core.Simulation;
 import org.cloudbus.cloudsim.vms.network.NetworkVm;;
 
 /**
@@ -36,31 +40,62 @@ public class VirtualTopology {
      */
     private Map<Long, NetworkVm> idToNetworkVms;
 
-    private static long linkId = 0;
+    /**
+     * map of the {@link VirtualLink}s of every {@link NetworkVm}, as source or
+     * destination, identified by the vm id
+     */
+    private Map<Long, List<VirtualLink>> vmToVirtualLinks;
+
+    /**
+     * the last link id given in every simulation, so the flow ids of a
+     * simulation do not depend on the simulations running concurrently
+     */
+    private static final Map<Simulation, AtomicLong> LAST_LINK_IDS = Collections
+            .synchronizedMap(new WeakHashMap<>());
 
     public VirtualTopology() {
         flowToVirtualLinks = new HashMap<>();
         this.idToNetworkVms = new HashMap<>();
+        this.vmToVirtualLinks = new HashMap<>();
     }
 
     /**
      * Adds a virtual link to the topology
+     *
+     * @return the added link
      */
-    public void addVirtualLink(final NetworkVm src, final NetworkVm dest, final double bw) {
-        final long id = ++linkId;
+    public VirtualLink addVirtualLink(final NetworkVm src, final NetworkVm dest, final double bw) {
+        final long id = LAST_LINK_IDS.computeIfAbsent(src.getSimulation(), simulation -> new AtomicLong())
+                .incrementAndGet();
         VirtualLink link = new VirtualLink(src.getId(), dest.getId(), bw, id);
         this.flowToVirtualLinks.put(id, link);
         link.setVirtualTopology(this);
         // add the src an dest {@link NetworkVm}s to idToNetworkVms map
         this.idToNetworkVms.put(src.getId(), src);
         this.idToNetworkVms.put(dest.getId(), dest);
+        this.vmToVirtualLinks.computeIfAbsent(src.getId(), vmId -> new ArrayList<>()).add(link);
+        if (dest.getId() != src.getId()) {
+            this.vmToVirtualLinks.computeIfAbsent(dest.getId(), vmId -> new ArrayList<>()).add(link);
+        }
+        return link;
     }
 
     /**
      * Removes a virtual link from the topology using flow id
      */
     public void removeVirtualLinkByFlowId(final long flowId) {
-        this.flowToVirtualLinks.remove(flowId);
+        final VirtualLink link = this.flowToVirtualLinks.remove(flowId);
+        if (link != null) {
+            removeVmVirtualLink(link.getSrcId(), link);
+            removeVmVirtualLink(link.getDstId(), link);
+        }
+    }
+
+    private void removeVmVirtualLink(final long vmId, final VirtualLink link) {
+        final List<VirtualLink> links = this.vmToVirtualLinks.get(vmId);
+        if (links != null && links.remove(link) && links.isEmpty()) {
+            this.vmToVirtualLinks.remove(vmId);
+        }
     }
 
     /**
@@ -68,13 +103,23 @@ public class VirtualTopology {
      * which may be source or destination
      */
     public void removeAllVirtualLinkByVm(final NetworkVm vm) {
-        for (VirtualLink link : getAllLinks()) {
-            if (link.getSrcId() == vm.getId() || link.getDstId() == vm.getId()) {
-                removeVirtualLinkByFlowId(link.getId());
-            }
+        for (VirtualLink link : getVirtualLinksByVm(vm)) {
+            removeVirtualLinkByFlowId(link.getId());
         }
     }
 
+    /**
+     * Gets the {@link VirtualLink}s of a {@link NetworkVm}, which may be their
+     * source or destination
+     *
+     * @param vm
+     * @return a new list of the virtual links of the vm
+     */
+    public List<VirtualLink> getVirtualLinksByVm(final NetworkVm vm) {
+        final List<VirtualLink> links = this.vmToVirtualLinks.get(vm.getId());
+        return links == null ? new ArrayList<>() : new ArrayList<>(links);
+    }
+
     /**
      * Gets {@link VirtualLink} using its flow id
      * 
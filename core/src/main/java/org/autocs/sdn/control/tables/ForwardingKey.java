@@ -17,12 +17,32 @@ import org.cloudbus.cloudsim.vms.Vm;
  * Represent a forwarding table key, where the addresses here are the addresses
  * of the source and the destination {@link Vm}s
  *
+ * <p>
+ * Every field of a key may be the {@link #ANY} wildcard, so the key matches
+ * any value of this field. A key may also match the host of the destination
+ * Vm instead of the Vm itself, to forward all the packets going to a host
+ * with a single rule.
+ * </p>
+ *
  * @author Ibrahem Mouhamad
  * @since AutoCS SDN Package 1.0.0
  */
 
 public class ForwardingKey {
 
+    /**
+     * The wildcard matching any value of a field.
+     */
+    public static final long ANY = Long.MIN_VALUE;
+
+    static final int SRC_FIELD = 1;
+
+    static final int DEST_FIELD = 1 << 1;
+
+    static final int FLOW_FIELD = 1 << 2;
+
+    static final int DEST_HOST_FIELD = 1 << 3;
+
     /**
      * source Vm address
      */
@@ -38,13 +58,32 @@ public class ForwardingKey {
      */
     private final long flowId;
 
+    /**
+     * destination host address
+     */
+    private final long destHost;
+
     private int hashCode;
 
     public ForwardingKey(final long src, final long dest, final long flowId) {
+        this(src, dest, flowId, ANY);
+    }
+
+    public ForwardingKey(final long src, final long dest, final long flowId, final long destHost) {
         this.src = src;
         this.dest = dest;
         this.flowId = flowId;
-        this.hashCode = Objects.hash(src, dest, flowId);
+        this.destHost = destHost;
+        this.hashCode = Objects.hash(src, dest, flowId, destHost);
+    }
+
+    /**
+     * Creates a key matching all the packets going to a host.
+     *
+     * @param destHost the destination host address
+     */
+    public static ForwardingKey toHost(final long destHost) {
+        return new ForwardingKey(ANY, ANY, ANY, destHost);
     }
 
     @Override
@@ -54,7 +93,7 @@ public class ForwardingKey {
         if (o == null || getClass() != o.getClass())
             return false;
         ForwardingKey that = (ForwardingKey) o;
-        return src == that.src && dest == that.dest && flowId == that.flowId;
+        return src == that.src && dest == that.dest && flowId == that.flowId && destHost == that.destHost;
     }
 
     @Override
@@ -73,4 +112,18 @@ public class ForwardingKey {
     public long getFlowId() {
         return flowId;
     }
+
+    public long getDestHost() {
+        return destHost;
+    }
+
+    /**
+     * Gets the fields of the key which are not wildcards, as a bit set.
+     */
+    int getMatchedFields() {
+        return (src != ANY ? SRC_FIELD : 0)
+                | (dest != ANY ? DEST_FIELD : 0)
+                | (flowId != ANY ? FLOW_FIELD : 0)
+                | (destHost != ANY ? DEST_HOST_FIELD : 0);
+    }
 }
@@ -0,0 +1,65 @@
+/*
+ * Title:        SDN Package
+ * Description:  SDN package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.sdn.control.tables;
+
+import java.util.Objects;
+
+import org.autocs.sdn.data.networkelement.NetworkElement;
+
+/**
+ * Represent a forwarding table rule, which forwards the packets matching its
+ * {@link ForwardingKey} to a next hop. When several rules match a packet, the
+ * rule with the highest priority is used, and among the rules with the same
+ * priority the one matching the most fields.
+ *
+ * @author Ibrahem Mouhamad
+ * @since AutoCS SDN Package 1.0.0
+ */
+
+public class ForwardingRule {
+
+    /**
+     * The priority of the rules added without priority.
+     */
+    public static final int DEFAULT_PRIORITY = 0;
+
+    /**
+     * the key matching the packets of the rule, may contain wildcards
+     */
+    private final ForwardingKey match;
+
+    /**
+     * the priority of the rule, higher priorities first
+     */
+    private final int priority;
+
+    /**
+     * the next hop to forward the matching packets to
+     */
+    private final NetworkElement nextHop;
+
+    public ForwardingRule(final ForwardingKey match, final int priority, final NetworkElement nextHop) {
+        this.match = Objects.requireNonNull(match);
+        this.priority = priority;
+        this.nextHop = nextHop;
+    }
+
+    public ForwardingKey getMatch() {
+        return match;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public NetworkElement getNextHop() {
+        return nextHop;
+    }
+}
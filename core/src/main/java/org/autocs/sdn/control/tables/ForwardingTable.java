@@ -9,6 +9,13 @@
 
 package org.autocs.sdn.control.tables;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.cloudbus.cloudsim.hosts.network.NetworkHost;
 import org.cloudbus.cloudsim.hosts.Host;
 import org.cloudbus.cloudsim.network.NetworkPacket;
@@ -18,47 +25,156 @@ import org.autocs.sdn.data.networkelement.NetworkElement;
 /**
  * A flow control table that contain information about the next
  * {@link NetworkElement} to forward a {@link NetworkPacket} to
- * 
+ *
+ * <p>
+ * The rules may have wildcards and priorities (see {@link ForwardingRule}).
+ * They are compiled into one open addressing table per set of matched fields,
+ * keyed by the primitive values of these fields, so resolving the next hop of
+ * a packet does a lookup per set of matched fields, at most 16, and does not
+ * allocate a {@link ForwardingKey}. The tables are checked by decreasing
+ * priority, and the lookup stops as soon as no remaining table can hold a
+ * better rule. Adding or removing a rule updates the compiled tables in
+ * place, they are only compiled again when a rule matches a new set of fields.
+ * </p>
  *
  * @author Ibrahem Mouhamad
  * @since AutoCS SDN Package 1.0.0
  */
 
-public class ForwardingTable extends AbstractedTable<ForwardingKey, NetworkElement> {
+public class ForwardingTable extends AbstractedTable<ForwardingKey, ForwardingRule> {
+
+    private static final RulesGroup[] NO_GROUPS = {};
+
+    /**
+     * The order of the groups checked by a lookup, by decreasing priority then
+     * decreasing number of matched fields.
+     */
+    private static final Comparator<RulesGroup> GROUPS_ORDER = Comparator
+            .<RulesGroup>comparingInt(group -> group.maxPriority)
+            .thenComparingInt(group -> group.fieldsNumber).reversed();
+
+    /**
+     * The compiled rules, compiled again on next lookup when it is null.
+     */
+    private RulesGroup[] groups;
 
     public ForwardingTable() {
         super();
+        this.groups = NO_GROUPS;
     }
 
     /**
      * {@inheritDoc}
      */
     public void addRule(final long src, final long dest, final long flowId, NetworkElement nextHop) {
-        ForwardingKey key = new ForwardingKey(src, dest, flowId);
-        this.getTable().put(key, nextHop);
+        addRule(new ForwardingRule(new ForwardingKey(src, dest, flowId), ForwardingRule.DEFAULT_PRIORITY, nextHop));
+    }
+
+    /**
+     * Adds a rule, replacing the rule with the same match if any.
+     *
+     * @param rule the rule to add
+     */
+    public void addRule(final ForwardingRule rule) {
+        this.getTable().put(rule.getMatch(), rule);
+        if (groups == null) {
+            return;
+        }
+
+        final RulesGroup group = findGroup(rule.getMatch().getMatchedFields());
+        if (group == null) {
+            // a new set of matched fields, compiled on next lookup
+            this.groups = null;
+            return;
+        }
+        final int maxPriority = group.maxPriority;
+        group.put(rule);
+        if (group.maxPriority != maxPriority) {
+            Arrays.sort(groups, GROUPS_ORDER);
+        }
+    }
+
+    /**
+     * Adds the rule forwarding a flow to the next hop towards its destination
+     * host. The flows going to the same host through the same next hop share
+     * a single rule matching the host, and a rule matching the flow itself is
+     * only added when its next hop is another one.
+     *
+     * @param src      the source Vm address
+     * @param dest     the destination Vm address
+     * @param flowId   the flow identifier
+     * @param destHost the destination host address
+     * @param nextHop  the next hop of the flow
+     */
+    public void addHostRule(final long src, final long dest, final long flowId, final long destHost,
+            final NetworkElement nextHop) {
+        final ForwardingKey hostKey = ForwardingKey.toHost(destHost);
+        final ForwardingRule hostRule = getTable().get(hostKey);
+        if (hostRule == null) {
+            addRule(new ForwardingRule(hostKey, ForwardingRule.DEFAULT_PRIORITY, nextHop));
+        } else if (hostRule.getNextHop() != nextHop) {
+            addRule(src, dest, flowId, nextHop);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeRule(final ForwardingKey key) {
+        super.removeRule(key);
+        final RulesGroup group = groups == null ? null : findGroup(key.getMatchedFields());
+        if (group != null) {
+            // the priority of the group is left as is, it remains an upper bound
+            group.remove(key);
+        }
+    }
+
+    private RulesGroup findGroup(final int fields) {
+        for (RulesGroup group : groups) {
+            if (group.fields == fields) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        this.groups = NO_GROUPS;
     }
 
     /**
      * {@inheritDoc}
      */
     public void print() {
-        for (ForwardingKey key : this.getTable().keySet()) {
+        for (ForwardingRule rule : this.getTable().values()) {
             String destString = "";
-            NetworkElement dest = this.getTable().get(key);
+            final ForwardingKey key = rule.getMatch();
+            NetworkElement dest = rule.getNextHop();
             // switch
-            if (this.getTable().get(key) instanceof Switch) {
+            if (dest instanceof Switch) {
                 destString = "Switch (" + ((Switch) dest).getName() + ")";
             }
             // Host
-            if (this.getTable().get(key) instanceof NetworkHost) {
+            if (dest instanceof NetworkHost) {
                 destString = "NetworkHost (" + ((Host) dest).getClass().getSimpleName() + ")";
             }
-            System.out.println("(src: " + key.getSrc() + ", dest: " + key.getDest() + ", flowId: " + key.getFlowId()
-                    + ")  --->  " + destString);
+            System.out.println("(src: " + fieldString(key.getSrc()) + ", dest: " + fieldString(key.getDest())
+                    + ", flowId: " + fieldString(key.getFlowId()) + ", destHost: " + fieldString(key.getDestHost())
+                    + ", priority: " + rule.getPriority() + ")  --->  " + destString);
             System.out.println();
         }
     }
 
+    private static String fieldString(final long value) {
+        return value == ForwardingKey.ANY ? "*" : String.valueOf(value);
+    }
+
     /**
      * Gets a destination for a given flow
      *
@@ -66,6 +182,183 @@ public class ForwardingTable extends AbstractedTable<ForwardingKey, NetworkEleme
      * @param value
      */
     public NetworkElement resolve(ForwardingKey key) {
-        return this.getTable().get(key);
+        return resolve(key.getSrc(), key.getDest(), key.getFlowId(), key.getDestHost());
+    }
+
+    /**
+     * Gets the next hop of the packets of a flow, without allocating a
+     * {@link ForwardingKey}. The rules matching the destination host are
+     * ignored.
+     *
+     * @param src    the source Vm address
+     * @param dest   the destination Vm address
+     * @param flowId the flow identifier
+     * @return the next hop, or null if there is no rule for the flow
+     */
+    public NetworkElement resolve(final long src, final long dest, final long flowId) {
+        return resolve(src, dest, flowId, ForwardingKey.ANY);
+    }
+
+    /**
+     * Gets the next hop of the packets of a flow, without allocating a
+     * {@link ForwardingKey}.
+     *
+     * @param src      the source Vm address
+     * @param dest     the destination Vm address
+     * @param flowId   the flow identifier
+     * @param destHost the destination host address
+     * @return the next hop of the best matching rule, or null if there is no
+     *         rule matching the flow
+     */
+    public NetworkElement resolve(final long src, final long dest, final long flowId, final long destHost) {
+        ForwardingRule best = null;
+        int bestFields = 0;
+        for (RulesGroup group : compiledGroups()) {
+            if (best != null && (group.maxPriority < best.getPriority()
+                    || group.maxPriority == best.getPriority() && group.fieldsNumber <= bestFields)) {
+                // no remaining group holds a better rule
+                break;
+            }
+            final ForwardingRule rule = group.get(src, dest, flowId, destHost);
+            if (rule != null && (best == null || rule.getPriority() > best.getPriority()
+                    || rule.getPriority() == best.getPriority() && group.fieldsNumber > bestFields)) {
+                best = rule;
+                bestFields = group.fieldsNumber;
+            }
+        }
+        return best == null ? null : best.getNextHop();
+    }
+
+    private RulesGroup[] compiledGroups() {
+        if (groups == null) {
+            final Map<Integer, RulesGroup> groupsByFields = new HashMap<>();
+            for (ForwardingRule rule : getTable().values()) {
+                groupsByFields.computeIfAbsent(rule.getMatch().getMatchedFields(), RulesGroup::new).put(rule);
+            }
+            final List<RulesGroup> compiled = new ArrayList<>(groupsByFields.values());
+            compiled.sort(GROUPS_ORDER);
+            this.groups = compiled.toArray(NO_GROUPS);
+        }
+        return groups;
+    }
+
+    /**
+     * The rules matching the same fields, in an open addressing table keyed by
+     * the primitive values of these fields, the other fields being
+     * {@link ForwardingKey#ANY}.
+     */
+    private static final class RulesGroup {
+
+        private static final int DEFAULT_CAPACITY = 16;
+
+        private static final int KEY_LENGTH = 4;
+
+        private final int fields;
+
+        private final int fieldsNumber;
+
+        private int maxPriority = Integer.MIN_VALUE;
+
+        private long[] keys = new long[DEFAULT_CAPACITY * KEY_LENGTH];
+
+        /**
+         * The rule of every slot, null for the free slots.
+         */
+        private ForwardingRule[] rules = new ForwardingRule[DEFAULT_CAPACITY];
+
+        private int size;
+
+        RulesGroup(final int fields) {
+            this.fields = fields;
+            this.fieldsNumber = Integer.bitCount(fields);
+        }
+
+        void put(final ForwardingRule rule) {
+            if (2 * (size + 1) > rules.length) {
+                resize();
+            }
+            final ForwardingKey key = rule.getMatch();
+            final int slot = slot(key.getSrc(), key.getDest(), key.getFlowId(), key.getDestHost());
+            if (rules[slot] == null) {
+                keys[slot * KEY_LENGTH] = key.getSrc();
+                keys[slot * KEY_LENGTH + 1] = key.getDest();
+                keys[slot * KEY_LENGTH + 2] = key.getFlowId();
+                keys[slot * KEY_LENGTH + 3] = key.getDestHost();
+                size++;
+            }
+            rules[slot] = rule;
+            maxPriority = Math.max(maxPriority, rule.getPriority());
+        }
+
+        ForwardingRule get(final long src, final long dest, final long flowId, final long destHost) {
+            // the fields not matched by the group are wildcards in its keys
+            return rules[slot(
+                    (fields & ForwardingKey.SRC_FIELD) != 0 ? src : ForwardingKey.ANY,
+                    (fields & ForwardingKey.DEST_FIELD) != 0 ? dest : ForwardingKey.ANY,
+                    (fields & ForwardingKey.FLOW_FIELD) != 0 ? flowId : ForwardingKey.ANY,
+                    (fields & ForwardingKey.DEST_HOST_FIELD) != 0 ? destHost : ForwardingKey.ANY)];
+        }
+
+        /**
+         * Removes the rule of a key, moving back the following rules of its
+         * probe sequence so no free slot is left inside a probe sequence.
+         */
+        void remove(final ForwardingKey key) {
+            int free = slot(key.getSrc(), key.getDest(), key.getFlowId(), key.getDestHost());
+            if (rules[free] == null) {
+                return;
+            }
+            rules[free] = null;
+            size--;
+
+            final int mask = rules.length - 1;
+            for (int slot = (free + 1) & mask; rules[slot] != null; slot = (slot + 1) & mask) {
+                final int home = home(keys[slot * KEY_LENGTH], keys[slot * KEY_LENGTH + 1],
+                        keys[slot * KEY_LENGTH + 2], keys[slot * KEY_LENGTH + 3]);
+                // the rule can be moved back if the free slot is not before its home slot
+                if (((slot - home) & mask) >= ((slot - free) & mask)) {
+                    System.arraycopy(keys, slot * KEY_LENGTH, keys, free * KEY_LENGTH, KEY_LENGTH);
+                    rules[free] = rules[slot];
+                    rules[slot] = null;
+                    free = slot;
+                }
+            }
+        }
+
+        /**
+         * Gets the slot of a rule, or the free slot where it would be added.
+         */
+        private int slot(final long src, final long dest, final long flowId, final long destHost) {
+            final int mask = rules.length - 1;
+            int slot = home(src, dest, flowId, destHost);
+            while (rules[slot] != null && (keys[slot * KEY_LENGTH] != src || keys[slot * KEY_LENGTH + 1] != dest
+                    || keys[slot * KEY_LENGTH + 2] != flowId || keys[slot * KEY_LENGTH + 3] != destHost)) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Gets the first slot of the probe sequence of a rule.
+         */
+        private int home(final long src, final long dest, final long flowId, final long destHost) {
+            long hash = src * 0x9E3779B97F4A7C15L;
+            hash = (hash ^ dest) * 0xC2B2AE3D27D4EB4FL;
+            hash = (hash ^ flowId) * 0x165667B19E3779F9L;
+            hash = (hash ^ destHost) * 0x9E3779B97F4A7C15L;
+            return (int) (hash >>> 32) & (rules.length - 1);
+        }
+
+        private void resize() {
+            final ForwardingRule[] oldRules = rules;
+            keys = new long[keys.length * 2];
+            rules = new ForwardingRule[oldRules.length * 2];
+            size = 0;
+            for (ForwardingRule rule : oldRules) {
+                if (rule != null) {
+                    put(rule);
+                }
+            }
+        }
     }
 }
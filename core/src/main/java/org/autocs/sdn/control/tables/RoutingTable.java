@@ -10,6 +10,7 @@
 package org.autocs.sdn.control.tables;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.autocs.sdn.control.network.physical.PhysicalLink;
@@ -19,12 +20,25 @@ import org.autocs.sdn.data.networkelement.NetworkElement;
  * A flow control table that contain information about the next hop of a
  * {@link NetworkElement}
  *
+ * <p>
+ * When several {@link PhysicalLink}s lead to the same destination, they are
+ * considered as equal-cost paths, and the link of a flow is selected by
+ * hashing the flow id, weighted by the bandwidth of the links, or by taking
+ * the least loaded link if it is enabled. A flow keeps the link where it
+ * already has a channel, so all its packets take the same path.
+ * </p>
+ *
  * @author Ibrahem Mouhamad
  * @since AutoCS SDN Package 1.0.0
  */
 
 public class RoutingTable extends AbstractedTable<NetworkElement, List<PhysicalLink>> {
 
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /** @see #isLeastLoadedSelectionEnabled() */
+    private boolean leastLoadedSelection;
+
     public RoutingTable() {
         super();
     }
@@ -67,6 +81,8 @@ public class RoutingTable extends AbstractedTable<NetworkElement, List<PhysicalL
     /**
      *
      * Gets only on {@link PhysicalLink}, for simplicity we return the first one
+     *
+     * @see #resolve(NetworkElement, long)
      */
     public PhysicalLink resolve(NetworkElement key) {
         if (this.getTable().get(key) != null)
@@ -75,4 +91,101 @@ public class RoutingTable extends AbstractedTable<NetworkElement, List<PhysicalL
                     .orElse(null);
         return null;
     }
+
+    /**
+     * Gets the {@link PhysicalLink} to use for a flow among the links leading
+     * to a destination. The link already having a channel for the flow is
+     * used, otherwise the link is selected by hashing the flow id, where every
+     * link gets a share of the flows proportional to its bandwidth, or the
+     * least loaded link is selected if it is enabled.
+     *
+     * @param key    the destination, or null for the default route
+     * @param flowId the flow identifier
+     * @return the link to use, or null if there is no link to the destination
+     */
+    public PhysicalLink resolve(final NetworkElement key, final long flowId) {
+        final List<PhysicalLink> links = getLinks(key);
+        if (links.size() <= 1) {
+            return links.isEmpty() ? null : links.get(0);
+        }
+
+        for (final PhysicalLink link : links) {
+            if (link.getChannelByFlowId(flowId) != null) {
+                return link;
+            }
+        }
+        return leastLoadedSelection ? leastLoadedLink(links) : weightedHashLink(links, flowId);
+    }
+
+    /**
+     * Gets all the {@link PhysicalLink}s leading to a destination.
+     *
+     * @param key the destination, or null for the default route
+     * @return a read-only list of the links, which is empty if there is no link
+     *         to the destination
+     */
+    public List<PhysicalLink> getLinks(final NetworkElement key) {
+        final List<PhysicalLink> links = getTable().get(key);
+        return links == null ? Collections.emptyList() : Collections.unmodifiableList(links);
+    }
+
+    private static PhysicalLink leastLoadedLink(final List<PhysicalLink> links) {
+        PhysicalLink leastLoaded = links.get(0);
+        for (final PhysicalLink link : links) {
+            if (link.getLoad() < leastLoaded.getLoad()) {
+                leastLoaded = link;
+            }
+        }
+        return leastLoaded;
+    }
+
+    private static PhysicalLink weightedHashLink(final List<PhysicalLink> links, final long flowId) {
+        // a uniform value in [0, 1) computed from the flow id
+        final double hash = ((flowId * HASH_MULTIPLIER) >>> 11) * 0x1.0p-53;
+        double totalBw = 0;
+        for (final PhysicalLink link : links) {
+            totalBw += link.getBw().getCapacity();
+        }
+        if (totalBw <= 0) {
+            return links.get((int) (hash * links.size()));
+        }
+
+        double bw = hash * totalBw;
+        for (final PhysicalLink link : links) {
+            bw -= link.getBw().getCapacity();
+            if (bw < 0) {
+                return link;
+            }
+        }
+        return links.get(links.size() - 1);
+    }
+
+    /**
+     * Checks if the least loaded link is selected for the flows having no
+     * channel in the links to their destination, instead of hashing their id.
+     *
+     * @return true if the least loaded link is selected, false otherwise
+     * @see PhysicalLink#getLoad()
+     */
+    public boolean isLeastLoadedSelectionEnabled() {
+        return leastLoadedSelection;
+    }
+
+    /**
+     * Enables the selection of the least loaded link.
+     *
+     * @see #isLeastLoadedSelectionEnabled()
+     */
+    public void enableLeastLoadedSelection() {
+        this.leastLoadedSelection = true;
+    }
+
+    /**
+     * Disables the selection of the least loaded link.
+     *
+     * @see #isLeastLoadedSelectionEnabled()
+     */
+    public void disableLeastLoadedSelection() {
+        this.leastLoadedSelection = false;
+    }
 }
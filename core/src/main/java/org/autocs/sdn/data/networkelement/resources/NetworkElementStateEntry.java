@@ -16,7 +16,7 @@ package org.autocs.sdn.data.networkelement.resources;
 */
 
 public record NetworkElementStateEntry(double time, long upChannels, long upload, long downChannels,
-        long download) {
+        long download, long droppedPackets, long markedPackets) {
 
     /**
      * Gets the time the data in this history entry is related to.
@@ -69,9 +69,30 @@ public record NetworkElementStateEntry(double time, long upChannels, long upload
         return upload;
     }
 
+    /**
+     * Gets the number of packets dropped by the switch because a port buffer or
+     * queue was full, since the previous entry.
+     *
+     * @return
+     */
+    public long droppedPackets() {
+        return droppedPackets;
+    }
+
+    /**
+     * Gets the number of packets marked by the switch as having experienced
+     * congestion, since the previous entry.
+     *
+     * @return
+     */
+    public long markedPackets() {
+        return markedPackets;
+    }
+
     @Override
     public String toString() {
-        final var msg = "Time: %6.1f |  Up Channels: %d | Upload: %d | Down Channels: %d | Download: %d%n";
-        return String.format(msg, time, upChannels, upload, downChannels, download);
+        final var msg = "Time: %6.1f |  Up Channels: %d | Upload: %d | Down Channels: %d | Download: %d"
+                + " | Dropped: %d | Marked: %d%n";
+        return String.format(msg, time, upChannels, upload, downChannels, download, droppedPackets, markedPackets);
     }
 }
@@ -22,12 +22,16 @@ public class NetworkElementStateSummary {
     private final SummaryStatistics upload;
     private final SummaryStatistics downChannels;
     private final SummaryStatistics download;
+    private final SummaryStatistics droppedPackets;
+    private final SummaryStatistics markedPackets;
 
     public NetworkElementStateSummary() {
         upChannels = new SummaryStatistics();
         upload = new SummaryStatistics();
         downChannels = new SummaryStatistics();
         download = new SummaryStatistics();
+        droppedPackets = new SummaryStatistics();
+        markedPackets = new SummaryStatistics();
     }
 
     public SummaryStatistics getUpChannels() {
@@ -46,11 +50,21 @@ public class NetworkElementStateSummary {
         return download;
     }
 
+    public SummaryStatistics getDroppedPackets() {
+        return droppedPackets;
+    }
+
+    public SummaryStatistics getMarkedPackets() {
+        return markedPackets;
+    }
+
     public void addValue(final long upChannels, final long upload, final long downChannels,
-            final long download) {
+            final long download, final long droppedPackets, final long markedPackets) {
         this.upChannels.addValue(upChannels);
         this.upload.addValue(upload);
         this.downChannels.addValue(downChannels);
         this.download.addValue(download);
+        this.droppedPackets.addValue(droppedPackets);
+        this.markedPackets.addValue(markedPackets);
     }
 }
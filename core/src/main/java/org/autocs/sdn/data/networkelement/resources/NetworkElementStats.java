@@ -76,15 +76,18 @@ public class NetworkElementStats<T extends NetworkElement> {
              * For instance, if a network element uses 100% of a resource all the time,
              * when it finishes, the utilization will be zero.
              * If that utilization is collected, the mean won't be 100% anymore.
+             * The samples with dropped or marked packets are always collected,
+             * since these counters are only reported once.
              */
-            if ((!isZero(previousUtilization) && isZero(utilization))
-                    || (networkElement.isNetworkElementIdle() && largerThanZero(previousUtilization))) {
+            if (!hasCongestion(utilization) && ((!isZero(previousUtilization) && isZero(utilization))
+                    || (networkElement.isNetworkElementIdle() && largerThanZero(previousUtilization)))) {
                 this.previousUtilization = utilization;
                 return false;
             }
 
             this.stats.addValue(utilization.upChannels(), utilization.upload(),
-                    utilization.downChannels(), utilization.download());
+                    utilization.downChannels(), utilization.download(),
+                    utilization.droppedPackets(), utilization.markedPackets());
             this.previousUtilization = utilization;
             return true;
         } finally {
@@ -93,12 +96,17 @@ public class NetworkElementStats<T extends NetworkElement> {
     }
 
     private boolean isZero(NetworkElementStateEntry utilization) {
-        if (utilization != null && utilization.upload() == 0 && utilization.download() == 0) {
+        if (utilization != null && utilization.upload() == 0 && utilization.download() == 0
+                && !hasCongestion(utilization)) {
             return true;
         }
         return false;
     }
 
+    private boolean hasCongestion(NetworkElementStateEntry utilization) {
+        return utilization.droppedPackets() > 0 || utilization.markedPackets() > 0;
+    }
+
     private boolean largerThanZero(NetworkElementStateEntry utilization) {
         if (utilization != null && utilization.upload() > 0 && utilization.download() > 0) {
             return true;
@@ -209,6 +217,15 @@ public class NetworkElementStats<T extends NetworkElement> {
         return Math.floor(time) == previousTime;
     }
 
+    /**
+     * Gets the summary of the collected samples.
+     *
+     * @return
+     */
+    protected NetworkElementStateSummary getStateSummary() {
+        return stats;
+    }
+
     protected T getNetworkElement() {
         return networkElement;
     }
@@ -50,4 +50,42 @@ public class SwitchResourceStats extends NetworkElementStats<Switch> {
         return super.add(time);
     }
 
+    /**
+     * Gets the number of packets dropped by the Switch during the collected
+     * samples.
+     *
+     * @return
+     */
+    public long getDroppedPackets() {
+        return (long) getStateSummary().getDroppedPackets().getSum();
+    }
+
+    /**
+     * Gets the maximum number of packets dropped by the Switch in a sample.
+     *
+     * @return
+     */
+    public double getMaxDroppedPackets() {
+        return getStateSummary().getDroppedPackets().getMax();
+    }
+
+    /**
+     * Gets the number of packets marked as having experienced congestion by
+     * the Switch during the collected samples.
+     *
+     * @return
+     */
+    public long getMarkedPackets() {
+        return (long) getStateSummary().getMarkedPackets().getSum();
+    }
+
+    /**
+     * Gets the maximum number of packets marked by the Switch in a sample.
+     *
+     * @return
+     */
+    public double getMaxMarkedPackets() {
+        return getStateSummary().getMarkedPackets().getMax();
+    }
+
 }
@@ -18,8 +18,8 @@ import org.cloudbus.cloudsim.hosts.network.NetworkHost;
 import org.cloudbus.cloudsim.network.switches.AggregateSwitch;
 import org.cloudbus.cloudsim.network.switches.EdgeSwitch;
 import org.cloudbus.cloudsim.network.switches.RootSwitch;
+import org.cloudbus.cloudsim.network.switches.Switch;
 import org.cloudbus.cloudsim.network.topologies.BriteNetworkTopology;
-import org.cloudbus.cloudsim.network.topologies.NetworkTopology;
 import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
 import org.cloudbus.cloudsim.provisioners.ResourceProvisionerSimple;
 import org.cloudbus.cloudsim.resources.Pe;
@@ -91,6 +91,11 @@ abstract class NetworkVmExampleAbstract {
     private static final long PACKETS_TO_SEND = 5592;
     private static final int SCHEDULING_INTERVAL = 5;
 
+    /**
+     * Sends the packets of a flow having the same delay in a single event.
+     */
+    private static final boolean PACKET_AGGREGATION = true;
+
     private final CloudSim simulation;
 
     protected final List<NetworkVm> vmList;
@@ -258,6 +263,10 @@ abstract class NetworkVmExampleAbstract {
                 .setCostPerBw(COST_PER_BW);
 
         createNetwork(dc);
+        if (PACKET_AGGREGATION) {
+            hostList.forEach(NetworkHost::enablePacketAggregation);
+            dc.getSwitchMap().forEach(Switch::enablePacketAggregation);
+        }
         return dc;
     }
 
@@ -293,7 +302,7 @@ abstract class NetworkVmExampleAbstract {
 
     void createMultipleLevelNetwork(final NetworkDatacenter datacenter) {
         // Configure network by mapping CloudSim entities to BRITE entities
-        final NetworkTopology networkTopology = new BriteNetworkTopology();
+        final BriteNetworkTopology networkTopology = new BriteNetworkTopology();
         simulation.setNetworkTopology(networkTopology);
 
         edgeSwitches1 = new EdgeSwitch(simulation, datacenter);
@@ -327,6 +336,8 @@ abstract class NetworkVmExampleAbstract {
         edgeSwitches1.connectHost(datacenter.getHostList().get(0));
         edgeSwitches2.connectHost(datacenter.getHostList().get(1));
 
+        // the delays are computed once all the links are added
+        networkTopology.beginBatch();
         networkTopology.addLink(rootSwitch, aggregateSwitch1, 40000.0, 5);
         networkTopology.addLink(aggregateSwitch1, rootSwitch, 40000.0, 0.1);
 
@@ -341,6 +352,7 @@ abstract class NetworkVmExampleAbstract {
 
         // networkTopology.addLink(edgeSwitches2, aggregateSwitch1, 10000.0, 0.1);
         // networkTopology.addLink(aggregateSwitch1, edgeSwitches2, 10000.0, 0.1);
+        networkTopology.commitBatch();
 
     }
 
@@ -0,0 +1,108 @@
+/*
+ * Title:        SDN Package
+ * Description:  SDN package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.sdn.examples.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.autocs.sdn.control.tables.ForwardingKey;
+import org.autocs.sdn.control.tables.ForwardingTable;
+import org.autocs.sdn.data.networkelement.NetworkElement;
+
+/**
+ * A microbenchmark of the forwarding table lookups done for every packet by
+ * the switches, comparing a {@link HashMap} keyed by a {@link ForwardingKey}
+ * allocated for every lookup with the primitive keyed lookup of the
+ * {@link ForwardingTable}.
+ *
+ * <p>
+ * Every round resolves the rules of random packets. The time and the
+ * allocated memory per lookup are printed for every number of rules.
+ * </p>
+ *
+ * @author Ibrahem Mouhamad
+ * @since AutoCS SDN Package 1.0.0
+ */
+
+public class ForwardingTableBenchmark {
+
+    private static final int[] RULES = { 100, 10_000, 100_000 };
+
+    private static final int VMS = 1000;
+
+    private static final int LOOKUPS = 1_000_000;
+
+    private static final int WARMUP_ROUNDS = 5;
+
+    private static final int ROUNDS = 10;
+
+    /**
+     * Prevents the lookups from being optimized away.
+     */
+    private static long resolvedRules;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %-10s %15s %15s%n", "rules", "lookup", "ns/lookup", "bytes/lookup");
+        for (int rules : RULES) {
+            final Random random = new Random(rules);
+            final long[][] keys = new long[rules][];
+            final Map<ForwardingKey, NetworkElement> map = new HashMap<>();
+            final ForwardingTable table = new ForwardingTable();
+            for (int i = 0; i < rules; i++) {
+                keys[i] = new long[] { random.nextInt(VMS), random.nextInt(VMS), i };
+                map.put(new ForwardingKey(keys[i][0], keys[i][1], keys[i][2]), NetworkElement.NULL);
+                table.addRule(keys[i][0], keys[i][1], keys[i][2], NetworkElement.NULL);
+            }
+            final long[][] packets = new long[LOOKUPS][];
+            for (int i = 0; i < LOOKUPS; i++) {
+                packets[i] = keys[random.nextInt(rules)];
+            }
+            measure(rules, "map", () -> {
+                for (long[] packet : packets) {
+                    if (map.get(new ForwardingKey(packet[0], packet[1], packet[2])) != null) {
+                        resolvedRules++;
+                    }
+                }
+            });
+            measure(rules, "table", () -> {
+                for (long[] packet : packets) {
+                    if (table.resolve(packet[0], packet[1], packet[2]) != null) {
+                        resolvedRules++;
+                    }
+                }
+            });
+        }
+        System.out.println("resolved " + resolvedRules + " rules");
+    }
+
+    private static void measure(int rules, String lookup, Runnable round) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round.run();
+        }
+        final long allocated = allocatedBytes();
+        final long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            round.run();
+        }
+        final long time = System.nanoTime() - start;
+        System.out.printf("%-8d %-10s %15.1f %15.1f%n", rules, lookup, (double) time / ROUNDS / LOOKUPS,
+                (double) (allocatedBytes() - allocated) / ROUNDS / LOOKUPS);
+    }
+
+    private static long allocatedBytes() {
+        final var threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean allocations) {
+            return allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
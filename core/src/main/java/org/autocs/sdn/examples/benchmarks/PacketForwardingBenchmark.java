@@ -0,0 +1,150 @@
+/*
+ * Title:        SDN Package
+ * Description:  SDN package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.sdn.examples.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.hosts.network.NetworkHost;
+import org.cloudbus.cloudsim.network.FlowPacketBuffer;
+import org.cloudbus.cloudsim.network.HostPacket;
+import org.cloudbus.cloudsim.network.VmPacket;
+
+/**
+ * A microbenchmark of the packet forwarding path of the switches, comparing
+ * the packets of every flow being filtered out of a single packet list on
+ * every forwarding with the packets being bucketed by flow in a
+ * {@link FlowPacketBuffer} as they are enqueued.
+ *
+ * <p>
+ * Every round enqueues the same packets, spread over the flows, then
+ * forwards them flow by flow as the switches do, following the flows of the
+ * link channels. The time and the allocated memory per round are printed for
+ * every number of flows.
+ * </p>
+ *
+ * @author Ibrahem Mouhamad
+ * @since AutoCS SDN Package 1.0.0
+ */
+
+public class PacketForwardingBenchmark {
+
+    private static final int[] FLOWS = { 10, 100, 500, 1000 };
+
+    private static final int PACKETS_PER_FLOW = 20;
+
+    private static final int WARMUP_ROUNDS = 200;
+
+    private static final int ROUNDS = 500;
+
+    private static final long PACKET_SIZE = 1000;
+
+    /**
+     * Prevents the forwarding from being optimized away.
+     */
+    private static long forwardedBytes;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %-10s %15s %15s%n", "flows", "path", "us/round", "bytes/round");
+        for (int flows : FLOWS) {
+            final List<HostPacket> packets = createPackets(flows);
+            final Map<Long, Double> channels = createChannels(flows);
+            final List<HostPacket> packetList = new ArrayList<>();
+            final FlowPacketBuffer packetBuffer = new FlowPacketBuffer();
+            measure(flows, "list", () -> forwardFromList(packets, channels, packetList));
+            measure(flows, "buffer", () -> forwardFromBuffer(packets, channels, packetBuffer));
+        }
+        System.out.println("forwarded " + forwardedBytes + " bytes");
+    }
+
+    private static void measure(int flows, String path, Runnable round) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round.run();
+        }
+        final long allocated = allocatedBytes();
+        final long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            round.run();
+        }
+        final long time = System.nanoTime() - start;
+        System.out.printf("%-8d %-10s %15.1f %15d%n", flows, path, time / 1000.0 / ROUNDS,
+                (allocatedBytes() - allocated) / ROUNDS);
+    }
+
+    /**
+     * The forwarding path filtering the packets of every flow out of a list.
+     */
+    private static void forwardFromList(List<HostPacket> packets, Map<Long, Double> channels,
+            List<HostPacket> packetList) {
+        packetList.addAll(packets);
+        for (final var flowId : channels.keySet()) {
+            forward(packetList.stream().filter(pkt -> pkt.getVmPacket().getFlowId() == flowId).toList(),
+                    channels.get(flowId));
+        }
+        packetList.clear();
+    }
+
+    /**
+     * The forwarding path reading the packets of every flow from its bucket.
+     */
+    private static void forwardFromBuffer(List<HostPacket> packets, Map<Long, Double> channels,
+            FlowPacketBuffer packetBuffer) {
+        for (int i = 0; i < packets.size(); i++) {
+            packetBuffer.add(packets.get(i));
+        }
+        for (final var channel : channels.entrySet()) {
+            forward(packetBuffer.get(channel.getKey()), channel.getValue());
+        }
+        packetBuffer.clear();
+    }
+
+    private static void forward(List<HostPacket> packets, double bandwidth) {
+        for (int i = 0; i < packets.size(); i++) {
+            forwardedBytes += packets.get(i).getSize() + (long) bandwidth;
+        }
+    }
+
+    /**
+     * Creates the packets of the flows, interleaved as they reach a switch.
+     */
+    private static List<HostPacket> createPackets(int flows) {
+        final Random random = new Random(flows);
+        final List<HostPacket> packets = new ArrayList<>(flows * PACKETS_PER_FLOW);
+        for (int i = 0; i < flows * PACKETS_PER_FLOW; i++) {
+            final VmPacket vmPacket = new VmPacket(null, null, random.nextInt(flows) + 1000L, PACKET_SIZE, null,
+                    null);
+            packets.add(new HostPacket(NetworkHost.NULL, vmPacket));
+        }
+        return packets;
+    }
+
+    /**
+     * Creates the channel bandwidth of every flow, as mapped in a link.
+     */
+    private static Map<Long, Double> createChannels(int flows) {
+        final Map<Long, Double> channels = new LinkedHashMap<>();
+        for (long flowId = 1000; flowId < 1000 + flows; flowId++) {
+            channels.put(flowId, 100.0);
+        }
+        return channels;
+    }
+
+    private static long allocatedBytes() {
+        final var threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean allocations) {
+            return allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
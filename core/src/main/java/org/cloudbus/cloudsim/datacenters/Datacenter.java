@@ -20,6 +20,7 @@ import org.cloudbus.cloudsim.vms.Vm;
 import org.cloudsimplus.listeners.DatacenterVmMigrationEventInfo;
 import org.cloudsimplus.listeners.EventListener;
 import org.cloudsimplus.listeners.HostEventInfo;
+import org.autocs.core.history.HistoryPolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -345,6 +346,17 @@ public interface Datacenter extends SimEntity, PowerAware<PowerModelDatacenter>,
      */
     public void disableStateHistory();
 
+    /**
+     * Sets the policy deciding which states are kept in the Datacenter state
+     * history.
+     *
+     * @param policy   the history policy
+     * @param interval the interval (or the bucket width) of the policy, in
+     *                 seconds
+     * @see #getStateHistory()
+     */
+    void setStateHistoryPolicy(HistoryPolicy policy, double interval);
+
     /**
      * Checks if Datacenter state history is being collected and stored.
      *
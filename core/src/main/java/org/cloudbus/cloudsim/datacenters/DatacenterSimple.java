@@ -33,6 +33,8 @@ import org.cloudsimplus.faultinjection.HostFaultInjection;
 import org.cloudsimplus.listeners.DatacenterVmMigrationEventInfo;
 import org.cloudsimplus.listeners.EventListener;
 import org.cloudsimplus.listeners.HostEventInfo;
+import org.autocs.core.history.HistoryPolicy;
+import org.autocs.core.history.HistoryRecorder;
 
 import java.util.*;
 import java.util.stream.Stream;
@@ -104,11 +106,20 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
     private PowerModelDatacenter powerModel = PowerModelDatacenter.NULL;
     private long activeHostsNumber;
 
+    /**
+     * The default minimum interval (in seconds) between two Datacenter state
+     * history entries.
+     */
+    public static final double DEF_STATE_HISTORY_INTERVAL = 10;
+
     /** @see #getStateHistory() */
-    private final List<DatacenterStateHistoryEntry> stateHistory;
+    private final DatacenterStateHistory stateHistory;
 
     private boolean stateHistoryEnabled;
 
+    /** @see #setStateHistoryPolicy(HistoryPolicy, double) */
+    private HistoryRecorder stateHistoryRecorder;
+
     /**
      * Creates a Datacenter with an empty {@link #getDatacenterStorage() storage}
      * and a {@link VmAllocationPolicySimple} by default.
@@ -219,7 +230,8 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
 
         setVmAllocationPolicy(vmAllocationPolicy);
 
-        this.stateHistory = new LinkedList<>();
+        this.stateHistory = new DatacenterStateHistory();
+        setStateHistoryPolicy(HistoryPolicy.INTERVAL, DEF_STATE_HISTORY_INTERVAL);
     }
 
     private void setHostList(final List<? extends Host> hostList) {
@@ -927,6 +939,7 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
     @Override
     public void shutdown() {
         super.shutdown();
+        stateHistoryRecorder.flush();
         LOGGER.info("{}: {} is shutting down...", getSimulation().clockStr(), getName());
     }
 
@@ -1245,6 +1258,17 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
         this.stateHistoryEnabled = false;
     }
 
+    /**
+     * Limits the number of Datacenter state history entries, where 0 means no
+     * limit. When the limit is reached, the older entries are downsampled.
+     *
+     * @param maxSize the maximum number of history entries
+     * @see DatacenterStateHistory#setMaxSize(int)
+     */
+    public void setStateHistoryMaxSize(final int maxSize) {
+        this.stateHistory.setMaxSize(maxSize);
+    }
+
     /**
      * Checks if Datacenter state history is being collected and stored.
      *
@@ -1260,54 +1284,33 @@ public class DatacenterSimple extends CloudSimEntity implements Datacenter {
         }
 
         // we suppose that, state history is enabled for all hosts
-        addStateHistoryEntry(
-                currentTime,
-                this.getHostList().stream()
-                        .map(host -> host.getStateHistory().get(host.getStateHistory().size() - 1).allocatedMips())
-                        .reduce(0.0, Double::sum),
-                this.getHostList().stream()
-                        .map(host -> host.getStateHistory().get(host.getStateHistory().size() - 1).requestedMips())
-                        .reduce(0.0, Double::sum),
-                this.getHostList().stream()
-                        .map(host -> host.getRamUtilization())
-                        .reduce(0L, Long::sum),
-                this.getHostList().stream()
-                        .map(host -> host.getBwUtilization())
-                        .reduce(0L, Long::sum),
-                this.getHostList().stream()
-                        .map(host -> host.getStateHistory().get(host.getStateHistory().size() - 1).active() ? 1.0 : 0.0)
-                        .reduce(0.0, Double::sum));
+        final double[] state = new double[DatacenterStateHistory.VALUES_NUMBER];
+        for (final Host host : this.getHostList()) {
+            final var hostState = host.getStateHistory().get(host.getStateHistory().size() - 1);
+            state[0] += hostState.allocatedMips();
+            state[1] += hostState.requestedMips();
+            state[2] += host.getRamUtilization();
+            state[3] += host.getBwUtilization();
+            state[4] += hostState.active() ? 1 : 0;
+        }
+        stateHistoryRecorder.record(currentTime, state);
     }
 
     /**
-     * Adds a datacenter state history entry.
+     * Sets the policy deciding which states are kept in the Datacenter state
+     * history. By default, a state is kept every
+     * {@link #DEF_STATE_HISTORY_INTERVAL} seconds at most.
      *
-     * @param time          the time
-     * @param allocatedMips the allocated mips
-     * @param requestedMips the requested mips
-     * @param activeHosts   the number of active hosts
+     * @param policy   the history policy
+     * @param interval the interval (or the bucket width) of the policy, in
+     *                 seconds
      */
-    private void addStateHistoryEntry(
-            final double time,
-            final double allocatedMips,
-            final double requestedMips,
-            final long ramUtilization,
-            final long bwUtilization,
-            final double activeHosts) {
-        final var newState = new DatacenterStateHistoryEntry(time, allocatedMips, requestedMips, ramUtilization,
-                bwUtilization, activeHosts);
-        if (!stateHistory.isEmpty()) {
-            final DatacenterStateHistoryEntry previousState = stateHistory.get(stateHistory.size() - 1);
-            if (previousState.time() == time) {
-                stateHistory.set(stateHistory.size() - 1, newState);
-                return;
-            }
-            if (time - previousState.time() < 10) {
-                return;
-            }
+    @Override
+    public void setStateHistoryPolicy(final HistoryPolicy policy, final double interval) {
+        if (stateHistoryRecorder != null) {
+            stateHistoryRecorder.flush();
         }
-
-        stateHistory.add(newState);
+        this.stateHistoryRecorder = stateHistory.newRecorder(policy, interval);
     }
 
     /**
@@ -0,0 +1,293 @@
+/*
+ * Title:        Simulator Package
+ * Description:  Simulator package of Auto Cloud Simulator (AutoCS) to extends the functionality of some CloudSim Plus classes
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.cloudbus.cloudsim.datacenters;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.autocs.core.history.HistoryPolicy;
+import org.autocs.core.history.HistoryRecorder;
+import org.autocs.core.history.HistoryRecorder.Aggregation;
+
+/**
+ * A datacenter state history stored as one primitive array per field, which
+ * avoids keeping an object for every recorded state. The entries are only
+ * created when they are read.
+ *
+ * <p>
+ * The history can be limited to a maximum number of entries. When it is full,
+ * every other entry is dropped, so the older states are kept with a lower
+ * resolution.
+ * </p>
+ *
+ * @author Ibrahem Mouhamad
+ * @since AutoCS Core Package 1.0.0
+ */
+
+public class DatacenterStateHistory extends AbstractList<DatacenterStateHistoryEntry> implements RandomAccess {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The state fields, other than the time, are all measured at the state
+     * time.
+     */
+    private static final Aggregation[] AGGREGATIONS = {
+            Aggregation.GAUGE, Aggregation.GAUGE, Aggregation.GAUGE, Aggregation.GAUGE, Aggregation.GAUGE };
+
+    /**
+     * The number of state fields, other than the time.
+     */
+    public static final int VALUES_NUMBER = AGGREGATIONS.length;
+
+    private double[] time;
+    private double[] allocatedMips;
+    private double[] requestedMips;
+    private double[] ramUtilization;
+    private double[] bwUtilization;
+    private double[] activeHosts;
+    private int size;
+
+    /**
+     * The maximum number of entries to keep, where 0 means no limit.
+     */
+    private int maxSize;
+
+    public DatacenterStateHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DatacenterStateHistory(final int initialCapacity) {
+        final int capacity = Math.max(1, initialCapacity);
+        this.time = new double[capacity];
+        this.allocatedMips = new double[capacity];
+        this.requestedMips = new double[capacity];
+        this.ramUtilization = new double[capacity];
+        this.bwUtilization = new double[capacity];
+        this.activeHosts = new double[capacity];
+    }
+
+    /**
+     * Creates a columnar copy of a state history.
+     *
+     * @param history the history to copy
+     * @return the new history
+     */
+    public static DatacenterStateHistory copyOf(final List<DatacenterStateHistoryEntry> history) {
+        final DatacenterStateHistory copy = new DatacenterStateHistory(history.size());
+        copy.addAll(history);
+        return copy;
+    }
+
+    @Override
+    public DatacenterStateHistoryEntry get(final int index) {
+        checkIndex(index);
+        return new DatacenterStateHistoryEntry(time[index], allocatedMips[index], requestedMips[index],
+                ramUtilization[index], bwUtilization[index], activeHosts[index]);
+    }
+
+    @Override
+    public DatacenterStateHistoryEntry set(final int index, final DatacenterStateHistoryEntry entry) {
+        final DatacenterStateHistoryEntry previous = get(index);
+        write(index, entry);
+        return previous;
+    }
+
+    @Override
+    public boolean add(final DatacenterStateHistoryEntry entry) {
+        if (maxSize > 0 && size >= maxSize) {
+            downsample();
+        }
+        if (size == time.length) {
+            grow();
+        }
+        write(size++, entry);
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Adds an entry without creating it.
+     *
+     * @param time   the time the entry is related to
+     * @param values the allocated mips, the requested mips, the ram
+     *               utilization, the bw utilization and the number of active
+     *               hosts
+     */
+    public void add(final double time, final double[] values) {
+        if (maxSize > 0 && size >= maxSize) {
+            downsample();
+        }
+        if (size == this.time.length) {
+            grow();
+        }
+        this.time[size] = time;
+        allocatedMips[size] = values[0];
+        requestedMips[size] = values[1];
+        ramUtilization[size] = values[2];
+        bwUtilization[size] = values[3];
+        activeHosts[size] = values[4];
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Creates a recorder adding the states it keeps to this history.
+     *
+     * @param policy   the history policy
+     * @param interval the interval (or the bucket width) of the policy, in
+     *                 seconds
+     * @return the new recorder
+     */
+    public HistoryRecorder newRecorder(final HistoryPolicy policy, final double interval) {
+        // the allocated mips are used to select the states to keep
+        return policy.newRecorder(this::add, AGGREGATIONS, interval, 0);
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the time of an entry without creating it.
+     *
+     * @param index the index of the entry
+     * @return the time the entry is related to
+     */
+    public double getTime(final int index) {
+        checkIndex(index);
+        return time[index];
+    }
+
+    /**
+     * Gets a copy of a field of every entry, in the recording order.
+     *
+     * @param field the field to get
+     * @return the values of the field
+     */
+    public double[] getColumn(final Field field) {
+        return Arrays.copyOf(columnOf(field), size);
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Sets the maximum number of entries to keep, where 0 means no limit.
+     *
+     * @param maxSize the maximum number of entries, which must be 0 or at
+     *                least 2
+     * @return this history
+     */
+    public DatacenterStateHistory setMaxSize(final int maxSize) {
+        if (maxSize < 0 || maxSize == 1) {
+            throw new IllegalArgumentException("The maximum history size must be 0 or at least 2");
+        }
+        this.maxSize = maxSize;
+        while (maxSize > 0 && size > maxSize) {
+            downsample();
+        }
+        return this;
+    }
+
+    /**
+     * Drops every other entry, always keeping the first and the last ones.
+     */
+    private void downsample() {
+        final int last = size - 1;
+        int kept = 0;
+        for (int i = 0; i < last; i += 2) {
+            move(i, kept++);
+        }
+        move(last, kept++);
+        size = kept;
+        modCount++;
+    }
+
+    private void move(final int from, final int to) {
+        time[to] = time[from];
+        allocatedMips[to] = allocatedMips[from];
+        requestedMips[to] = requestedMips[from];
+        ramUtilization[to] = ramUtilization[from];
+        bwUtilization[to] = bwUtilization[from];
+        activeHosts[to] = activeHosts[from];
+    }
+
+    private void write(final int index, final DatacenterStateHistoryEntry entry) {
+        time[index] = entry.time();
+        allocatedMips[index] = entry.allocatedMips();
+        requestedMips[index] = entry.requestedMips();
+        ramUtilization[index] = entry.ramUtilization();
+        bwUtilization[index] = entry.bwUtilization();
+        activeHosts[index] = entry.activeHosts();
+    }
+
+    private void grow() {
+        final int capacity = time.length * 2;
+        time = Arrays.copyOf(time, capacity);
+        allocatedMips = Arrays.copyOf(allocatedMips, capacity);
+        requestedMips = Arrays.copyOf(requestedMips, capacity);
+        ramUtilization = Arrays.copyOf(ramUtilization, capacity);
+        bwUtilization = Arrays.copyOf(bwUtilization, capacity);
+        activeHosts = Arrays.copyOf(activeHosts, capacity);
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private double[] columnOf(final Field field) {
+        return switch (field) {
+            case TIME -> time;
+            case ALLOCATED_MIPS -> allocatedMips;
+            case REQUESTED_MIPS -> requestedMips;
+            case RAM_UTILIZATION -> ramUtilization;
+            case BW_UTILIZATION -> bwUtilization;
+            case ACTIVE_HOSTS -> activeHosts;
+        };
+    }
+
+    /**
+     * The fields of a {@link DatacenterStateHistoryEntry}.
+     */
+    public enum Field {
+        TIME("time"),
+        ALLOCATED_MIPS("allocatedMips"),
+        REQUESTED_MIPS("requestedMips"),
+        RAM_UTILIZATION("ramUtilization"),
+        BW_UTILIZATION("bwUtilization"),
+        ACTIVE_HOSTS("activeHosts");
+
+        private final String name;
+
+        Field(final String name) {
+            this.name = name;
+        }
+
+        /**
+         * Gets the name of the field in the serialized history.
+         */
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -10,7 +10,9 @@ package org.cloudbus.cloudsim.hosts.network;
 import org.cloudbus.cloudsim.core.CloudSimTag;
 import org.cloudbus.cloudsim.hosts.HostSimple;
 import org.cloudbus.cloudsim.hosts.HostSuitability;
+import org.cloudbus.cloudsim.network.FlowPacketBuffer;
 import org.cloudbus.cloudsim.network.HostPacket;
+import org.cloudbus.cloudsim.network.HostPacketBatch;
 import org.cloudbus.cloudsim.network.VmPacket;
 import org.cloudbus.cloudsim.network.switches.EdgeSwitch;
 import org.cloudbus.cloudsim.resources.Pe;
@@ -24,11 +26,14 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import org.autocs.sdn.data.networkelement.NetworkElement;
 import org.autocs.sdn.control.tables.RoutingTable;
 import org.autocs.sdn.control.network.physical.PhysicalLink;
 import org.autocs.sdn.control.tables.ForwardingTable;
+import org.autocs.sdn.control.network.transmission.LinkTransmissionScheduler;
+import org.autocs.sdn.control.network.transmission.LinkTransmissionSchedulerTimeSliced;
 
 /**
  * NetworkHost class extends {@link HostSimple} to support simulation of
@@ -62,15 +67,18 @@ public class NetworkHost extends HostSimple implements NetworkElement {
 
     private int totalDataTransferBytes;
 
+    /** @see #getDroppedPackets() */
+    private long droppedPackets;
+
     /**
      * A buffer of packets to send for VMs inside this Host.
      */
     private final List<HostPacket> pktsToSendForLocalVms;
 
     /**
-     * A buffer of packets to send for VMs outside this Host.
+     * A buffer of packets to send for VMs outside this Host, bucketed by flow.
      */
-    private final List<HostPacket> pktsToSendForExternalVms;
+    private final FlowPacketBuffer pktsToSendForExternalVms;
 
     /**
      * List of received packets.
@@ -82,6 +90,12 @@ public class NetworkHost extends HostSimple implements NetworkElement {
      */
     private EdgeSwitch edgeSwitch;
 
+    /** @see #isPacketAggregationEnabled() */
+    private boolean packetAggregationEnabled;
+
+    /** @see #getTransmissionScheduler() */
+    private LinkTransmissionScheduler transmissionScheduler;
+
     /**
      * host's routing table
      */
@@ -104,10 +118,11 @@ public class NetworkHost extends HostSimple implements NetworkElement {
     public NetworkHost(final long ram, final long bw, final long storage, final List<Pe> peList) {
         super(ram, bw, storage, peList);
         hostPktsReceived = new ArrayList<>();
-        pktsToSendForExternalVms = new ArrayList<>();
+        pktsToSendForExternalVms = new FlowPacketBuffer();
         pktsToSendForLocalVms = new ArrayList<>();
         routingTable = new RoutingTable();
         forwardingTable = new ForwardingTable();
+        transmissionScheduler = new LinkTransmissionSchedulerTimeSliced();
     }
 
     /**
@@ -201,72 +216,90 @@ public class NetworkHost extends HostSimple implements NetworkElement {
 
     /**
      * Sends packets from the local packets buffer to VMs outside this host.
+     * The packets of the flows having no channel in the links of the host are
+     * dropped.
      */
     private void sendPacketsToExternalVms() {
-        pktsToSendForExternalVms.forEach(pkt -> totalDataTransferBytes += pkt.getSize());
-        // here we get the bw from the defined channel in the defined physical link in
+        if (pktsToSendForExternalVms.isEmpty()) {
+            return;
+        }
+        totalDataTransferBytes += pktsToSendForExternalVms.getBytes();
+        // here we get the bw from the defined channel in the defined physical links in
         // the routing table
-        PhysicalLink link = this.getRoutingTable().resolve(null);
-        // send packets through the flow channel using the requested bandwidth
-        for (final var flowId : link.getFlowToChannelsMapping().keySet()) {
-            // get channel bandwidth from the physical link
-            final double bw = link.getChannelByFlowId(flowId).getVirtualLink().getRequiredBandwidth();
-            forwardPacketsToEdgeSwitch(
-                    pktsToSendForExternalVms.stream().filter(pkt -> pkt.getVmPacket().getFlowId() == flowId).toList(),
-                    bw);
+        final double time = getSimulation().clock();
+        final List<PhysicalLink> links = this.getRoutingTable().getLinks(null);
+        for (final PhysicalLink link : links) {
+            // all the flows sending packets start their transmission before sharing the link
+            for (final Long flowId : link.getFlowToChannelsMapping().keySet()) {
+                if (!pktsToSendForExternalVms.get(flowId).isEmpty()) {
+                    link.startTransmission(flowId, time);
+                }
+            }
+            // send packets through the flow channel using the bandwidth allocated to it
+            for (final Long flowId : link.getFlowToChannelsMapping().keySet()) {
+                final List<HostPacket> packets = pktsToSendForExternalVms.get(flowId);
+                if (!packets.isEmpty()) {
+                    forwardPacketsToEdgeSwitch(packets, link.allocateBandwidth(flowId, time, packets));
+                }
+            }
         }
 
+        // the flows without channel in the links are never transmitted
+        final int withoutChannel = pktsToSendForExternalVms
+                .countPackets(flowId -> !PhysicalLink.hasChannel(links, flowId));
+        if (withoutChannel > 0) {
+            this.droppedPackets += withoutChannel;
+            LOGGER.warn(
+                    "{}: {}: {} dropped {} packets of flows having no channel to {}",
+                    getSimulation().clockStr(), getClass().getSimpleName(), this, withoutChannel, getEdgeSwitch());
+        }
         pktsToSendForExternalVms.clear();
     }
 
+    /**
+     * Sends the packets of a flow in the batches decided by the
+     * {@link #getTransmissionScheduler() transmission scheduler}, this will
+     * allow simulate sending packets the real way and will help in drawing
+     * traffic graph if the state history is enabled
+     */
     private void forwardPacketsToEdgeSwitch(final List<HostPacket> packetList, final double bandwidth) {
-        if (packetList.size() > 0) {
-            final double delay = getEdgeSwitch().packetTransferDelay(packetList.get(0), bandwidth, packetList.size());
-            // if delay lower that scheduling interval then sent all packets at once
-            if (delay < this.getDatacenter().getSchedulingInterval()) {
-                for (final HostPacket pkt : packetList) {
-                    getSimulation().send(
-                            getDatacenter(), getEdgeSwitch(),
-                            delay, CloudSimTag.NETWORK_EVENT_UP, pkt);
-                }
-            } else {
-                // calculate number of packets to send every {@link
-                // Datacenter::getSchedulingInterval()}
-                final int packetsInSecond = (int) Math.floor(packetList.size() / delay);
-                // final int batchSize = (int) (packetsInSecond *
-                // this.getDatacenter().getSchedulingInterval());
-                sendPacketsInBatches(packetList, packetsInSecond > 0 ? packetsInSecond : 1);
-            }
+        if (bandwidth <= 0) {
+            // a link without bandwidth never transmits the packets
+            this.droppedPackets += packetList.size();
+            LOGGER.warn(
+                    "{}: {}: {} dropped {} packets as the link to {} has no bandwidth",
+                    getSimulation().clockStr(), getClass().getSimpleName(), this, packetList.size(), getEdgeSwitch());
+            return;
+        }
+        if (!packetList.isEmpty()) {
+            transmissionScheduler.schedule(packetList, bandwidth, getDatacenter().getSchedulingInterval(),
+                    (delay, from, to) -> sendPacketsToEdgeSwitch(delay, packetList, from, to));
         }
     }
 
     /**
-     * Sends the packets in batches, this will allow simulate sending packets the
-     * real way and will help in drawing traffic graph if the state history is
-     * enabled
+     * Sends some packets of a flow to the edge switch with the same delay, in a
+     * single {@link HostPacketBatch} event if the packet aggregation is
+     * enabled, or in one event per packet otherwise.
+     *
+     * @param delay      the delay of the packets
+     * @param packetList the packets of the flow
+     * @param from       the index of the first packet to send
+     * @param to         the index after the last packet to send
      */
-    private void sendPacketsInBatches(final List<HostPacket> packetList, final int batchSize) {
-        int start = 0;
-        int end = batchSize;
-        int count = packetList.size() / batchSize;
-        final int remainder = packetList.size() % batchSize;
-        int counter = 0;
-        for (int i = 0; i < count; i++) {
-            for (counter = start; counter < end; counter++) {
-                getSimulation().send(
-                        getDatacenter(), getEdgeSwitch(),
-                        (i + 1), CloudSimTag.NETWORK_EVENT_UP, packetList.get(counter));
-            }
-            start = start + batchSize;
-            end = end + batchSize;
+    private void sendPacketsToEdgeSwitch(final double delay, final List<HostPacket> packetList, final int from,
+            final int to) {
+        if (packetAggregationEnabled) {
+            final long flowId = packetList.get(from).getVmPacket().getFlowId();
+            getSimulation().send(
+                    getDatacenter(), getEdgeSwitch(),
+                    delay, CloudSimTag.NETWORK_EVENT_UP, new HostPacketBatch(flowId, packetList.subList(from, to)));
+            return;
         }
-        if (remainder != 0) {
-            end = end - batchSize + remainder;
-            for (counter = start; counter < end; counter++) {
-                getSimulation().send(
-                        getDatacenter(), getEdgeSwitch(),
-                        (count + 1), CloudSimTag.NETWORK_EVENT_UP, packetList.get(counter));
-            }
+        for (int i = from; i < to; i++) {
+            getSimulation().send(
+                    getDatacenter(), getEdgeSwitch(),
+                    delay, CloudSimTag.NETWORK_EVENT_UP, packetList.get(i));
         }
     }
 
@@ -326,14 +359,25 @@ public class NetworkHost extends HostSimple implements NetworkElement {
         final Vm receiverVm = vmPkt.getDestination();
 
         // If the VM is inside this Host, the packet doesn't travel through the network
-        final var pktsToSendList = getVmList().contains(receiverVm) ? pktsToSendForLocalVms : pktsToSendForExternalVms;
-        pktsToSendList.add(hostPkt);
+        if (getVmList().contains(receiverVm)) {
+            pktsToSendForLocalVms.add(hostPkt);
+        } else {
+            pktsToSendForExternalVms.add(hostPkt);
+        }
     }
 
     public int getTotalDataTransferBytes() {
         return totalDataTransferBytes;
     }
 
+    /**
+     * Gets the number of packets dropped by the host because the link to the
+     * edge switch had no bandwidth or no channel for their flow.
+     */
+    public long getDroppedPackets() {
+        return droppedPackets;
+    }
+
     /**
      * Adds a packet to the list of received packets in order
      * to further submit them to the respective target VMs and Cloudlets.
@@ -344,6 +388,63 @@ public class NetworkHost extends HostSimple implements NetworkElement {
         hostPktsReceived.add(hostPacket);
     }
 
+    /**
+     * Adds the packets of a batch to the list of received packets, where they
+     * are handled as if they were received one by one.
+     *
+     * @param batch received batch of network packets
+     */
+    public void addReceivedNetworkPackets(final HostPacketBatch batch) {
+        hostPktsReceived.addAll(batch.packets());
+    }
+
+    /**
+     * Gets the scheduler deciding how the packets of a flow are split into
+     * batches and when every batch is sent.
+     *
+     * @return the host's {@link LinkTransmissionScheduler}
+     */
+    public LinkTransmissionScheduler getTransmissionScheduler() {
+        return transmissionScheduler;
+    }
+
+    /**
+     * Sets the scheduler deciding how the packets of a flow are split into
+     * batches and when every batch is sent.
+     *
+     * @param transmissionScheduler the {@link LinkTransmissionScheduler} to set
+     */
+    public void setTransmissionScheduler(final LinkTransmissionScheduler transmissionScheduler) {
+        this.transmissionScheduler = Objects.requireNonNull(transmissionScheduler);
+    }
+
+    /**
+     * Enables sending the packets of a flow that have the same delay in a
+     * single event, instead of one event per packet.
+     *
+     * @see HostPacketBatch
+     */
+    public void enablePacketAggregation() {
+        this.packetAggregationEnabled = true;
+    }
+
+    /**
+     * Disables the packet aggregation, sending every packet in its own event.
+     */
+    public void disablePacketAggregation() {
+        this.packetAggregationEnabled = false;
+    }
+
+    /**
+     * Checks if the packets of a flow that have the same delay are sent in a
+     * single event.
+     *
+     * @return
+     */
+    public boolean isPacketAggregationEnabled() {
+        return packetAggregationEnabled;
+    }
+
     /**
      * Gets the Switch the Host is directly connected to.
      * 
@@ -9,11 +9,15 @@
 package org.cloudbus.cloudsim.network;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.cloudbus.cloudsim.network.topologies.TopologicalGraph;
 import org.cloudbus.cloudsim.network.topologies.TopologicalLink;
+import org.cloudbus.cloudsim.network.topologies.TopologyAdjacency;
 import org.cloudbus.cloudsim.util.Util;
 
 /**
@@ -21,6 +25,16 @@ import org.cloudbus.cloudsim.util.Util;
  * nodes
  * inside a network topology. It stores every distance between connected nodes.
  *
+ * <p>
+ * The delays are either computed for all the nodes at once with the
+ * Floyd-Warshall algorithm, and then updated incrementally when a link is
+ * added, or computed on demand for every source node using the Dijkstra
+ * algorithm over the {@link TopologyAdjacency} of the nodes. On demand, only
+ * the delays from the {@value #MAX_CACHED_SOURCES} last requested source nodes
+ * are kept, so the memory used by large and sparse topologies grows with their
+ * number of nodes and links instead of its square.
+ * </p>
+ *
  * @author Thomas Hohnstein
  * @author Ibrahem Mouhamad
  * @since AutoCS SDN Package 1.0.0
@@ -32,12 +46,20 @@ public class DelayMatrix {
 	private static final double DELAY_NOT_SET = Double.MAX_VALUE;
 
 	/**
-	 * Matrix holding delay between any pair of nodes (in seconds).
+	 * The maximum number of source nodes whose delays are kept when the delays
+	 * are computed on demand.
+	 */
+	public static final int MAX_CACHED_SOURCES = 256;
+
+	/**
+	 * Matrix holding delay between any pair of nodes (in seconds), or null when
+	 * the delays are computed on demand.
 	 */
 	private double[][] mDelayMatrix;
 
 	/**
-	 * The predecessor matrix (used to get the shortest path).
+	 * The predecessor matrix (used to get the shortest path), or null when the
+	 * delays are computed on demand.
 	 */
 	private int[][] pk;
 
@@ -46,12 +68,47 @@ public class DelayMatrix {
 	 */
 	private int mTotalNodeNum;
 
+	/**
+	 * The links between the nodes the delays are computed for.
+	 */
+	private TopologyAdjacency adjacency;
+
+	/**
+	 * Indicates if the delays are computed on demand for every source node
+	 * (true) or for all the nodes at once (false).
+	 */
+	private boolean onDemand;
+
+	/**
+	 * The shortest paths computed on demand from the last requested source
+	 * nodes, in the order they were requested.
+	 */
+	private Map<Integer, ShortestPaths> cachedPaths;
+
+	/**
+	 * The shortest paths from the last requested source node, which is
+	 * requested again for most of the delays.
+	 */
+	private ShortestPaths lastPaths;
+
+	/**
+	 * The delays and the shortest paths from a source node to every other node.
+	 *
+	 * @param source       the id of the source node
+	 * @param delays       the delays from the source node, indexed by node id
+	 * @param predecessors the predecessor of every node in its shortest path
+	 *                     from the source node, or -1 if there is none
+	 */
+	private record ShortestPaths(int source, double[] delays, int[] predecessors) {
+	}
+
 	/**
 	 * Creates an empty matrix with no columns or rows.
 	 */
 	public DelayMatrix() {
 		mDelayMatrix = new double[0][0];
 		pk = new int[0][0];
+		adjacency = new TopologyAdjacency(new TopologicalGraph(), false);
 	}
 
 	/**
@@ -62,8 +119,32 @@ public class DelayMatrix {
 	 *                 not (false)
 	 */
 	public DelayMatrix(final TopologicalGraph graph, final boolean directed) {
-		createDelayMatrix(graph, directed);
-		calculateShortestPath();
+		this(new TopologyAdjacency(graph, directed), false);
+	}
+
+	/**
+	 * Creates a Delay Matrix for the links of a network topology.
+	 *
+	 * @param adjacency the links between the nodes of the network topology
+	 * @param onDemand  indicates if the delays from a node should be computed
+	 *                  when they are requested (true) or if the delays between
+	 *                  all the nodes should be computed now (false)
+	 */
+	public DelayMatrix(final TopologyAdjacency adjacency, final boolean onDemand) {
+		this.adjacency = adjacency;
+		this.onDemand = onDemand;
+		if (onDemand) {
+			mTotalNodeNum = adjacency.getNumberOfNodes();
+			cachedPaths = new LinkedHashMap<>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(final Map.Entry<Integer, ShortestPaths> eldest) {
+					return size() > MAX_CACHED_SOURCES;
+				}
+			};
+		} else {
+			createDelayMatrix();
+			calculateShortestPath();
+		}
 	}
 
 	/**
@@ -74,30 +155,141 @@ public class DelayMatrix {
 	 * @return the delay between the given two nodes
 	 */
 	public double getDelay(final int srcID, final int destID) {
-		if (srcID > mTotalNodeNum || destID > mTotalNodeNum) {
+		if (srcID >= mTotalNodeNum || destID >= mTotalNodeNum) {
 			throw new ArrayIndexOutOfBoundsException("srcID or destID is higher than highest stored node-ID!");
 		}
 
-		return mDelayMatrix[srcID][destID];
+		return onDemand ? getShortestPaths(srcID).delays()[destID] : mDelayMatrix[srcID][destID];
 	}
 
 	/**
-	 * Creates all internal necessary network-distance structures from the given
-	 * graph.
-	 * For similarity, we assume all communication-distances are symmetrical,
-	 * thus leading to an undirected network.
+	 * Updates the delays after a link was added to the {@link TopologyAdjacency}
+	 * of the matrix. When the link shortens the delay between its nodes, only
+	 * the pairs of nodes getting closer through the link are updated, otherwise
+	 * the delays are computed again for all the nodes. When the delays are
+	 * computed on demand, the delays already computed are discarded.
 	 *
-	 * @param graph    the network topological graph
-	 * @param directed indicates if an directed matrix should be computed (true) or
-	 *                 not (false)
+	 * @param link         the link added
+	 * @param replacedLink the link replaced by the added link between the same
+	 *                     nodes, or null if there was none
 	 */
-	private void createDelayMatrix(final TopologicalGraph graph, final boolean directed) {
-		mTotalNodeNum = graph.getNumberOfNodes();
+	public void addLink(final TopologicalLink link, final TopologicalLink replacedLink) {
+		addNodes(adjacency.getNumberOfNodes());
+		if (onDemand) {
+			cachedPaths.clear();
+			lastPaths = null;
+			return;
+		}
+
+		final double delay = delayOf(link);
+		if (replacedLink != null && delay > delayOf(replacedLink)) {
+			// the paths through the replaced link may not be the shortest anymore
+			createDelayMatrix();
+			calculateShortestPath();
+		} else if (delay != DELAY_NOT_SET) {
+			relax(link.getSrcNodeID(), link.getDestNodeID(), delay);
+			if (!adjacency.isDirected()) {
+				relax(link.getDestNodeID(), link.getSrcNodeID(), delay);
+			}
+		}
+	}
+
+	/**
+	 * Gets the delay of a link, where a link without delay is not considered as
+	 * a link.
+	 */
+	private static double delayOf(final TopologicalLink link) {
+		return link.getLinkDelay() != 0 ? link.getLinkDelay() : DELAY_NOT_SET;
+	}
+
+	/**
+	 * Adds the rows and columns of new nodes, which are not connected to any
+	 * other node. The matrices grow by doubling their capacity, so adding the
+	 * nodes one by one doesn't copy them every time.
+	 *
+	 * @param nodes the new number of nodes
+	 */
+	private void addNodes(final int nodes) {
+		if (nodes <= mTotalNodeNum || onDemand) {
+			mTotalNodeNum = Math.max(nodes, mTotalNodeNum);
+			return;
+		}
+
+		final int capacity = mDelayMatrix.length;
+		if (nodes > capacity) {
+			final int newCapacity = Math.max(nodes, capacity * 2);
+			mDelayMatrix = Arrays.copyOf(mDelayMatrix, newCapacity);
+			pk = Arrays.copyOf(pk, newCapacity);
+			for (int row = 0; row < mTotalNodeNum; row++) {
+				mDelayMatrix[row] = Arrays.copyOf(mDelayMatrix[row], newCapacity);
+				pk[row] = Arrays.copyOf(pk[row], newCapacity);
+			}
+		}
+
+		for (int row = 0; row < mTotalNodeNum; row++) {
+			Arrays.fill(mDelayMatrix[row], mTotalNodeNum, nodes, DELAY_NOT_SET);
+			Arrays.fill(pk[row], mTotalNodeNum, nodes, -1);
+		}
+		for (int row = mTotalNodeNum; row < nodes; row++) {
+			mDelayMatrix[row] = new double[mDelayMatrix.length];
+			Arrays.fill(mDelayMatrix[row], DELAY_NOT_SET);
+			mDelayMatrix[row][row] = 0;
+			pk[row] = new int[mDelayMatrix.length];
+			Arrays.fill(pk[row], -1);
+		}
+		mTotalNodeNum = nodes;
+	}
+
+	/**
+	 * Updates the delays between the pairs of nodes that get closer through a
+	 * new directed link. Such a pair is made of a source getting closer to the
+	 * link destination, and of a target getting closer to the link source, so
+	 * only these nodes are checked.
+	 *
+	 * @param src   the source node of the link
+	 * @param dest  the destination node of the link
+	 * @param delay the delay of the link
+	 */
+	private void relax(final int src, final int dest, final double delay) {
+		final int[] sources = new int[mTotalNodeNum];
+		final int[] targets = new int[mTotalNodeNum];
+		int sourcesNumber = 0;
+		int targetsNumber = 0;
+		for (int node = 0; node < mTotalNodeNum; node++) {
+			if (mDelayMatrix[node][src] + delay < mDelayMatrix[node][dest]) {
+				sources[sourcesNumber++] = node;
+			}
+			if (delay + mDelayMatrix[dest][node] < mDelayMatrix[src][node]) {
+				targets[targetsNumber++] = node;
+			}
+		}
+
+		for (int i = 0; i < sourcesNumber; i++) {
+			final int source = sources[i];
+			final double delayToLink = mDelayMatrix[source][src] + delay;
+			for (int j = 0; j < targetsNumber; j++) {
+				final int target = targets[j];
+				if (delayToLink + mDelayMatrix[dest][target] < mDelayMatrix[source][target]) {
+					mDelayMatrix[source][target] = delayToLink + mDelayMatrix[dest][target];
+					pk[source][target] = target == dest ? src : pk[dest][target];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates all internal necessary network-distance structures from the links
+	 * of the {@link #adjacency}.
+	 * For similarity, we assume all communication-distances are symmetrical,
+	 * thus leading to an undirected network, unless the adjacency is directed.
+	 */
+	private void createDelayMatrix() {
+		mTotalNodeNum = adjacency.getNumberOfNodes();
 		mDelayMatrix = Util.newSquareMatrix(mTotalNodeNum, DELAY_NOT_SET);
 
-		for (final TopologicalLink edge : graph.getLinksList()) {
+		for (final TopologicalLink edge : adjacency.getLinks()) {
 			mDelayMatrix[edge.getSrcNodeID()][edge.getDestNodeID()] = edge.getLinkDelay();
-			if (!directed) {
+			if (!adjacency.isDirected()) {
 				// according to symmetry to all communication-paths
 				mDelayMatrix[edge.getDestNodeID()][edge.getSrcNodeID()] = edge.getLinkDelay();
 			}
@@ -114,6 +306,99 @@ public class DelayMatrix {
 		pk = floyd.getPk();
 	}
 
+	/**
+	 * Gets the shortest paths from a node when they are computed on demand,
+	 * computing them if they are not cached.
+	 *
+	 * @param src the id of the source node
+	 * @return the shortest paths from the node
+	 */
+	private ShortestPaths getShortestPaths(final int src) {
+		if (lastPaths == null || lastPaths.source() != src) {
+			lastPaths = cachedPaths.get(src);
+			if (lastPaths == null) {
+				lastPaths = calculateShortestPathsFrom(src);
+				cachedPaths.put(src, lastPaths);
+			}
+		}
+		return lastPaths;
+	}
+
+	/**
+	 * Calculates the delays and the shortest paths from a node to every other
+	 * node with the Dijkstra algorithm.
+	 *
+	 * @param src the id of the source node
+	 * @return the shortest paths from the node
+	 */
+	private ShortestPaths calculateShortestPathsFrom(final int src) {
+		final double[] delays = new double[mTotalNodeNum];
+		final int[] predecessors = new int[mTotalNodeNum];
+		Arrays.fill(delays, DELAY_NOT_SET);
+		Arrays.fill(predecessors, -1);
+		delays[src] = 0;
+
+		// a binary heap of the reached nodes, where a node is added again when its
+		// delay decreases and its outdated entries are skipped
+		final double[] heapDelays = new double[adjacency.getNeighborsNumber() + 1];
+		final int[] heapNodes = new int[heapDelays.length];
+		int heapSize = push(heapDelays, heapNodes, 0, 0, src);
+		while (heapSize > 0) {
+			final double delay = heapDelays[0];
+			final int node = heapNodes[0];
+			heapSize = pop(heapDelays, heapNodes, heapSize);
+			if (delay > delays[node]) {
+				continue;
+			}
+			for (int i = adjacency.getNeighborsStart(node); i < adjacency.getNeighborsEnd(node); i++) {
+				final int neighbor = adjacency.getNeighbor(i);
+				final double linkDelay = delayOf(adjacency.getNeighborLink(i));
+				if (linkDelay != DELAY_NOT_SET && delay + linkDelay < delays[neighbor]) {
+					delays[neighbor] = delay + linkDelay;
+					predecessors[neighbor] = node;
+					heapSize = push(heapDelays, heapNodes, heapSize, delays[neighbor], neighbor);
+				}
+			}
+		}
+
+		return new ShortestPaths(src, delays, predecessors);
+	}
+
+	private static int push(final double[] heapDelays, final int[] heapNodes, final int heapSize,
+			final double delay, final int node) {
+		int i = heapSize;
+		while (i > 0 && heapDelays[(i - 1) / 2] > delay) {
+			heapDelays[i] = heapDelays[(i - 1) / 2];
+			heapNodes[i] = heapNodes[(i - 1) / 2];
+			i = (i - 1) / 2;
+		}
+		heapDelays[i] = delay;
+		heapNodes[i] = node;
+		return heapSize + 1;
+	}
+
+	private static int pop(final double[] heapDelays, final int[] heapNodes, final int heapSize) {
+		final int size = heapSize - 1;
+		final double delay = heapDelays[size];
+		final int node = heapNodes[size];
+		int i = 0;
+		while (2 * i + 1 < size) {
+			int child = 2 * i + 1;
+			if (child + 1 < size && heapDelays[child + 1] < heapDelays[child]) {
+				child++;
+			}
+			if (heapDelays[child] >= delay) {
+				break;
+			}
+			heapDelays[i] = heapDelays[child];
+			heapNodes[i] = heapNodes[child];
+			i = child;
+		}
+		heapDelays[i] = delay;
+		heapNodes[i] = node;
+		return size;
+	}
+
 	@Override
 	public String toString() {
 		final var builder = new StringBuilder(100);
@@ -127,10 +412,10 @@ public class DelayMatrix {
 			builder.append(System.lineSeparator()).append(row);
 
 			for (int col = 0; col < mTotalNodeNum; ++col) {
-				if (mDelayMatrix[row][col] == DELAY_NOT_SET)
+				if (getDelay(row, col) == DELAY_NOT_SET)
 					builder.append("\t-");
 				else
-					builder.append('\t').append(mDelayMatrix[row][col]);
+					builder.append('\t').append(getDelay(row, col));
 			}
 		}
 
@@ -145,11 +430,12 @@ public class DelayMatrix {
 	 * @return
 	 */
 	public List<Integer> getShortestPath(final int src, final int dest) {
+		final int[] predecessors = onDemand ? getShortestPaths(src).predecessors() : pk[src];
 		List<Integer> path = new ArrayList<>();
 		path.add(dest);
 		int current = dest;
 		while (current != src) {
-			current = pk[src][current];
+			current = predecessors[current];
 			path.add(current);
 		}
 		Collections.reverse(path);
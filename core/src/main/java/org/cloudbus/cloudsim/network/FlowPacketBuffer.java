@@ -0,0 +1,210 @@
+/*
+ * Title:        Simulator Package
+ * Description:  Simulator package of Auto Cloud Simulator (AutoCS) to extends the functionality of some CloudSim Plus classes
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * A buffer of {@link HostPacket}s waiting to be sent to a network element,
+ * where the packets are bucketed by their flow id as they are added. The
+ * packets of a flow are then read without going through the packets of the
+ * other flows.
+ *
+ * <p>
+ * The buckets are kept in an open addressing table keyed by the primitive
+ * flow ids, and they are only cleared when the buffer is cleared, so a
+ * buffer used over and over does not allocate once its flows are known.
+ * </p>
+ *
+ * @author Ibrahem Mouhamad
+ * @since AutoCS Core Package 1.0.0
+ */
+
+public class FlowPacketBuffer {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Multiplier spreading the flow ids over the table (the golden ratio in
+     * 64 bits).
+     */
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /**
+     * The flow id of every used slot of the table.
+     */
+    private long[] flowIds;
+
+    /**
+     * The packets of every used slot of the table, null for the free slots.
+     */
+    private List<HostPacket>[] buckets;
+
+    /**
+     * The slots of the buckets holding packets, in the order their flows
+     * received their first packet since the buffer was cleared.
+     */
+    private int[] activeSlots;
+
+    private int activeFlows;
+
+    private int flows;
+
+    private int size;
+
+    private long bytes;
+
+    public FlowPacketBuffer() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        this.flowIds = new long[capacity];
+        @SuppressWarnings("unchecked")
+        final List<HostPacket>[] newBuckets = (List<HostPacket>[]) new List<?>[capacity];
+        this.buckets = newBuckets;
+        this.activeSlots = new int[capacity];
+    }
+
+    /**
+     * Adds a packet to the bucket of its flow.
+     *
+     * @param packet the packet to add
+     */
+    public void add(final HostPacket packet) {
+        final long flowId = packet.getVmPacket().getFlowId();
+        int slot = slot(flowId);
+        if (buckets[slot] == null) {
+            if (2 * (flows + 1) > buckets.length) {
+                resize();
+                slot = slot(flowId);
+            }
+            flowIds[slot] = flowId;
+            buckets[slot] = new ArrayList<>();
+            flows++;
+        }
+        final List<HostPacket> bucket = buckets[slot];
+        if (bucket.isEmpty()) {
+            activeSlots[activeFlows++] = slot;
+        }
+        bucket.add(packet);
+        size++;
+        bytes += packet.getSize();
+    }
+
+    /**
+     * Gets the packets of a flow. The returned list is the bucket of the flow
+     * itself, which is reused once the buffer is cleared, so it must neither
+     * be modified nor kept.
+     *
+     * @param flowId the flow id
+     * @return the packets of the flow, in the order they were added
+     */
+    public List<HostPacket> get(final long flowId) {
+        final List<HostPacket> bucket = buckets[slot(flowId)];
+        return bucket == null ? Collections.emptyList() : bucket;
+    }
+
+    /**
+     * Gets the number of flows having packets in the buffer.
+     */
+    public int getFlowsNumber() {
+        return activeFlows;
+    }
+
+    /**
+     * Gets the flow id of a flow having packets in the buffer.
+     *
+     * @param index the index of the flow, from 0 to {@link #getFlowsNumber()}
+     *              excluded, in the order the flows received their first packet
+     */
+    public long getFlowId(final int index) {
+        return flowIds[activeSlots[index]];
+    }
+
+    /**
+     * Counts the packets of the flows matching a condition.
+     *
+     * @param flowFilter the condition on the flow ids
+     * @return the number of packets of the matching flows
+     */
+    public int countPackets(final LongPredicate flowFilter) {
+        int count = 0;
+        for (int i = 0; i < activeFlows; i++) {
+            if (flowFilter.test(flowIds[activeSlots[i]])) {
+                count += buckets[activeSlots[i]].size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the total number of packets in the buffer.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the total size of the packets in the buffer (in bytes).
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Removes all the packets, keeping the buckets of the flows to be reused.
+     */
+    public void clear() {
+        for (int i = 0; i < activeFlows; i++) {
+            buckets[activeSlots[i]].clear();
+        }
+        activeFlows = 0;
+        size = 0;
+        bytes = 0;
+    }
+
+    /**
+     * Gets the slot of a flow, or the free slot where it would be added.
+     */
+    private int slot(final long flowId) {
+        final int mask = buckets.length - 1;
+        int slot = (int) ((flowId * HASH_MULTIPLIER) >>> 32) & mask;
+        while (buckets[slot] != null && flowIds[slot] != flowId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        final long[] oldFlowIds = flowIds;
+        final List<HostPacket>[] oldBuckets = buckets;
+        final int[] oldActiveSlots = activeSlots;
+        allocate(oldBuckets.length * 2);
+        final int[] moved = new int[oldBuckets.length];
+        for (int i = 0; i < oldBuckets.length; i++) {
+            if (oldBuckets[i] != null) {
+                moved[i] = slot(oldFlowIds[i]);
+                flowIds[moved[i]] = oldFlowIds[i];
+                buckets[moved[i]] = oldBuckets[i];
+            }
+        }
+        for (int i = 0; i < activeFlows; i++) {
+            activeSlots[i] = moved[oldActiveSlots[i]];
+        }
+    }
+}
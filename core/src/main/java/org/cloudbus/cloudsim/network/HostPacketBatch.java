@@ -0,0 +1,59 @@
+/*
+ * Title:        Simulator Package
+ * Description:  Simulator package of Auto Cloud Simulator (AutoCS) to extends the functionality of some CloudSim Plus classes
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.List;
+
+import org.cloudbus.cloudsim.core.events.SimEvent;
+
+/**
+ * A batch of {@link HostPacket}s of the same flow, sent through a link with
+ * the same delay. When the packet aggregation is enabled, a batch is carried
+ * by a single {@link SimEvent} instead of one event per packet, and it is
+ * only expanded into its packets by the receiving network host. As all the
+ * packets of a batch arrive at the same time, they get the same receive time
+ * they would get if they were sent one by one.
+ *
+ * @param flowId  the id of the flow the packets belong to
+ * @param packets the packets of the batch, in the order they were sent
+ * @author Ibrahem Mouhamad
+ * @since AutoCS Core Package 1.0.0
+ */
+
+public record HostPacketBatch(long flowId, List<HostPacket> packets) {
+
+    public HostPacketBatch {
+        packets = List.copyOf(packets);
+    }
+
+    /**
+     * Gets the packets carried by an event, which is either a single packet
+     * or a batch of packets.
+     *
+     * @param data the data of the event
+     * @return the packets carried by the event
+     */
+    public static List<HostPacket> packetsOf(final Object data) {
+        if (data instanceof HostPacketBatch batch) {
+            return batch.packets();
+        }
+        if (data instanceof HostPacket packet) {
+            return List.of(packet);
+        }
+        throw new IllegalStateException("Network SimEvent data must be a HostPacket or a HostPacketBatch");
+    }
+
+    /**
+     * Gets the number of packets in the batch.
+     */
+    public int size() {
+        return packets.size();
+    }
+}
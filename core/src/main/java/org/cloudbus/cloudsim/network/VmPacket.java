@@ -70,6 +70,9 @@ public class VmPacket implements NetworkPacket<NetworkVm> {
      */
     private long flowId;
 
+    /** @see #isCongestionExperienced() */
+    private boolean congestionExperienced;
+
     /**
      * Creates a packet to be sent to a VM inside the
      * Host of the sender VM.
@@ -196,4 +199,24 @@ public class VmPacket implements NetworkPacket<NetworkVm> {
     public long getFlowId() {
         return flowId;
     }
+
+    /**
+     * Checks if a switch marked the packet as having experienced congestion,
+     * as the ECN (Explicit Congestion Notification) field of an IP packet,
+     * instead of dropping it.
+     *
+     * @return
+     */
+    public boolean isCongestionExperienced() {
+        return congestionExperienced;
+    }
+
+    /**
+     * Marks the packet as having experienced congestion.
+     *
+     * @see #isCongestionExperienced()
+     */
+    public void markCongestionExperienced() {
+        this.congestionExperienced = true;
+    }
 }
@@ -14,7 +14,9 @@ import org.cloudbus.cloudsim.core.events.PredicateType;
 import org.cloudbus.cloudsim.core.events.SimEvent;
 import org.cloudbus.cloudsim.datacenters.network.NetworkDatacenter;
 import org.cloudbus.cloudsim.hosts.network.NetworkHost;
+import org.cloudbus.cloudsim.network.FlowPacketBuffer;
 import org.cloudbus.cloudsim.network.HostPacket;
+import org.cloudbus.cloudsim.network.HostPacketBatch;
 import org.cloudbus.cloudsim.vms.Vm;
 
 import org.autocs.sdn.data.networkelement.switches.SwitchResourceStats;
@@ -24,6 +26,15 @@ import org.autocs.sdn.power.models.PowerModelSwitch;
 import org.autocs.sdn.control.tables.RoutingTable;
 import org.autocs.sdn.control.network.physical.PhysicalLink;
 import org.autocs.sdn.control.tables.ForwardingTable;
+import org.autocs.sdn.control.network.transmission.LinkTransmissionScheduler;
+import org.autocs.sdn.control.network.transmission.LinkTransmissionSchedulerTimeSliced;
+import org.autocs.sdn.control.network.qos.EgressQueue;
+import org.autocs.sdn.control.network.qos.EgressScheduler;
+import org.autocs.sdn.control.network.qos.PortBuffer;
+import org.autocs.sdn.control.network.qos.PortBufferConfig;
+import org.autocs.core.history.HistoryPolicy;
+import org.autocs.core.history.HistoryRecorder;
+import org.autocs.core.history.HistoryRecorder.Aggregation;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,22 +58,23 @@ public abstract class AbstractSwitch extends CloudSimEntity implements Switch {
 
     /**
      * Map of packets sent to Datacenter on the uplink, where each key is a switch
-     * and the corresponding value is the list of packets to sent to that switch.
+     * and the corresponding value is the buffer of packets to sent to that switch.
      */
-    private final Map<Switch, List<HostPacket>> uplinkSwitchPacketMap;
+    private final Map<Switch, FlowPacketBuffer> uplinkSwitchPacketMap;
 
     /**
      * Map of packets sent to Datacenter on the downlink, where each key is a
-     * switch and the corresponding value is the list of packets to sent to that
+     * switch and the corresponding value is the buffer of packets to sent to that
      * switch.
      */
-    private final Map<Switch, List<HostPacket>> downlinkSwitchPacketMap;
+    private final Map<Switch, FlowPacketBuffer> downlinkSwitchPacketMap;
 
     /**
      * Map of packets sent to hosts connected in the switch, where each key is a
-     * host and the corresponding value is the list of packets to sent to that host.
+     * host and the corresponding value is the buffer of packets to sent to that
+     * host.
      */
-    private final Map<NetworkHost, List<HostPacket>> packetToHostMap;
+    private final Map<NetworkHost, FlowPacketBuffer> packetToHostMap;
 
     /**
      * List of uplink Datacenter.
@@ -92,15 +104,68 @@ public abstract class AbstractSwitch extends CloudSimEntity implements Switch {
     /** @see #getPowerModel() */
     private PowerModelSwitch powerModel;
 
+    /** @see #getTransmissionScheduler() */
+    private LinkTransmissionScheduler transmissionScheduler;
+
+    /** @see #getEgressScheduler() */
+    private EgressScheduler egressScheduler;
+
+    /**
+     * The egress queue of every port, identified by the link it sends the
+     * packets through, created when the first packets are sent.
+     */
+    private final Map<PhysicalLink, EgressQueue> egressQueues;
+
+    /** @see #getPortBufferConfig() */
+    private PortBufferConfig portBufferConfig;
+
+    /**
+     * The buffer of every port, identified by the network element it sends
+     * the packets to, created when the first packet arrives if the buffers
+     * are bounded.
+     */
+    private final Map<NetworkElement, PortBuffer> portBuffers;
+
+    /** @see #getDroppedPackets() */
+    private long droppedPackets;
+
+    /** @see #getMarkedPackets() */
+    private long markedPackets;
+
+    /**
+     * The channels are measured at the state time, while the transferred bytes
+     * and the dropped and marked packets are accumulated since the previous
+     * state.
+     */
+    private static final Aggregation[] STATE_HISTORY_AGGREGATIONS = {
+            Aggregation.GAUGE, Aggregation.COUNTER, Aggregation.GAUGE, Aggregation.COUNTER,
+            Aggregation.COUNTER, Aggregation.COUNTER };
+
     private boolean stateHistoryEnabled;
 
+    /** @see #isPacketAggregationEnabled() */
+    private boolean packetAggregationEnabled;
+
     /** @see #getStateHistory() */
     private final List<NetworkElementStateEntry> stateHistory;
 
+    /** @see #setStateHistoryPolicy(HistoryPolicy, double) */
+    private HistoryRecorder stateHistoryRecorder;
+
     protected SwitchResourceStats utilizationStats;
     private long uploadSoFar;
     private long downloadSoFar;
 
+    /**
+     * The dropped and marked packets when the last state was recorded in the
+     * utilization stats and in the state history, which both count the
+     * packets since their own last state.
+     */
+    private long droppedAtLastStats;
+    private long markedAtLastStats;
+    private long droppedAtLastState;
+    private long markedAtLastState;
+
     /** @see #getLastBusyTime() */
     private double lastBusyTime;
 
@@ -123,7 +188,13 @@ public abstract class AbstractSwitch extends CloudSimEntity implements Switch {
         this.uplinkSwitches = new ArrayList<>();
         this.datacenter = Objects.requireNonNull(dc);
         this.powerModel = PowerModelSwitch.NULL;
-        this.stateHistory = new LinkedList<>();
+        this.transmissionScheduler = new LinkTransmissionSchedulerTimeSliced();
+        this.egressScheduler = EgressScheduler.NULL;
+        this.egressQueues = new HashMap<>();
+        this.portBufferConfig = PortBufferConfig.UNBOUNDED;
+        this.portBuffers = new HashMap<>();
+        this.stateHistory = new ArrayList<>();
+        setStateHistoryPolicy(HistoryPolicy.INTERVAL, 0);
         this.utilizationStats = SwitchResourceStats.NULL;
         this.uploadSoFar = 0;
         this.downloadSoFar = 0;
@@ -152,12 +223,14 @@ public abstract class AbstractSwitch extends CloudSimEntity implements Switch {
         if (utilizationStats.add(evt.getTime())) {
             this.uploadSoFar = 0;
             this.downloadSoFar = 0;
+            this.droppedAtLastStats = droppedPackets;
+            this.markedAtLastStats = markedPackets;
         }
         lastBusyTime = evt.getTime();
     }
 
     /**
-     * Process a packet sent to a host.
+     * Process a packet, or a batch of packets, sent to a host.
      *
      * @param evt the packet sent
      */
@@ -165,6 +238,10 @@ public abstract class AbstractSwitch extends CloudSimEntity implements Switch {
         if (evt.getData() instanceof HostPacket pkt) {
             final NetworkHost host = pkt.getDestination();
             host.addReceivedNetworkPacket(pkt);
+        } else if (evt.getData() instanceof HostPacketBatch batch) {
+            // the packets of a batch are buffered for the same host
+            final NetworkHost host = batch.packets().get(0).getDestination();
+            host.addReceivedNetworkPackets(batch);
         } else
             throw new IllegalStateException("NETWORK_EVENT_HOST SimEvent data must be a HostPacket");
     }
@@ -212,121 +289,181 @@ public abstract class AbstractSwitch extends CloudSimEntity implements Switch {
     }
 
     /**
-     * Gets the list of packets to be sent to each Downlink Switch
+     * Gets the buffer of packets to be sent to each Downlink Switch
      * and forward them.
      *
      * @see #downlinkSwitchPacketMap
      */
     private void forwardPacketsToDownlinkSwitches() {
-        for (final var targetSwitch : downlinkSwitchPacketMap.keySet()) {
-            final var hostPktList = getDownlinkSwitchPacketList(targetSwitch);
-            hostPktList.forEach(hostPkt -> this.downloadSoFar += hostPkt.getSize());
-            applyChannelConstraints(targetSwitch, hostPktList, CloudSimTag.NETWORK_EVENT_DOWN);
+        for (final var entry : downlinkSwitchPacketMap.entrySet()) {
+            final FlowPacketBuffer packets = entry.getValue();
+            if (!packets.isEmpty()) {
+                this.downloadSoFar += packets.getBytes();
+                applyChannelConstraints(entry.getKey(), packets, CloudSimTag.NETWORK_EVENT_DOWN);
+            }
         }
     }
 
     /**
-     * Gets the list of packets to be sent to each Uplink Switch
+     * Gets the buffer of packets to be sent to each Uplink Switch
      * and forward them.
      *
      * @see #uplinkSwitchPacketMap
      */
     private void forwardPacketsToUplinkSwitches() {
-        for (final var targetSwitch : uplinkSwitchPacketMap.keySet()) {
-            final var hostPktList = getUplinkSwitchPacketList(targetSwitch);
-            hostPktList.forEach(hostPkt -> this.uploadSoFar += hostPkt.getSize());
-            applyChannelConstraints(targetSwitch, hostPktList, CloudSimTag.NETWORK_EVENT_UP);
+        for (final var entry : uplinkSwitchPacketMap.entrySet()) {
+            final FlowPacketBuffer packets = entry.getValue();
+            if (!packets.isEmpty()) {
+                this.uploadSoFar += packets.getBytes();
+                applyChannelConstraints(entry.getKey(), packets, CloudSimTag.NETWORK_EVENT_UP);
+            }
         }
     }
 
     /**
      * Applies channel constraint regarding bandwidth which may delay the
-     * transmission
+     * transmission. The packets of every flow are read from their bucket in the
+     * buffer, which is cleared afterwards. The packets of the flows having no
+     * channel in the link to the target are dropped, and counted in the
+     * {@link #getDroppedPackets() dropped packets}. The flows sending packets
+     * through a link share its bandwidth, every flow being transmitted at the
+     * bandwidth allocated to its channel, unless the switch has an
+     * {@link #getEgressScheduler() egress scheduler}.
      *
-     * @param targetSwitch
-     * @param hostPktList
-     * @param tag
+     * @param targetSwitch the network element to send the packets to
+     * @param packets      the packets to send, bucketed by flow
+     * @param tag          the tag of the events carrying the packets
      */
-    public void applyChannelConstraints(final NetworkElement targetSwitch, List<HostPacket> hostPktList,
+    public void applyChannelConstraints(final NetworkElement targetSwitch, final FlowPacketBuffer packets,
             final CloudSimTag tag) {
-        // here we get the bw from the defined channel in the defined physical link in
-        // the routing table
-        PhysicalLink link = this.getRoutingTable().resolve(targetSwitch);
-        for (final var flowId : link.getFlowToChannelsMapping().keySet()) {
-            final double bw = link.getChannelByFlowId(flowId).getVirtualLink().getRequiredBandwidth();
-            if (tag == CloudSimTag.NETWORK_EVENT_HOST) {
-                forwardPacketsToSwitch(this,
-                        hostPktList.stream().filter(pkt -> pkt.getVmPacket().getFlowId() == flowId).toList(),
-                        bw, tag);
-            } else {
-                forwardPacketsToSwitch((Switch) targetSwitch,
-                        hostPktList.stream().filter(pkt -> pkt.getVmPacket().getFlowId() == flowId).toList(), bw, tag);
+        // here we get the bw from the defined channel in the defined physical links in
+        // the routing table, every flow having its channel in one of the links
+        final Switch destinationSwitch = tag == CloudSimTag.NETWORK_EVENT_HOST ? this : (Switch) targetSwitch;
+        final double time = getSimulation().clock();
+        final PortBuffer portBuffer = portBuffers.get(targetSwitch);
+        final List<PhysicalLink> links = this.getRoutingTable().getLinks(targetSwitch);
+        for (final PhysicalLink link : links) {
+            if (egressScheduler != EgressScheduler.NULL) {
+                transmitThroughEgressQueue(link, destinationSwitch, portBuffer, packets, tag, time);
+                continue;
             }
+            // all the flows sending packets start their transmission before sharing the link
+            for (final Long flowId : link.getFlowToChannelsMapping().keySet()) {
+                if (!packets.get(flowId).isEmpty()) {
+                    link.startTransmission(flowId, time);
+                }
+            }
+            for (final Long flowId : link.getFlowToChannelsMapping().keySet()) {
+                final List<HostPacket> flowPackets = packets.get(flowId);
+                if (!flowPackets.isEmpty()) {
+                    final double bw = link.allocateBandwidth(flowId, time, flowPackets);
+                    if (bw > 0) {
+                        forwardPacketsToSwitch(destinationSwitch, portBuffer, flowPackets, bw, tag);
+                    } else {
+                        // a link without bandwidth never transmits the packets
+                        this.droppedPackets += flowPackets.size();
+                    }
+                }
+            }
+        }
+        // the flows without channel in the links are never transmitted
+        this.droppedPackets += packets.countPackets(flowId -> !PhysicalLink.hasChannel(links, flowId));
+        if (portBuffer != null) {
+            portBuffer.forward();
         }
-        hostPktList.clear();
+        packets.clear();
     }
 
-    private void forwardPacketsToSwitch(
-            final Switch destinationSwitch, final List<HostPacket> packetList,
-            final double bandwidth, final CloudSimTag tag) {
-        if (packetList.size() > 0) {
-            final double delay = packetTransferDelay(packetList.get(0), bandwidth, packetList.size());
-            // if delay lower that scheduling interval then sent all packets at once
-            if (delay < this.getDatacenter().getSchedulingInterval()) {
-                for (final HostPacket pkt : packetList) {
-                    send(destinationSwitch, delay, tag, pkt);
+    /**
+     * Enqueues the packets of the flows having a channel in a link into the
+     * egress queue of the port, by the QoS class of their virtual link, and
+     * transmits the queued packets in the order decided by the
+     * {@link #getEgressScheduler() egress scheduler}.
+     *
+     * @param link              the link to send the packets through
+     * @param destinationSwitch the switch to send the packets to
+     * @param portBuffer        the buffer of the port, or null if it is not
+     *                          bounded
+     * @param packets           the packets to send, bucketed by flow
+     * @param tag               the tag of the events carrying the packets
+     * @param time              the current simulation time
+     */
+    private void transmitThroughEgressQueue(final PhysicalLink link, final Switch destinationSwitch,
+            final PortBuffer portBuffer, final FlowPacketBuffer packets, final CloudSimTag tag, final double time) {
+        final EgressQueue queue = egressQueues.computeIfAbsent(link, l -> new EgressQueue(egressScheduler));
+        for (final var entry : link.getFlowToChannelsMapping().entrySet()) {
+            final List<HostPacket> flowPackets = packets.get(entry.getKey());
+            final int qosClass = entry.getValue().getVirtualLink().getQosClass();
+            for (int i = 0; i < flowPackets.size(); i++) {
+                if (!queue.offer(flowPackets.get(i), qosClass, time)) {
+                    this.droppedPackets++;
                 }
-            } else {
-                // calculate number of packets to send every {@link
-                // Datacenter::getSchedulingInterval()}
-                final int packetsInSecond = (int) Math.floor(packetList.size() / delay);
-                // final int batchSize = (int) (packetsInSecond *
-                // this.getDatacenter().getSchedulingInterval());
-                sendPacketsInBatches(packetList, packetsInSecond > 0 ? packetsInSecond : 1, destinationSwitch, tag);
             }
         }
+        this.droppedPackets += queue.transmit(time, link.getBw().getCapacity(),
+                getDatacenter().getSchedulingInterval(),
+                (delay, ordered, from, to) -> sendPackets(destinationSwitch, portBuffer, delay, tag, ordered, from,
+                        to));
     }
 
     /**
-     * Sends the packets in batches, this will allow simulate sending packets the
-     * real way and will help in drawing traffic graph if the state history is
-     * enabled
+     * Sends the packets of a flow in the batches decided by the
+     * {@link #getTransmissionScheduler() transmission scheduler}, this will
+     * allow simulate sending packets the real way and will help in drawing
+     * traffic graph if the state history is enabled
      */
-    private void sendPacketsInBatches(final List<HostPacket> packetList, final int batchSize,
-            final Switch destinationSwitch, final CloudSimTag tag) {
-        int start = 0;
-        int end = batchSize;
-        int count = packetList.size() / batchSize;
-        final int remainder = packetList.size() % batchSize;
-        int counter = 0;
-        for (int i = 0; i < count; i++) {
-            for (counter = start; counter < end; counter++) {
-                send(destinationSwitch, (i + 1), tag,
-                        packetList.get(counter));
-            }
-            start = start + batchSize;
-            end = end + batchSize;
+    private void forwardPacketsToSwitch(
+            final Switch destinationSwitch, final PortBuffer portBuffer, final List<HostPacket> packetList,
+            final double bandwidth, final CloudSimTag tag) {
+        if (!packetList.isEmpty()) {
+            transmissionScheduler.schedule(packetList, bandwidth, getDatacenter().getSchedulingInterval(),
+                    (delay, from, to) -> sendPackets(destinationSwitch, portBuffer, delay, tag, packetList, from, to));
         }
-        if (remainder != 0) {
-            end = end - batchSize + remainder;
-            for (counter = start; counter < end; counter++) {
-                send(destinationSwitch, (count + 1), tag,
-                        packetList.get(counter));
-            }
+    }
+
+    /**
+     * Sends some packets of a flow with the same delay, in a single
+     * {@link HostPacketBatch} event if the packet aggregation is enabled, or
+     * in one event per packet otherwise. The packets stay in the port buffer
+     * until they are sent.
+     *
+     * @param destinationSwitch the switch to send the packets to
+     * @param portBuffer        the buffer of the port, or null if it is not
+     *                          bounded
+     * @param delay             the delay of the packets
+     * @param tag               the tag of the events
+     * @param packetList        the packets of the flow
+     * @param from              the index of the first packet to send
+     * @param to                the index after the last packet to send
+     */
+    private void sendPackets(final Switch destinationSwitch, final PortBuffer portBuffer, final double delay,
+            final CloudSimTag tag, final List<HostPacket> packetList, final int from, final int to) {
+        if (portBuffer != null) {
+            portBuffer.transmit(packetList, from, to, getSimulation().clock() + delay);
+        }
+        if (packetAggregationEnabled) {
+            final long flowId = packetList.get(from).getVmPacket().getFlowId();
+            send(destinationSwitch, delay, tag, new HostPacketBatch(flowId, packetList.subList(from, to)));
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            send(destinationSwitch, delay, tag, packetList.get(i));
         }
     }
 
     /**
-     * Gets the list of packets to be sent to each Host
+     * Gets the buffer of packets to be sent to each Host
      * and forward them.
      *
      * @see #packetToHostMap
      */
     private void forwardPacketsToHosts() {
-        for (final NetworkHost host : packetToHostMap.keySet()) {
-            final var hostPktList = getHostPacketList(host);
-            hostPktList.forEach(hostPkt -> this.downloadSoFar += hostPkt.getSize());
-            applyChannelConstraints(host, hostPktList, CloudSimTag.NETWORK_EVENT_HOST);
+        for (final var entry : packetToHostMap.entrySet()) {
+            final FlowPacketBuffer packets = entry.getValue();
+            if (!packets.isEmpty()) {
+                this.downloadSoFar += packets.getBytes();
+                applyChannelConstraints(entry.getKey(), packets, CloudSimTag.NETWORK_EVENT_HOST);
+            }
         }
     }
 
@@ -374,6 +511,7 @@ public abstract class AbstractSwitch extends CloudSimEntity implements Switch {
     @Override
     public void shutdown() {
         super.shutdown();
+        stateHistoryRecorder.flush();
         LOGGER.info("{} is shutting down...", getName());
     }
 
@@ -428,33 +566,33 @@ public abstract class AbstractSwitch extends CloudSimEntity implements Switch {
     }
 
     /**
-     * Gets the list of packets to be sent to a downlink switch.
+     * Gets the buffer of packets to be sent to a downlink switch.
      *
-     * @param downlinkSwitch the id of the switch to get the list of packets to send
-     * @return the list of packets to be sent to the given switch.
+     * @param downlinkSwitch the switch to get the buffer of packets to send
+     * @return the buffer of packets to be sent to the given switch.
      */
-    protected List<HostPacket> getDownlinkSwitchPacketList(final Switch downlinkSwitch) {
-        return downlinkSwitchPacketMap.getOrDefault(downlinkSwitch, new ArrayList<>());
+    protected FlowPacketBuffer getDownlinkSwitchPacketBuffer(final Switch downlinkSwitch) {
+        return packetBuffer(downlinkSwitchPacketMap, downlinkSwitch);
     }
 
     /**
-     * Gets the list of packets to be sent to an uplink switch.
+     * Gets the buffer of packets to be sent to an uplink switch.
      *
-     * @param uplinkSwitch the switch to get the list of packets to send
-     * @return the list of packets to be sent to the given switch.
+     * @param uplinkSwitch the switch to get the buffer of packets to send
+     * @return the buffer of packets to be sent to the given switch.
      */
-    protected List<HostPacket> getUplinkSwitchPacketList(final Switch uplinkSwitch) {
-        return uplinkSwitchPacketMap.getOrDefault(uplinkSwitch, new ArrayList<>());
+    protected FlowPacketBuffer getUplinkSwitchPacketBuffer(final Switch uplinkSwitch) {
+        return packetBuffer(uplinkSwitchPacketMap, uplinkSwitch);
     }
 
     /**
-     * Gets the list of packets to be sent to a host.
+     * Gets the buffer of packets to be sent to a host.
      *
-     * @param host the host to get the list of packets to send
-     * @return the list of packets to be sent to the given host.
+     * @param host the host to get the buffer of packets to send
+     * @return the buffer of packets to be sent to the given host.
      */
-    protected List<HostPacket> getHostPacketList(final NetworkHost host) {
-        return packetToHostMap.getOrDefault(host, new ArrayList<>());
+    protected FlowPacketBuffer getHostPacketBuffer(final NetworkHost host) {
+        return packetBuffer(packetToHostMap, host);
     }
 
     /**
@@ -464,7 +602,7 @@ public abstract class AbstractSwitch extends CloudSimEntity implements Switch {
      * @param packet         the packet to be sent
      */
     protected void addPacketToSendToDownlinkSwitch(final Switch downlinkSwitch, final HostPacket packet) {
-        computeMapValue(downlinkSwitchPacketMap, downlinkSwitch, packet);
+        bufferPacket(downlinkSwitch, getDownlinkSwitchPacketBuffer(downlinkSwitch), packet);
     }
 
     protected void addPacketToBeSentToFirstUplinkSwitch(final HostPacket netPkt) {
@@ -479,7 +617,7 @@ public abstract class AbstractSwitch extends CloudSimEntity implements Switch {
      * @param packet       the packet to be sent
      */
     protected void addPacketToSendToUplinkSwitch(final Switch uplinkSwitch, final HostPacket packet) {
-        computeMapValue(uplinkSwitchPacketMap, uplinkSwitch, packet);
+        bufferPacket(uplinkSwitch, getUplinkSwitchPacketBuffer(uplinkSwitch), packet);
     }
 
     /**
@@ -489,21 +627,47 @@ public abstract class AbstractSwitch extends CloudSimEntity implements Switch {
      * @param packet the packet to be sent
      */
     protected void addPacketToSendToHost(final NetworkHost host, final HostPacket packet) {
-        computeMapValue(packetToHostMap, host, packet);
+        bufferPacket(host, getHostPacketBuffer(host), packet);
+    }
+
+    /**
+     * Adds a packet to the buffer of packets to send through a port, unless
+     * the buffer of the port is full.
+     *
+     * @param port   the network element the port sends the packets to
+     * @param buffer the buffer of packets to send to the network element
+     * @param packet the packet to be sent
+     * @see #getPortBufferConfig()
+     */
+    private void bufferPacket(final NetworkElement port, final FlowPacketBuffer buffer, final HostPacket packet) {
+        if (portBufferConfig == PortBufferConfig.UNBOUNDED) {
+            buffer.add(packet);
+            return;
+        }
+
+        final PortBuffer portBuffer = portBuffers.computeIfAbsent(port, p -> new PortBuffer(portBufferConfig));
+        switch (portBuffer.offer(packet, getSimulation().clock())) {
+            case DROPPED -> {
+                this.droppedPackets++;
+                return;
+            }
+            case MARKED -> this.markedPackets++;
+            default -> {
+            }
+        }
+        buffer.add(packet);
     }
 
     /**
-     * Computes a value for a multi-map, a map where values are a List.
+     * Gets the packet buffer mapped to a network element, creating it on first
+     * use. The buffers are kept once created, so their flow buckets are reused.
      *
-     * @param map        the map to compute a value (to add a value to a List mapped
-     *                   to a key)
-     * @param key        the key to access the mapped List
-     * @param valueToAdd the value to add to the List
-     * @param <K>        type of the map key
-     * @param <V>        type of the map value
+     * @param map the map of buffers
+     * @param key the network element to get its buffer
+     * @param <K> type of the map key
      */
-    private <K, V> void computeMapValue(final Map<K, List<V>> map, final K key, final V valueToAdd) {
-        map.compute(key, (k, list) -> list == null ? new ArrayList<>() : list).add(valueToAdd);
+    private <K> FlowPacketBuffer packetBuffer(final Map<K, FlowPacketBuffer> map, final K key) {
+        return map.computeIfAbsent(key, k -> new FlowPacketBuffer());
     }
 
     @Override
@@ -537,6 +701,58 @@ public abstract class AbstractSwitch extends CloudSimEntity implements Switch {
         powerModel.setSwitch(this);
     }
 
+    @Override
+    public LinkTransmissionScheduler getTransmissionScheduler() {
+        return transmissionScheduler;
+    }
+
+    @Override
+    public void setTransmissionScheduler(final LinkTransmissionScheduler transmissionScheduler) {
+        this.transmissionScheduler = requireNonNull(transmissionScheduler);
+    }
+
+    @Override
+    public EgressScheduler getEgressScheduler() {
+        return egressScheduler;
+    }
+
+    @Override
+    public void setEgressScheduler(final EgressScheduler egressScheduler) {
+        this.egressScheduler = requireNonNull(egressScheduler);
+        this.egressQueues.clear();
+    }
+
+    @Override
+    public EgressQueue getEgressQueue(final PhysicalLink link) {
+        return egressQueues.get(link);
+    }
+
+    @Override
+    public PortBufferConfig getPortBufferConfig() {
+        return portBufferConfig;
+    }
+
+    @Override
+    public void setPortBufferConfig(final PortBufferConfig portBufferConfig) {
+        this.portBufferConfig = requireNonNull(portBufferConfig);
+        this.portBuffers.clear();
+    }
+
+    @Override
+    public PortBuffer getPortBuffer(final NetworkElement port) {
+        return portBuffers.get(port);
+    }
+
+    @Override
+    public long getDroppedPackets() {
+        return droppedPackets;
+    }
+
+    @Override
+    public long getMarkedPackets() {
+        return markedPackets;
+    }
+
     @Override
     public void enableStateHistory() {
         this.stateHistoryEnabled = true;
@@ -552,6 +768,21 @@ public abstract class AbstractSwitch extends CloudSimEntity implements Switch {
         return this.stateHistoryEnabled;
     }
 
+    @Override
+    public void enablePacketAggregation() {
+        this.packetAggregationEnabled = true;
+    }
+
+    @Override
+    public void disablePacketAggregation() {
+        this.packetAggregationEnabled = false;
+    }
+
+    @Override
+    public boolean isPacketAggregationEnabled() {
+        return this.packetAggregationEnabled;
+    }
+
     @Override
     public List<NetworkElementStateEntry> getStateHistory() {
         return Collections.unmodifiableList(this.stateHistory);
@@ -574,7 +805,8 @@ public abstract class AbstractSwitch extends CloudSimEntity implements Switch {
     @Override
     public NetworkElementStateEntry getSateEntrySoFar() {
         return new NetworkElementStateEntry(this.getSimulation().clock(), 0, this.uploadSoFar,
-                0, this.downloadSoFar);
+                0, this.downloadSoFar, this.droppedPackets - this.droppedAtLastStats,
+                this.markedPackets - this.markedAtLastStats);
     }
 
     private void addStateHistory(final double currentTime) {
@@ -582,38 +814,36 @@ public abstract class AbstractSwitch extends CloudSimEntity implements Switch {
             return;
         }
 
-        addStateHistoryEntry(currentTime, 0, this.uploadSoFar, 0, this.downloadSoFar);
-
+        stateHistoryRecorder.record(currentTime, new double[] { 0, this.uploadSoFar, 0, this.downloadSoFar,
+                this.droppedPackets - this.droppedAtLastState, this.markedPackets - this.markedAtLastState });
+        this.uploadSoFar = 0;
+        this.downloadSoFar = 0;
+        this.droppedAtLastState = droppedPackets;
+        this.markedAtLastState = markedPackets;
     }
 
     /**
-     * Adds a switch state history entry.
+     * Adds a switch state history entry kept by the state history recorder.
      *
-     * @param time              the time
-     * @param upChannelsSoFar   the number of up channels
-     * @param uploadSoFar       the amount of uploaded bytes through uplinks
-     * @param downChannelsSoFar the number of down channels
-     * @param downloadSoFar     the amount of downloaded bytes through downlinks
-     */
-    private void addStateHistoryEntry(
-            final double time,
-            final long upChannelsSoFar,
-            final long uploadSoFar,
-            final long downChannelsSoFar,
-            final long downloadSoFar) {
-        final var newState = new NetworkElementStateEntry(time, upChannelsSoFar, uploadSoFar, downChannelsSoFar,
-                downloadSoFar);
-        if (!stateHistory.isEmpty()) {
-            final NetworkElementStateEntry previousState = stateHistory.get(stateHistory.size() - 1);
-            if (previousState.time() == time) {
-                stateHistory.set(stateHistory.size() - 1, newState);
-                return;
-            }
-        }
+     * @param time  the time
+     * @param state the number of up channels, the amount of uploaded bytes
+     *              through uplinks, the number of down channels, the amount
+     *              of downloaded bytes through downlinks and the numbers of
+     *              dropped and marked packets
+     */
+    private void addStateHistoryEntry(final double time, final double[] state) {
+        stateHistory.add(new NetworkElementStateEntry(time, (long) state[0], (long) state[1], (long) state[2],
+                (long) state[3], (long) state[4], (long) state[5]));
+    }
 
-        stateHistory.add(newState);
-        this.uploadSoFar = 0;
-        this.downloadSoFar = 0;
+    @Override
+    public void setStateHistoryPolicy(final HistoryPolicy policy, final double interval) {
+        if (stateHistoryRecorder != null) {
+            stateHistoryRecorder.flush();
+        }
+        // the uploaded bytes are used to select the states to keep
+        this.stateHistoryRecorder = policy.newRecorder(this::addStateHistoryEntry, STATE_HISTORY_AGGREGATIONS,
+                interval, 1);
     }
 
     public RoutingTable getRoutingTable() {
@@ -626,8 +856,8 @@ public abstract class AbstractSwitch extends CloudSimEntity implements Switch {
 
     protected void forwardToDefaultRoute(HostPacket pkt) {
         // the destination host is not known, send to default route
-        PhysicalLink defaultRouteLink = this.getRoutingTable().resolve(null);
-        // ToDo: how to select the proper link
+        // the default routing links are equal-cost paths, selected per flow
+        PhysicalLink defaultRouteLink = this.getRoutingTable().resolve(null, pkt.getVmPacket().getFlowId());
         if (defaultRouteLink != null) {
             // packet needs to go to through the default routing links
             addPacketToSendToUplinkSwitch((Switch) defaultRouteLink.getDest(), pkt);
@@ -10,12 +10,12 @@ package org.cloudbus.cloudsim.network.switches;
 import java.util.List;
 
 import org.autocs.sdn.control.network.physical.PhysicalLink;
-import org.autocs.sdn.control.tables.ForwardingKey;
 import org.autocs.sdn.data.networkelement.NetworkElement;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.events.SimEvent;
 import org.cloudbus.cloudsim.datacenters.network.NetworkDatacenter;
 import org.cloudbus.cloudsim.network.HostPacket;
+import org.cloudbus.cloudsim.network.HostPacketBatch;
 import org.cloudbus.cloudsim.util.BytesConversion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -90,9 +90,10 @@ public class AggregateSwitch extends AbstractSwitch {
          * so it needs to be sent to edge switch
          */
         super.processPacketDown(evt);
-        final HostPacket netPkt = (HostPacket) evt.getData();
-        // packetProcessingUsingRoutingTable(netPkt, false);
-        packetProcessingUsingForwardingTable(netPkt, false);
+        for (final HostPacket netPkt : HostPacketBatch.packetsOf(evt.getData())) {
+            // packetProcessingUsingRoutingTable(netPkt, false);
+            packetProcessingUsingForwardingTable(netPkt, false);
+        }
     }
 
     /**
@@ -101,12 +102,12 @@ public class AggregateSwitch extends AbstractSwitch {
      * @param netPkt
      */
     private void packetProcessingUsingForwardingTable(HostPacket netPkt, final boolean isUp) {
-        ForwardingKey forwardingKey = new ForwardingKey(
-                netPkt.getVmPacket().getSource().getId(),
-                netPkt.getVmPacket().getDestination().getId(),
-                netPkt.getVmPacket().getFlowId());
+        final long src = netPkt.getVmPacket().getSource().getId();
+        final long dest = netPkt.getVmPacket().getDestination().getId();
+        final long flowId = netPkt.getVmPacket().getFlowId();
+        final long destHost = netPkt.getVmPacket().getDestination().getHost().getId();
 
-        NetworkElement node = this.getForwardingTable().resolve(forwardingKey);
+        NetworkElement node = this.getForwardingTable().resolve(src, dest, flowId, destHost);
 
         if (node != null && node instanceof Switch) {
             // to upper switch
@@ -121,7 +122,7 @@ public class AggregateSwitch extends AbstractSwitch {
             return;
         }
         LOGGER.error("destination unreachable for packet from Vm-{} to Vm-{} with flow(Id={}).",
-                forwardingKey.getSrc(), forwardingKey.getDest(), forwardingKey.getFlowId());
+                src, dest, flowId);
     }
 
     /**
@@ -131,8 +132,8 @@ public class AggregateSwitch extends AbstractSwitch {
      */
     private void packetProcessingUsingRoutingTable(HostPacket netPkt, final boolean toUp) {
         // resolve the destination host using the routing table if it is a downlink host
-        PhysicalLink linkToHost = this.getRoutingTable().resolve(netPkt.getDestination());
-        // ToDo: how to select the proper link
+        PhysicalLink linkToHost = this.getRoutingTable().resolve(netPkt.getDestination(),
+                netPkt.getVmPacket().getFlowId());
         if (linkToHost != null) {
             // packet needs to go to a downlink host through an edge switch
             addPacketToSendToDownlinkSwitch((Switch) linkToHost.getDest(), netPkt);
@@ -150,9 +151,10 @@ public class AggregateSwitch extends AbstractSwitch {
         // packet is coming from edge router, so it needs to be sent to either root or
         // another edge switch
         super.processPacketUp(evt);
-        final HostPacket netPkt = (HostPacket) evt.getData();
-        // packetProcessingUsingRoutingTable(netPkt, true);
-        packetProcessingUsingForwardingTable(netPkt, true);
+        for (final HostPacket netPkt : HostPacketBatch.packetsOf(evt.getData())) {
+            // packetProcessingUsingRoutingTable(netPkt, true);
+            packetProcessingUsingForwardingTable(netPkt, true);
+        }
 
     }
 
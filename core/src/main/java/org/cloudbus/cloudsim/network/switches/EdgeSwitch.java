@@ -13,7 +13,6 @@ import java.util.List;
 import java.util.Objects;
 
 import org.autocs.sdn.control.network.physical.PhysicalLink;
-import org.autocs.sdn.control.tables.ForwardingKey;
 import org.autocs.sdn.data.networkelement.NetworkElement;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.events.SimEvent;
@@ -21,6 +20,7 @@ import org.cloudbus.cloudsim.datacenters.network.NetworkDatacenter;
 import org.cloudbus.cloudsim.hosts.Host;
 import org.cloudbus.cloudsim.hosts.network.NetworkHost;
 import org.cloudbus.cloudsim.network.HostPacket;
+import org.cloudbus.cloudsim.network.HostPacketBatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -99,17 +99,17 @@ public class EdgeSwitch extends AbstractSwitch {
         super.processPacketDown(evt);
 
         // packet is to be received by host
-        final HostPacket pkt = extractReceivedHostPacket(evt);
-        // packetProcessingUsingRoutingTable(pkt, false);
-        packetProcessingUsingForwardingTable(pkt, false);
+        for (final HostPacket pkt : HostPacketBatch.packetsOf(evt.getData())) {
+            setReceiverHost(pkt);
+            // packetProcessingUsingRoutingTable(pkt, false);
+            packetProcessingUsingForwardingTable(pkt, false);
+        }
     }
 
-    private HostPacket extractReceivedHostPacket(final SimEvent evt) {
-        final var pkt = (HostPacket) evt.getData();
+    private void setReceiverHost(final HostPacket pkt) {
         final var receiverVm = pkt.getVmPacket().getDestination();
         final var host = getVmHost(receiverVm);
         pkt.setDestination(host);
-        return pkt;
     }
 
     @Override
@@ -120,9 +120,11 @@ public class EdgeSwitch extends AbstractSwitch {
          * packet is received from host and to be sent to
          * aggregate level or to another host in the same level
          */
-        final HostPacket pkt = extractReceivedHostPacket(evt);
-        // packetProcessingUsingRoutingTable(pkt, true);
-        packetProcessingUsingForwardingTable(pkt, true);
+        for (final HostPacket pkt : HostPacketBatch.packetsOf(evt.getData())) {
+            setReceiverHost(pkt);
+            // packetProcessingUsingRoutingTable(pkt, true);
+            packetProcessingUsingForwardingTable(pkt, true);
+        }
     }
 
     /**
@@ -131,12 +133,12 @@ public class EdgeSwitch extends AbstractSwitch {
      * @param pkt
      */
     private void packetProcessingUsingForwardingTable(HostPacket pkt, final boolean toUp) {
-        ForwardingKey forwardingKey = new ForwardingKey(
-                pkt.getVmPacket().getSource().getId(),
-                pkt.getVmPacket().getDestination().getId(),
-                pkt.getVmPacket().getFlowId());
+        final long src = pkt.getVmPacket().getSource().getId();
+        final long dest = pkt.getVmPacket().getDestination().getId();
+        final long flowId = pkt.getVmPacket().getFlowId();
+        final long destHost = pkt.getVmPacket().getDestination().getHost().getId();
 
-        NetworkElement node = this.getForwardingTable().resolve(forwardingKey);
+        NetworkElement node = this.getForwardingTable().resolve(src, dest, flowId, destHost);
 
         if (node != null && node instanceof NetworkHost) {
             // to host
@@ -151,7 +153,7 @@ public class EdgeSwitch extends AbstractSwitch {
             return;
         }
         LOGGER.error("destination unreachable for packet from Vm-{} to Vm-{} with flow(Id={}).",
-                forwardingKey.getSrc(), forwardingKey.getDest(), forwardingKey.getFlowId());
+                src, dest, flowId);
     }
 
     /**
@@ -161,9 +163,8 @@ public class EdgeSwitch extends AbstractSwitch {
      */
     private void packetProcessingUsingRoutingTable(HostPacket pkt, final boolean toUp) {
         // resolve the destination host using the routing table if it is a downlink host
-        PhysicalLink linkToHost = this.getRoutingTable().resolve(pkt.getDestination());
-        // send packet to the host using the first link
-        // ToDo: how to select the proper link
+        PhysicalLink linkToHost = this.getRoutingTable().resolve(pkt.getDestination(),
+                pkt.getVmPacket().getFlowId());
         if (linkToHost != null) {
             // packet needs to go to a host which is connected directly to switch
             addPacketToSendToHost(pkt.getDestination(), pkt);
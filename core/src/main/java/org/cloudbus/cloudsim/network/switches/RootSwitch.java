@@ -10,12 +10,12 @@ package org.cloudbus.cloudsim.network.switches;
 import java.util.Optional;
 
 import org.autocs.sdn.control.network.physical.PhysicalLink;
-import org.autocs.sdn.control.tables.ForwardingKey;
 import org.autocs.sdn.data.networkelement.NetworkElement;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.events.SimEvent;
 import org.cloudbus.cloudsim.datacenters.network.NetworkDatacenter;
 import org.cloudbus.cloudsim.network.HostPacket;
+import org.cloudbus.cloudsim.network.HostPacketBatch;
 import org.cloudbus.cloudsim.util.BytesConversion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -87,9 +87,10 @@ public class RootSwitch extends AbstractSwitch {
     @Override
     protected void processPacketUp(final SimEvent evt) {
         super.processPacketUp(evt);
-        final var netPkt = (HostPacket) evt.getData();
-        // processPacketUpUsingRoutingTable(netPkt);
-        packetProcessingUsingForwardingTable(netPkt);
+        for (final HostPacket netPkt : HostPacketBatch.packetsOf(evt.getData())) {
+            // processPacketUpUsingRoutingTable(netPkt);
+            packetProcessingUsingForwardingTable(netPkt);
+        }
     }
 
     /**
@@ -98,12 +99,12 @@ public class RootSwitch extends AbstractSwitch {
      * @param netPkt
      */
     private void packetProcessingUsingForwardingTable(HostPacket netPkt) {
-        ForwardingKey forwardingKey = new ForwardingKey(
-                netPkt.getVmPacket().getSource().getId(),
-                netPkt.getVmPacket().getDestination().getId(),
-                netPkt.getVmPacket().getFlowId());
+        final long src = netPkt.getVmPacket().getSource().getId();
+        final long dest = netPkt.getVmPacket().getDestination().getId();
+        final long flowId = netPkt.getVmPacket().getFlowId();
+        final long destHost = netPkt.getVmPacket().getDestination().getHost().getId();
 
-        NetworkElement node = this.getForwardingTable().resolve(forwardingKey);
+        NetworkElement node = this.getForwardingTable().resolve(src, dest, flowId, destHost);
 
         if (node != null && node instanceof Switch) {
             // to down switch
@@ -115,7 +116,7 @@ public class RootSwitch extends AbstractSwitch {
             forwardToDefaultRoute(netPkt);
         }
         LOGGER.error("destination unreachable for packet from Vm-{} to Vm-{} with flow(Id={}).",
-                forwardingKey.getSrc(), forwardingKey.getDest(), forwardingKey.getFlowId());
+                src, dest, flowId);
     }
 
     /**
@@ -125,8 +126,8 @@ public class RootSwitch extends AbstractSwitch {
      */
     private void processPacketUpUsingRoutingTable(HostPacket netPkt) {
         // resolve the destination host using the routing table if it is a downlink host
-        PhysicalLink linkToHost = this.getRoutingTable().resolve(netPkt.getDestination());
-        // ToDo: how to select the proper link
+        PhysicalLink linkToHost = this.getRoutingTable().resolve(netPkt.getDestination(),
+                netPkt.getVmPacket().getFlowId());
         if (linkToHost != null) {
             // packet needs to go to a downlink host through an edge switch
             addPacketToSendToDownlinkSwitch((Switch) linkToHost.getDest(), netPkt);
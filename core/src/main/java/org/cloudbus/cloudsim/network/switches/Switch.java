@@ -30,9 +30,16 @@ import org.cloudbus.cloudsim.core.SimEntity;
 
 import org.autocs.sdn.data.networkelement.NetworkElement;
 import org.autocs.sdn.data.networkelement.resources.NetworkElementStateEntry;
+import org.autocs.core.history.HistoryPolicy;
 import org.autocs.sdn.data.networkelement.resources.NetworkElementStatsComputer;
 import org.autocs.sdn.data.networkelement.switches.SwitchResourceStats;
 import org.autocs.sdn.power.models.PowerModelSwitch;
+import org.autocs.sdn.control.network.transmission.LinkTransmissionScheduler;
+import org.autocs.sdn.control.network.physical.PhysicalLink;
+import org.autocs.sdn.control.network.qos.EgressQueue;
+import org.autocs.sdn.control.network.qos.EgressScheduler;
+import org.autocs.sdn.control.network.qos.PortBuffer;
+import org.autocs.sdn.control.network.qos.PortBufferConfig;
 
 import java.util.List;
 
@@ -196,6 +203,98 @@ public interface Switch
      */
     void setPowerModel(PowerModelSwitch powerModel);
 
+    /**
+     * Gets the scheduler deciding how the packets of a flow are split into
+     * batches and when every batch is sent.
+     *
+     * @return the switch's {@link LinkTransmissionScheduler}
+     */
+    LinkTransmissionScheduler getTransmissionScheduler();
+
+    /**
+     * Sets the scheduler deciding how the packets of a flow are split into
+     * batches and when every batch is sent.
+     *
+     * @param transmissionScheduler the {@link LinkTransmissionScheduler} to set
+     */
+    void setTransmissionScheduler(LinkTransmissionScheduler transmissionScheduler);
+
+    /**
+     * Gets the scheduler deciding in which order the packets of the different
+     * QoS classes are sent through every port.
+     *
+     * @return the switch's {@link EgressScheduler}, or
+     *         {@link EgressScheduler#NULL} if the ports have no egress queues
+     */
+    EgressScheduler getEgressScheduler();
+
+    /**
+     * Sets the scheduler deciding in which order the packets of the different
+     * QoS classes are sent through every port. When it is not
+     * {@link EgressScheduler#NULL}, the packets sent through a link are queued
+     * in the {@link EgressQueue} of the port and transmitted one after the
+     * other at the link capacity, instead of sharing the link between the flow
+     * channels. The egress queues of the previous scheduler are discarded.
+     *
+     * @param egressScheduler the {@link EgressScheduler} to set
+     */
+    void setEgressScheduler(EgressScheduler egressScheduler);
+
+    /**
+     * Gets the egress queue of the port sending packets through a link.
+     *
+     * @param link the link
+     * @return the queue, or null if no packet was sent through the link with
+     *         the current {@link #getEgressScheduler() egress scheduler}
+     */
+    EgressQueue getEgressQueue(PhysicalLink link);
+
+    /**
+     * Gets the configuration of the buffers of the ports, holding the packets
+     * received by the switch until they are transmitted.
+     *
+     * @return the configuration, which is {@link PortBufferConfig#UNBOUNDED}
+     *         by default
+     */
+    PortBufferConfig getPortBufferConfig();
+
+    /**
+     * Sets the configuration of the buffers of the ports, holding the packets
+     * received by the switch until they are transmitted. The packets arriving
+     * when the buffer of their port is full are dropped. The buffers of the
+     * previous configuration are discarded.
+     *
+     * @param portBufferConfig the configuration to set
+     */
+    void setPortBufferConfig(PortBufferConfig portBufferConfig);
+
+    /**
+     * Gets the buffer of the port sending packets to a network element.
+     *
+     * @param port the network element the port sends packets to
+     * @return the buffer, or null if the buffers are not bounded or no packet
+     *         was sent to the network element with the current
+     *         {@link #getPortBufferConfig() configuration}
+     */
+    PortBuffer getPortBuffer(NetworkElement port);
+
+    /**
+     * Gets the number of packets dropped by the switch because the buffer or
+     * the egress queue of their port was full, or because the link of their
+     * port had no bandwidth.
+     *
+     * @return
+     */
+    long getDroppedPackets();
+
+    /**
+     * Gets the number of packets marked by the switch as having experienced
+     * congestion.
+     *
+     * @return
+     */
+    long getMarkedPackets();
+
     /**
      * Enables storing Switch state history.
      * 
@@ -210,6 +309,17 @@ public interface Switch
      */
     void disableStateHistory();
 
+    /**
+     * Sets the policy deciding which states are kept in the Switch state
+     * history. By default, every state recorded at a different time is kept.
+     *
+     * @param policy   the history policy
+     * @param interval the interval (or the bucket width) of the policy, in
+     *                 seconds
+     * @see #getStateHistory()
+     */
+    void setStateHistoryPolicy(HistoryPolicy policy, double interval);
+
     /**
      * Checks if Switch state history is being collected and stored.
      * 
@@ -237,4 +347,25 @@ public interface Switch
      * @return
      */
     NetworkElementStateEntry getSateEntrySoFar();
+
+    /**
+     * Enables sending the packets of a flow that have the same delay in a
+     * single event, instead of one event per packet.
+     *
+     * @see org.cloudbus.cloudsim.network.HostPacketBatch
+     */
+    void enablePacketAggregation();
+
+    /**
+     * Disables the packet aggregation, sending every packet in its own event.
+     */
+    void disablePacketAggregation();
+
+    /**
+     * Checks if the packets of a flow that have the same delay are sent in a
+     * single event.
+     *
+     * @return
+     */
+    boolean isPacketAggregationEnabled();
 }
\ No newline at end of file
@@ -34,8 +34,17 @@ import org.cloudbus.cloudsim.network.HostPacket;
 import org.autocs.sdn.control.tables.ForwardingTable;
 import org.autocs.sdn.control.tables.RoutingTable;
 import org.autocs.sdn.data.networkelement.resources.NetworkElementStateEntry;
+import org.autocs.core.history.HistoryPolicy;
 import org.autocs.sdn.data.networkelement.switches.SwitchResourceStats;
 import org.autocs.sdn.power.models.PowerModelSwitch;
+import org.autocs.sdn.control.network.transmission.LinkTransmissionScheduler;
+import org.autocs.sdn.control.network.transmission.LinkTransmissionSchedulerSimple;
+import org.autocs.sdn.control.network.physical.PhysicalLink;
+import org.autocs.sdn.control.network.qos.EgressQueue;
+import org.autocs.sdn.control.network.qos.EgressScheduler;
+import org.autocs.sdn.control.network.qos.PortBuffer;
+import org.autocs.sdn.control.network.qos.PortBufferConfig;
+import org.autocs.sdn.data.networkelement.NetworkElement;
 
 import java.util.Collections;
 import java.util.List;
@@ -52,6 +61,7 @@ import java.util.List;
 final class SwitchNull implements Switch, SimEntityNullBase {
     private static final NetworkDatacenter DATACENTER = new NetworkDatacenter(Simulation.NULL, Collections.emptyList(),
             VmAllocationPolicy.NULL);
+    private static final LinkTransmissionScheduler TRANSMISSION_SCHEDULER = new LinkTransmissionSchedulerSimple();
 
     @Override
     public double downlinkTransferDelay(HostPacket packet, int simultaneousPackets) {
@@ -137,6 +147,53 @@ final class SwitchNull implements Switch, SimEntityNullBase {
     public void setPowerModel(PowerModelSwitch powerModel) {
         /**/}
 
+    @Override
+    public LinkTransmissionScheduler getTransmissionScheduler() {
+        return TRANSMISSION_SCHEDULER;
+    }
+
+    @Override
+    public void setTransmissionScheduler(LinkTransmissionScheduler transmissionScheduler) {
+        /**/}
+
+    @Override
+    public EgressScheduler getEgressScheduler() {
+        return EgressScheduler.NULL;
+    }
+
+    @Override
+    public void setEgressScheduler(EgressScheduler egressScheduler) {
+        /**/}
+
+    @Override
+    public EgressQueue getEgressQueue(PhysicalLink link) {
+        return null;
+    }
+
+    @Override
+    public PortBufferConfig getPortBufferConfig() {
+        return PortBufferConfig.UNBOUNDED;
+    }
+
+    @Override
+    public void setPortBufferConfig(PortBufferConfig portBufferConfig) {
+        /**/}
+
+    @Override
+    public PortBuffer getPortBuffer(NetworkElement port) {
+        return null;
+    }
+
+    @Override
+    public long getDroppedPackets() {
+        return 0;
+    }
+
+    @Override
+    public long getMarkedPackets() {
+        return 0;
+    }
+
     @Override
     public void enableStateHistory() {
         /**/}
@@ -145,11 +202,28 @@ final class SwitchNull implements Switch, SimEntityNullBase {
     public void disableStateHistory() {
         /**/}
 
+    @Override
+    public void setStateHistoryPolicy(HistoryPolicy policy, double interval) {
+        /**/}
+
     @Override
     public boolean isStateHistoryEnabled() {
         return false;
     }
 
+    @Override
+    public void enablePacketAggregation() {
+        /**/}
+
+    @Override
+    public void disablePacketAggregation() {
+        /**/}
+
+    @Override
+    public boolean isPacketAggregationEnabled() {
+        return false;
+    }
+
     @Override
     public List<NetworkElementStateEntry> getStateHistory() {
         return Collections.emptyList();
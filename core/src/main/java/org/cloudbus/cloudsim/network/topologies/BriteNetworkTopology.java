@@ -60,18 +60,37 @@ public final class BriteNetworkTopology implements NetworkTopology {
 
     private boolean networkEnabled;
 
+    /**
+     * Indicates if links are being added in a batch.
+     *
+     * @see #beginBatch()
+     */
+    private boolean batchUpdate;
+
+    /** @see #isOnDemandShortestPathsEnabled() */
+    private boolean onDemandShortestPaths = true;
+
     /**
      * A matrix containing the delay (in seconds) between every pair of nodes in the
-     * network.
+     * network, or null if it must be generated again.
      */
     private DelayMatrix delayMatrix;
 
-    /** @see #getBwMatrix() */
-    private double[][] bwMatrix;
-
     /** @see #getTopologicalGraph() */
     private TopologicalGraph graph;
 
+    /**
+     * The links between every pair of connected nodes of the {@link #graph},
+     * giving the bandwidth between them.
+     */
+    private TopologyAdjacency adjacency;
+
+    /**
+     * The directed links of the {@link #graph}, giving the up links of every
+     * node, which are the links it is the source of.
+     */
+    private TopologyAdjacency upLinks;
+
     /**
      * The map between CloudSim entities and BRITE entities.
      * Each key is a CloudSim entity and each value the corresponding BRITE entity
@@ -79,6 +98,13 @@ public final class BriteNetworkTopology implements NetworkTopology {
      */
     private Map<SimEntity, Integer> entitiesMap;
 
+    /**
+     * The reverse of the {@link #entitiesMap}, where the CloudSim entity mapped
+     * to each BRITE entity is stored at the index of the BRITE entity ID, or null
+     * if it is not mapped.
+     */
+    private SimEntity[] briteEntities;
+
     /**
      * Instantiates a Network Topology from a file inside the <b>application's
      * resource directory</b>.
@@ -100,8 +126,10 @@ public final class BriteNetworkTopology implements NetworkTopology {
      */
     public BriteNetworkTopology() {
         entitiesMap = new HashMap<>();
-        bwMatrix = new double[0][0];
+        briteEntities = new SimEntity[0];
         graph = new TopologicalGraph();
+        adjacency = new TopologyAdjacency(graph, false);
+        upLinks = new TopologyAdjacency(graph, true);
         delayMatrix = new DelayMatrix();
     }
 
@@ -143,26 +171,36 @@ public final class BriteNetworkTopology implements NetworkTopology {
      * between elements.
      */
     private void generateMatrices() {
-        delayMatrix = new DelayMatrix(getTopologicalGraph(), false);
-        bwMatrix = createBwMatrix(getTopologicalGraph(), false);
+        adjacency = new TopologyAdjacency(getTopologicalGraph(), false);
+        upLinks = new TopologyAdjacency(getTopologicalGraph(), true);
+        delayMatrix = new DelayMatrix(adjacency, onDemandShortestPaths);
         networkEnabled = true;
     }
 
+    /**
+     * Gets the delay matrix, generating it if links were added since it was
+     * last generated without updating it.
+     */
+    private DelayMatrix getDelayMatrix() {
+        if (delayMatrix == null) {
+            delayMatrix = new DelayMatrix(adjacency, onDemandShortestPaths);
+        }
+        return delayMatrix;
+    }
+
     /**
      * Creates the matrix containing the available bandwidth between every pair
      * of nodes.
      *
-     * @param graph    topological graph describing the topology
-     * @param directed true if the graph is directed; false otherwise
      * @return the bandwidth graph
      */
-    private double[][] createBwMatrix(final TopologicalGraph graph, final boolean directed) {
-        final int nodes = graph.getNumberOfNodes();
+    private double[][] createBwMatrix() {
+        final int nodes = adjacency.getNumberOfNodes();
         final double[][] matrix = Util.newSquareMatrix(nodes);
 
-        for (final TopologicalLink edge : graph.getLinksList()) {
+        for (final TopologicalLink edge : adjacency.getLinks()) {
             matrix[edge.getSrcNodeID()][edge.getDestNodeID()] = edge.getLinkBw();
-            if (!directed) {
+            if (!adjacency.isDirected()) {
                 matrix[edge.getDestNodeID()][edge.getSrcNodeID()] = edge.getLinkBw();
             }
         }
@@ -172,10 +210,6 @@ public final class BriteNetworkTopology implements NetworkTopology {
 
     @Override
     public void addLink(final SimEntity src, final SimEntity dest, final double bandwidth, final double latency) {
-        if (graph == null) {
-            graph = new TopologicalGraph();
-        }
-
         if (entitiesMap == null) {
             entitiesMap = new HashMap<>();
         }
@@ -183,8 +217,77 @@ public final class BriteNetworkTopology implements NetworkTopology {
         addNodeMapping(src);
         addNodeMapping(dest);
 
-        graph.addLink(new TopologicalLink(entitiesMap.get(src), entitiesMap.get(dest), latency, bandwidth));
-        generateMatrices();
+        final var link = new TopologicalLink(entitiesMap.get(src), entitiesMap.get(dest), latency, bandwidth);
+        graph.addLink(link);
+        final TopologicalLink replacedLink = adjacency.addLink(link);
+        upLinks.addLink(link);
+        if (batchUpdate || !networkEnabled) {
+            delayMatrix = null;
+        } else if (delayMatrix != null) {
+            delayMatrix.addLink(link, replacedLink);
+        }
+        networkEnabled = true;
+    }
+
+    /**
+     * Begins a batch of links, which are added to the topology without updating
+     * the delays between its nodes. The delays are computed once for all the
+     * links when the batch is committed, or when they are requested before.
+     * Building a large topology in a batch avoids updating the delays of all
+     * the nodes for every link.
+     *
+     * @see #commitBatch()
+     */
+    public void beginBatch() {
+        batchUpdate = true;
+    }
+
+    /**
+     * Commits the batch of links added since {@link #beginBatch()}, computing
+     * the delays between the nodes of the topology.
+     */
+    public void commitBatch() {
+        batchUpdate = false;
+        if (networkEnabled) {
+            getDelayMatrix();
+        }
+    }
+
+    /**
+     * Checks if the shortest paths are computed on demand from every source
+     * node using the Dijkstra algorithm, instead of being computed between all
+     * the nodes at once. The on demand computation, enabled by default, suits
+     * the large and sparse topologies, as it does not store the delays between
+     * all the pairs of nodes.
+     *
+     * @return true if the shortest paths are computed on demand, false otherwise
+     */
+    public boolean isOnDemandShortestPathsEnabled() {
+        return onDemandShortestPaths;
+    }
+
+    /**
+     * Enables the computation of the shortest paths on demand.
+     *
+     * @see #isOnDemandShortestPathsEnabled()
+     */
+    public void enableOnDemandShortestPaths() {
+        if (!onDemandShortestPaths) {
+            onDemandShortestPaths = true;
+            delayMatrix = null;
+        }
+    }
+
+    /**
+     * Disables the computation of the shortest paths on demand.
+     *
+     * @see #isOnDemandShortestPathsEnabled()
+     */
+    public void disableOnDemandShortestPaths() {
+        if (onDemandShortestPaths) {
+            onDemandShortestPaths = false;
+            delayMatrix = null;
+        }
     }
 
     @Override
@@ -200,6 +303,7 @@ public final class BriteNetworkTopology implements NetworkTopology {
      */
     private void addNodeMapping(final SimEntity entity) {
         if (entitiesMap.putIfAbsent(entity, nextIdx) == null) {
+            setBriteEntity(nextIdx, entity);
             graph.addNode(new TopologicalNode(nextIdx));
             nextIdx++;
         }
@@ -221,12 +325,27 @@ public final class BriteNetworkTopology implements NetworkTopology {
             return;
         }
 
-        if (entitiesMap.containsValue(briteID)) {
+        if (getSimEntityByBriteId(briteID) != null) {
             LOGGER.warn("BRITE node {} already in use.", briteID);
             return;
         }
 
         entitiesMap.put(entity, briteID);
+        setBriteEntity(briteID, entity);
+    }
+
+    /**
+     * Sets the CloudSim entity mapped to a BRITE entity in the reverse mapping,
+     * growing it if the BRITE entity ID is out of its bounds.
+     *
+     * @param briteId the BRITE entity ID
+     * @param entity  the CloudSim entity, or null to un-map the BRITE entity
+     */
+    private void setBriteEntity(final int briteId, final SimEntity entity) {
+        if (briteId >= briteEntities.length) {
+            briteEntities = Arrays.copyOf(briteEntities, Math.max(briteId + 1, briteEntities.length * 2));
+        }
+        briteEntities[briteId] = entity;
     }
 
     /**
@@ -240,7 +359,10 @@ public final class BriteNetworkTopology implements NetworkTopology {
             return;
         }
 
-        entitiesMap.remove(entity);
+        final Integer briteId = entitiesMap.remove(entity);
+        if (briteId != null && briteEntities[briteId] == entity) {
+            briteEntities[briteId] = null;
+        }
     }
 
     @Override
@@ -250,7 +372,7 @@ public final class BriteNetworkTopology implements NetworkTopology {
         }
 
         try {
-            return delayMatrix.getDelay(entitiesMap.getOrDefault(src, -1), entitiesMap.getOrDefault(dest, -1));
+            return getDelayMatrix().getDelay(entitiesMap.getOrDefault(src, -1), entitiesMap.getOrDefault(dest, -1));
         } catch (ArrayIndexOutOfBoundsException e) {
             return 0.0;
         }
@@ -277,11 +399,34 @@ public final class BriteNetworkTopology implements NetworkTopology {
     }
 
     /**
-     * Gets a <b>copy</b> of the matrix containing the bandwidth (in Megabits/s)
-     * between every pair of {@link SimEntity}s in the network.
+     * Gets a matrix containing the bandwidth (in Megabits/s) between every pair
+     * of {@link SimEntity}s in the network. The matrix is created for every
+     * call, using memory growing with the square of the number of nodes.
+     *
+     * @deprecated use {@link #getBw(SimEntity, SimEntity)} to get the
+     *             bandwidth between two entities
      */
+    @Deprecated
     public double[][] getBwMatrix() {
-        return Arrays.copyOf(bwMatrix, bwMatrix.length);
+        return createBwMatrix();
+    }
+
+    /**
+     * Gets the bandwidth (in Megabits/s) of the link between two
+     * {@link SimEntity}s.
+     *
+     * @param src  the source entity of the link
+     * @param dest the destination entity of the link
+     * @return the link bandwidth, or 0 if the entities are not linked
+     */
+    public double getBw(final SimEntity src, final SimEntity dest) {
+        final Integer srcId = entitiesMap.get(src);
+        final Integer destId = entitiesMap.get(dest);
+        if (srcId == null || destId == null) {
+            return 0;
+        }
+        final TopologicalLink link = adjacency.getLink(srcId, destId);
+        return link == null ? 0 : link.getLinkBw();
     }
 
     /**
@@ -295,15 +440,13 @@ public final class BriteNetworkTopology implements NetworkTopology {
     }
 
     /**
-     * Gets {@link SimEntity} using brite Id, it return first match or null
+     * Gets {@link SimEntity} using brite Id in constant time
      *
      * @param briteId
-     * @return
+     * @return the entity mapped to the BRITE node, or null if it isn't mapped
      */
     public SimEntity getSimEntityByBriteId(final int briteId) {
-        Map.Entry<SimEntity, Integer> item = this.entitiesMap.entrySet().stream()
-                .filter(entry -> briteId == entry.getValue()).findFirst().orElse(null);
-        return item != null ? item.getKey() : null;
+        return briteId >= 0 && briteId < briteEntities.length ? briteEntities[briteId] : null;
     }
 
     /**
@@ -314,11 +457,13 @@ public final class BriteNetworkTopology implements NetworkTopology {
      * @return
      */
     public List<TopologicalLink> getUpLinks(SimEntity srcEntity) {
-        List<TopologicalLink> links = new ArrayList<>();
-        for (final TopologicalLink edge : graph.getLinksList()) {
-            if (edge.getSrcNodeID() == this.getSimEntityBriteId(srcEntity)) {
-                links.add(edge);
-            }
+        final List<TopologicalLink> links = new ArrayList<>();
+        final Integer src = entitiesMap.get(srcEntity);
+        if (src == null) {
+            return links;
+        }
+        for (int i = upLinks.getNeighborsStart(src); i < upLinks.getNeighborsEnd(src); i++) {
+            links.add(upLinks.getNeighborLink(i));
         }
         return links;
     }
@@ -331,18 +476,48 @@ public final class BriteNetworkTopology implements NetworkTopology {
      * @return
      */
     public List<Integer> getShortestPath(final int src, final int dest) {
-        return delayMatrix.getShortestPath(src, dest);
+        return getDelayMatrix().getShortestPath(src, dest);
+    }
+
+    /**
+     * Gets the next hops of all the equal-cost shortest paths from a node to
+     * another one, which are the neighbors of the node through which the
+     * delay to the destination is the shortest delay. The links without delay
+     * are ignored, so every hop gets closer to the destination.
+     *
+     * @param src  the id of the source node
+     * @param dest the id of the destination node
+     * @return the ids of the next hops, in the order of the links of the node,
+     *         which is empty if the nodes are the same or are not connected
+     */
+    public List<Integer> getShortestPathNextHops(final int src, final int dest) {
+        final List<Integer> nextHops = new ArrayList<>();
+        final DelayMatrix matrix = getDelayMatrix();
+        final double delay = matrix.getDelay(src, dest);
+        if (src == dest || delay == Double.MAX_VALUE) {
+            return nextHops;
+        }
+
+        for (int i = adjacency.getNeighborsStart(src); i < adjacency.getNeighborsEnd(src); i++) {
+            final double linkDelay = adjacency.getNeighborLink(i).getLinkDelay();
+            final int neighbor = adjacency.getNeighbor(i);
+            // the delays are sums of link delays, which may differ by their rounding
+            if (linkDelay > 0 && linkDelay + matrix.getDelay(neighbor, dest) <= delay * (1 + 1e-9)) {
+                nextHops.add(neighbor);
+            }
+        }
+        return nextHops;
     }
 
     /**
      * {@inheritDoc}
      */
     public TopologicalLink getTopologicalLink(SimEntity src, SimEntity dest) {
-        for (TopologicalLink link : getUpLinks(src)) {
-            if (link.getDestNodeID() == getSimEntityBriteId(dest)) {
-                return link;
-            }
+        final Integer srcId = entitiesMap.get(src);
+        final Integer destId = entitiesMap.get(dest);
+        if (srcId == null || destId == null) {
+            return null;
         }
-        return null;
+        return upLinks.getLink(srcId, destId);
     }
 }
@@ -0,0 +1,197 @@
+/*
+ * Title:        Simulator Package
+ * Description:  Simulator package of Auto Cloud Simulator (AutoCS) to extends the functionality of some CloudSim Plus classes
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.cloudbus.cloudsim.network.topologies;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A sparse representation of the links of a {@link TopologicalGraph}, which
+ * keeps the link between every pair of connected nodes instead of a matrix
+ * over all the pairs of nodes. When several links are added between the same
+ * nodes, the last one replaces the previous ones, as it does in the delay and
+ * bandwidth matrices built from the graph.
+ *
+ * <p>
+ * The neighbors of the nodes are also given in compressed sparse row format,
+ * where the neighbors of a node are stored from
+ * {@link #getNeighborsStart(int)} to {@link #getNeighborsEnd(int)} (excluded)
+ * in a single array. This format is built again on the first access after
+ * links are added.
+ * </p>
+ *
+ * @author Ibrahem Mouhamad
+ * @since AutoCS Core Package 1.0.0
+ */
+
+public class TopologyAdjacency {
+
+    private final TopologicalGraph graph;
+
+    private final boolean directed;
+
+    /**
+     * The last link added between every pair of nodes, in the order the pairs
+     * were first linked, which is the order of the neighbors of every node.
+     *
+     * @see #linkKey(int, int)
+     */
+    private final Map<Long, TopologicalLink> links;
+
+    /**
+     * The index of the first neighbor of every node, plus the number of
+     * neighbors at the end, or null if it must be built again.
+     */
+    private int[] neighborsStart;
+
+    private int[] neighbors;
+
+    private TopologicalLink[] neighborLinks;
+
+    /**
+     * Creates the adjacency of the links of a graph.
+     *
+     * @param graph    the network topological graph
+     * @param directed indicates if the links are directed (true) or not (false)
+     */
+    public TopologyAdjacency(final TopologicalGraph graph, final boolean directed) {
+        this.graph = graph;
+        this.directed = directed;
+        this.links = new LinkedHashMap<>();
+        for (final TopologicalLink link : graph.getLinksList()) {
+            addLink(link);
+        }
+    }
+
+    /**
+     * Adds a link, which must also be added to the graph.
+     *
+     * @param link the link to add
+     * @return the link it replaces between the same nodes, or null if there is
+     *         none
+     */
+    public TopologicalLink addLink(final TopologicalLink link) {
+        neighborsStart = null;
+        return links.put(linkKey(link.getSrcNodeID(), link.getDestNodeID()), link);
+    }
+
+    /**
+     * Gets the link between two nodes.
+     *
+     * @param src  the id of the source node
+     * @param dest the id of the destination node
+     * @return the last link added between the nodes, or null if they are not
+     *         connected
+     */
+    public TopologicalLink getLink(final int src, final int dest) {
+        return links.get(linkKey(src, dest));
+    }
+
+    /**
+     * Gets the links between every pair of connected nodes.
+     */
+    public Iterable<TopologicalLink> getLinks() {
+        return links.values();
+    }
+
+    public int getNumberOfNodes() {
+        return graph.getNumberOfNodes();
+    }
+
+    public boolean isDirected() {
+        return directed;
+    }
+
+    /**
+     * Gets the index of the first neighbor of a node.
+     *
+     * @param node the id of the node
+     * @see #getNeighbor(int)
+     */
+    public int getNeighborsStart(final int node) {
+        if (neighborsStart == null) {
+            createNeighbors();
+        }
+        return neighborsStart[node];
+    }
+
+    /**
+     * Gets the index following the last neighbor of a node.
+     *
+     * @param node the id of the node
+     * @see #getNeighbor(int)
+     */
+    public int getNeighborsEnd(final int node) {
+        if (neighborsStart == null) {
+            createNeighbors();
+        }
+        return neighborsStart[node + 1];
+    }
+
+    /**
+     * Gets the id of the neighbor at an index.
+     */
+    public int getNeighbor(final int index) {
+        return neighbors[index];
+    }
+
+    /**
+     * Gets the link to the neighbor at an index.
+     */
+    public TopologicalLink getNeighborLink(final int index) {
+        return neighborLinks[index];
+    }
+
+    /**
+     * Gets the number of neighbors of all the nodes, where every undirected
+     * link counts for both its nodes.
+     */
+    public int getNeighborsNumber() {
+        return getNeighborsStart(getNumberOfNodes());
+    }
+
+    private void createNeighbors() {
+        final int nodes = getNumberOfNodes();
+        final int[] start = new int[nodes + 1];
+        for (final TopologicalLink link : links.values()) {
+            start[link.getSrcNodeID() + 1]++;
+            if (!directed) {
+                start[link.getDestNodeID() + 1]++;
+            }
+        }
+        for (int node = 0; node < nodes; node++) {
+            start[node + 1] += start[node];
+        }
+
+        neighbors = new int[start[nodes]];
+        neighborLinks = new TopologicalLink[start[nodes]];
+        final int[] next = new int[nodes];
+        System.arraycopy(start, 0, next, 0, nodes);
+        for (final TopologicalLink link : links.values()) {
+            neighbors[next[link.getSrcNodeID()]] = link.getDestNodeID();
+            neighborLinks[next[link.getSrcNodeID()]++] = link;
+            if (!directed) {
+                neighbors[next[link.getDestNodeID()]] = link.getSrcNodeID();
+                neighborLinks[next[link.getDestNodeID()]++] = link;
+            }
+        }
+        neighborsStart = start;
+    }
+
+    /**
+     * Gets the key of the link between two nodes in the {@link #links}.
+     */
+    private long linkKey(final int src, final int dest) {
+        if (directed || src <= dest) {
+            return (long) src << Integer.SIZE | dest;
+        }
+        return (long) dest << Integer.SIZE | src;
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Title:        Core Package
+ * Description:  Core package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.core.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.autocs.core.StorageProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LogStorageBackendTest {
+
+    private static final String COLLECTION = "entities";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<LogStorageBackend> backends = new ArrayList<>();
+
+    private File logFile;
+
+    @Before
+    public void setUp() {
+        logFile = new File(folder.getRoot(), "storage/entities.log");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (LogStorageBackend backend : backends) {
+            backend.close();
+        }
+    }
+
+    /**
+     * Opens a backend on the log file, as Spring would inject it.
+     */
+    private LogStorageBackend open() throws Exception {
+        final StorageProperties storageProps = new StorageProperties();
+        storageProps.setLogFile(logFile.getPath());
+        final LogStorageBackend backend = new LogStorageBackend();
+        inject(backend, "storageProps", storageProps);
+        inject(backend, "objectMapper", objectMapper);
+        backends.add(backend);
+        return backend;
+    }
+
+    private static void inject(Object target, String name, Object value) throws Exception {
+        final Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private JsonNode entity(String name, String data) {
+        final ObjectNode tree = objectMapper.createObjectNode();
+        tree.put("name", name);
+        tree.put("data", data);
+        return tree;
+    }
+
+    @Test
+    public void savedEntitiesAreLoaded() throws Exception {
+        final LogStorageBackend backend = open();
+        backend.save(COLLECTION, "1", entity("a", "first"));
+        backend.save(COLLECTION, "2", entity("b", "second"));
+        backend.save(COLLECTION, "1", entity("a", "updated"));
+
+        assertEquals("updated", backend.get(COLLECTION, "1").tree().get("data").asText());
+        assertEquals("second", backend.get(COLLECTION, "2").tree().get("data").asText());
+        assertEquals(List.of("1", "2"), backend.ids(COLLECTION));
+        assertEquals(1, backend.findByName(COLLECTION, "b").size());
+        assertEquals(2, backend.list(COLLECTION, StorageIndex.NAME, true, 0, 10).size());
+    }
+
+    @Test
+    public void savedEntitiesAreReplayedWhenTheLogIsOpenedAgain() throws Exception {
+        final LogStorageBackend backend = open();
+        backend.save(COLLECTION, "1", entity("a", "first"));
+        backend.save(COLLECTION, "1", entity("a", "updated"));
+        backend.save(COLLECTION, "2", entity("b", "second"));
+        backend.delete(COLLECTION, "2");
+        backend.close();
+
+        final LogStorageBackend reopened = open();
+        assertEquals(List.of("1"), reopened.ids(COLLECTION));
+        assertEquals("updated", reopened.get(COLLECTION, "1").tree().get("data").asText());
+    }
+
+    @Test
+    public void deletedEntitiesAreNotFound() throws Exception {
+        final LogStorageBackend backend = open();
+        backend.save(COLLECTION, "1", entity("a", "first"));
+        backend.delete(COLLECTION, "1");
+        backend.delete(COLLECTION, "missing");
+
+        assertEquals(0, backend.count(COLLECTION));
+        assertTrue(backend.findByName(COLLECTION, "a").isEmpty());
+        try {
+            backend.get(COLLECTION, "1");
+            fail("The deleted entity was found");
+        } catch (FileNotFoundException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void incompleteRecordIsDroppedOnReplay() throws Exception {
+        final LogStorageBackend backend = open();
+        backend.save(COLLECTION, "1", entity("a", "first"));
+        final long firstRecordEnd = logFile.length();
+        backend.save(COLLECTION, "2", entity("b", "second"));
+        backend.close();
+
+        // a crash in the middle of the second write
+        try (RandomAccessFile file = new RandomAccessFile(logFile, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        final LogStorageBackend reopened = open();
+        assertEquals(List.of("1"), reopened.ids(COLLECTION));
+        assertEquals("first", reopened.get(COLLECTION, "1").tree().get("data").asText());
+        assertEquals(firstRecordEnd, logFile.length());
+
+        reopened.save(COLLECTION, "3", entity("c", "third"));
+        reopened.close();
+        assertEquals(List.of("1", "3"), open().ids(COLLECTION));
+    }
+
+    @Test
+    public void corruptedRecordIsDroppedOnReplay() throws Exception {
+        final LogStorageBackend backend = open();
+        backend.save(COLLECTION, "1", entity("a", "first"));
+        final long firstRecordEnd = logFile.length();
+        backend.save(COLLECTION, "2", entity("b", "second"));
+        backend.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(logFile, "rw")) {
+            file.seek(file.length() - 12);
+            file.write('x');
+        }
+
+        final LogStorageBackend reopened = open();
+        assertEquals(List.of("1"), reopened.ids(COLLECTION));
+        assertEquals(firstRecordEnd, logFile.length());
+    }
+
+    @Test
+    public void logIsCompactedWhenMostOfItIsStale() throws Exception {
+        final LogStorageBackend backend = open();
+        backend.save(COLLECTION, "kept", entity("kept", "kept"));
+        final String data = "x".repeat(64 * 1024);
+        long previousLength = 0;
+        int saves = 0;
+        // saves the entity again until the log shrinks
+        while (logFile.length() >= previousLength && saves < 100) {
+            previousLength = logFile.length();
+            backend.save(COLLECTION, "updated", entity("updated", data + saves++));
+        }
+
+        assertTrue(previousLength > 1024 * 1024);
+        assertTrue(logFile.length() < 2 * data.length());
+        assertFalse(new File(logFile.getPath() + ".compact").exists());
+        assertEquals("kept", backend.get(COLLECTION, "kept").tree().get("data").asText());
+        assertEquals(data + (saves - 1), backend.get(COLLECTION, "updated").tree().get("data").asText());
+        backend.close();
+
+        final LogStorageBackend reopened = open();
+        assertEquals(List.of("kept", "updated"), reopened.ids(COLLECTION));
+        assertEquals(data + (saves - 1), reopened.get(COLLECTION, "updated").tree().get("data").asText());
+    }
+
+    @Test
+    public void failedCompactionKeepsTheWrites() throws Exception {
+        final LogStorageBackend backend = open();
+        backend.save(COLLECTION, "kept", entity("kept", "kept"));
+        // the compacted log can not be written over a directory, which can not
+        // be deleted while it has a file
+        final File compactDirectory = new File(logFile.getPath() + ".compact");
+        assertTrue(compactDirectory.mkdir());
+        assertTrue(new File(compactDirectory, "file").createNewFile());
+        final String data = "x".repeat(64 * 1024);
+        for (int saves = 0; saves < 40; saves++) {
+            backend.save(COLLECTION, "updated", entity("updated", data + saves));
+        }
+        backend.delete(COLLECTION, "kept");
+
+        assertTrue(logFile.length() > 40 * data.length());
+        assertEquals(data + 39, backend.get(COLLECTION, "updated").tree().get("data").asText());
+        backend.close();
+        assertTrue(new File(compactDirectory, "file").delete());
+        assertTrue(compactDirectory.delete());
+
+        final LogStorageBackend reopened = open();
+        assertEquals(List.of("updated"), reopened.ids(COLLECTION));
+        assertEquals(data + 39, reopened.get(COLLECTION, "updated").tree().get("data").asText());
+    }
+}
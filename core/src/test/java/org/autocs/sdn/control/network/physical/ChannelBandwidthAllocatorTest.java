@@ -0,0 +1,97 @@
+/*
+ * Title:        SDN Package
+ * Description:  SDN package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.sdn.control.network.physical;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.autocs.sdn.control.network.virtual.Channel;
+import org.autocs.sdn.control.network.virtual.VirtualLink;
+import org.autocs.sdn.data.networkelement.NetworkElement;
+import org.junit.Test;
+
+public class ChannelBandwidthAllocatorTest {
+
+    private static final double DELTA = 1e-9;
+
+    private final PhysicalLink link = new PhysicalLink(NetworkElement.NULL, NetworkElement.NULL, 100);
+
+    private final ChannelBandwidthAllocator allocator = new ChannelBandwidthAllocator(link);
+
+    private static Channel channel(final double demand) {
+        return new Channel(new VirtualLink(1, 2, demand, 1));
+    }
+
+    @Test
+    public void channelsGetTheirDemandOnAnUndersubscribedLink() {
+        allocator.startTransmission(1, channel(10), 0);
+        allocator.startTransmission(2, channel(30), 0);
+        assertEquals(10, allocator.allocate(1, 0, 1), DELTA);
+        assertEquals(30, allocator.allocate(2, 0, 1), DELTA);
+    }
+
+    @Test
+    public void surplusOfSmallDemandsIsRedistributed() {
+        allocator.startTransmission(1, channel(30), 0);
+        allocator.startTransmission(2, channel(80), 0);
+        allocator.startTransmission(3, channel(80), 0);
+        assertEquals(30, allocator.allocate(1, 0, 1), DELTA);
+        assertEquals(35, allocator.allocate(2, 0, 1), DELTA);
+        assertEquals(35, allocator.allocate(3, 0, 1), DELTA);
+        assertEquals(100, allocator.getAllocatedBandwidth(), DELTA);
+    }
+
+    @Test
+    public void elasticChannelGetsTheWholeLinkWhenAlone() {
+        allocator.startTransmission(1, channel(0), 0);
+        assertEquals(100, allocator.allocate(1, 0, 1), DELTA);
+    }
+
+    @Test
+    public void runningTransmissionIsReallocatedWhenAnotherStarts() {
+        final Channel first = channel(80);
+        allocator.startTransmission(1, first, 0);
+        // 80 Megabits at 80 Megabits/s ends at 1 s
+        assertEquals(80, allocator.allocate(1, 0, 80), DELTA);
+
+        allocator.startTransmission(2, channel(80), 0.5);
+        assertEquals(50, allocator.allocate(2, 0.5, 10), DELTA);
+        assertEquals(50, first.getAllocatedBw(), DELTA);
+        assertEquals(100, allocator.getAllocatedBandwidth(), DELTA);
+
+        // the second transmission ends at 0.7 s, then the 30 Megabits left of
+        // the first one are transmitted at 80 Megabits/s until 1.075 s
+        allocator.startTransmission(3, channel(80), 1.07);
+        assertFalse(allocator.isTransmitting(2));
+        assertTrue(allocator.isTransmitting(1));
+        assertEquals(80, first.getAllocatedBw(), DELTA);
+        allocator.endTransmission(3);
+        allocator.startTransmission(3, channel(80), 1.08);
+        assertFalse(allocator.isTransmitting(1));
+        assertEquals(80, allocator.allocate(3, 1.08, 1), DELTA);
+    }
+
+    @Test
+    public void allocationFollowsTheLinkCapacity() {
+        final Channel first = channel(10);
+        allocator.startTransmission(1, first, 0);
+        allocator.startTransmission(2, channel(30), 0);
+        assertEquals(10, allocator.allocate(1, 0, 100), DELTA);
+        assertEquals(30, allocator.allocate(2, 0, 100), DELTA);
+
+        link.setBwCapacity(20);
+        // done by the link for its own allocator
+        allocator.capacityChanged();
+        assertEquals(10, allocator.allocate(2, 1, 1), DELTA);
+        assertEquals(10, first.getAllocatedBw(), DELTA);
+        assertEquals(20, allocator.getAllocatedBandwidth(), DELTA);
+    }
+}
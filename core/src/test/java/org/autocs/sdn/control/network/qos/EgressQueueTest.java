@@ -0,0 +1,190 @@
+/*
+ * Title:        SDN Package
+ * Description:  SDN package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.sdn.control.network.qos;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.hosts.network.NetworkHost;
+import org.cloudbus.cloudsim.network.HostPacket;
+import org.cloudbus.cloudsim.network.VmPacket;
+import org.junit.Test;
+
+public class EgressQueueTest {
+
+    private static final double DELTA = 1e-9;
+
+    /**
+     * The size (in bytes) of a packet of 1 Megabit.
+     */
+    private static final long SIZE = 128 * 1024;
+
+    /**
+     * The bandwidth (in Megabits/s) transmitting a packet in 1 millisecond.
+     */
+    private static final double BANDWIDTH = 1000;
+
+    /**
+     * The packets given to the sender, in transmission order, and the delays
+     * they were sent with.
+     */
+    private final List<HostPacket> sent = new ArrayList<>();
+
+    private final List<Double> delays = new ArrayList<>();
+
+    private static HostPacket packet(final long flowId, final long size) {
+        return new HostPacket(NetworkHost.NULL, new VmPacket(null, null, flowId, size, null, null));
+    }
+
+    /**
+     * Enqueues packets of some classes, where the flow id of a packet is its
+     * class.
+     */
+    private static List<HostPacket> offer(final EgressQueue queue, final long size, final int... classes) {
+        final List<HostPacket> packets = new ArrayList<>();
+        for (final int qosClass : classes) {
+            final HostPacket packet = packet(qosClass, size);
+            assertTrue(queue.offer(packet, qosClass, 0));
+            packets.add(packet);
+        }
+        return packets;
+    }
+
+    private int transmit(final EgressQueue queue, final double time, final double bandwidth) {
+        return queue.transmit(time, bandwidth, 0, (delay, packets, from, to) -> {
+            for (int i = from; i < to; i++) {
+                sent.add(packets.get(i));
+                delays.add(delay);
+            }
+        });
+    }
+
+    private List<Long> sentClasses() {
+        return sent.stream().map(packet -> packet.getVmPacket().getFlowId()).toList();
+    }
+
+    @Test
+    public void strictPriorityTransmitsTheHigherClassesFirst() {
+        final var queue = new EgressQueue(
+                new EgressSchedulerStrictPriority(List.of(new QosClass(), new QosClass(), new QosClass())));
+        final List<HostPacket> packets = offer(queue, SIZE, 2, 1, 2, 0, 1, 0);
+
+        assertEquals(0, transmit(queue, 0, BANDWIDTH));
+        assertEquals(List.of(0L, 0L, 1L, 1L, 2L, 2L), sentClasses());
+        // the packets of a class keep their arrival order
+        assertEquals(List.of(packets.get(3), packets.get(5), packets.get(1), packets.get(4), packets.get(0),
+                packets.get(2)), sent);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void weightedRoundRobinTransmitsPacketsInProportionToTheWeights() {
+        final var queue = new EgressQueue(new EgressSchedulerWeightedRoundRobin(
+                List.of(new QosClass(2, QosClass.DEF_MAX_QUEUE_LENGTH), new QosClass())));
+        offer(queue, SIZE, 1, 1, 1, 1, 0, 0, 0, 0, 0);
+
+        transmit(queue, 0, BANDWIDTH);
+        assertEquals(List.of(0L, 0L, 1L, 0L, 0L, 1L, 0L, 1L, 1L), sentClasses());
+    }
+
+    @Test
+    public void deficitRoundRobinTransmitsBytesInProportionToTheWeights() {
+        final var queue = new EgressQueue(
+                new EgressSchedulerDeficitRoundRobin(List.of(new QosClass(), new QosClass()), 1500));
+        offer(queue, 1000, 0, 0, 0, 0);
+        offer(queue, 500, 1, 1, 1, 1, 1, 1);
+
+        transmit(queue, 0, BANDWIDTH);
+        // the class of large packets carries its deficit to the next round
+        assertEquals(List.of(0L, 1L, 1L, 1L, 0L, 0L, 1L, 1L, 1L, 0L), sentClasses());
+    }
+
+    @Test
+    public void packetsArrivingWhenTheQueueIsFullAreDropped() {
+        final var queue = new EgressQueue(new EgressSchedulerStrictPriority(
+                List.of(new QosClass(QosClass.DEF_WEIGHT, 2), new QosClass(QosClass.DEF_WEIGHT, 1))));
+        assertTrue(queue.offer(packet(0, SIZE), 0, 0));
+        assertTrue(queue.offer(packet(0, SIZE), 0, 0));
+        assertFalse(queue.offer(packet(0, SIZE), 0, 0));
+        // the classes out of the scheduler ones are mapped to the last class
+        assertTrue(queue.offer(packet(1, SIZE), 5, 0));
+        assertFalse(queue.offer(packet(1, SIZE), 1, 0));
+        assertEquals(2, queue.getEnqueuedPackets(0));
+        assertEquals(1, queue.getDroppedPackets(0));
+        assertEquals(1, queue.getDroppedPackets(1));
+
+        // the packets occupy their queue until they are transmitted, at 1, 2
+        // and 3 milliseconds
+        transmit(queue, 0, BANDWIDTH);
+        assertFalse(queue.offer(packet(0, SIZE), 0, 0.0005));
+        assertTrue(queue.offer(packet(0, SIZE), 0, 0.0015));
+        assertFalse(queue.offer(packet(0, SIZE), 0, 0.0015));
+        assertFalse(queue.offer(packet(1, SIZE), 1, 0.0025));
+        assertTrue(queue.offer(packet(1, SIZE), 1, 0.003));
+        assertEquals(3, queue.getEnqueuedPackets(0));
+        assertEquals(3, queue.getDroppedPackets(0));
+        assertEquals(5, queue.getDroppedPackets());
+    }
+
+    @Test
+    public void packetsAreTransmittedAfterThePreviousOnes() {
+        final var queue = new EgressQueue(new EgressSchedulerStrictPriority(List.of(new QosClass())));
+        offer(queue, SIZE, 0, 0);
+        transmit(queue, 0, BANDWIDTH);
+        assertEquals(0.002, delays.get(0), DELTA);
+        assertEquals(0.002, delays.get(1), DELTA);
+
+        // the port is busy until 2 milliseconds
+        delays.clear();
+        assertTrue(queue.offer(packet(0, SIZE), 0, 0.0005));
+        transmit(queue, 0.0005, BANDWIDTH);
+        assertEquals(0.0025, delays.get(0), DELTA);
+
+        // the port is idle again
+        delays.clear();
+        assertTrue(queue.offer(packet(0, SIZE), 0, 0.01));
+        transmit(queue, 0.01, BANDWIDTH);
+        assertEquals(0.001, delays.get(0), DELTA);
+    }
+
+    @Test
+    public void packetsOfDifferentFlowsAreSentSeparately() {
+        final var queue = new EgressQueue(new EgressSchedulerStrictPriority(List.of(new QosClass())));
+        queue.offer(packet(1, SIZE), 0, 0);
+        queue.offer(packet(1, SIZE), 0, 0);
+        queue.offer(packet(2, SIZE), 0, 0);
+
+        transmit(queue, 0, BANDWIDTH);
+        assertEquals(0.002, delays.get(0), DELTA);
+        assertEquals(0.002, delays.get(1), DELTA);
+        assertEquals(0.003, delays.get(2), DELTA);
+    }
+
+    @Test
+    public void waitingPacketsAreDroppedWhenTheLinkHasNoBandwidth() {
+        final var queue = new EgressQueue(
+                new EgressSchedulerStrictPriority(List.of(new QosClass(), new QosClass())));
+        offer(queue, SIZE, 0, 1, 1);
+
+        assertEquals(3, transmit(queue, 0, 0));
+        assertTrue(sent.isEmpty());
+        assertTrue(queue.isEmpty());
+        assertEquals(1, queue.getDroppedPackets(0));
+        assertEquals(2, queue.getDroppedPackets(1));
+
+        // the dropped packets no longer occupy the queues
+        assertEquals(0, transmit(queue, 0, BANDWIDTH));
+        assertTrue(sent.isEmpty());
+    }
+}
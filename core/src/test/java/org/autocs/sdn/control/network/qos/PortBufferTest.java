@@ -0,0 +1,119 @@
+/*
+ * Title:        SDN Package
+ * Description:  SDN package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.sdn.control.network.qos;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.autocs.sdn.control.network.qos.PortBuffer.Admission;
+import org.cloudbus.cloudsim.hosts.network.NetworkHost;
+import org.cloudbus.cloudsim.network.HostPacket;
+import org.cloudbus.cloudsim.network.VmPacket;
+import org.junit.Test;
+
+public class PortBufferTest {
+
+    private static HostPacket packet(final long size) {
+        return new HostPacket(NetworkHost.NULL, new VmPacket(null, null, 1, size, null, null));
+    }
+
+    @Test
+    public void packetsExceedingTheBytesLimitAreDropped() {
+        final var buffer = new PortBuffer(PortBufferConfig.tailDrop(2500, 10));
+        assertEquals(Admission.ACCEPTED, buffer.offer(packet(1000), 0));
+        assertEquals(Admission.ACCEPTED, buffer.offer(packet(1000), 0));
+        assertEquals(Admission.DROPPED, buffer.offer(packet(1000), 0));
+        // a smaller packet still fits
+        assertEquals(Admission.ACCEPTED, buffer.offer(packet(500), 0));
+        assertEquals(Admission.DROPPED, buffer.offer(packet(1), 0));
+
+        assertEquals(3, buffer.getPackets());
+        assertEquals(2500, buffer.getBytes());
+        assertEquals(2, buffer.getDroppedPackets());
+        assertEquals(0, buffer.getMarkedPackets());
+    }
+
+    @Test
+    public void packetsExceedingThePacketsLimitAreDropped() {
+        final var buffer = new PortBuffer(PortBufferConfig.tailDrop(Long.MAX_VALUE, 2));
+        assertEquals(Admission.ACCEPTED, buffer.offer(packet(1000), 0));
+        assertEquals(Admission.ACCEPTED, buffer.offer(packet(1000), 0));
+        assertEquals(Admission.DROPPED, buffer.offer(packet(1), 0));
+        assertEquals(2, buffer.getPackets());
+        assertEquals(1, buffer.getDroppedPackets());
+    }
+
+    @Test
+    public void forwardedPacketsLeaveTheBufferWhenTransmitted() {
+        final var buffer = new PortBuffer(PortBufferConfig.tailDrop(Long.MAX_VALUE, 2));
+        final List<HostPacket> packets = List.of(packet(1000), packet(1000));
+        for (final HostPacket packet : packets) {
+            buffer.offer(packet, 0);
+        }
+        buffer.forward();
+        buffer.transmit(packets, 0, 1, 0.5);
+        buffer.transmit(packets, 1, 2, 1);
+
+        assertEquals(Admission.DROPPED, buffer.offer(packet(1000), 0.4));
+        assertEquals(Admission.ACCEPTED, buffer.offer(packet(1000), 0.5));
+        assertEquals(2, buffer.getPackets());
+        assertEquals(Admission.DROPPED, buffer.offer(packet(1000), 0.9));
+        assertEquals(Admission.ACCEPTED, buffer.offer(packet(1000), 1));
+        assertEquals(2, buffer.getPackets());
+        assertEquals(2000, buffer.getBytes());
+    }
+
+    @Test
+    public void packetsArrivingOverThePacketsThresholdAreMarked() {
+        final var buffer = new PortBuffer(PortBufferConfig.ecn(Long.MAX_VALUE, 4));
+        final HostPacket accepted = packet(1000);
+        final HostPacket marked = packet(1000);
+        assertEquals(Admission.ACCEPTED, buffer.offer(accepted, 0));
+        assertEquals(Admission.ACCEPTED, buffer.offer(packet(1000), 0));
+        assertEquals(Admission.MARKED, buffer.offer(marked, 0));
+        assertEquals(Admission.MARKED, buffer.offer(packet(1000), 0));
+        // a full buffer drops the packets instead of marking them
+        assertEquals(Admission.DROPPED, buffer.offer(packet(1000), 0));
+
+        assertFalse(accepted.getVmPacket().isCongestionExperienced());
+        assertTrue(marked.getVmPacket().isCongestionExperienced());
+        assertEquals(2, buffer.getMarkedPackets());
+        assertEquals(1, buffer.getDroppedPackets());
+    }
+
+    @Test
+    public void packetsArrivingOverTheBytesThresholdAreMarked() {
+        final var buffer = new PortBuffer(new PortBufferConfig(4000, 100, BufferPolicy.ECN, 0.25));
+        assertEquals(Admission.ACCEPTED, buffer.offer(packet(999), 0));
+        assertEquals(Admission.ACCEPTED, buffer.offer(packet(1), 0));
+        assertEquals(Admission.MARKED, buffer.offer(packet(1000), 0));
+        assertEquals(Admission.MARKED, buffer.offer(packet(2000), 0));
+        assertEquals(Admission.DROPPED, buffer.offer(packet(1), 0));
+
+        // the packets arriving below the threshold are not marked anymore
+        buffer.forward();
+        assertEquals(Admission.ACCEPTED, buffer.offer(packet(1000), 0));
+        assertEquals(2, buffer.getMarkedPackets());
+    }
+
+    @Test
+    public void tailDropBufferDoesNotMarkPackets() {
+        final var buffer = new PortBuffer(PortBufferConfig.tailDrop(Long.MAX_VALUE, 3));
+        for (int i = 0; i < 3; i++) {
+            final HostPacket packet = packet(1000);
+            assertEquals(Admission.ACCEPTED, buffer.offer(packet, 0));
+            assertFalse(packet.getVmPacket().isCongestionExperienced());
+        }
+        assertEquals(0, buffer.getMarkedPackets());
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Title:        SDN Package
+ * Description:  SDN package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.sdn.control.tables;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.autocs.sdn.data.networkelement.NetworkElement;
+import org.autocs.sdn.data.networkelement.NetworkElementNull;
+import org.junit.Test;
+
+public class ForwardingTableTest {
+
+    private static final int FLOWS = 300;
+
+    private final ForwardingTable table = new ForwardingTable();
+
+    private final NetworkElement[] hops = { new NetworkElementNull(), new NetworkElementNull(),
+            new NetworkElementNull() };
+
+    private static ForwardingKey flowKey(final int flow) {
+        return new ForwardingKey(flow, flow + 1000, flow);
+    }
+
+    private NetworkElement resolveFlow(final int flow) {
+        return table.resolve(flow, flow + 1000, flow);
+    }
+
+    @Test
+    public void removalInsideProbeChainsKeepsTheFollowingRules() {
+        // enough rules in one group for the probe sequences to overlap
+        for (int flow = 0; flow < FLOWS / 2; flow++) {
+            table.addRule(flow, flow + 1000, flow, hops[flow % hops.length]);
+        }
+        // compiles the rules, so the following changes update them in place
+        resolveFlow(0);
+        for (int flow = FLOWS / 2; flow < FLOWS; flow++) {
+            table.addRule(flow, flow + 1000, flow, hops[flow % hops.length]);
+        }
+
+        for (int flow = 0; flow < FLOWS; flow += 3) {
+            table.removeRule(flowKey(flow));
+        }
+        for (int flow = 0; flow < FLOWS; flow++) {
+            if (flow % 3 == 0) {
+                assertNull(resolveFlow(flow));
+            } else {
+                assertSame(hops[flow % hops.length], resolveFlow(flow));
+            }
+        }
+
+        for (int flow = 0; flow < FLOWS; flow += 3) {
+            table.addRule(flow, flow + 1000, flow, hops[(flow + 1) % hops.length]);
+        }
+        for (int flow = 0; flow < FLOWS; flow++) {
+            final int hop = flow % 3 == 0 ? flow + 1 : flow;
+            assertSame(hops[hop % hops.length], resolveFlow(flow));
+        }
+    }
+
+    @Test
+    public void exactRuleBeatsWildcardAtEqualPriority() {
+        table.addRule(new ForwardingRule(ForwardingKey.toHost(10), ForwardingRule.DEFAULT_PRIORITY, hops[0]));
+        table.addRule(new ForwardingRule(new ForwardingKey(1, 2, 3, 10), ForwardingRule.DEFAULT_PRIORITY, hops[1]));
+        table.addRule(new ForwardingRule(new ForwardingKey(ForwardingKey.ANY, 2, ForwardingKey.ANY),
+                ForwardingRule.DEFAULT_PRIORITY, hops[2]));
+
+        assertSame(hops[1], table.resolve(1, 2, 3, 10));
+        assertSame(hops[0], table.resolve(1, 9, 4, 10));
+        assertSame(hops[2], table.resolve(5, 2, 4));
+        assertNull(table.resolve(5, 3, 4));
+
+        table.addRule(new ForwardingRule(new ForwardingKey(1, 9, 3, 10), ForwardingRule.DEFAULT_PRIORITY, hops[2]));
+        assertSame(hops[2], table.resolve(1, 9, 3, 10));
+        table.removeRule(new ForwardingKey(1, 9, 3, 10));
+        assertSame(hops[0], table.resolve(1, 9, 3, 10));
+    }
+
+    @Test
+    public void higherPriorityWildcardBeatsExactRule() {
+        table.addRule(new ForwardingRule(new ForwardingKey(1, 2, 3, 10), ForwardingRule.DEFAULT_PRIORITY, hops[1]));
+        assertSame(hops[1], table.resolve(1, 2, 3, 10));
+
+        // added to a new group after the rules were compiled
+        table.addRule(new ForwardingRule(ForwardingKey.toHost(10), 5, hops[0]));
+        assertSame(hops[0], table.resolve(1, 2, 3, 10));
+
+        // raises the priority of a compiled group
+        table.addRule(new ForwardingRule(new ForwardingKey(1, 2, 4, 10), 7, hops[2]));
+        assertSame(hops[2], table.resolve(1, 2, 4, 10));
+        assertSame(hops[0], table.resolve(1, 2, 3, 10));
+
+        table.removeRule(ForwardingKey.toHost(10));
+        assertSame(hops[1], table.resolve(1, 2, 3, 10));
+        assertNull(table.resolve(1, 2, 5, 10));
+    }
+}
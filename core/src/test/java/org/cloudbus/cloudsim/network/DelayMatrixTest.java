@@ -0,0 +1,120 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.network.topologies.TopologicalGraph;
+import org.cloudbus.cloudsim.network.topologies.TopologicalLink;
+import org.cloudbus.cloudsim.network.topologies.TopologicalNode;
+import org.cloudbus.cloudsim.network.topologies.TopologyAdjacency;
+import org.junit.Test;
+
+public class DelayMatrixTest {
+
+	private static final int NODES = 30;
+
+	private static final int LINKS = 150;
+
+	private final TopologicalGraph graph = new TopologicalGraph();
+
+	private final TopologyAdjacency adjacency = new TopologyAdjacency(graph, false);
+
+	private int nodes;
+
+	private void addNode() {
+		graph.addNode(new TopologicalNode(nodes++));
+	}
+
+	/**
+	 * Adds a link to the topology as {@code BriteNetworkTopology} does, and
+	 * updates the delay matrices.
+	 */
+	private void addLink(final int src, final int dest, final double delay, final DelayMatrix... matrices) {
+		final var link = new TopologicalLink(src, dest, delay, 1);
+		graph.addLink(link);
+		final TopologicalLink replacedLink = adjacency.addLink(link);
+		for (final DelayMatrix matrix : matrices) {
+			matrix.addLink(link, replacedLink);
+		}
+	}
+
+	/**
+	 * Checks the delays and the shortest paths of a matrix against the ones
+	 * computed again with the Floyd-Warshall algorithm.
+	 */
+	private static void assertSameDelays(final DelayMatrix expected, final DelayMatrix actual, final int nodes) {
+		for (int src = 0; src < nodes; src++) {
+			for (int dest = 0; dest < nodes; dest++) {
+				final double delay = expected.getDelay(src, dest);
+				assertEquals(src + " -> " + dest, delay, actual.getDelay(src, dest), 1e-9);
+				if (delay != Double.MAX_VALUE) {
+					assertEquals(src + " -> " + dest, expected.getShortestPath(src, dest),
+							actual.getShortestPath(src, dest));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void delaysAddedLinkByLinkMatchFloydWarshall() {
+		final var random = new Random(42);
+		addNode();
+		addNode();
+		addLink(0, 1, 1 + random.nextDouble());
+		final var incremental = new DelayMatrix(adjacency, false);
+		final var onDemand = new DelayMatrix(adjacency, true);
+
+		for (int i = 0; i < LINKS; i++) {
+			final int src = random.nextInt(nodes);
+			final int dest;
+			if (nodes < NODES && random.nextInt(3) == 0) {
+				dest = nodes;
+				addNode();
+			} else {
+				dest = (src + 1 + random.nextInt(nodes - 1)) % nodes;
+			}
+			// some links replace a link between the same nodes by a shorter or a longer one
+			addLink(src, dest, 1 + random.nextDouble() * 10, incremental, onDemand);
+
+			final var floydWarshall = new DelayMatrix(graph, false);
+			assertSameDelays(floydWarshall, incremental, nodes);
+			assertSameDelays(floydWarshall, onDemand, nodes);
+		}
+	}
+
+	@Test
+	public void shorterLinkRelaxesThePathsThroughIt() {
+		for (int node = 0; node < 4; node++) {
+			addNode();
+		}
+		addLink(0, 1, 1);
+		final var incremental = new DelayMatrix(adjacency, false);
+		addLink(1, 2, 1, incremental);
+		addLink(2, 3, 4, incremental);
+		addLink(0, 3, 5, incremental);
+		assertEquals(5, incremental.getDelay(0, 3), 1e-9);
+		assertEquals(5, incremental.getDelay(1, 3), 1e-9);
+
+		addLink(0, 3, 1, incremental);
+		assertEquals(1, incremental.getDelay(0, 3), 1e-9);
+		assertEquals(2, incremental.getDelay(1, 3), 1e-9);
+		assertEquals(3, incremental.getDelay(2, 3), 1e-9);
+		assertEquals(List.of(1, 0, 3), incremental.getShortestPath(1, 3));
+		assertEquals(List.of(2, 1, 0, 3), incremental.getShortestPath(2, 3));
+
+		// a longer link computes the paths through the replaced one again
+		addLink(0, 3, 7, incremental);
+		assertEquals(6, incremental.getDelay(0, 3), 1e-9);
+		assertEquals(List.of(3, 2, 1, 0), incremental.getShortestPath(3, 0));
+	}
+}
@@ -16,23 +16,34 @@ import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.Exchange;
 import org.springframework.amqp.core.ExchangeBuilder;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.amqp.support.postprocessor.DelegatingDecompressingPostProcessor;
+import org.springframework.amqp.support.postprocessor.GZipPostProcessor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import org.autocs.core.serializer.Jackson2SmileMessageConverter;
 
 /**
  * RabbitMQ configuration class.
+ * It is disabled by the local profile, which replaces RabbitMQ with
+ * an in-memory runs queue.
  *
  * @author Ibrahem Mouhamad
  * @since Engine Package 1.0.0
  */
 
 @Configuration
+@Profile("!local")
 public class RabbitMQConfig {
 
     @Value("${spring.rabbitmq.queue}")
@@ -53,6 +64,21 @@ public class RabbitMQConfig {
     @Value("${spring.rabbitmq.host}")
     private String host;
 
+    @Value("${spring.rabbitmq.message_format:json}")
+    private String messageFormat;
+
+    @Value("${spring.rabbitmq.compress_messages:false}")
+    private boolean compressMessages;
+
+    @Value("${engine.consumers.min}")
+    private int minConsumers;
+
+    @Value("${engine.consumers.max}")
+    private int maxConsumers;
+
+    @Value("${engine.consumers.prefetch}")
+    private int prefetch;
+
     @Bean
     Queue queue() {
         return new Queue(queue, true);
@@ -80,16 +106,57 @@ public class RabbitMQConfig {
         return cachingConnectionFactory;
     }
 
-    @Bean
-    public MessageConverter jsonMessageConverter() {
+    private MessageConverter jsonMessageConverter() {
         ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
         return new Jackson2JsonMessageConverter(mapper);
     }
 
+    /**
+     * Converter of the received messages, it reads them according to their
+     * content type so both JSON and Smile messages are accepted.
+     */
+    @Bean
+    public MessageConverter messageConverter() {
+        final ContentTypeDelegatingMessageConverter converter = new ContentTypeDelegatingMessageConverter(
+                jsonMessageConverter());
+        converter.addDelegate(Jackson2SmileMessageConverter.CONTENT_TYPE_SMILE, new Jackson2SmileMessageConverter());
+        return converter;
+    }
+
+    /**
+     * Sends the messages in the configured format. The JSON format is the
+     * default, so the consumers which do not support Smile or compressed
+     * messages keep working; Smile and compression must only be enabled once
+     * every consumer decodes them. Compressed messages are marked with a
+     * content encoding header.
+     */
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         final RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
-        rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        rabbitTemplate.setMessageConverter("smile".equalsIgnoreCase(messageFormat)
+                ? new Jackson2SmileMessageConverter()
+                : jsonMessageConverter());
+        if (compressMessages) {
+            rabbitTemplate.setBeforePublishPostProcessors(new GZipPostProcessor());
+        }
         return rabbitTemplate;
     }
+
+    /**
+     * Listener container factory of the runs queue. Each consumer executes one
+     * scenario run at a time, so the prefetch is kept low to let idle consumers
+     * (and other engines) take the pending runs.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        final SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setMessageConverter(messageConverter());
+        factory.setAfterReceivePostProcessors(new DelegatingDecompressingPostProcessor());
+        factory.setConcurrentConsumers(minConsumers);
+        factory.setMaxConcurrentConsumers(Math.max(minConsumers, maxConsumers));
+        factory.setPrefetchCount(prefetch);
+        return factory;
+    }
 }
@@ -0,0 +1,43 @@
+/*
+ * Title:        Engine Package
+ * Description:  Engine package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.engine.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import org.autocs.core.model.ScenarioRun;
+import org.autocs.engine.service.LocalRunsQueue;
+
+/**
+ * Runs endpoint of the local profile, which replaces the RabbitMQ runs queue
+ *
+ * @author Ibrahem Mouhamad
+ * @since Engine Package 1.0.0
+ */
+
+@RestController
+@Profile("local")
+public class LocalRunsController {
+
+    @Autowired
+    private LocalRunsQueue localRunsQueue;
+
+    @PostMapping("/runs")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ScenarioRun create(@RequestBody ScenarioRun scenarioRun) {
+        localRunsQueue.send(scenarioRun);
+        return scenarioRun;
+    }
+}
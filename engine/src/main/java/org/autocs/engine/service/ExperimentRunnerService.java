@@ -10,7 +10,6 @@
 package org.autocs.engine.service;
 
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -29,24 +28,43 @@ import org.autocs.core.model.ScenarioRun;
 public class ExperimentRunnerService {
 
     @Autowired
-    private RabbitTemplate rabbitTemplate;
+    private ResultPublisher resultPublisher;
 
-    @Value("${spring.rabbitmq.results_exchange}")
-    private String exchange;
+    @Value("${engine.experiments.parallelism}")
+    private int parallelism;
 
-    @Value("${spring.rabbitmq.results_routingkey}")
-    private String routingKey;
+    @Value("${engine.consumers.max}")
+    private int maxConsumers;
+
+    @Value("${engine.progress.interval}")
+    private long progressInterval;
 
     public void sendResult(ScenarioRun scenarioRun) {
-        rabbitTemplate.convertAndSend(exchange, routingKey, scenarioRun);
+        resultPublisher.publish(scenarioRun);
     }
 
     @RabbitListener(queues = "${spring.rabbitmq.queue}")
     public void run(ScenarioRun scenarioRun) {
-        AutoCSExperimentRunner runner = new AutoCSExperimentRunner(9075098589732L, scenarioRun);
+        AutoCSExperimentRunner runner = new AutoCSExperimentRunner(9075098589732L, scenarioRun, getCpuBudget());
+        if (progressInterval > 0) {
+            runner.setProgressListener(resultPublisher::publishProgress, progressInterval);
+        }
         // run scenario
         runner.setVerbose(true).run();
         // return results
         sendResult(scenarioRun);
     }
+
+    /**
+     * Gets the number of experiments a consumer may run at the same time. When
+     * it is not configured, the available processors are shared between the
+     * maximum number of consumers so concurrent runs do not oversubscribe the
+     * host.
+     */
+    public int getCpuBudget() {
+        if (parallelism > 0) {
+            return parallelism;
+        }
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / Math.max(1, maxConsumers));
+    }
 }
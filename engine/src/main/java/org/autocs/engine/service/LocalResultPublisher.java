@@ -0,0 +1,56 @@
+/*
+ * Title:        Engine Package
+ * Description:  Engine package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.engine.service;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.autocs.core.model.ScenarioRun;
+import org.autocs.core.model.ScenarioRunProgress;
+import org.autocs.core.service.ScenarioRunService;
+
+/**
+ * Local stand-in of the results queue. It stores the scenario run results
+ * in the runs workspace, as the backend does when it receives them. Since
+ * there is no backend to stream the progress to, it is printed instead.
+ *
+ * @author Ibrahem Mouhamad
+ * @since Engine Package 1.0.0
+ */
+
+@Service
+@Profile("local")
+public class LocalResultPublisher implements ResultPublisher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalResultPublisher.class.getSimpleName());
+
+    @Autowired
+    private ScenarioRunService scenarioRunService;
+
+    @Override
+    public void publish(ScenarioRun scenarioRun) {
+        try {
+            scenarioRunService.update("runs", scenarioRun);
+        } catch (IOException e) {
+            LOGGER.error("Could not store the results of the run {}", scenarioRun.getId(), e);
+        }
+    }
+
+    @Override
+    public void publishProgress(ScenarioRunProgress progress) {
+        LOGGER.info("Run {}: {}/{} experiments finished, experiment {} at {} s ({} events/s)",
+                progress.getRunId(), progress.getFinishedRuns(), progress.getRunsNumber(),
+                progress.getExperimentIndex(), progress.getClock(), Math.round(progress.getEventsPerSecond()));
+    }
+}
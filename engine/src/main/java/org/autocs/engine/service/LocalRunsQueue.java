@@ -0,0 +1,60 @@
+/*
+ * Title:        Engine Package
+ * Description:  Engine package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.engine.service;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.autocs.core.model.ScenarioRun;
+
+/**
+ * Local stand-in of the RabbitMQ runs queue, used to run the engine without
+ * a broker. Pending runs are kept in memory and executed by up to
+ * {@code engine.consumers.max} consumers, which stop when they are idle.
+ *
+ * @author Ibrahem Mouhamad
+ * @since Engine Package 1.0.0
+ */
+
+@Service
+@Profile("local")
+public class LocalRunsQueue {
+
+    @Autowired
+    private ExperimentRunnerService experimentRunnerService;
+
+    private final ExecutorService consumers;
+
+    public LocalRunsQueue(@Value("${engine.consumers.max}") int maxConsumers) {
+        final int consumersNumber = Math.max(1, maxConsumers);
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(consumersNumber, consumersNumber,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new CustomizableThreadFactory("local-runs-"));
+        executor.allowCoreThreadTimeOut(true);
+        this.consumers = executor;
+    }
+
+    public void send(ScenarioRun scenarioRun) {
+        consumers.execute(() -> experimentRunnerService.run(scenarioRun));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        consumers.shutdownNow();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Title:        Engine Package
+ * Description:  Engine package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.engine.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.autocs.core.model.ScenarioRun;
+import org.autocs.core.model.ScenarioRunProgress;
+
+/**
+ * Publishes the scenario run results to the RabbitMQ results exchange. The
+ * progress of running scenarios is published to the same exchange with its
+ * own routing key.
+ *
+ * @author Ibrahem Mouhamad
+ * @since Engine Package 1.0.0
+ */
+
+@Service
+@Profile("!local")
+public class RabbitMQResultPublisher implements ResultPublisher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RabbitMQResultPublisher.class.getSimpleName());
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Value("${spring.rabbitmq.results_exchange}")
+    private String exchange;
+
+    @Value("${spring.rabbitmq.results_routingkey}")
+    private String routingKey;
+
+    @Value("${spring.rabbitmq.progress_routingkey}")
+    private String progressRoutingKey;
+
+    @Override
+    public void publish(ScenarioRun scenarioRun) {
+        rabbitTemplate.convertAndSend(exchange, routingKey, scenarioRun);
+    }
+
+    @Override
+    public void publishProgress(ScenarioRunProgress progress) {
+        // progress messages are best effort, they must not stop the simulation
+        try {
+            rabbitTemplate.convertAndSend(exchange, progressRoutingKey, progress);
+        } catch (AmqpException e) {
+            LOGGER.warn("Could not publish the progress of the run {}", progress.getRunId(), e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * Title:        Engine Package
+ * Description:  Engine package of Auto Cloud Simulator (AutoCS)
+ * License:      MIT
+ *
+ * Copyright (C) 2022 Ibrahem Mouhamad
+ * Email: ibrahem.y.mouhamad@gmail.com
+ */
+
+package org.autocs.engine.service;
+
+import org.autocs.core.model.ScenarioRun;
+import org.autocs.core.model.ScenarioRunProgress;
+
+/**
+ * Publishes the progress and the results of scenario runs to the backend
+ *
+ * @author Ibrahem Mouhamad
+ * @since Engine Package 1.0.0
+ */
+
+public interface ResultPublisher {
+
+    void publish(ScenarioRun scenarioRun);
+
+    void publishProgress(ScenarioRunProgress progress);
+}
@@ -13,11 +13,12 @@ import {
 import { ListPageToolbar, BulkActionToolbar } from '../toolbar';
 
 const DefaultListPage = (props): JSX.Element => {
-    const { rowClick, children } = props;
+    const { rowClick, filter, children } = props;
 
     return (
         <List
             actions={<ListPageToolbar />}
+            filter={filter}
         >
             <Datagrid
                 rowClick={rowClick}
@@ -38,6 +38,12 @@ export const getOrderingQuery = (sort: SortPayload): {} => {
     };
 };
 
+// the list endpoints return a single page and the number of matching records
+const getTotal = (headers: Headers, json: any[]): number => {
+    const total = headers.get('X-Total-Count');
+    return total === null ? json.length : parseInt(total, 10);
+};
+
 export default <DataProvider>{
     getList: async (resource, params) => {
         const query = {
@@ -47,10 +53,10 @@ export default <DataProvider>{
         };
 
         const url = baseUrl(`/${resource}?${stringify(query)}`);
-        const { json } = await fetchUtils.fetchJson(url);
+        const { headers, json } = await fetchUtils.fetchJson(url);
         return {
             data: json,
-            total: json.length,
+            total: getTotal(headers, json),
         };
     },
 
@@ -84,10 +90,10 @@ export default <DataProvider>{
             [params.target]: params.id,
         };
         const url = baseUrl(`/${resource}?${stringify(query)}`);
-        const { json } = await fetchUtils.fetchJson(url);
+        const { headers, json } = await fetchUtils.fetchJson(url);
         return {
             data: json,
-            total: json.length,
+            total: getTotal(headers, json),
         };
     },
 
@@ -2,10 +2,17 @@
 //
 // SPDX-License-Identifier: MIT
 
-import React, { useState } from 'react';
+import React, { useEffect, useState } from 'react';
 import Grid from '@mui/material/Grid';
 import get from 'lodash/get';
-import { useRecordContext, SelectInput, Form } from 'react-admin';
+import {
+    useRecordContext,
+    SelectInput,
+    Form,
+    fetchUtils,
+} from 'react-admin';
+
+import { baseUrl } from '../dataProvider';
 
 import {
     CpuUtilization,
@@ -30,15 +37,30 @@ const DatacenterSelector = ({ datacenters, setSelectedDatacenter }): JSX.Element
     </Form>
 );
 
+// the maximum number of points of the charts
+const HISTORY_POINTS = 1000;
+
 const DatacenterMetrics = (): JSX.Element | null => {
     const [selectedDatacenter, setSelectedDatacenter] = useState('');
+    const [history, setHistory] = useState(null);
     const record = useRecordContext();
+    const runId = record ? record.id : null;
+
+    // the history is loaded apart from the run, for the selected datacenter only
+    useEffect(() => {
+        setHistory(null);
+        if (runId == null || !selectedDatacenter) {
+            return;
+        }
+        const url = baseUrl(`/runs/${runId}/metrics/${encodeURIComponent(selectedDatacenter)}?points=${HISTORY_POINTS}`);
+        fetchUtils.fetchJson(url).then(({ json }) => setHistory(json));
+    }, [runId, selectedDatacenter]);
+
     if (!record || record.id == null || record.metrics == null || record.metrics.datacentersMetrics == null) {
         return null;
     }
 
-    const datacenters = get(record, 'scenario.provider.datacenters').map((datacenter) => ({ id: datacenter.id, name: datacenter.name }));
-    const metrics = get(record, 'metrics.datacentersMetrics').find((datacenterMetrics) => datacenterMetrics.name === selectedDatacenter);
+    const datacenters = get(record, 'metrics.datacentersMetrics').map((datacenterMetrics) => ({ id: datacenterMetrics.name, name: datacenterMetrics.name }));
 
     return datacenters ? (
         <>
@@ -47,18 +69,18 @@ const DatacenterMetrics = (): JSX.Element | null => {
                 setSelectedDatacenter={setSelectedDatacenter}
             />
             {
-                selectedDatacenter && metrics && (
+                selectedDatacenter && history && (
                     <>
-                        <CpuUtilization data={metrics.history} />
+                        <CpuUtilization data={history} />
                         <Grid container>
                             <Grid item md={6} sm={12} xs={12}>
-                                <RamUtilization data={metrics.history} />
+                                <RamUtilization data={history} />
                             </Grid>
                             <Grid item md={6} sm={12} xs={12}>
-                                <BwUtilization data={metrics.history} />
+                                <BwUtilization data={history} />
                             </Grid>
                             <Grid item md={6} sm={12} xs={12}>
-                                <ActiveHostsNumber data={metrics.history} />
+                                <ActiveHostsNumber data={history} />
                             </Grid>
                         </Grid>
                     </>
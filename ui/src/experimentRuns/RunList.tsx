@@ -6,7 +6,7 @@ import React from 'react';
 import { DefaultListPage, GridActionToolbar } from '../common';
 
 const ScenarioList = (): JSX.Element => (
-    <DefaultListPage rowClick='show'>
+    <DefaultListPage rowClick='show' filter={{ view: 'summary' }}>
         <GridActionToolbar DetailsComponent={null} />
     </DefaultListPage>
 );